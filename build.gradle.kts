@@ -24,6 +24,7 @@ dependencies {
     implementation("com.fifesoft:rsyntaxtextarea:3.5.4")
     jflexConfiguration("de.jflex:jflex:1.9.1")
     implementation("info.picocli:picocli:4.7.6")
+    annotationProcessor("info.picocli:picocli-codegen:4.7.6")
 
     testCompileOnly("org.jetbrains:annotations:24.0.0")
     testImplementation("org.hamcrest:hamcrest:2.2")
@@ -41,6 +42,8 @@ description = "RARS Nova"
 tasks {
     compileJava {
         options.encoding = "UTF-8"
+        // Makes picocli-codegen generate the native image configuration of the CLI options
+        options.compilerArgs.add("-Aproject=${project.group}/rars-nova")
     }
     shadowJar {
         archiveBaseName.set("rars-nova")
@@ -85,6 +88,69 @@ sourceSets.main {
     java.srcDirs("src/main/java", "src/generated/java")
 }
 
+// region CDS
+
+// The archive holds the classes loaded by a headless training run, already
+// parsed and verified, which considerably cuts the startup time of short CLI
+// runs. It is only valid for the JVM that created it and the exact same jar.
+val cdsArchive = tasks.register<Exec>("cdsArchive") {
+    group = "build"
+    description = "Creates an AppCDS archive for the shadow jar from a headless training run."
+    dependsOn(tasks.shadowJar)
+    val jarFile = tasks.shadowJar.flatMap { it.archiveFile }
+    val archiveFile = jarFile.map { it.asFile.resolveSibling("rars-nova.jsa") }
+    val trainingProgram = file("examples/cat.s")
+    inputs.file(jarFile)
+    inputs.file(trainingProgram)
+    outputs.file(archiveFile)
+    standardInput = java.io.ByteArrayInputStream(ByteArray(0))
+    doFirst {
+        // a stale archive must not pass for the new one if the training run fails to write it
+        archiveFile.get().delete()
+        commandLine(
+            File(System.getProperty("java.home"), "bin/java").absolutePath,
+            "-XX:ArchiveClassesAtExit=${archiveFile.get().absolutePath}",
+            "-Djava.awt.headless=true",
+            "-jar", jarFile.get().asFile.absolutePath,
+            "--no-gui", "-f", trainingProgram.absolutePath
+        )
+    }
+    // the JVM only warns if it cannot dump the archive
+    doLast {
+        if (!archiveFile.get().isFile) {
+            throw GradleException("The training run did not create ${archiveFile.get()}.")
+        }
+    }
+}
+
+// endregion CDS
+
+// region Native image
+
+// Compiles the command line interface ahead of time with GraalVM. The GUI is
+// not reachable from rars.HeadlessMain, so it is left out of the executable.
+// The configuration the image needs is in META-INF/native-image.
+val nativeImage = tasks.register<Exec>("nativeImage") {
+    group = "build"
+    description = "Builds a headless native executable of the CLI with GraalVM's native-image."
+    dependsOn(tasks.shadowJar)
+    val jarFile = tasks.shadowJar.flatMap { it.archiveFile }
+    val outputFile = jarFile.map { it.asFile.resolveSibling("rars-nova") }
+    inputs.file(jarFile)
+    outputs.file(outputFile)
+    doFirst {
+        val graalHome = System.getenv("GRAALVM_HOME") ?: System.getProperty("java.home")
+        commandLine(
+            File(graalHome, "bin/native-image").absolutePath,
+            "-cp", jarFile.get().asFile.absolutePath,
+            "-o", outputFile.get().absolutePath,
+            "rars.HeadlessMain"
+        )
+    }
+}
+
+// endregion Native image
+
 // region JFlex
 
 // region Utils
@@ -3,13 +3,16 @@ package rars;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import rars.assembler.SymbolTable;
+import rars.riscv.hardware.DeviceBus;
 import rars.riscv.hardware.InterruptController;
 import rars.riscv.hardware.Memory;
 import rars.riscv.hardware.MemoryConfiguration;
 import rars.riscv.hardware.registerFiles.CSRegisterFile;
 import rars.riscv.hardware.registerFiles.FloatingPointRegisterFile;
 import rars.riscv.hardware.registerFiles.RegisterFile;
-import rars.settings.*;
+import rars.settings.BoolSettings;
+import rars.settings.GuiSettings;
+import rars.settings.OtherSettings;
 import rars.simulator.Simulator;
 import rars.venus.VenusUI;
 
@@ -88,6 +91,8 @@ public final class Globals {
     public static final @NotNull CSRegisterFile CS_REGISTER_FILE;
     public static final @NotNull Simulator SIMULATOR;
     public static final @NotNull InterruptController INTERRUPT_CONTROLLER;
+    /// Memory-mapped devices and the scheduler of their events.
+    public static final @NotNull DeviceBus DEVICE_BUS;
     ///  Floating point register file for the RARS simulator.
     public static @NotNull FloatingPointRegisterFile FP_REGISTER_FILE;
     /// Flag to determine whether to produce internal debugging information.
@@ -100,24 +105,21 @@ public final class Globals {
     /// The program currently being worked with. Used by GUI only, not command line.
     public static @Nullable RISCVProgram program;
 
+    /// Preferences node shared by all the settings classes.
+    /// The GUI-only settings live in {@link GuiSettings}.
+    public static final @NotNull Preferences SETTINGS_PREFERENCES;
     public static @NotNull OtherSettings OTHER_SETTINGS;
     public static @NotNull BoolSettings BOOL_SETTINGS;
-    public static @NotNull EditorThemeSettings EDITOR_THEME_SETTINGS;
-    public static @NotNull FontSettings FONT_SETTINGS;
-    public static @NotNull HighlightingSettings HIGHLIGHTING_SETTINGS;
 
     public static @NotNull Memory MEMORY_INSTANCE;
 
     static {
         SIMULATOR = new Simulator();
 
-        final var settingsPreferences = Preferences.userRoot().node("/rars/settings");
+        SETTINGS_PREFERENCES = Preferences.userRoot().node("/rars/settings");
 
-        OTHER_SETTINGS = new OtherSettings(settingsPreferences);
-        BOOL_SETTINGS = new BoolSettings(settingsPreferences);
-        EDITOR_THEME_SETTINGS = new EditorThemeSettings(settingsPreferences);
-        FONT_SETTINGS = new FontSettings(settingsPreferences);
-        HIGHLIGHTING_SETTINGS = new HighlightingSettings(settingsPreferences);
+        OTHER_SETTINGS = new OtherSettings(SETTINGS_PREFERENCES);
+        BOOL_SETTINGS = new BoolSettings(SETTINGS_PREFERENCES);
 
         final var initialMemoryConfiguration = OTHER_SETTINGS.getMemoryConfiguration();
 
@@ -129,6 +131,7 @@ public final class Globals {
         CS_REGISTER_FILE = new CSRegisterFile();
 
         INTERRUPT_CONTROLLER = new InterruptController(SIMULATOR, REGISTER_FILE);
+        DEVICE_BUS = new DeviceBus();
     }
 
     private Globals() {
@@ -0,0 +1,28 @@
+package rars;
+
+import picocli.CommandLine;
+import rars.api.ProgramOptions;
+
+/**
+ * Command line only entry point. It accepts the same options as {@link Main},
+ * except that {@code --gui} is ignored and the program is always assembled
+ * and run from the command line.
+ * <p>
+ * Since the graphical interface is not reachable from here, this is the
+ * entry point to use when compiling RARS ahead of time (e.g. as a GraalVM
+ * native image) or when running it on machines without a display.
+ */
+public final class HeadlessMain {
+    private HeadlessMain() {
+    }
+
+    public static void main(final String[] args) {
+        final var programArgs = new ProgramOptions();
+        new CommandLine(programArgs).execute(args);
+        if (programArgs.showHelp) {
+            CommandLine.usage(programArgs, System.out);
+        } else {
+            Main.runFromCommandLine(programArgs);
+        }
+    }
+}
@@ -7,23 +7,49 @@ import picocli.CommandLine;
 import rars.api.Program;
 import rars.api.ProgramOptions;
 import rars.assembler.DataTypes;
+import rars.branch.BranchPredictorEngine;
+import rars.branch.BranchPredictorReport;
+import rars.branch.BranchTraceReplay;
+import rars.cache.CacheReport;
+import rars.cache.CacheSweep;
+import rars.elf.ElfFile;
 import rars.exceptions.AddressErrorException;
 import rars.exceptions.AssemblyException;
 import rars.exceptions.SimulationException;
+import rars.io.BitmapFrameRecorder;
+import rars.io.MmioConsole;
 import rars.riscv.InstructionsRegistry;
 import rars.riscv.hardware.Memory;
 import rars.riscv.hardware.MemoryUtils;
 import rars.settings.BoolSetting;
 import rars.simulator.Simulator;
+import rars.timing.InstructionStream;
+import rars.timing.PipelineModel;
+import rars.timing.PipelineReport;
+import rars.trace.MemoryTracer;
+import rars.trace.TraceBatch;
+import rars.trace.TraceReader;
+import rars.trace.TraceWriter;
 import rars.util.BinaryUtils;
 import rars.util.FilenameFinder;
+import rars.util.MemoryDump;
+import rars.util.Pair;
 import rars.util.RegisterUtils;
 import rars.venus.VenusUI;
 
 import javax.swing.*;
+import java.io.Closeable;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintStream;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import static rars.Globals.BOOL_SETTINGS;
@@ -67,28 +93,17 @@ public final class Main {
 
     private static final String rangeSeparator = "-";
     private static final int memoryWordsPerLine = 4; // display 4 memory words, tab separated, per line
+    /// Number of full instruction batches the asynchronous pipeline model may lag behind.
+    private static final int PIPELINE_QUEUE_CAPACITY = 16;
 
     private final @NotNull ProgramOptions programOptions;
     private final @NotNull PrintStream out; // stream for display of command line output
+    /// Files opened for the MMIO console, closed after the run.
+    private @NotNull List<@NotNull Closeable> mmioStreams = List.of();
 
     private Main(final @NotNull ProgramOptions programOptions) {
         this.programOptions = programOptions;
         this.out = programOptions.printToStdErr ? System.err : System.out;
-
-        Globals.setupGlobalMemoryConfiguration(this.programOptions.memoryConfiguration);
-
-        if (this.programOptions.gui) {
-            Main.launchIDE(programOptions);
-        } else {
-            // running from command line.
-            // assure command mode works in headless environment (generates exception if
-            // not)
-            System.setProperty("java.awt.headless", "true");
-
-            this.runCommand();
-            // this.dumpSegments(this.runCommand());
-            System.exit(Globals.exitCode);
-        }
     }
 
     public static void main(final String[] args) {
@@ -96,11 +111,31 @@ public final class Main {
         new CommandLine(programArgs).execute(args);
         if (programArgs.showHelp) {
             CommandLine.usage(programArgs, System.out);
+        } else if (programArgs.gui) {
+            Globals.setupGlobalMemoryConfiguration(programArgs.memoryConfiguration);
+            Main.launchIDE(programArgs);
         } else {
-            new Main(programArgs);
+            Main.runFromCommandLine(programArgs);
         }
     }
 
+    /**
+     * Assembles and optionally runs the program described by the options,
+     * then exits with the program's exit code. Nothing on this path touches
+     * the GUI, which is what allows {@link HeadlessMain} to be compiled
+     * without it.
+     */
+    static void runFromCommandLine(final @NotNull ProgramOptions programOptions) {
+        // assure command mode works in headless environment (generates exception if
+        // not)
+        System.setProperty("java.awt.headless", "true");
+        Globals.setupGlobalMemoryConfiguration(programOptions.memoryConfiguration);
+
+        final var main = new Main(programOptions);
+        main.dumpSegments(main.runCommand());
+        System.exit(Globals.exitCode);
+    }
+
     /**
      * Check for memory address subrange. Has to be two integers separated
      * by "-"; no embedded spaces. e.g. 0x00400000-0x00400010
@@ -145,60 +180,52 @@ public final class Main {
         SwingUtilities.invokeLater(() -> Globals.GUI = new VenusUI("RARS " + Globals.version, options.files));
     }
 
-    // /**
-    //  * Perform any specified dump operations. See "dump" option.
-    //  */
-    // private void dumpSegments(final @Nullable Program program) {
-    //     if (this.dumpTriples == null || program == null) {
-    //         return;
-    //     }
-    //
-    //     for (final String[] triple : this.dumpTriples) {
-    //         final File file = new File(triple[2]);
-    //         var segmentBounds = MemoryDump.getSegmentBounds(triple[0]);
-    //         // If not segment name, see if it is address range instead. DPS 14-July-2008
-    //         if (segmentBounds == null) {
-    //             try {
-    //                 final String[] memoryRange = Main.checkMemoryAddressRange(triple[0]);
-    //                 segmentBounds = new Pair<>(
-    //                     BinaryUtils.stringToInt(memoryRange[0]),
-    //                     BinaryUtils.stringToInt(memoryRange[1])
-    //                 );
-    //             } catch (final NumberFormatException |
-    //                 NullPointerException ignored) {
-    //             }
-    //         }
-    //         if (segmentBounds == null) {
-    //             this.out.println("Error while attempting to save dump, segment/address-range " + triple[0] + " is " +
-    //                 "invalid!");
-    //             continue;
-    //         }
-    //         final DumpFormat format = DumpFormats.findDumpFormatGivenCommandDescriptor(triple[1]);
-    //         if (format == null) {
-    //             this.out.println("Error while attempting to save dump, format " + triple[1] + " was not found!");
-    //             continue;
-    //         }
-    //         try {
-    //             final int highAddress = program.getMemory().getAddressOfFirstNull(
-    //                 segmentBounds.first(),
-    //                 segmentBounds.second()
-    //             )
-    //                 - DataTypes.WORD_SIZE;
-    //             if (highAddress < segmentBounds.first()) {
-    //                 this.out.println("This segment has not been written to, there is nothing to dump.");
-    //                 continue;
-    //             }
-    //             format.dumpMemoryRange(file, segmentBounds.first(), highAddress, program.getMemory());
-    //         } catch (final FileNotFoundException e) {
-    //             this.out.println("Error while attempting to save dump, file " + file + " was not found!");
-    //         } catch (final AddressErrorException e) {
-    //             this.out.println("Error while attempting to save dump, file " + file + "!  Could not access address: "
-    //                 + e.address + "!");
-    //         } catch (final IOException e) {
-    //             this.out.println("Error while attempting to save dump, file " + file + "!  Disk IO failed!");
-    //         }
-    //     }
-    // }
+    /**
+     * Perform any specified dump operations. See "dump" option.
+     */
+    private void dumpSegments(final @Nullable Program program) {
+        if (program == null) {
+            return;
+        }
+        for (final var dump : this.programOptions.memoryDumps) {
+            final File file = dump.file();
+            var segmentBounds = MemoryDump.getSegmentBounds(dump.segment());
+            // If not segment name, see if it is address range instead. DPS 14-July-2008
+            if (segmentBounds == null) {
+                try {
+                    final String[] memoryRange = Main.checkMemoryAddressRange(dump.segment());
+                    if (memoryRange != null) {
+                        segmentBounds = new Pair<>(
+                            BinaryUtils.stringToInt(memoryRange[0]),
+                            BinaryUtils.stringToInt(memoryRange[1])
+                        );
+                    }
+                } catch (final NumberFormatException ignored) {
+                }
+            }
+            if (segmentBounds == null) {
+                this.out.println("Error while attempting to save dump, segment/address-range " + dump.segment() +
+                    " is invalid!");
+                continue;
+            }
+            try {
+                final int highAddress = program.getMemory().getAddressOfFirstNull(
+                    segmentBounds.first(),
+                    segmentBounds.second()
+                ) - DataTypes.WORD_SIZE;
+                if (highAddress < segmentBounds.first()) {
+                    this.out.println("This segment has not been written to, there is nothing to dump.");
+                    continue;
+                }
+                dump.format().dumpMemoryRange(file, segmentBounds.first(), highAddress, program.getMemory());
+            } catch (final AddressErrorException e) {
+                this.out.println("Error while attempting to save dump, file " + file + "!  Could not access address: "
+                    + e.address + "!");
+            } catch (final IOException e) {
+                this.out.println("Error while attempting to save dump, file " + file + "!  Disk IO failed!");
+            }
+        }
+    }
 
     private void displayAllPostMortem(final @NotNull Program program) {
         this.displayMiscellaneousPostMortem();
@@ -206,16 +233,8 @@ public final class Main {
         this.displayMemoryPostMortem(program.getMemory());
     }
 
-    /** Carry out the RARS command: assemble then optionally run */
-    private @Nullable Program runCommand() {
-        if (this.programOptions.files.isEmpty()) {
-            return null;
-        }
-
-        BOOL_SETTINGS.setSetting(BoolSetting.RV64_ENABLED, this.programOptions.isRV64);
-        InstructionsRegistry.RV64_MODE_FLAG = this.programOptions.isRV64;
-
-        final var mainFile = this.programOptions.files.getFirst().getAbsoluteFile();
+    /** @return whether the files were assembled without errors */
+    private boolean assembleFiles(final @NotNull Program program, final @NotNull File mainFile) {
         final @NotNull List<@NotNull File> filesToAssemble;
         if (this.programOptions.isProjectMode) {
             final var allFoundProjectFiles = FilenameFinder.getFilenameListForDirectory(
@@ -245,7 +264,6 @@ public final class Main {
             // filtering this list when we don't want to assemble everything in a file is nonsense
             filesToAssemble = this.programOptions.files;
         }
-        final Program program = new Program(this.programOptions);
         try {
             if (Globals.debug) {
                 this.out.println("---  TOKENIZING & ASSEMBLY BEGINS  ---");
@@ -258,11 +276,119 @@ public final class Main {
             Globals.exitCode = this.programOptions.assemblyErrorCode;
             this.out.println(e.errors.generateErrorAndWarningReport());
             this.out.println("Processing terminated due to errors.");
+            return false;
+        }
+        return true;
+    }
+
+    /** Loads an executable given in place of source files. @return whether it was loaded */
+    private boolean loadExecutable(final @NotNull Program program, final @NotNull File file) {
+        if (this.programOptions.files.size() > 1 || this.programOptions.isProjectMode) {
+            Globals.exitCode = this.programOptions.assemblyErrorCode;
+            this.out.println("An executable must be the only file given.");
+            return false;
+        }
+        try {
+            final var loaded = program.loadElf(file);
+            if (loaded.hasDataInText() && !this.programOptions.selfModifyingCode) {
+                this.out.println("Warning: " + file + " has data in the text segment, "
+                    + "which can only be read with --self-modifying-code.");
+            }
+            return true;
+        } catch (final IOException e) {
+            Globals.exitCode = this.programOptions.assemblyErrorCode;
+            this.out.println("Error while loading the executable: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /** Writes the program to the files given with the export options. */
+    private void exportProgram(final @NotNull Program program) {
+        final var elfFile = this.programOptions.elfExportFile;
+        if (elfFile != null) {
+            try {
+                program.writeElf(elfFile);
+            } catch (final IOException e) {
+                this.out.println("Error while attempting to export the program, file " + elfFile +
+                    " could not be written!");
+            }
+        }
+        final var binaryFile = this.programOptions.flatBinaryExportFile;
+        if (binaryFile != null) {
+            final var mapFile = new File(binaryFile.getPath() + ".map.json");
+            try {
+                program.writeFlatBinary(binaryFile, mapFile);
+            } catch (final IOException e) {
+                this.out.println("Error while attempting to export the program, file " + binaryFile + " or " +
+                    mapFile + " could not be written!");
+            }
+        }
+    }
+
+    /** Carry out the RARS command: assemble then optionally run */
+    private @Nullable Program runCommand() {
+        if (this.programOptions.fromTraceFile != null) {
+            this.analyzeTrace(this.programOptions.fromTraceFile);
+            return null;
+        }
+        if (this.programOptions.files.isEmpty()) {
+            return null;
+        }
+
+        BOOL_SETTINGS.setSetting(BoolSetting.RV64_ENABLED, this.programOptions.isRV64);
+        InstructionsRegistry.RV64_MODE_FLAG = this.programOptions.isRV64;
+
+        final var mainFile = this.programOptions.files.getFirst().getAbsoluteFile();
+        final Program program = new Program(this.programOptions);
+        final var isLoaded = ElfFile.isElf(mainFile.toPath())
+            ? this.loadExecutable(program, mainFile)
+            : this.assembleFiles(program, mainFile);
+        if (!isLoaded) {
             return null;
         }
+        this.exportProgram(program);
         // Setup for program simulation even if just assembling to prepare memory dumps
         program.setup(this.programOptions.programArgs, null);
+        final @Nullable CacheSweep cacheSweep = this.programOptions.caches.isEmpty()
+            ? null
+            : new CacheSweep(this.programOptions.caches);
+        final @Nullable TraceWriter traceWriter;
+        try {
+            traceWriter = this.programOptions.traceFile == null
+                ? null
+                : new TraceWriter(this.programOptions.traceFile.toPath(), this.programOptions.traceCompression);
+        } catch (final IOException e) {
+            this.out.println("Error while attempting to record the trace, file " + this.programOptions.traceFile +
+                " could not be opened!");
+            return null;
+        }
+        final @Nullable Consumer<TraceBatch> traceSink = Stream.<Consumer<TraceBatch>>of(cacheSweep, traceWriter)
+            .filter(Objects::nonNull)
+            .reduce(Consumer::andThen)
+            .orElse(null);
+        final @Nullable MemoryTracer tracer = traceSink == null ? null : new MemoryTracer(traceSink);
+        program.getMemory().setTracer(tracer);
+        final @Nullable BranchPredictorEngine branchPredictorEngine = this.programOptions.branchPredictors.isEmpty()
+            ? null
+            : new BranchPredictorEngine(this.programOptions.branchPredictors);
+        Globals.SIMULATOR.setBranchListener(branchPredictorEngine);
+        final @Nullable PipelineModel pipelineModel = this.createPipelineModel();
         if (!this.programOptions.assembleOnly) {
+            final @Nullable MmioConsole mmioConsole;
+            try {
+                mmioConsole = this.attachMmioConsole();
+            } catch (final IOException | AddressErrorException e) {
+                this.out.println("Error while attempting to attach the MMIO console: " + e.getMessage());
+                return null;
+            }
+            final @Nullable BitmapFrameRecorder bitmapFrameRecorder = this.createBitmapFrameRecorder(program);
+            program.setBitmapFrameRecorder(bitmapFrameRecorder);
+            // created last, so that it is closed on every path once its worker thread is running
+            final @Nullable InstructionStream instructionStream = pipelineModel != null
+                && this.programOptions.pipelineAsync
+                ? new InstructionStream(pipelineModel, PIPELINE_QUEUE_CAPACITY)
+                : null;
+            Globals.SIMULATOR.setInstructionListener(instructionStream != null ? instructionStream : pipelineModel);
             if (Globals.debug) {
                 this.out.println("--------  SIMULATION BEGINS  -----------");
             }
@@ -291,7 +417,46 @@ public final class Main {
                 this.out.println(e.errorMessage.generateReport());
                 this.out.println("Simulation terminated due to errors.");
             }
+            if (mmioConsole != null) {
+                this.closeMmioConsole(mmioConsole);
+            }
+            if (bitmapFrameRecorder != null) {
+                bitmapFrameRecorder.close();
+            }
+            if (instructionStream != null) {
+                instructionStream.close();
+                Globals.CS_REGISTER_FILE.updateRegisterBackdoor(
+                    Globals.CS_REGISTER_FILE.cycle,
+                    pipelineModel.getCycle()
+                );
+            }
             this.displayAllPostMortem(program);
+            if (tracer != null) {
+                tracer.flush();
+            }
+            if (cacheSweep != null) {
+                this.writeCacheReport(cacheSweep);
+            }
+            if (branchPredictorEngine != null) {
+                this.writeBranchReport(branchPredictorEngine);
+            }
+            if (pipelineModel != null) {
+                this.writeReport(
+                    this.programOptions.pipelineReportFile,
+                    "pipeline report",
+                    stream -> PipelineReport.write(stream, this.programOptions.reportFormat, pipelineModel)
+                );
+            }
+        }
+        Globals.SIMULATOR.setBranchListener(null);
+        Globals.SIMULATOR.setInstructionListener(null);
+        if (traceWriter != null) {
+            try {
+                traceWriter.close();
+            } catch (final IOException e) {
+                this.out.println("Error while attempting to record the trace, file " + this.programOptions.traceFile +
+                    " could not be written!");
+            }
         }
         if (Globals.debug) {
             this.out.println("\n--------  ALL PROCESSING COMPLETE  -----------");
@@ -299,13 +464,153 @@ public final class Main {
         return program;
     }
 
+    private @Nullable PipelineModel createPipelineModel() {
+        var configuration = this.programOptions.pipeline;
+        if (configuration == null) {
+            return null;
+        }
+        if (this.programOptions.pipelinePredictor != null) {
+            configuration = configuration.withPredictor(this.programOptions.pipelinePredictor);
+        }
+        return new PipelineModel(configuration.withCache(this.programOptions.pipelineCache));
+    }
+
+    /// Runs the analyses requested on the command line over a recorded trace.
+    private void analyzeTrace(final @NotNull File traceFile) {
+        if (this.programOptions.caches.isEmpty() && this.programOptions.branchPredictors.isEmpty()) {
+            this.out.println(
+                "No analysis requested for trace " + traceFile + ", use e.g. --cache or --branch-predictor.");
+            return;
+        }
+        final @Nullable CacheSweep cacheSweep = this.programOptions.caches.isEmpty()
+            ? null
+            : new CacheSweep(this.programOptions.caches);
+        final @Nullable BranchPredictorEngine branchPredictorEngine = this.programOptions.branchPredictors.isEmpty()
+            ? null
+            : new BranchPredictorEngine(this.programOptions.branchPredictors);
+        final @Nullable BranchTraceReplay branchReplay = branchPredictorEngine == null
+            ? null
+            : new BranchTraceReplay(branchPredictorEngine);
+        try (final var reader = new TraceReader(traceFile.toPath())) {
+            reader.forEach(batch -> {
+                if (cacheSweep != null) {
+                    cacheSweep.accept(batch);
+                }
+                if (branchReplay != null) {
+                    branchReplay.accept(batch);
+                }
+            });
+        } catch (final IOException e) {
+            this.out.println("Error while attempting to read trace " + traceFile + ": " + e.getMessage());
+            return;
+        }
+        if (cacheSweep != null) {
+            this.writeCacheReport(cacheSweep);
+        }
+        if (branchPredictorEngine != null) {
+            this.writeBranchReport(branchPredictorEngine);
+        }
+    }
+
+    /// Attaches the headless MMIO console if it was requested, with its files open.
+    private @Nullable MmioConsole attachMmioConsole() throws IOException, AddressErrorException {
+        if (!this.programOptions.mmioConsole) {
+            return null;
+        }
+        final var inputFile = this.programOptions.mmioInputFile;
+        final var outputFile = this.programOptions.mmioOutputFile;
+        final InputStream input = inputFile == null ? System.in : new FileInputStream(inputFile);
+        final OutputStream output;
+        try {
+            output = outputFile == null ? this.out : new FileOutputStream(outputFile);
+        } catch (final IOException e) {
+            if (inputFile != null) {
+                input.close();
+            }
+            throw e;
+        }
+        final var console = new MmioConsole(
+            Globals.DEVICE_BUS,
+            this.programOptions.memoryConfiguration.memoryMapBaseAddress,
+            input,
+            output,
+            this.programOptions.mmioDelay
+        );
+        console.attach();
+        this.mmioStreams = Stream.<Closeable>of(inputFile == null ? null : input, outputFile == null ? null : output)
+            .filter(Objects::nonNull)
+            .toList();
+        return console;
+    }
+
+    /// Creates the recorder for the bitmap display if frames were requested.
+    private @Nullable BitmapFrameRecorder createBitmapFrameRecorder(final @NotNull Program program) {
+        final var directory = this.programOptions.bitmapFramesDirectory;
+        if (directory == null) {
+            return null;
+        }
+        return new BitmapFrameRecorder(
+            Globals.DEVICE_BUS,
+            program.getMemory(),
+            directory.toPath(),
+            this.programOptions.bitmapFrameInterval
+        );
+    }
+
+    private void closeMmioConsole(final @NotNull MmioConsole console) {
+        try {
+            console.close();
+            for (final var stream : this.mmioStreams) {
+                stream.close();
+            }
+        } catch (final IOException e) {
+            this.out.println("Error while attempting to close the MMIO console: " + e.getMessage());
+        }
+    }
+
+    /// Writes the statistics of the simulated caches to the requested file or to the output.
+    private void writeCacheReport(final @NotNull CacheSweep cacheSweep) {
+        this.writeReport(
+            this.programOptions.cacheReportFile,
+            "cache report",
+            stream -> CacheReport.write(stream, this.programOptions.reportFormat, cacheSweep.getHierarchies())
+        );
+    }
+
+    /// Writes the accuracy of the evaluated branch predictors to the requested file or to the output.
+    private void writeBranchReport(final @NotNull BranchPredictorEngine branchPredictorEngine) {
+        this.writeReport(
+            this.programOptions.branchReportFile,
+            "branch prediction report",
+            stream -> BranchPredictorReport.write(stream, this.programOptions.reportFormat, branchPredictorEngine)
+        );
+    }
+
+    /// Writes a report to the given file, or to the output if there is none.
+    private void writeReport(
+        final @Nullable File reportFile,
+        final @NotNull String description,
+        final @NotNull Consumer<@NotNull PrintStream> writer
+    ) {
+        if (reportFile == null) {
+            writer.accept(this.out);
+            return;
+        }
+        try (final var stream = new PrintStream(reportFile)) {
+            writer.accept(stream);
+        } catch (final FileNotFoundException e) {
+            this.out.println("Error while attempting to save the " + description + ", file " + reportFile +
+                " could not be opened!");
+        }
+    }
+
     /**
      * Displays any specified runtime properties. Initially just instruction count
      * DPS 19 July 2012
      */
     private void displayMiscellaneousPostMortem() {
         if (this.programOptions.displayInstructionCount) {
-            this.out.println("\n" + RegisterUtils.getRegisterValue("cycle"));
+            this.out.println("\n" + RegisterUtils.getRegisterValue("instret"));
         }
     }
 
@@ -4,6 +4,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import rars.assembler.SourceLine;
 import rars.assembler.SymbolTable;
+import rars.assembler.Token;
 import rars.assembler.TokenList;
 import rars.assembler.TokenType;
 import rars.riscv.*;
@@ -65,6 +66,11 @@ public final class ProgramStatement implements Comparable<ProgramStatement> {
     private final @Nullable Instruction instruction;
     private final int textAddress;
     private String basicAssemblyStatement;
+    /**
+     * Tokens of the basic assembly statement, only built for pseudo-instructions
+     * so that their expansion does not have to tokenize the basic statement again.
+     */
+    private @Nullable TokenList basicTokenList;
     private String machineStatement;
     private int binaryStatement;
 
@@ -105,6 +111,7 @@ public final class ProgramStatement implements Comparable<ProgramStatement> {
         this.textAddress = textAddress;
         this.sourceLine = sourceLine;
         this.basicAssemblyStatement = null;
+        this.basicTokenList = null;
         this.basicStatementList = new BasicStatementList();
         this.machineStatement = null;
         this.binaryStatement = 0; // nop, or sll $0, $0, 0 (32 bits of 0's)
@@ -115,7 +122,8 @@ public final class ProgramStatement implements Comparable<ProgramStatement> {
      * instruction with no source code to refer back to. Originally supported
      * only NOP instruction (all zeroes), but extended in release 4.4 to support
      * all basic instructions. This was required for the self-modifying code
-     * feature.
+     * feature. A code that matches no basic instruction gives a statement
+     * without an instruction, which is illegal to execute.
      *
      * @param binaryStatement
      *     The 32-bit machine code.
@@ -133,10 +141,17 @@ public final class ProgramStatement implements Comparable<ProgramStatement> {
         this.originalTokenList = this.strippedTokenList = null;
         this.sourceLine = null;
         this.machineStatement = this.basicAssemblyStatement = null;
+        this.basicTokenList = null;
         this.operands = new ArrayList<>(5);
         final var foundInstruction = InstructionsRegistry.findBasicInstructionByBinaryCode(binaryStatement);
-        assert foundInstruction != null : "ERROR: basic instruction not found for this opcode.";
         this.instruction = foundInstruction;
+        if (foundInstruction == null) {
+            // e.g. a constant placed in the text segment by a loaded executable;
+            // executing it raises an illegal instruction exception
+            this.basicStatementList = new BasicStatementList();
+            this.basicStatementList.addString(ProgramStatement.invalidOperator);
+            return;
+        }
         final var opCodeMask = foundInstruction.getOperationMask();
         final var format = foundInstruction.getInstructionFormat();
         switch (format) {
@@ -355,6 +370,10 @@ public final class ProgramStatement implements Comparable<ProgramStatement> {
         final var firstElement = firstToken.getText() + " ";
         this.basicStatementList.addString(firstElement); // the operator
         final var basicInstructionBuilder = new StringBuilder(firstElement);
+        final var basicTokens = (this.instruction instanceof ExtendedInstruction) ? new TokenList() : null;
+        if (basicTokens != null) {
+            basicTokens.add(firstToken);
+        }
         for (int i = 1; i < this.strippedTokenList.size(); i++) {
             final var token = this.strippedTokenList.get(i);
             final var tokenType = token.getType();
@@ -376,6 +395,7 @@ public final class ProgramStatement implements Comparable<ProgramStatement> {
                         return;
                     }
                     this.operands.add(register.number);
+                    ProgramStatement.addBasicToken(basicTokens, token);
                 }
                 case REGISTER_NAME -> {
                     register = Globals.REGISTER_FILE.getRegisterByName(tokenValue);
@@ -391,6 +411,7 @@ public final class ProgramStatement implements Comparable<ProgramStatement> {
                     basicInstructionBuilder.append(basicStatementElement);
                     this.basicStatementList.addString(basicStatementElement);
                     this.operands.add(register.number);
+                    ProgramStatement.addBasicToken(basicTokens, token, TokenType.REGISTER_NUMBER, basicStatementElement);
                 }
                 case CSR_NAME -> {
                     register = Globals.CS_REGISTER_FILE.getRegisterByName(tokenValue);
@@ -405,6 +426,7 @@ public final class ProgramStatement implements Comparable<ProgramStatement> {
                     basicInstructionBuilder.append(register.number);
                     this.basicStatementList.addString("" + register.number);
                     this.operands.add(register.number);
+                    ProgramStatement.addBasicToken(basicTokens, token, register.number);
                 }
                 case FP_REGISTER_NAME -> {
                     register = Globals.FP_REGISTER_FILE.getRegisterByName(tokenValue);
@@ -420,6 +442,7 @@ public final class ProgramStatement implements Comparable<ProgramStatement> {
                     basicInstructionBuilder.append(basicStatementElement);
                     this.basicStatementList.addString(basicStatementElement);
                     this.operands.add(register.number);
+                    ProgramStatement.addBasicToken(basicTokens, token, TokenType.FP_REGISTER_NAME, basicStatementElement);
                 }
                 case ROUNDING_MODE -> {
                     final int rounding_mode = switch (tokenValue) {
@@ -441,6 +464,7 @@ public final class ProgramStatement implements Comparable<ProgramStatement> {
                     basicInstructionBuilder.append(tokenValue);
                     this.basicStatementList.addString(tokenValue);
                     this.operands.add(rounding_mode);
+                    ProgramStatement.addBasicToken(basicTokens, token);
                 }
                 case IDENTIFIER -> {
                     int address =
@@ -495,6 +519,7 @@ public final class ProgramStatement implements Comparable<ProgramStatement> {
                         this.basicStatementList.addValue(address);
                     }
                     this.operands.add(address);
+                    ProgramStatement.addBasicToken(basicTokens, token, address);
                 }
                 case INTEGER_5, INTEGER_6, INTEGER_12, INTEGER_12U, INTEGER_20, INTEGER_32 -> {
 
@@ -557,12 +582,14 @@ public final class ProgramStatement implements Comparable<ProgramStatement> {
                         this.basicStatementList.addValue(tempNumeric);
                     }
                     this.operands.add(tempNumeric);
+                    ProgramStatement.addBasicToken(basicTokens, token, tempNumeric);
                 }
                 ///// End modification 1/7/05 KENV ///////////////////////////////////////////
                 default -> {
                     basicStatementElement = tokenValue;
                     basicInstructionBuilder.append(basicStatementElement);
                     this.basicStatementList.addString(basicStatementElement);
+                    ProgramStatement.addBasicToken(basicTokens, token);
                 }
             }
             // add separator if not at end of token list AND neither current nor
@@ -580,8 +607,36 @@ public final class ProgramStatement implements Comparable<ProgramStatement> {
             }
         }
         this.basicAssemblyStatement = basicInstructionBuilder.toString();
+        this.basicTokenList = basicTokens;
     } // buildBasicStatementFromBasicInstruction()
 
+    private static void addBasicToken(final @Nullable TokenList basicTokens, final @NotNull Token token) {
+        if (basicTokens != null) {
+            basicTokens.add(token);
+        }
+    }
+
+    private static void addBasicToken(
+        final @Nullable TokenList basicTokens,
+        final @NotNull Token token,
+        final int value
+    ) {
+        if (basicTokens != null) {
+            ProgramStatement.addBasicToken(basicTokens, token, TokenType.matchIntegerType(value), String.valueOf(value));
+        }
+    }
+
+    private static void addBasicToken(
+        final @Nullable TokenList basicTokens,
+        final @NotNull Token token,
+        final @NotNull TokenType type,
+        final @NotNull String text
+    ) {
+        if (basicTokens != null) {
+            basicTokens.add(new Token(type, text, token.getSourceProgram(), token.getSourceLine(), token.getStartPos()));
+        }
+    }
+
     /**
      * Given the current statement in Basic Assembly format (see above), build the
      * 32-bit binary machine code statement.
@@ -700,6 +755,19 @@ public final class ProgramStatement implements Comparable<ProgramStatement> {
         return this.basicAssemblyStatement;
     }
 
+    /**
+     * Produces the tokens of the Basic Assembly statement of a pseudo-instruction,
+     * i.e. with register names replaced by register numbers and labels by their
+     * addresses. Only available after
+     * {@link #buildBasicStatementFromBasicInstruction(ErrorList)} succeeded.
+     *
+     * @return The basic TokenList, or {@code null} if this statement is not a
+     * pseudo-instruction.
+     */
+    public @Nullable TokenList getBasicTokenList() {
+        return this.basicTokenList;
+    }
+
     /**
      * Produces printable Basic Assembly statement for this RISCV source
      * statement. This is generated dynamically and any addresses and
@@ -4,6 +4,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import rars.assembler.*;
 import rars.exceptions.AssemblyException;
+import rars.riscv.hardware.Memory;
 import rars.simulator.BackStepper;
 
 import java.io.BufferedReader;
@@ -12,6 +13,7 @@ import java.io.FileReader;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 
 /*
 Copyright (c) 2003-2006,  Pete Sanderson and Kenneth Vollmar
@@ -146,6 +148,16 @@ public final class RISCVProgram {
         return this.backStepper;
     }
 
+    /**
+     * Forgets the steps recorded so far, as when the assembled program is
+     * loaded again. Does nothing if the program was not assembled.
+     */
+    public void resetBackStepper() {
+        if (this.backStepper != null) {
+            this.backStepper = new BackStepper();
+        }
+    }
+
     /**
      * Returns SymbolTable associated with this program. It is created at assembly
      * time,
@@ -180,7 +192,21 @@ public final class RISCVProgram {
      *     String containing the RISCV source code.
      */
     public void fromString(final @NotNull String source) {
-        this.file = null;
+        this.fromString(source, null);
+    }
+
+    /**
+     * Reads RISCV source code from a string into structure, as the contents of
+     * the given file, e.g. the unsaved text of an editor. Relative includes
+     * are looked up next to that file.
+     *
+     * @param source
+     *     String containing the RISCV source code.
+     * @param file
+     *     the file the source belongs to, if any
+     */
+    public void fromString(final @NotNull String source, final @Nullable File file) {
+        this.file = file;
         this.sourceList = Arrays.asList(source.split("\n"));
     }
 
@@ -222,8 +248,21 @@ public final class RISCVProgram {
      *     tokenizing.
      */
     public void tokenize() throws AssemblyException {
+        this.tokenize(Globals.GLOBAL_SYMBOL_TABLE);
+    }
+
+    /**
+     * Tokenizes the RISCV source program for an assembly into the given global
+     * symbol table.
+     *
+     * @throws AssemblyException
+     *     Will throw exception if errors occurred while
+     *     tokenizing.
+     * @see rars.assembler.Assembler#assemble(List, boolean, boolean, rars.riscv.hardware.Memory, SymbolTable)
+     */
+    public void tokenize(final @NotNull SymbolTable globalSymbolTable) throws AssemblyException {
         this.tokenList = Tokenizer.tokenize(this);
-        this.localSymbolTable = new SymbolTable(this.file, Globals.GLOBAL_SYMBOL_TABLE); // prepare for assembly
+        this.localSymbolTable = new SymbolTable(this.file, globalSymbolTable); // prepare for assembly
     }
 
     /**
@@ -257,13 +296,32 @@ public final class RISCVProgram {
         final @NotNull List<@NotNull File> files,
         final @NotNull File leadFile,
         final @Nullable File exceptionHandler
+    ) throws AssemblyException {
+        return this.prepareFilesForAssembly(files, leadFile, exceptionHandler, Globals.GLOBAL_SYMBOL_TABLE);
+    }
+
+    /**
+     * Prepares the given list of files for an assembly into the given global
+     * symbol table. Stops with a {@link java.util.concurrent.CancellationException}
+     * between files if the thread was interrupted.
+     *
+     * @see #prepareFilesForAssembly(List, File, File)
+     */
+    public @NotNull List<@NotNull RISCVProgram> prepareFilesForAssembly(
+        final @NotNull List<@NotNull File> files,
+        final @NotNull File leadFile,
+        final @Nullable File exceptionHandler,
+        final @NotNull SymbolTable globalSymbolTable
     ) throws AssemblyException {
         final var programsToAssemble = new ArrayList<RISCVProgram>();
         final int leadFilePosition = exceptionHandler == null ? 0 : 1;
         for (final var file : files) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("The assembly was cancelled.");
+            }
             final var prepareeProgram = (file.equals(leadFile)) ? this : new RISCVProgram();
             prepareeProgram.readSource(file);
-            prepareeProgram.tokenize();
+            prepareeProgram.tokenize(globalSymbolTable);
             // I want "this" RISCVprogram to be the first in the list...except for exception
             // handler
             if (prepareeProgram == this && !programsToAssemble.isEmpty()) {
@@ -305,12 +363,36 @@ public final class RISCVProgram {
         final @NotNull List<@NotNull RISCVProgram> programsToAssemble,
         final boolean extendedAssemblerEnabled,
         final boolean warningsAreErrors
+    ) throws AssemblyException {
+        return this.assemble(
+            programsToAssemble,
+            extendedAssemblerEnabled,
+            warningsAreErrors,
+            Globals.MEMORY_INSTANCE,
+            Globals.GLOBAL_SYMBOL_TABLE
+        );
+    }
+
+    /**
+     * Assembles the RISCV source program into the given memory and global
+     * symbol table, which the programs must have been tokenized for.
+     *
+     * @see #assemble(List, boolean, boolean)
+     */
+    public @NotNull ErrorList assemble(
+        final @NotNull List<@NotNull RISCVProgram> programsToAssemble,
+        final boolean extendedAssemblerEnabled,
+        final boolean warningsAreErrors,
+        final @NotNull Memory memory,
+        final @NotNull SymbolTable globalSymbolTable
     ) throws AssemblyException {
         this.backStepper = null;
         final var assemblyResult = Assembler.assemble(
             programsToAssemble,
             extendedAssemblerEnabled,
-            warningsAreErrors
+            warningsAreErrors,
+            memory,
+            globalSymbolTable
         );
         this.machineList = assemblyResult.first();
         this.backStepper = new BackStepper();
@@ -6,10 +6,16 @@ import rars.ErrorList;
 import rars.Globals;
 import rars.ProgramStatement;
 import rars.RISCVProgram;
+import rars.elf.ElfLoader;
+import rars.elf.ElfWriter;
+import rars.elf.FlatBinaryWriter;
+import rars.elf.ProgramImage;
 import rars.exceptions.AssemblyException;
 import rars.exceptions.SimulationException;
+import rars.io.BitmapFrameRecorder;
 import rars.io.ConsoleIO;
 import rars.riscv.hardware.Memory;
+import rars.riscv.hardware.SimulationClock;
 import rars.settings.BoolSetting;
 import rars.simulator.ProgramArgumentList;
 import rars.simulator.Simulator;
@@ -17,6 +23,7 @@ import rars.simulator.Simulator;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
 import java.util.List;
 
 import static rars.Globals.BOOL_SETTINGS;
@@ -58,6 +65,7 @@ public final class Program {
     private final @NotNull Memory assembled;
     private final @NotNull Memory simulation;
     private final @NotNull ProgramOptions programOptions;
+    private @NotNull List<@NotNull RISCVProgram> assembledPrograms = List.of();
     private @NotNull ByteArrayOutputStream stdout, stderr;
     private int startPC, exitCode;
     private ConsoleIO consoleIO;
@@ -123,6 +131,33 @@ public final class Program {
         return this.assemble(programs);
     }
 
+    /**
+     * Loads a RISC-V executable built by another toolchain instead of
+     * assembling source code. It takes the place of assemble(...): the
+     * program starts at the entry point of the executable, with the global
+     * pointer the executable defines, if any, and its symbols are put in the
+     * global symbol table.
+     *
+     * @param file
+     *     a statically linked ELF executable
+     * @return what was loaded
+     * @throws IOException
+     *     if the file cannot be read or cannot be run by RARS
+     * @see ElfLoader
+     */
+    public @NotNull ElfLoader.LoadedElf loadElf(final @NotNull File file) throws IOException {
+        Globals.REGISTER_FILE.setValuesFromConfiguration(this.assembled.getMemoryConfiguration());
+        this.assembled.reset();
+        Globals.GLOBAL_SYMBOL_TABLE.clear();
+        this.assembledPrograms = List.of();
+        final var loaded = ElfLoader.load(file.toPath(), this.assembled, Globals.GLOBAL_SYMBOL_TABLE);
+        if (loaded.globalPointer() != null) {
+            Globals.REGISTER_FILE.gp.changeResetValue(loaded.globalPointer());
+        }
+        this.startPC = loaded.entry();
+        return loaded;
+    }
+
     private @NotNull ErrorList assemble(final @NotNull List<@NotNull RISCVProgram> programs) throws AssemblyException {
         Globals.REGISTER_FILE.setValuesFromConfiguration(this.assembled.getMemoryConfiguration());
         // Assembling changes memory so we need to swap to capture that.
@@ -137,6 +172,7 @@ public final class Program {
 
             Globals.REGISTER_FILE.initializeProgramCounter(this.programOptions.startAtMain);
             this.startPC = Globals.REGISTER_FILE.getProgramCounter();
+            this.assembledPrograms = programs;
 
             return errorList;
         } catch (final AssemblyException ae) {
@@ -145,6 +181,46 @@ public final class Program {
         }
     }
 
+    /**
+     * Writes the assembled program, i.e. its code, data, labels and starting
+     * address, as an ELF executable that can be loaded with
+     * {@link #loadElf(File)} or read by other tools.
+     * <p>
+     * This is only valid once the program has been assembled or loaded.
+     *
+     * @throws IOException
+     *     if the file cannot be written
+     * @see ElfWriter
+     */
+    public void writeElf(final @NotNull File file) throws IOException {
+        ElfWriter.write(file.toPath(), this.getImage());
+    }
+
+    /**
+     * Writes the assembled program as a flat binary, the contents of its
+     * segments one after the other, and a JSON linker map telling where they
+     * and the labels go in memory.
+     * <p>
+     * This is only valid once the program has been assembled or loaded.
+     *
+     * @throws IOException
+     *     if a file cannot be written
+     * @see FlatBinaryWriter
+     */
+    public void writeFlatBinary(final @NotNull File binary, final @NotNull File map) throws IOException {
+        FlatBinaryWriter.write(binary.toPath(), map.toPath(), this.getImage());
+    }
+
+    private @NotNull ProgramImage getImage() {
+        return ProgramImage.read(
+            this.assembled,
+            this.startPC,
+            this.programOptions.isRV64,
+            Globals.GLOBAL_SYMBOL_TABLE,
+            this.assembledPrograms.stream().map(RISCVProgram::getLocalSymbolTable).toList()
+        );
+    }
+
     /**
      * Prepares the simulator for execution. Clears registers, loads arguments
      * into memory and initializes the String backed STDIO
@@ -164,6 +240,12 @@ public final class Program {
         Globals.FP_REGISTER_FILE.resetRegisters();
         Globals.CS_REGISTER_FILE.resetRegisters();
         Globals.INTERRUPT_CONTROLLER.reset();
+        final var virtualTime = this.programOptions.virtualTime;
+        Globals.DEVICE_BUS.getClock().configure(
+            virtualTime != null ? SimulationClock.Mode.VIRTUAL : SimulationClock.Mode.REAL_TIME,
+            virtualTime != null ? virtualTime : this.programOptions.clockSampleInterval
+        );
+        Globals.DEVICE_BUS.reset();
         Globals.REGISTER_FILE.initializeProgramCounter(this.startPC);
         Globals.exitCode = 0;
 
@@ -280,6 +362,16 @@ public final class Program {
         return this.simulation;
     }
 
+    /**
+     * Records the bitmaps the program displays with the given recorder
+     * instead of dropping them.
+     * <p>
+     * This is only valid when setup has been called.
+     */
+    public void setBitmapFrameRecorder(final @Nullable BitmapFrameRecorder recorder) {
+        this.consoleIO.setBitmapFrameRecorder(recorder);
+    }
+
     public List<ProgramStatement> getParsedList() {
         return this.code.getParsedList();
     }
@@ -1,13 +1,22 @@
 package rars.api;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import picocli.CommandLine;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Model.CommandSpec;
 import picocli.CommandLine.Option;
 import picocli.CommandLine.Parameters;
 import picocli.CommandLine.Spec;
+import rars.branch.BranchPredictorConfiguration;
+import rars.cache.CacheHierarchyConfiguration;
+import rars.io.BitmapFrameRecorder;
+import rars.io.MmioConsole;
+import rars.riscv.dump.DumpFormat;
+import rars.riscv.dump.DumpFormats;
 import rars.riscv.hardware.MemoryConfiguration;
+import rars.riscv.hardware.SimulationClock;
+import rars.timing.PipelineConfiguration;
 import rars.util.Pair;
 
 import java.io.File;
@@ -86,12 +95,84 @@ public final class ProgramOptions implements Runnable {
     @Option(names = "--add-memory-range", arity = "2", description = "Adds a memory range from lower-inclusive to upper-exclusive bounds whose contents to display at the end of a run.", parameterConsumer = MemoryRangeListConverter.class)
     public @NotNull List<@NotNull Pair<@NotNull Integer, @NotNull Integer>> memoryRanges = List.of();
 
+    @Option(names = "--dump", arity = "3", paramLabel = "<segment> <format> <file>", description = "Dumps a memory segment (.text or .data) or an address range (e.g. 0x10010000-0x10010ffc) to a file at the end of a run, in one of the formats AsciiText, Binary, BinaryText, HexText, HEX or SegmentWindow. Can be given several times.", parameterConsumer = MemoryDumpListConverter.class)
+    public @NotNull List<@NotNull MemoryDumpRequest> memoryDumps = List.of();
+
     @Option(names = "--print-to-stderr", description = "Print RARS messages to standard error instead of standard output.")
     public boolean printToStdErr = false;
 
+    @Option(names = "--cache", arity = "1..*", converter = CacheHierarchyConverter.class, description = "Cache hierarchies to simulate over the loads and stores of the program. Each one is a list of levels joined with '+', a level being size:block:ways[:lru|fifo|random|plru[:wb|wt[-wa|-nwa]]], e.g. 4K:16:2+64K:64:8:plru. Their statistics are reported at the end of a run.")
+    public @NotNull List<@NotNull CacheHierarchyConfiguration> caches = List.of();
+
+    @Option(names = "--cache-report", description = "File to write the cache statistics to, instead of the standard output.")
+    public @Nullable File cacheReportFile = null;
+
+    @Option(names = "--branch-predictor", arity = "1..*", converter = BranchPredictorConverter.class, description = "Branch predictors to evaluate over the control transfers of the program: taken, not-taken, btfn, bimodal:entries[:bits], gshare:entries:history[:bits], tournament:entries:history[:bits], btb:entries or ras:depth. Their accuracy is reported at the end of a run.")
+    public @NotNull List<@NotNull BranchPredictorConfiguration> branchPredictors = List.of();
+
+    @Option(names = "--branch-report", description = "File to write the branch prediction statistics to, instead of the standard output.")
+    public @Nullable File branchReportFile = null;
+
+    @Option(names = "--pipeline", arity = "0..1", fallbackValue = "", converter = PipelineConverter.class, description = "Model the timing of a 5-stage in-order pipeline and report its CPI breakdown at the end of a run. Latencies can be changed with a comma separated list of name=cycles pairs, the names being mul, div, fp, fpdiv, branch-penalty, jump-penalty, l1 to l4 and memory, e.g. --pipeline=mul=4,memory=200.")
+    public @Nullable PipelineConfiguration pipeline = null;
+
+    @Option(names = "--pipeline-predictor", converter = BranchPredictorConverter.class, description = "Branch predictor of the pipeline model, in the format of --branch-predictor. Branches are predicted not taken by default.")
+    public @Nullable BranchPredictorConfiguration pipelinePredictor = null;
+
+    @Option(names = "--pipeline-cache", converter = CacheHierarchyConverter.class, description = "Data cache hierarchy of the pipeline model, in the format of --cache. Without it, every load and store hits.")
+    public @Nullable CacheHierarchyConfiguration pipelineCache = null;
+
+    @Option(names = "--pipeline-async", description = "Run the pipeline model in its own thread. The cycle CSR is then only updated at the end of the run.")
+    public boolean pipelineAsync = false;
+
+    @Option(names = "--pipeline-report", description = "File to write the CPI breakdown to, instead of the standard output.")
+    public @Nullable File pipelineReportFile = null;
+
+    @Option(names = "--virtual-time", arity = "0..1", fallbackValue = "" + SimulationClock.DEFAULT_INSTRUCTIONS_PER_MILLISECOND, description = "Make the time seen by the program (the time CSR, the Time system call and timer interrupts) advance by one millisecond every given number of retired instructions, 1000 by default, instead of following the host clock. Runs then behave the same on every machine.")
+    public @Nullable Integer virtualTime = null;
+
+    @Option(names = "--clock-sample-interval", description = "Number of retired instructions between two reads of the host clock when not in virtual time.")
+    public int clockSampleInterval = SimulationClock.DEFAULT_SAMPLE_INTERVAL;
+
+    @Option(names = "--mmio-console", description = "Attach a headless version of the Keyboard and Display MMIO Simulator, so programs doing memory-mapped or interrupt-driven console I/O can run without the GUI.")
+    public boolean mmioConsole = false;
+
+    @Option(names = "--mmio-input", description = "File the MMIO console types, instead of the standard input.")
+    public @Nullable File mmioInputFile = null;
+
+    @Option(names = "--mmio-output", description = "File the MMIO console displays to, instead of the standard output.")
+    public @Nullable File mmioOutputFile = null;
+
+    @Option(names = "--mmio-delay", description = "Number of instructions the MMIO console takes to type or display a character.")
+    public int mmioDelay = MmioConsole.DEFAULT_DELAY;
+
+    @Option(names = "--bitmap-frames", description = "Directory to write the bitmaps shown by the DisplayBitmap system call to, as numbered PNG files, so graphical programs can run without the GUI.")
+    public @Nullable File bitmapFramesDirectory = null;
+
+    @Option(names = "--bitmap-frame-interval", description = "Number of instructions between two looks at the bitmap for --bitmap-frames; a frame is written when it changed.")
+    public int bitmapFrameInterval = BitmapFrameRecorder.DEFAULT_INTERVAL;
+
+    @Option(names = "--report-format", description = "Format of the reports of the analyses. Valid values: ${COMPLETION-CANDIDATES}.")
+    public @NotNull ReportFormat reportFormat = ReportFormat.CSV;
+
+    @Option(names = "--trace", description = "File to record the instruction fetches, loads and stores of the program to.")
+    public @Nullable File traceFile = null;
+
+    @Option(names = "--trace-compression", description = "Deflate the blocks of the recorded trace.")
+    public boolean traceCompression = false;
+
+    @Option(names = "--from-trace", description = "Run the cache and branch predictor analyses (--cache, --branch-predictor) over a previously recorded trace instead of assembling and running a program.")
+    public @Nullable File fromTraceFile = null;
+
+    @Option(names = "--export-elf", description = "File to write the assembled program to as an ELF executable, which can be run later with --files or read by other tools.")
+    public @Nullable File elfExportFile = null;
+
+    @Option(names = "--export-binary", description = "File to write the assembled program to as a flat binary, the contents of its segments one after the other. Where they go in memory and the labels are written as JSON to a linker map named after the file, with .map.json added.")
+    public @Nullable File flatBinaryExportFile = null;
+
     @Option(names = {
         "--files", "-f"
-    }, arity = "1..*", description = "Files to be assembled. The first file is assumed to be the main file unless the global statement label 'main' is defined in one of the files.")
+    }, arity = "1..*", description = "Files to be assembled. The first file is assumed to be the main file unless the global statement label 'main' is defined in one of the files. A statically linked RISC-V ELF executable can be given instead, as the only file, to run it without assembling.")
     public @NotNull List<@NotNull File> files = List.of();
 
     @Parameters(description = "Arguments to be passed to the executed program.")
@@ -107,7 +188,31 @@ public final class ProgramOptions implements Runnable {
             "programArgs=" + programArgs +
             ", files=" + files +
             ", printToStdErr=" + printToStdErr +
+            ", caches=" + caches +
+            ", cacheReportFile=" + cacheReportFile +
+            ", branchPredictors=" + branchPredictors +
+            ", branchReportFile=" + branchReportFile +
+            ", pipeline=" + pipeline +
+            ", pipelinePredictor=" + pipelinePredictor +
+            ", pipelineCache=" + pipelineCache +
+            ", pipelineAsync=" + pipelineAsync +
+            ", pipelineReportFile=" + pipelineReportFile +
+            ", virtualTime=" + virtualTime +
+            ", clockSampleInterval=" + clockSampleInterval +
+            ", mmioConsole=" + mmioConsole +
+            ", mmioInputFile=" + mmioInputFile +
+            ", mmioOutputFile=" + mmioOutputFile +
+            ", mmioDelay=" + mmioDelay +
+            ", bitmapFramesDirectory=" + bitmapFramesDirectory +
+            ", bitmapFrameInterval=" + bitmapFrameInterval +
+            ", reportFormat=" + reportFormat +
+            ", traceFile=" + traceFile +
+            ", elfExportFile=" + elfExportFile +
+            ", flatBinaryExportFile=" + flatBinaryExportFile +
+            ", traceCompression=" + traceCompression +
+            ", fromTraceFile=" + fromTraceFile +
             ", memoryRanges=" + memoryRanges +
+            ", memoryDumps=" + memoryDumps +
             ", isProjectMode=" + isProjectMode +
             ", maxSteps=" + maxSteps +
             ", registers=" + registers +
@@ -133,6 +238,24 @@ public final class ProgramOptions implements Runnable {
     @Override
     public void run() {
         final var parseResult = spec.commandLine().getParseResult();
+        if (bitmapFrameInterval < 1) {
+            throw new CommandLine.ParameterException(
+                spec.commandLine(),
+                "The bitmap frame interval must be positive."
+            );
+        }
+        if (mmioDelay < 1) {
+            throw new CommandLine.ParameterException(
+                spec.commandLine(),
+                "The delay of the MMIO console must be positive."
+            );
+        }
+        if ((virtualTime != null && virtualTime < 1) || clockSampleInterval < 1) {
+            throw new CommandLine.ParameterException(
+                spec.commandLine(),
+                "The number of instructions per millisecond or between clock samples must be positive."
+            );
+        }
 
         if (!parseResult.originalArgs().isEmpty()) {
             if (!(parseResult.hasMatchedOption("--gui") || parseResult.hasMatchedOption("--no-gui"))) {
@@ -141,6 +264,84 @@ public final class ProgramOptions implements Runnable {
         }
     }
 
+    private static class CacheHierarchyConverter implements CommandLine.ITypeConverter<CacheHierarchyConfiguration> {
+        @Override
+        public CacheHierarchyConfiguration convert(final @NotNull String value) {
+            try {
+                return CacheHierarchyConfiguration.parse(value);
+            } catch (final IllegalArgumentException e) {
+                throw new CommandLine.TypeConversionException(e.getMessage());
+            }
+        }
+    }
+
+    private static class BranchPredictorConverter implements CommandLine.ITypeConverter<BranchPredictorConfiguration> {
+        @Override
+        public BranchPredictorConfiguration convert(final @NotNull String value) {
+            try {
+                return BranchPredictorConfiguration.parse(value);
+            } catch (final IllegalArgumentException e) {
+                throw new CommandLine.TypeConversionException(e.getMessage());
+            }
+        }
+    }
+
+    private static class PipelineConverter implements CommandLine.ITypeConverter<PipelineConfiguration> {
+        @Override
+        public PipelineConfiguration convert(final @NotNull String value) {
+            if (value.isBlank()) {
+                return PipelineConfiguration.DEFAULT;
+            }
+            try {
+                return PipelineConfiguration.DEFAULT.withLatencies(value);
+            } catch (final IllegalArgumentException e) {
+                throw new CommandLine.TypeConversionException(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * A memory dump asked for with {@code --dump}.
+     *
+     * @param segment
+     *     name of a segment, e.g. {@code .data}, or an address range
+     */
+    public record MemoryDumpRequest(@NotNull String segment, @NotNull DumpFormat format, @NotNull File file) {
+    }
+
+    private static class MemoryDumpListConverter implements CommandLine.IParameterConsumer {
+
+        @Override
+        public void consumeParameters(
+            final @NotNull Stack<String> args,
+            final CommandLine.Model.ArgSpec argSpec,
+            final CommandSpec commandSpec
+        ) {
+            if (args.size() < 3) {
+                throw new CommandLine.ParameterException(
+                    commandSpec.commandLine(),
+                    "Expected a segment, a format and a file name for the dump, but got: " + args
+                );
+            }
+            final var segment = args.pop();
+            final var formatName = args.pop();
+            final var file = new File(args.pop());
+            final var format = DumpFormats.findDumpFormatGivenCommandDescriptor(formatName);
+            if (format == null) {
+                throw new CommandLine.ParameterException(
+                    commandSpec.commandLine(),
+                    "Unknown dump format " + formatName + ", expected one of: " + DumpFormats.DUMP_FORMATS.stream()
+                        .map(DumpFormat::getCommandDescriptor)
+                        .toList()
+                );
+            }
+            final var currentList = argSpec.<List<MemoryDumpRequest>>getValue();
+            final var result = new ArrayList<>(currentList);
+            result.add(new MemoryDumpRequest(segment, format, file));
+            argSpec.setValue(result);
+        }
+    }
+
     private static class MemoryRangeListConverter implements CommandLine.IParameterConsumer {
 
         @Override
@@ -0,0 +1,14 @@
+package rars.api;
+
+import org.jetbrains.annotations.NotNull;
+
+/** Output format of the reports produced by the analyses run from the CLI. */
+public enum ReportFormat {
+    CSV,
+    JSON;
+
+    @Override
+    public @NotNull String toString() {
+        return name().toLowerCase();
+    }
+}
@@ -11,6 +11,7 @@ import rars.riscv.BasicInstruction;
 import rars.riscv.ExtendedInstruction;
 import rars.riscv.Instruction;
 import rars.riscv.InstructionsRegistry;
+import rars.riscv.hardware.Memory;
 import rars.settings.BoolSetting;
 import rars.util.BinaryUtils;
 import rars.util.Pair;
@@ -19,6 +20,8 @@ import rars.venus.NumberDisplayBaseChooser;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
 
 import static rars.Globals.BOOL_SETTINGS;
 
@@ -73,6 +76,23 @@ public final class Assembler {
     private int textAddress;
     private int dataAddress;
     private DataSegmentForwardReferenceList currentFileDataSegmentForwardReferenceList;
+    private final @NotNull Memory memory;
+    private final @NotNull SymbolTable globalSymbolTable;
+
+    private Assembler(final @NotNull Memory memory, final @NotNull SymbolTable globalSymbolTable) {
+        this.memory = memory;
+        this.globalSymbolTable = globalSymbolTable;
+    }
+
+    /**
+     * Gives up on the assembly if the thread running it was interrupted, which
+     * is how the GUI cancels a long assembly.
+     */
+    private static void checkNotCancelled() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("The assembly was cancelled.");
+        }
+    }
 
     /**
      * Will check for duplicate text addresses, which can happen inadvertently when
@@ -82,7 +102,8 @@ public final class Assembler {
      */
     private static void catchDuplicateAddresses(
         final @NotNull List<ProgramStatement> instructions,
-        final ErrorList errors
+        final ErrorList errors,
+        final @NotNull Memory memory
     ) {
         for (int i = 0; i < instructions.size() - 1; i++) {
             final ProgramStatement ps1 = instructions.get(i);
@@ -93,7 +114,7 @@ public final class Assembler {
                     (BOOL_SETTINGS.getSetting(BoolSetting.DISPLAY_ADDRESSES_IN_HEX)) ?
                         16 : 10
                 );
-                final var directiveText = (Globals.MEMORY_INSTANCE.isAddressInTextSegment(ps2.getAddress()))
+                final var directiveText = (memory.isAddressInTextSegment(ps2.getAddress()))
                     ? ".text"
                     : ".ktext";
                 final var message = (
@@ -151,7 +172,29 @@ public final class Assembler {
         final boolean extendedAssemblerEnabled,
         final boolean warningsAreErrors
     ) throws AssemblyException {
-        final var assembler = new Assembler();
+        return Assembler.assemble(
+            tokenizedProgramFiles,
+            extendedAssemblerEnabled,
+            warningsAreErrors,
+            Globals.MEMORY_INSTANCE,
+            Globals.GLOBAL_SYMBOL_TABLE
+        );
+    }
+
+    /**
+     * Assembles into the given memory and global symbol table instead of the
+     * simulator's, e.g. to check a program for errors while another one is
+     * loaded. The programs must have been tokenized with
+     * {@code globalSymbolTable} as the parent of their local symbol tables.
+     */
+    public static @NotNull Pair<@NotNull List<@NotNull ProgramStatement>, @NotNull ErrorList> assemble(
+        final @NotNull List<@NotNull RISCVProgram> tokenizedProgramFiles,
+        final boolean extendedAssemblerEnabled,
+        final boolean warningsAreErrors,
+        final @NotNull Memory memory,
+        final @NotNull SymbolTable globalSymbolTable
+    ) throws AssemblyException {
+        final var assembler = new Assembler(memory, globalSymbolTable);
         final var machineList = assembler.assembleImpl(
             tokenizedProgramFiles,
             extendedAssemblerEnabled,
@@ -208,14 +251,14 @@ public final class Assembler {
         if (tokenizedProgramFiles.isEmpty()) {
             throw new IllegalStateException("No source code to assemble.");
         }
-        final var memoryConfiguration = Globals.MEMORY_INSTANCE.getMemoryConfiguration();
+        final var memoryConfiguration = this.memory.getMemoryConfiguration();
         this.textAddress = memoryConfiguration.textBaseAddress;
         this.dataAddress = memoryConfiguration.dataBaseAddress;
         this.externAddress = memoryConfiguration.externBaseAddress;
         this.currentFileDataSegmentForwardReferenceList = new DataSegmentForwardReferenceList();
         final DataSegmentForwardReferenceList accumulatedDataSegmentForwardReferenceList = new DataSegmentForwardReferenceList();
-        Globals.GLOBAL_SYMBOL_TABLE.clear();
-        Globals.MEMORY_INSTANCE.reset();
+        this.globalSymbolTable.clear();
+        this.memory.reset();
         this.errors = new ErrorList();
         if (Globals.debug) {
             Assembler.LOGGER.debug("Assembler first pass begins:");
@@ -263,6 +306,7 @@ public final class Assembler {
                 if (this.errors.errorLimitExceeded()) {
                     break;
                 }
+                Assembler.checkNotCancelled();
                 for (final Token t : tokenList.get(i)) {
                     // record this token's original source program and line #. Differs from final,
                     // if .include used
@@ -296,8 +340,10 @@ public final class Assembler {
             // Cannot determine which until all files are parsed, so copy unresolved entries
             // into accumulated list and clear out this one for re-use with the next source
             // file.
-            this.currentFileDataSegmentForwardReferenceList.resolve(this.fileCurrentlyBeingAssembled
-                .getLocalSymbolTable());
+            this.currentFileDataSegmentForwardReferenceList.resolve(
+                this.fileCurrentlyBeingAssembled.getLocalSymbolTable(),
+                this.memory
+            );
             accumulatedDataSegmentForwardReferenceList.add(this.currentFileDataSegmentForwardReferenceList);
             this.currentFileDataSegmentForwardReferenceList.clear();
         } // end of first-pass loop for each RISCVprogram
@@ -307,7 +353,7 @@ public final class Assembler {
         // references from global symbol table. Those that remain unresolved are
         // undefined
         // and require error message.
-        accumulatedDataSegmentForwardReferenceList.resolve(Globals.GLOBAL_SYMBOL_TABLE);
+        accumulatedDataSegmentForwardReferenceList.resolve(this.globalSymbolTable, this.memory);
         accumulatedDataSegmentForwardReferenceList.generateErrorMessages(this.errors);
 
         // Throw collection of errors accumulated through the first pass.
@@ -327,6 +373,7 @@ public final class Assembler {
             this.fileCurrentlyBeingAssembled = program;
             final var parsedList = this.fileCurrentlyBeingAssembled.getParsedList();
             for (final ProgramStatement statement : parsedList) {
+                Assembler.checkNotCancelled();
                 statement.buildBasicStatementFromBasicInstruction(this.errors);
                 if (this.errors.errorsOccurred()) {
                     throw new AssemblyException(this.errors);
@@ -334,11 +381,9 @@ public final class Assembler {
                 if (statement.getInstruction() instanceof final ExtendedInstruction inst) {// It is a 
                     // pseudo-instruction:
                     // 1. Fetch its basic instruction template list
-                    // 2. For each template in the list,
-                    // 2a. substitute operands from source statement
-                    // 2b. tokenize the statement generated by 2a.
-                    // 2d. call parseLine() to generate basic instrction
-                    // 2e. add returned programStatement to the list
+                    // 2. Bind operands from the source statement to each template
+                    // 3. Match the basic instruction of each generated statement
+                    // 4. Add the resulting programStatement to the list
                     // The templates, and the instructions generated by filling
                     // in the templates, are specified
                     // in basic format (e.g. mnemonic register reference zero
@@ -347,46 +392,27 @@ public final class Assembler {
                     // in this format. Since those
                     // values come from the original source statement, they need
                     // to be translated before
-                    // substituting. The next method call will perform this
-                    // translation on the original
-                    // source statement. Despite the fact that the original
-                    // statement is a pseudo
-                    // instruction, this method performs the necessary
-                    // translation correctly.
+                    // substituting. buildBasicStatementFromBasicInstruction() performs
+                    // this translation on the original source statement and keeps the
+                    // translated tokens for pseudo instructions.
                     // TODO: consider making this recursive
-                    final String basicAssembly = statement.getBasicAssemblyStatement();
+                    final var tokenList = Objects.requireNonNull(statement.getBasicTokenList());
                     final int lineNumber = statement.sourceLine.lineNumber();
-                    final var tokenList = Tokenizer.tokenizeLine(
-                        lineNumber,
-                        basicAssembly, this.errors, false
-                    );
-
-                    // If we are using compact memory config and there is a compact expansion, use
-                    // it
-                    final var templateList = inst.getBasicIntructionTemplateList();
 
                     // subsequent ProgramStatement constructor needs the correct text segment address.
                     this.textAddress = statement.getAddress();
                     // Will generate one basic instruction for each template in the list.
                     final int PC = this.textAddress; // Save the starting PC so that it can be used for PC 
                     // relative stuff
-                    for (final var s : templateList) {
-                        final String instruction = ExtendedInstruction.makeTemplateSubstitutions(
-                            this.fileCurrentlyBeingAssembled,
-                            s, tokenList, PC
-                        );
-
+                    for (final TokenList newTokenList : inst.expand(
+                        this.fileCurrentlyBeingAssembled,
+                        tokenList, lineNumber, PC
+                    )) {
                         // All substitutions have been made so we have generated
                         // a valid basic instruction!
                         if (Globals.debug) {
-                            Assembler.LOGGER.debug("PSEUDO generated: {}", instruction);
+                            Assembler.LOGGER.debug("PSEUDO generated: {}", newTokenList);
                         }
-                        // For generated instruction: tokenize, build program
-                        // statement, add to list.
-                        final TokenList newTokenList = Tokenizer.tokenizeLine(
-                            lineNumber,
-                            instruction, this.errors, false
-                        );
                         final var instrMatches = this.matchInstruction(newTokenList.get(0));
                         final Instruction instr = OperandUtils.bestOperandMatch(
                             newTokenList,
@@ -423,12 +449,13 @@ public final class Assembler {
             if (this.errors.errorLimitExceeded()) {
                 break;
             }
+            Assembler.checkNotCancelled();
             statement.buildMachineStatementFromBasicStatement(this.errors);
             if (Globals.debug) {
                 Assembler.LOGGER.debug(statement);
             }
             try {
-                Globals.MEMORY_INSTANCE.setStatement(statement.getAddress(), statement);
+                this.memory.setStatement(statement.getAddress(), statement);
             } catch (final AddressErrorException e) {
                 final Token token = statement.getOriginalTokenList().get(0);
                 errors.addTokenError(token, "Invalid address for text segment: %d".formatted(e.address));
@@ -446,7 +473,7 @@ public final class Assembler {
         // but in case of duplicate I like having both statements handy for error
         // message.
         final var sortedMachineList = machineList.stream().sorted().toList();
-        Assembler.catchDuplicateAddresses(sortedMachineList, this.errors);
+        Assembler.catchDuplicateAddresses(sortedMachineList, this.errors, this.memory);
         if (this.errors.errorsOccurred() || this.errors.warningsOccurred() && warningsAreErrors) {
             throw new AssemblyException(this.errors);
         }
@@ -549,23 +576,16 @@ public final class Assembler {
             } else {
                 for (int i = macro.getFromLine() + 1; i < macro.getToLine(); i++) {
 
-                    String substituted = macro.getSubstitutedLine(i, tokens, counter, this.errors);
-                    final TokenList tokenList2 = Tokenizer.tokenizeLine(
-                        i, substituted, this.errors, true);
-
-                    // If token list getProcessedLine() is not empty, then .eqv was performed and it
-                    // contains the modified source.
-                    // Put it into the line to be parsed, so it will be displayed properly in text
-                    // segment display. DPS 23 Jan 2013
-                    if (!tokenList2.getProcessedLine().isEmpty()) {
-                        substituted = tokenList2.getProcessedLine();
-                    }
+                    // The expanded line carries the substituted source (with .eqv applied)
+                    // as its processed line, so it is displayed properly in text segment
+                    // display.
+                    final TokenList expanded = macro.getExpandedLine(i, tokens, counter, this.errors);
 
                     // recursively parse lines of expanded macro
                     final var statements = this.parseLine(
-                        tokenList2,
+                        expanded,
                         "<" + (i - macro.getFromLine() + macro.getOriginalFromLine()) + "> "
-                            + substituted.trim(),
+                            + expanded.getProcessedLine().trim(),
                         sourceLineNumber, extendedAssemblerEnabled
                     );
                     if (statements != null) {
@@ -893,8 +913,8 @@ public final class Assembler {
                 }
                 final int size = BinaryUtils.stringToInt(tokens.get(2).getText());
                 // If label already in global symtab, do nothing. If not, add it right now.
-                if (Globals.GLOBAL_SYMBOL_TABLE.getAddress(tokens.get(1).getText()) == SymbolTable.NOT_FOUND) {
-                    Globals.GLOBAL_SYMBOL_TABLE.addSymbol(
+                if (this.globalSymbolTable.getAddress(tokens.get(1).getText()) == SymbolTable.NOT_FOUND) {
+                    this.globalSymbolTable.addSymbol(
                         tokens.get(1), this.externAddress,
                         true, this.errors
                     );
@@ -951,14 +971,14 @@ public final class Assembler {
                 // actually implemented in other files
                 // GCC outputs assembly that uses this
             } else {
-                if (Globals.GLOBAL_SYMBOL_TABLE.getAddress(label.getText()) != SymbolTable.NOT_FOUND) {
+                if (this.globalSymbolTable.getAddress(label.getText()) != SymbolTable.NOT_FOUND) {
                     this.errors.addTokenError(
                         label, "Label \"%s\" already defined as global in a different file."
                             .formatted(label.getText())
                     );
                 } else {
                     this.fileCurrentlyBeingAssembled.getLocalSymbolTable().removeSymbol(label);
-                    Globals.GLOBAL_SYMBOL_TABLE.addSymbol(
+                    this.globalSymbolTable.addSymbol(
                         label, symtabEntry.address(),
                         symtabEntry.isData(), this.errors
                     );
@@ -1163,7 +1183,7 @@ public final class Assembler {
              */
             else {
                 try {
-                    Globals.MEMORY_INSTANCE.set(this.textAddress, value, lengthInBytes);
+                    this.memory.set(this.textAddress, value, lengthInBytes);
                 } catch (final AddressErrorException e) {
                     errors.addTokenError(
                         token, "\"%s\" is not a valid text segment address"
@@ -1335,7 +1355,7 @@ public final class Assembler {
                         final byte[] bytesOfChar = String.valueOf(theChar).getBytes(StandardCharsets.UTF_8);
                         try {
                             for (final byte b : bytesOfChar) {
-                                Globals.MEMORY_INSTANCE.set(
+                                this.memory.set(
                                     this.dataAddress, b,
                                     DataTypes.CHAR_SIZE
                                 );
@@ -1351,7 +1371,7 @@ public final class Assembler {
                     }
                     if (direct == Directive.ASCIZ || direct == Directive.STRING) {
                         try {
-                            Globals.MEMORY_INSTANCE.set(this.dataAddress, 0, DataTypes.CHAR_SIZE);
+                            this.memory.set(this.dataAddress, 0, DataTypes.CHAR_SIZE);
                         } catch (final AddressErrorException e) {
                             this.errors.addTokenError(
                                 token,
@@ -1391,7 +1411,7 @@ public final class Assembler {
             this.dataAddress = this.alignToBoundary(this.dataAddress, lengthInBytes);
         }
         try {
-            Globals.MEMORY_INSTANCE.set(this.dataAddress, value, lengthInBytes);
+            this.memory.set(this.dataAddress, value, lengthInBytes);
         } catch (final AddressErrorException e) {
             final var message = "\"%d\" is not a valid data segment address".formatted(this.dataAddress);
             errors.addTokenError(token, message);
@@ -1414,7 +1434,7 @@ public final class Assembler {
             this.dataAddress = (this.alignToBoundary(this.dataAddress, lengthInBytes));
         }
         try {
-            Globals.MEMORY_INSTANCE.setDouble(this.dataAddress, value);
+            this.memory.setDouble(this.dataAddress, value);
         } catch (final AddressErrorException e) {
             this.errors.addTokenError(token, "\"%d\" is not a valid data segment address".formatted(this.dataAddress));
         }
@@ -2,8 +2,8 @@ package rars.assembler;
 
 import org.jetbrains.annotations.NotNull;
 import rars.ErrorList;
-import rars.Globals;
 import rars.exceptions.AddressErrorException;
+import rars.riscv.hardware.Memory;
 
 import java.util.ArrayList;
 
@@ -67,14 +67,14 @@ final class DataSegmentForwardReferenceList {
      * the forward reference remains (it is either undefined or a global label
      * defined in a file not yet parsed).
      */
-    public void resolve(final @NotNull SymbolTable localSymbolTable) {
+    public void resolve(final @NotNull SymbolTable localSymbolTable, final @NotNull Memory memory) {
         this.forwardReferenceList.removeIf(entry -> {
             final var labelAddress = localSymbolTable.getAddressLocalOrGlobal(entry.token.getText());
             final var doRemove = labelAddress != SymbolTable.NOT_FOUND;
             if (doRemove) {
                 // patch address has to be valid b/c we already stored there...
                 try {
-                    Globals.MEMORY_INSTANCE.set(entry.patchAddress, labelAddress, entry.length);
+                    memory.set(entry.patchAddress, labelAddress, entry.length);
                 } catch (final AddressErrorException ignored) {
                 }
             }
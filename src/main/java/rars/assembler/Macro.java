@@ -42,6 +42,19 @@ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
  * @author M.H.Sekhavat sekhavat17@gmail.com
  */
 public final class Macro {
+    /**
+     * Slot of a template token that is copied verbatim. Non-negative slots are
+     * indices into {@link #args}.
+     */
+    private static final int LITERAL = -1;
+    /**
+     * Slot of a template token that refers to a label defined in the macro body.
+     */
+    private static final int LABEL = -2;
+    /**
+     * Slot of a template token that looks like a parameter, but is not one.
+     */
+    private static final int UNKNOWN_PARAMETER = -3;
     private final @NotNull ArrayList<@NotNull String> labels;
     /**
      * arguments like {@code %arg} will be substituted by macro expansion
@@ -55,6 +68,11 @@ public final class Macro {
      */
     private int fromLine, toLine;
     private int origFromLine, origToLine;
+    /**
+     * Pre-compiled macro body, one template per line between the
+     * {@code .macro} and {@code .end_macro} directives.
+     */
+    private @NotNull List<@NotNull MacroLine> body;
 
     public Macro() {
         this.name = "";
@@ -63,35 +81,7 @@ public final class Macro {
         this.origFromLine = this.origToLine = 0;
         this.args = new ArrayList<>();
         this.labels = new ArrayList<>();
-    }
-
-    /**
-     * replaces token {@code tokenToBeReplaced} which is occurred in
-     * {@code source} with {@code substitute}.
-     *
-     * @param source
-     * @param tokenToBeReplaced
-     * @param substitute
-     * @return
-     */
-    private static @NotNull String replaceToken(
-        final @NotNull String source,
-        final @NotNull Token tokenToBeReplaced,
-        final String substitute
-    ) {
-        // Initially the position of the substitute was based on token position but that
-        // proved problematic
-        // in that the source string does not always match the token list from which the
-        // token comes. The
-        // token list has already had .eqv equivalences applied whereas the source may
-        // not. This is because
-        // the source comes from a macro definition? That has proven to be a tough
-        // question to answer.
-        // DPS 12-feb-2013
-        final String stringToBeReplaced = tokenToBeReplaced.getText();
-        final int pos = source.indexOf(stringToBeReplaced);
-        return (pos < 0) ? source
-            : source.substring(0, pos) + substitute + source.substring(pos + stringToBeReplaced.length());
+        this.body = List.of();
     }
 
     /**
@@ -260,49 +250,137 @@ public final class Macro {
     }
 
     /**
-     * Substitutes macro arguments in a line of source code inside macro
-     * definition to be parsed after macro expansion. <br>
+     * Expands one line of the macro body for a macro call. The line has been
+     * pre-compiled into a token template by {@link #readyForCommit()}, so the
+     * arguments are substituted by cloning the template tokens instead of
+     * rewriting and re-tokenizing the source text. <br>
      * Also appends "_M#" to all labels defined inside macro body where # is value
      * of {@code counter}
      *
      * @param line
-     *     source line number in macro definition to be substituted
+     *     source line number in macro definition to be expanded
      * @param args
-     *     a {@link TokenList} object
+     *     tokens of the macro call; the first one is the macro name
      * @param counter
      *     unique macro expansion id
      * @param errors
      *     a {@link ErrorList} object
-     * @return {@code line}-th line of source code, with substituted
-     * arguments
+     * @return tokens of the {@code line}-th line of the macro body, with
+     * substituted arguments. Its processed line is the substituted source.
      */
-    public String getSubstitutedLine(final int line, final TokenList args, final long counter, final ErrorList errors) {
-        final TokenList tokens = this.program.getTokenList().get(line - 1);
-        var sourceLine = this.program.getSourceLine(line);
-
-        for (int i = tokens.size() - 1; i >= 0; i--) {
+    public @NotNull TokenList getExpandedLine(
+        final int line,
+        final @NotNull TokenList args,
+        final long counter,
+        final @NotNull ErrorList errors
+    ) {
+        final MacroLine template = this.body.get(line - this.fromLine - 1);
+        final var tokens = template.tokens();
+        final var source = new StringBuilder(template.source().length() + 16);
+        final var result = new TokenList();
+        boolean retokenize = false;
+        int copied = 0;
+        TokenType previousType = null;
+        for (int i = 0; i < tokens.size(); i++) {
             final Token token = tokens.get(i);
-            if (Macro.tokenIsMacroParameter(token.getText(), true)) {
-                int repl = -1;
-                for (int j = 0; j < this.args.size(); j++) {
-                    if (this.args.get(j).equals(token.getText())) {
-                        repl = j;
-                        break;
+            final int slot = template.slots()[i];
+            final int start = token.getStartPos() - 1;
+            source.append(template.source(), copied, start);
+            // character literals hold their value, so their source can be longer than their text
+            copied = start + token.getSourceLength();
+            final String text;
+            final TokenType type;
+            if (slot == Macro.LITERAL) {
+                text = token.getText();
+                type = token.getType();
+            } else if (slot == Macro.LABEL) {
+                text = token.getText() + "_M" + counter;
+                type = TokenType.IDENTIFIER;
+            } else if (slot == Macro.UNKNOWN_PARAMETER) {
+                errors.addTokenError(token, "Unknown macro parameter");
+                text = token.getText();
+                type = token.getType();
+            } else {
+                final Token arg = args.get(slot + 1);
+                text = arg.getText();
+                type = arg.getType();
+                // The tokenizer decides whether a sign belongs to a number by looking
+                // at the type of the preceding token. If substituting this argument can
+                // change that decision, fall back to re-tokenizing the substituted text.
+                retokenize |= type == TokenType.ERROR
+                    || (previousType == TokenType.IDENTIFIER && Macro.isSignedNumber(text))
+                    || (type == TokenType.IDENTIFIER && i + 1 < tokens.size()
+                    && Macro.isSignedNumber(tokens.get(i + 1).getText()));
+            }
+            final boolean isLiteral = slot == Macro.LITERAL;
+            final var clone = new Token(
+                type, text, isLiteral ? token.getSourceLength() : text.length(), this.program,
+                token.getSourceLine(), source.length() + 1
+            );
+            clone.setOriginal(token.getOriginalSourceLine());
+            result.add(clone);
+            if (isLiteral) {
+                source.append(template.source(), start, copied);
+            } else {
+                source.append(text);
+            }
+            previousType = type;
+        }
+        source.append(template.source(), copied, template.source().length());
+        final String substituted = source.toString();
+        if (retokenize || template.retokenize()) {
+            return Tokenizer.tokenizeLine(line, substituted, errors, true);
+        }
+        result.setProcessedLine(substituted);
+        return result;
+    }
+
+    private static boolean isSignedNumber(final @NotNull String text) {
+        return text.length() > 1 && (text.charAt(0) == '-' || text.charAt(0) == '+');
+    }
+
+    /**
+     * Compiles every line of the macro body into a token template, recording
+     * for each token whether it is copied verbatim, replaced by an argument or
+     * renamed as a macro-local label.
+     */
+    private @NotNull List<@NotNull MacroLine> compileBody() {
+        assert this.program != null : "Macro committed without a program";
+        final var tokenLists = this.program.getTokenList();
+        final var result = new ArrayList<MacroLine>(Math.max(0, this.toLine - this.fromLine - 1));
+        for (int line = this.fromLine + 1; line < this.toLine; line++) {
+            final TokenList tokens = tokenLists.get(line - 1);
+            int count = tokens.size();
+            // The comment is kept in the source text, but never needed as a token.
+            if (count > 0 && tokens.get(count - 1).getType() == TokenType.COMMENT) {
+                count--;
+            }
+            final var templateTokens = new ArrayList<Token>(count);
+            final int[] slots = new int[count];
+            boolean retokenize = false;
+            for (int i = 0; i < count; i++) {
+                final Token token = tokens.get(i);
+                final String text = token.getText();
+                templateTokens.add(token);
+                if (Macro.tokenIsMacroParameter(text, true)) {
+                    final int index = this.args.indexOf(text);
+                    slots[i] = (index == -1) ? Macro.UNKNOWN_PARAMETER : index;
+                    // A lone sign directly in front of a parameter merges with a
+                    // numeric argument once the text is re-tokenized (e.g. -%n).
+                    if (i > 0) {
+                        final Token previous = tokens.get(i - 1);
+                        retokenize |= (previous.getType() == TokenType.MINUS || previous.getType() == TokenType.PLUS)
+                            && previous.getStartPos() + 1 == token.getStartPos();
                     }
-                }
-                String substitute = token.getText();
-                if (repl != -1) {
-                    substitute = args.get(repl + 1).toString();
+                } else if (this.tokenIsMacroLabel(text)) {
+                    slots[i] = Macro.LABEL;
                 } else {
-                    errors.addTokenError(token, "Unknown macro parameter");
+                    slots[i] = Macro.LITERAL;
                 }
-                sourceLine = Macro.replaceToken(sourceLine, token, substitute);
-            } else if (this.tokenIsMacroLabel(token.getText())) {
-                final String substitute = token.getText() + "_M" + counter;
-                sourceLine = Macro.replaceToken(sourceLine, token, substitute);
             }
+            result.add(new MacroLine(tokens.getProcessedLine(), templateTokens, slots, retokenize));
         }
-        return sourceLine;
+        return result;
     }
 
     /**
@@ -331,6 +409,7 @@ public final class Macro {
      */
     public void readyForCommit() {
         Collections.sort(this.labels);
+        this.body = this.compileBody();
     }
 
     @SuppressWarnings("ObjectInstantiationInEqualsHashCode")
@@ -341,4 +420,26 @@ public final class Macro {
             this.origToLine, this.args
         );
     }
+
+    /**
+     * Token template of one line of the macro body.
+     *
+     * @param source
+     *     the source of the line, used to build the substituted source text
+     * @param tokens
+     *     the tokens of the line, without a trailing comment
+     * @param slots
+     *     how each token is substituted; see {@link #LITERAL}, {@link #LABEL}
+     *     and {@link #UNKNOWN_PARAMETER}
+     * @param retokenize
+     *     whether the substituted text must be tokenized again, because
+     *     substitution may change how its tokens are split
+     */
+    private record MacroLine(
+        @NotNull String source,
+        @NotNull List<@NotNull Token> tokens,
+        int @NotNull [] slots,
+        boolean retokenize
+    ) {
+    }
 }
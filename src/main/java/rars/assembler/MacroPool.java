@@ -5,6 +5,8 @@ import org.jetbrains.annotations.Nullable;
 import rars.RISCVProgram;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 
 /*
 Copyright (c) 2013.
@@ -38,7 +40,7 @@ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
  * {@link MacroPool#beginMacro(Token)} and skips source code lines until
  * reaches {@code .end_macro} directive. then calls
  * {@link MacroPool#commitMacro(Token)} and the macro information stored in a
- * {@link Macro} instance will be added to {@link #macroList}. <br>
+ * {@link Macro} instance will be added to {@link #macros}. <br>
  * Each {@link RISCVProgram} will have one {@link MacroPool}<br>
  * NOTE: Forward referencing macros (macro expansion before its definition in
  * source code) and Nested macro definition (defining a macro inside other macro
@@ -49,9 +51,14 @@ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
 public final class MacroPool {
     private final @NotNull RISCVProgram program;
     /**
-     * List of macros defined by now
+     * Macros defined by now, indexed by name and argument count. When a macro
+     * is redefined, the definition that appears last in the source wins.
      */
-    private final @NotNull ArrayList<Macro> macroList;
+    private final @NotNull HashMap<@NotNull Signature, @NotNull Macro> macros;
+    /**
+     * Names of the macros defined by now, regardless of argument count
+     */
+    private final @NotNull HashSet<@NotNull String> macroNames;
     private final @NotNull ArrayList<Integer> callStack;
     private final @NotNull ArrayList<Integer> callStackOrigLines;
     /**
@@ -71,7 +78,8 @@ public final class MacroPool {
      */
     public MacroPool(final @NotNull RISCVProgram program) {
         this.program = program;
-        this.macroList = new ArrayList<>();
+        this.macros = new HashMap<>();
+        this.macroNames = new HashSet<>();
         this.callStack = new ArrayList<>();
         this.callStackOrigLines = new ArrayList<>();
         this.current = null;
@@ -82,7 +90,7 @@ public final class MacroPool {
      * This method will be called by parser when reached {@code .macro}
      * directive.<br>
      * Instantiates a new {@link Macro} object and stores it in {@link #current}.
-     * {@link #current} will be added to {@link #macroList} by
+     * {@link #current} will be added to {@link #macros} by
      * {@link #commitMacro(Token)}
      *
      * @param nameToken
@@ -100,7 +108,7 @@ public final class MacroPool {
     /**
      * This method will be called by parser when reached {@code .end_macro}
      * directive. <br>
-     * Adds/Replaces {@link #current} macro into the {@link #macroList}.
+     * Adds/Replaces {@link #current} macro into the {@link #macros}.
      *
      * @param endToken
      *     Token containing {@code .end_macro} directive in source
@@ -111,7 +119,12 @@ public final class MacroPool {
         this.current.setToLine(endToken.getSourceLine());
         this.current.setOriginalToLine(endToken.getOriginalSourceLine());
         this.current.readyForCommit();
-        this.macroList.add(this.current);
+        this.macros.merge(
+            new Signature(this.current.getName(), this.current.getArgs().size()),
+            this.current,
+            (old, macro) -> old.getFromLine() < macro.getFromLine() ? macro : old
+        );
+        this.macroNames.add(this.current.getName());
         this.current = null;
     }
 
@@ -124,21 +137,10 @@ public final class MacroPool {
      * tokens passed
      */
     public @Nullable Macro getMatchingMacro(final @NotNull TokenList tokens) {
-        if (tokens.isEmpty()) {
+        if (tokens.isEmpty() || this.macros.isEmpty()) {
             return null;
         }
-        Macro ret = null;
-        final Token firstToken = tokens.get(0);
-        for (final Macro macro : this.macroList) {
-            if (macro.getName().equals(firstToken.getText())
-                && macro.getArgs().size() + 1 == tokens.size()
-                // && macro.getToLine() < callerLine // condition removed; doesn't work nicely
-                // in conjunction with .include, and does not seem necessary. DPS 8-MAR-2013
-                && (ret == null || ret.getFromLine() < macro.getFromLine())) {
-                ret = macro;
-            }
-        }
-        return ret;
+        return this.macros.get(new Signature(tokens.get(0).getText(), tokens.size() - 1));
     }
 
     /**
@@ -150,12 +152,7 @@ public final class MacroPool {
      * by now, not concerning arguments count.
      */
     public boolean matchesAnyMacroName(final @NotNull String value) {
-        for (final Macro macro : this.macroList) {
-            if (macro.getName().equals(value)) {
-                return true;
-            }
-        }
-        return false;
+        return this.macroNames.contains(value);
     }
 
     /**
@@ -219,4 +216,10 @@ public final class MacroPool {
         }
         return ret.toString();
     }
+
+    /**
+     * Key of {@link #macros}
+     */
+    private record Signature(@NotNull String name, int arity) {
+    }
 }
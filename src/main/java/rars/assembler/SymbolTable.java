@@ -11,6 +11,8 @@ import rars.util.BinaryUtils;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.function.Predicate;
 
@@ -126,6 +128,28 @@ public final class SymbolTable {
         }
     }
 
+    /**
+     * Adds symbols that do not come from source code, e.g. ones read from an
+     * executable file. A symbol whose name is already defined, in the table or
+     * earlier in {@code symbols}, is left out.
+     *
+     * @return the number of symbols added
+     */
+    public int addSymbols(final @NotNull Collection<@NotNull Symbol> symbols) {
+        final var names = new HashSet<String>();
+        for (final var symbol : this.table) {
+            names.add(symbol.name());
+        }
+        var added = 0;
+        for (final var symbol : symbols) {
+            if (names.add(symbol.name())) {
+                this.table.add(symbol);
+                added++;
+            }
+        }
+        return added;
+    }
+
     /**
      * Removes a symbol from the Symbol table. If not found, it does nothing.
      * This will rarely happen (only when variable is declared .globl after already
@@ -292,6 +316,14 @@ public final class SymbolTable {
         this.table = new ArrayList<>();
     }
 
+    /**
+     * Replaces the entries of this table with those of another, e.g. to take
+     * over the results of an assembly into a scratch table.
+     */
+    public void copyFrom(final @NotNull SymbolTable other) {
+        this.table = new ArrayList<>(other.table);
+    }
+
     /**
      * Fix address in symbol table entry. Any and all entries that match the
      * original
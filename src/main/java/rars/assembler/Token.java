@@ -42,7 +42,20 @@ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
  */
 public final class Token {
 
-    private final @NotNull String value;
+    private @Nullable String value;
+    /**
+     * Source buffer and span of a token whose text is materialized lazily by
+     * {@link #getText()}. The buffer is {@code null} for tokens created from a
+     * string.
+     */
+    private final char @Nullable [] buffer;
+    private final int offset;
+    private final int length;
+    /**
+     * Number of characters of the token in its source line. It differs from
+     * {@link #length} for character literals, whose text is their value.
+     */
+    private final int sourceLength;
     private final @Nullable RISCVProgram sourceProgram;
     private final int sourceLine;
     private final int sourcePos;
@@ -74,15 +87,119 @@ public final class Token {
         final @Nullable RISCVProgram sourceProgram,
         final int line,
         final int start
+    ) {
+        this(type, value, value.length(), sourceProgram, line, start);
+    }
+
+    /**
+     * Constructor for tokens whose text is not written as such in the source,
+     * e.g. character literals, whose text is the value of the character.
+     *
+     * @param type
+     *     The token type that this token has.
+     * @param value
+     *     The text of this token.
+     * @param sourceLength
+     *     Number of characters of the token's source.
+     * @param sourceProgram
+     *     The RISCVprogram object containing this token
+     * @param line
+     *     The line number in source program in which this token
+     *     appears.
+     * @param start
+     *     The starting position in that line number of this
+     *     token's source value.
+     */
+    Token(
+        final @NotNull TokenType type,
+        final @NotNull String value,
+        final int sourceLength,
+        final @Nullable RISCVProgram sourceProgram,
+        final int line,
+        final int start
     ) {
         this.type = type;
         this.value = value;
+        this.buffer = null;
+        this.offset = 0;
+        this.length = value.length();
+        this.sourceLength = sourceLength;
         this.sourceProgram = sourceProgram;
         this.sourceLine = line;
         this.sourcePos = start;
         this.originalSourceLine = line;
     }
 
+    /**
+     * Constructor for tokens whose text is a span of a shared source buffer.
+     * The text is only turned into a {@link String} the first time it is
+     * requested, so tokens that are never inspected (e.g. comments) do not
+     * allocate anything beyond the token itself.
+     *
+     * @param type
+     *     The token type that this token has.
+     * @param buffer
+     *     The character buffer holding the token's source. It must not be
+     *     modified while the token is alive.
+     * @param offset
+     *     Index of the first character of the token in {@code buffer}.
+     * @param length
+     *     Number of characters of the token.
+     * @param sourceProgram
+     *     The RISCVprogram object containing this token
+     * @param line
+     *     The line number in source program in which this token
+     *     appears.
+     * @param start
+     *     The starting position in that line number of this
+     *     token's source value.
+     */
+    Token(
+        final @NotNull TokenType type,
+        final char @NotNull [] buffer,
+        final int offset,
+        final int length,
+        final @Nullable RISCVProgram sourceProgram,
+        final int line,
+        final int start
+    ) {
+        this.type = type;
+        this.value = null;
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+        this.sourceLength = length;
+        this.sourceProgram = sourceProgram;
+        this.sourceLine = line;
+        this.sourcePos = start;
+        this.originalSourceLine = line;
+    }
+
+    /**
+     * Produces a token with the same type and text as this one, found at
+     * another place of the source. Used to splice the tokens of an
+     * {@code .eqv} expression into the lines that use its symbol; the text
+     * is shared, not copied.
+     *
+     * @param sourceProgram
+     *     The RISCVprogram object containing the copy
+     * @param line
+     *     The line number of the copy in that program
+     * @param start
+     *     The starting position of the copy in that line
+     * @return the copy
+     */
+    @NotNull Token copyAt(final @Nullable RISCVProgram sourceProgram, final int line, final int start) {
+        final Token copy;
+        if (this.buffer == null) {
+            copy = new Token(this.type, this.getText(), this.sourceLength, sourceProgram, line, start);
+        } else {
+            copy = new Token(this.type, this.buffer, this.offset, this.length, sourceProgram, line, start);
+            copy.value = this.value;
+        }
+        return copy;
+    }
+
     /**
      * Set original program and line number for this token.
      * Line number or both may change during pre-assembly as a result
@@ -137,7 +254,32 @@ public final class Token {
      * @return String containing source code of this token.
      */
     public @NotNull String getText() {
-        return this.value;
+        var text = this.value;
+        if (text == null) {
+            text = new String(this.buffer, this.offset, this.length);
+            this.value = text;
+        }
+        return text;
+    }
+
+    /**
+     * Produces the length of the source code of this token without
+     * materializing its text.
+     *
+     * @return number of characters of this token's source.
+     */
+    public int getLength() {
+        return this.length;
+    }
+
+    /**
+     * Produces the number of characters the source of this token takes in
+     * its line, which may differ from the length of its text.
+     *
+     * @return number of characters of this token in the source line.
+     */
+    public int getSourceLength() {
+        return this.sourceLength;
     }
 
     /**
@@ -148,7 +290,7 @@ public final class Token {
      */
     @Override
     public String toString() {
-        return this.value;
+        return this.getText();
     }
 
     /**
@@ -162,24 +162,7 @@ public enum TokenType {
             final int i = BinaryUtils.stringToInt(value); // KENV 1/6/05
 
             // Comments from 2008 and 2005 were removed - Benjamin Landers 2019
-
-            // shift operands must be in range 0-31
-            if (i >= 0 && i <= 31) {
-                return TokenType.INTEGER_5;
-            }
-            if (i >= 0 && i <= 64) {
-                return TokenType.INTEGER_6;
-            }
-            if (i >= DataTypes.MIN_IMMEDIATE_VALUE && i <= DataTypes.MAX_IMMEDIATE_VALUE) {
-                return TokenType.INTEGER_12;
-            }
-            if (i >= 0 && i <= 0xFFF) {
-                return TokenType.INTEGER_12U;
-            }
-            if (i >= DataTypes.MIN_UPPER_VALUE && i <= DataTypes.MAX_UPPER_VALUE) {
-                return TokenType.INTEGER_20;
-            }
-            return TokenType.INTEGER_32; // default when no other type is applicable
+            return TokenType.matchIntegerType(i);
         } catch (final NumberFormatException e) {
             // NO ACTION -- exception suppressed
         }
@@ -233,6 +216,35 @@ public enum TokenType {
         return TokenType.ERROR;
     }
 
+    /**
+     * Classifies an integer value based on the number of bits needed to
+     * represent it in binary, the same way {@link #matchTokenType(String)}
+     * classifies an integer literal.
+     *
+     * @param value
+     *     the integer value
+     * @return the narrowest integer TokenType that fits {@code value}
+     */
+    public static @NotNull TokenType matchIntegerType(final int value) {
+        // shift operands must be in range 0-31
+        if (value >= 0 && value <= 31) {
+            return TokenType.INTEGER_5;
+        }
+        if (value >= 0 && value <= 64) {
+            return TokenType.INTEGER_6;
+        }
+        if (value >= DataTypes.MIN_IMMEDIATE_VALUE && value <= DataTypes.MAX_IMMEDIATE_VALUE) {
+            return TokenType.INTEGER_12;
+        }
+        if (value >= 0 && value <= 0xFFF) {
+            return TokenType.INTEGER_12U;
+        }
+        if (value >= DataTypes.MIN_UPPER_VALUE && value <= DataTypes.MAX_UPPER_VALUE) {
+            return TokenType.INTEGER_20;
+        }
+        return TokenType.INTEGER_32; // default when no other type is applicable
+    }
+
     /**
      * Lets you know if given tokentype is for integers (INTGER_5, INTEGER_16,
      * INTEGER_32).
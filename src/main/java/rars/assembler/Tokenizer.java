@@ -13,8 +13,10 @@ import rars.exceptions.AssemblyException;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /*
 Copyright (c) 2003-2013,  Pete Sanderson and Kenneth Vollmar
@@ -44,6 +46,7 @@ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
 (MIT license, http://www.opensource.org/licenses/mit-license.html)
  */
 
+
 /**
  * A tokenizer is capable of tokenizing a complete source program, or a given
  * line from
@@ -60,6 +63,15 @@ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
  * generates the following token list<br>
  * IDENTIFIER, COLON, OPERATOR, REGISTER_NAME, COMMA, INTEGER_5, LEFT_PAREN,
  * REGISTER_NAME, RIGHT_PAREN, COMMENT<br>
+ * <br>
+ * A program is tokenized in a single streaming pass. The lines of each source
+ * file are copied into one character buffer shared by the whole file.
+ * Comments, quoted strings and punctuation are recorded as spans of that
+ * buffer, so their text is only turned into a {@link String} when somebody
+ * asks for it; the other tokens are classified by their text, which is
+ * materialized once and kept. {@code .include} directives are expanded during
+ * the same pass, and {@code .eqv} substitutions splice the tokens recorded for
+ * the symbol into the line instead of lexing it again.
  *
  * @author Pete Sanderson
  * @version August 2003
@@ -74,7 +86,7 @@ public final class Tokenizer {
     private static final String[] escapedCharactersValues = {"39", "34", "92", "10", "9", "8", "13", "12", "0"};
     private final @NotNull ErrorList errors;
     private final @Nullable RISCVProgram program;
-    private final @NotNull HashMap<String, String> equivalents; // DPS 11-July-2012
+    private final @NotNull HashMap<String, Equivalent> equivalents; // DPS 11-July-2012
 
     private Tokenizer(
         final @Nullable RISCVProgram program,
@@ -126,6 +138,33 @@ public final class Tokenizer {
         return value;
     }
 
+    /// Classifies tokens whose type is fully determined by their first character,
+    /// so that they can be created without materializing their text.
+    ///
+    /// @return the token type, or `null` if the token needs a full
+    /// [TokenType#matchTokenType(String)] classification.
+    private static @Nullable TokenType matchSimpleTokenType(final char first, final int length) {
+        switch (first) {
+            case '#':
+                return TokenType.COMMENT;
+            case '"':
+                return TokenType.QUOTED_STRING;
+            default:
+                break;
+        }
+        if (length != 1) {
+            return null;
+        }
+        return switch (first) {
+            case '(' -> TokenType.LEFT_PAREN;
+            case ')' -> TokenType.RIGHT_PAREN;
+            case ':' -> TokenType.COLON;
+            case '+' -> TokenType.PLUS;
+            case '-' -> TokenType.MINUS;
+            default -> null;
+        };
+    }
+
     /// Will tokenize a complete source program.
     ///
     /// @param program
@@ -135,31 +174,26 @@ public final class Tokenizer {
     /// @throws AssemblyException
     ///     if any.
     public static @NotNull List<TokenList> tokenize(final @NotNull RISCVProgram program) throws AssemblyException {
-
         final var tokenizer = new Tokenizer(program);
-        final var source = tokenizer.processIncludes(program, new HashMap<>()); // DPS 9-Jan-2013
+        final var lines = program.getSourceList();
+        final var source = new ArrayList<SourceLine>(lines.size());
+        final var tokenList = new ArrayList<TokenList>(lines.size());
+        // Error messages translate line numbers through the program's source line
+        // list, so it has to grow along with the token list.
         program.setSourceLineList(source);
-
-        final var tokenList = new ArrayList<TokenList>();
+        try {
+            tokenizer.tokenizeProgram(program, lines, source, tokenList, new HashMap<>()); // DPS 9-Jan-2013
+        } finally {
+            program.setSourceLineList(source);
+        }
+        // DPS 03-Jan-2013. Related to 11-July-2012. Replace original source with
+        // source modified by .eqv substitution. Not needed by assembler, but looks
+        // better in the Text Segment Display.
         for (int i = 0; i < source.size(); i++) {
-            final var sourceLine = source.get(i).source();
-            final var currentLineTokens = tokenizer.tokenizeLineImpl(tokenizer.program, i + 1, sourceLine, true);
-            tokenList.add(currentLineTokens);
-            // DPS 03-Jan-2013. Related to 11-July-2012. If source code substitution was
-            // made
-            // based on .eqv directive during tokenizing, the processed line, a String, is
-            // not the same object as the original line. Thus I can use != instead of
-            // !equals()
-            // This IF statement will replace original source with source modified by .eqv
-            // substitution.
-            // Not needed by assembler, but looks better in the Text Segment Display.
-            if (!sourceLine.isEmpty() && !sourceLine.equals(currentLineTokens.getProcessedLine())) {
-                source.set(
-                    i, new SourceLine(
-                        currentLineTokens.getProcessedLine(), source.get(i).program(),
-                        source.get(i).lineNumber()
-                    )
-                );
+            final var sourceLine = source.get(i);
+            final var processedLine = tokenList.get(i).getProcessedLine();
+            if (!sourceLine.source().isEmpty() && !sourceLine.source().equals(processedLine)) {
+                source.set(i, new SourceLine(processedLine, sourceLine.program(), sourceLine.lineNumber()));
             }
         }
         if (tokenizer.errors.errorsOccurred()) {
@@ -215,78 +249,186 @@ public final class Tokenizer {
         return tokenizer.tokenizeLineImpl(null, lineNum, theLine, doEqvSubstitutes);
     }
 
-    // Modified for release 4.3, to preserve existing API.
+    private @NotNull TokenList tokenizeLineImpl(
+        final @Nullable RISCVProgram program, final int lineNum,
+        final @NotNull String theLine, final boolean doEqvSubstitutes
+    ) {
+        final var result = new TokenList();
+        if (theLine.isEmpty()) {
+            return result;
+        }
+        final char[] line = theLine.toCharArray();
+        this.lexLine(theLine, line, 0, line.length, program, lineNum, result);
+        if (doEqvSubstitutes) {
+            return this.processEqv(program, lineNum, theLine, result); // DPS 11-July-2012
+        }
+        return result;
+    }
 
     /**
-     * Will tokenize one line of source code. If lexical errors are discovered,
-     * they are noted in an ErrorMessage object which is added to the provided
-     * ErrorList
-     * instead of the Tokenizer's error list. Will NOT throw an exception.
+     * Tokenizes all lines of one source file, appending them to the flattened
+     * source and token lists. Any ".include" directive encountered is replaced
+     * by the contents of the included file, which is tokenized recursively in
+     * place. Recursive includes, both direct and indirect, are detected and
+     * reported. DPS 11-Jan-2013
      *
+     * @param lineProgram
+     *     the program the lines come from; differs from {@link #program}
+     *     for included files
+     * @param lines
+     *     the source lines of {@code lineProgram}
+     * @param source
+     *     flattened list of source lines, one per entry of {@code tokenList}
+     * @param tokenList
+     *     flattened list of tokenized lines
+     * @param inclFiles
+     *     files included so far
+     */
+    private void tokenizeProgram(
+        final @NotNull RISCVProgram lineProgram,
+        final @NotNull List<@NotNull String> lines,
+        final @NotNull List<@NotNull SourceLine> source,
+        final @NotNull List<@NotNull TokenList> tokenList,
+        final @NotNull Map<String, String> inclFiles
+    ) throws AssemblyException {
+        int totalLength = 0;
+        for (final var line : lines) {
+            totalLength += line.length();
+        }
+        // All tokens of this file share the buffer, so it is never reused or modified.
+        final char[] buffer = new char[totalLength];
+        int offset = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            final String line = lines.get(i);
+            final int length = line.length();
+            line.getChars(0, length, buffer, offset);
+            source.add(new SourceLine(line, lineProgram, i + 1));
+            final int lineNum = source.size();
+            final var tokens = new TokenList();
+            if (length == 0) {
+                tokenList.add(tokens);
+                continue;
+            }
+            this.lexLine(line, buffer, offset, offset + length, this.program, lineNum, tokens);
+            offset += length;
+            final int includePos = Tokenizer.findInclude(tokens);
+            if (includePos < 0) {
+                tokenList.add(this.processEqv(this.program, lineNum, line, tokens));
+                continue;
+            }
+            final Token fileToken = tokens.get(includePos + 1);
+            String filename = fileToken.getText().transform((s) -> s.substring(1, s.length() - 1));
+            // Handle either absolute or relative pathname for .include file
+            if (!new File(filename).isAbsolute()) {
+                filename = lineProgram.getFile().getParent() + File.separator + filename;
+            }
+            if (inclFiles.containsKey(filename)) {
+                // This is a recursive include. Generate error message and return immediately.
+                this.errors.addTokenError(fileToken, "Recursive include of file " + filename);
+                throw new AssemblyException(this.errors);
+            }
+            inclFiles.put(filename, filename);
+            final RISCVProgram incl = new RISCVProgram();
+            try {
+                incl.readSource(new File(filename));
+            } catch (final AssemblyException p) {
+                this.errors.addTokenError(fileToken, "Error reading include file " + filename);
+                throw new AssemblyException(this.errors);
+            }
+            // The .include line itself is replaced by the contents of the file.
+            source.removeLast();
+            this.tokenizeProgram(incl, incl.getSourceList(), source, tokenList, inclFiles);
+        }
+    }
+
+    /// @return the position of the ".include" token followed by a file name,
+    /// or -1 if the line does not include a file.
+    private static int findInclude(final @NotNull TokenList tokens) {
+        for (int i = 0; i < tokens.size() - 1; i++) {
+            final Token token = tokens.get(i);
+            if (token.getLength() == Directive.INCLUDE.getName().length()
+                && token.getText().equalsIgnoreCase(Directive.INCLUDE.getName())
+                && tokens.get(i + 1).getType() == TokenType.QUOTED_STRING) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Will tokenize one line of source code, stored in {@code line} between
+     * {@code from} (inclusive) and {@code to} (exclusive). The created tokens
+     * refer to {@code line}, which therefore must not be modified afterwards.
+     * If lexical errors are discovered, they are noted in the tokenizer's
+     * error list.
+     *
+     * @param theLine
+     *     String containing the same source code (used in messages)
+     * @param line
+     *     buffer containing the source code
+     * @param from
+     *     index of the first character of the line
+     * @param to
+     *     index one past the last character of the line
      * @param program
      *     RISCVprogram containing this line of source
      * @param lineNum
      *     line number from source code (used in error message)
-     * @param theLine
-     *     String containing source code
-     * @param doEqvSubstitutes
-     *     boolean param set true to perform .eqv substitutions,
-     *     else false
-     * @return the generated token list for that line
+     * @param result
+     *     list the generated tokens are appended to
      */
-    private @NotNull TokenList tokenizeLineImpl(
-        final @Nullable RISCVProgram program, final int lineNum,
-        final @NotNull String theLine, final boolean doEqvSubstitutes
+    private void lexLine(
+        final @NotNull String theLine,
+        final char @NotNull [] line,
+        final int from,
+        final int to,
+        final @Nullable RISCVProgram program,
+        final int lineNum,
+        final @NotNull TokenList result
     ) {
-        TokenList result = new TokenList();
-        if (theLine.isEmpty()) {
-            return result;
-        }
-        // will be faster to work with char arrays instead of strings
-        final char[] line = theLine.toCharArray();
-        final char[] token = new char[line.length];
         if (Globals.debug) {
             Tokenizer.LOGGER.debug("source line --->{}<---", theLine);
         }
+        // Every token is a contiguous span of the line, so only its start and length
+        // have to be tracked.
         // Each iteration of this loop processes one character in the source line.
         boolean insideQuotedString = false;
-        int tokenStartPos = 1;
-        int tokenPos = 0;
-        int linePos = 0;
-        while (linePos < line.length) {
+        int tokenStart = from;
+        int tokenLength = 0;
+        int linePos = from;
+        while (linePos < to) {
             char c = line[linePos];
             if (insideQuotedString) { // everything goes into token
-                token[tokenPos++] = c;
-                if (c == '"' && token[tokenPos - 2] != '\\') { // If quote not preceded by backslash, this is end
-                    this.processCandidateToken(token, program, lineNum, theLine, tokenPos, tokenStartPos, result);
-                    tokenPos = 0;
+                tokenLength++;
+                if (c == '"' && line[linePos - 1] != '\\') { // If quote not preceded by backslash, this is end
+                    this.processCandidateToken(theLine, line, from, tokenStart, tokenLength, program, lineNum, result);
+                    tokenLength = 0;
                     insideQuotedString = false;
                 }
             } else { // not inside a quoted string, so be sensitive to delimiters
                 switch (c) {
                     case '#': // # denotes comment that takes remainder of line
-                        if (tokenPos > 0) {
+                        if (tokenLength > 0) {
                             this.processCandidateToken(
-                                token, program, lineNum, theLine, tokenPos, tokenStartPos,
+                                theLine, line, from, tokenStart, tokenLength, program, lineNum,
                                 result
                             );
                         }
-                        tokenStartPos = linePos + 1;
-                        tokenPos = line.length - linePos;
-                        System.arraycopy(line, linePos, token, 0, tokenPos);
-                        this.processCandidateToken(token, program, lineNum, theLine, tokenPos, tokenStartPos, result);
-                        linePos = line.length;
-                        tokenPos = 0;
+                        tokenStart = linePos;
+                        tokenLength = to - linePos;
+                        this.processCandidateToken(theLine, line, from, tokenStart, tokenLength, program, lineNum, result);
+                        linePos = to;
+                        tokenLength = 0;
                         break;
                     case ' ':
                     case '\t':
                     case ',': // space, tab or comma is delimiter
-                        if (tokenPos > 0) {
+                        if (tokenLength > 0) {
                             this.processCandidateToken(
-                                token, program, lineNum, theLine, tokenPos, tokenStartPos,
+                                theLine, line, from, tokenStart, tokenLength, program, lineNum,
                                 result
                             );
-                            tokenPos = 0;
+                            tokenLength = 0;
                         }
                         break;
                     // These two guys are special. Will be recognized as unary if and only if two
@@ -300,115 +442,108 @@ public final class Tokenizer {
                         // Here's the REAL hack: recognizing signed exponent in E-notation floating
                         // point!
                         // (e.g. 1.2e-5) Add the + or - to the token and keep going. DPS 17 Aug 2005
-                        if (tokenPos > 0 && line.length >= linePos + 2 && Character.isDigit(line[linePos + 1]) &&
+                        if (tokenLength > 0 && to >= linePos + 2 && Character.isDigit(line[linePos + 1]) &&
                             (line[linePos - 1] == 'e' || line[linePos - 1] == 'E')) {
-                            token[tokenPos++] = c;
+                            tokenLength++;
                             break;
                         }
                         // End of REAL hack.
-                        if (tokenPos > 0) {
+                        if (tokenLength > 0) {
                             this.processCandidateToken(
-                                token, program, lineNum, theLine, tokenPos, tokenStartPos,
+                                theLine, line, from, tokenStart, tokenLength, program, lineNum,
                                 result
                             );
-                            tokenPos = 0;
                         }
 
-                        tokenStartPos = linePos + 1;
-                        token[tokenPos++] = c;
-                        if (line.length > linePos + 3 && line[linePos + 1] == 'I' && line[linePos + 2] == 'n'
+                        tokenStart = linePos;
+                        tokenLength = 1;
+                        if (to > linePos + 3 && line[linePos + 1] == 'I' && line[linePos + 2] == 'n'
                             && line[linePos + 3] == 'f') {
-                            result.add(new Token(TokenType.REAL_NUMBER, "-Inf", program, lineNum, tokenStartPos));
+                            result.add(new Token(TokenType.REAL_NUMBER, "-Inf", program, lineNum, tokenStart - from + 1));
                             linePos += 3;
-                            tokenPos = 0;
+                            tokenLength = 0;
                             break;
                         }
                         if (!(
                             (result.isEmpty() || result.get(result.size() - 1).getType() != TokenType.IDENTIFIER) &&
-                                (line.length >= linePos + 2 && Character.isDigit(line[linePos + 1]))
+                                (to >= linePos + 2 && Character.isDigit(line[linePos + 1]))
                         )) {
                             // treat it as binary.....
                             this.processCandidateToken(
-                                token, program, lineNum, theLine, tokenPos, tokenStartPos,
+                                theLine, line, from, tokenStart, tokenLength, program, lineNum,
                                 result
                             );
-                            tokenPos = 0;
+                            tokenLength = 0;
                         }
                         break;
                     // these are other single-character tokens
                     case ':':
                     case '(':
                     case ')':
-                        if (tokenPos > 0) {
+                        if (tokenLength > 0) {
                             this.processCandidateToken(
-                                token, program, lineNum, theLine, tokenPos, tokenStartPos,
+                                theLine, line, from, tokenStart, tokenLength, program, lineNum,
                                 result
                             );
-                            tokenPos = 0;
                         }
-                        tokenStartPos = linePos + 1;
-                        token[tokenPos++] = c;
-                        this.processCandidateToken(token, program, lineNum, theLine, tokenPos, tokenStartPos, result);
-                        tokenPos = 0;
+                        tokenStart = linePos;
+                        this.processCandidateToken(theLine, line, from, tokenStart, 1, program, lineNum, result);
+                        tokenLength = 0;
                         break;
                     case '"': // we're not inside a quoted string, so start a new token...
-                        if (tokenPos > 0) {
+                        if (tokenLength > 0) {
                             this.processCandidateToken(
-                                token, program, lineNum, theLine, tokenPos, tokenStartPos,
+                                theLine, line, from, tokenStart, tokenLength, program, lineNum,
                                 result
                             );
-                            tokenPos = 0;
                         }
-                        tokenStartPos = linePos + 1;
-                        token[tokenPos++] = c;
+                        tokenStart = linePos;
+                        tokenLength = 1;
                         insideQuotedString = true;
                         break;
                     case '\'': // start of character constant (single quote).
-                        if (tokenPos > 0) {
+                        if (tokenLength > 0) {
                             this.processCandidateToken(
-                                token, program, lineNum, theLine, tokenPos, tokenStartPos,
+                                theLine, line, from, tokenStart, tokenLength, program, lineNum,
                                 result
                             );
-                            tokenPos = 0;
                         }
                         // Our strategy is to process the whole thing right now...
-                        tokenStartPos = linePos + 1;
-                        token[tokenPos++] = c; // Put the quote in token[0]
-                        final int lookaheadChars = line.length - linePos - 1;
+                        tokenStart = linePos;
+                        tokenLength = 1; // The quote is the first character of the token
+                        final int lookaheadChars = to - linePos - 1;
                         // need minimum 2 more characters, 1 for char and 1 for ending quote
                         if (lookaheadChars < 2) {
                             break; // gonna be an error
                         }
                         c = line[++linePos];
-                        token[tokenPos++] = c; // grab second character, put it in token[1]
+                        tokenLength++; // grab second character
                         if (c == '\'') {
                             break; // gonna be an error: nothing between the quotes
                         }
                         c = line[++linePos];
-                        token[tokenPos++] = c; // grab third character, put it in token[2]
+                        tokenLength++; // grab third character
                         // Process if we've either reached second, non-escaped, quote or end of line.
-                        if (c == '\'' && token[1] != '\\' || lookaheadChars == 2) {
+                        if (c == '\'' && line[tokenStart + 1] != '\\' || lookaheadChars == 2) {
                             this.processCandidateToken(
-                                token, program, lineNum, theLine, tokenPos, tokenStartPos,
+                                theLine, line, from, tokenStart, tokenLength, program, lineNum,
                                 result
                             );
-                            tokenPos = 0;
-                            tokenStartPos = linePos + 1;
+                            tokenLength = 0;
                             break;
                         }
                         // At this point, there is at least one more character on this line. If we're
                         // still here after seeing a second quote, it was escaped. Not done yet;
                         // we either have an escape code, an octal code (also escaped) or invalid.
                         c = line[++linePos];
-                        token[tokenPos++] = c; // grab fourth character, put it in token[3]
+                        tokenLength++; // grab fourth character
                         // Process, if this is ending quote for escaped character or if at end of line
                         if (c == '\'' || lookaheadChars == 3) {
                             this.processCandidateToken(
-                                token, program, lineNum, theLine, tokenPos, tokenStartPos,
+                                theLine, line, from, tokenStart, tokenLength, program, lineNum,
                                 result
                             );
-                            tokenPos = 0;
-                            tokenStartPos = linePos + 1;
+                            tokenLength = 0;
                             break;
                         }
                         // At this point, we've handled all legal possibilities except octal, e.g.
@@ -416,114 +551,44 @@ public final class Tokenizer {
                         // Proceed, if enough characters remain to finish off octal.
                         if (lookaheadChars >= 5) {
                             c = line[++linePos];
-                            token[tokenPos++] = c; // grab fifth character, put it in token[4]
+                            tokenLength++; // grab fifth character
                             if (c != '\'') {
                                 // still haven't reached end, last chance for validity!
-                                c = line[++linePos];
-                                token[tokenPos++] = c; // grab sixth character, put it in token[5]
+                                ++linePos;
+                                tokenLength++; // grab sixth character
                             }
                         }
                         // process no matter what...we either have a valid character by now or not
-                        this.processCandidateToken(token, program, lineNum, theLine, tokenPos, tokenStartPos, result);
-                        tokenPos = 0;
-                        tokenStartPos = linePos + 1;
+                        this.processCandidateToken(theLine, line, from, tokenStart, tokenLength, program, lineNum, result);
+                        tokenLength = 0;
                         break;
                     default:
-                        if (tokenPos == 0) {
-                            tokenStartPos = linePos + 1;
+                        if (tokenLength == 0) {
+                            tokenStart = linePos;
                         }
-                        token[tokenPos++] = c;
+                        tokenLength++;
                         break;
                 } // switch
             } // if (insideQuotedString)
             linePos++;
         } // while
-        if (tokenPos > 0) {
+        if (tokenLength > 0) {
             if (insideQuotedString) {
                 this.errors.add(ErrorMessage.error(
-                    program, lineNum, tokenStartPos,
+                    program, lineNum, tokenStart - from + 1,
                     "String is not terminated."
                 ));
             }
-            this.processCandidateToken(token, program, lineNum, theLine, tokenPos, tokenStartPos, result);
-        }
-        if (doEqvSubstitutes) {
-            result = this.processEqv(program, lineNum, theLine, result); // DPS 11-July-2012
-        }
-        return result;
-    }
-
-    /**
-     * pre-pre-processing pass through source code to process any ".include"
-     * directives.
-     * When one is encountered, the contents of the included file are inserted at
-     * that
-     * point. If no .include statements, the return value is a new array list but
-     * with the same lines of source code. Uses recursion to correctly process
-     * included
-     * files that themselves have .include. Plus it will detect and report recursive
-     * includes both direct and indirect.
-     * DPS 11-Jan-2013
-     */
-    private @NotNull List<SourceLine> processIncludes(
-        final @NotNull RISCVProgram program,
-        final @NotNull Map<String, String> inclFiles
-    )
-        throws AssemblyException {
-        final var sourceList = program.getSourceList();
-        final ArrayList<SourceLine> result = new ArrayList<>(sourceList.size());
-        for (int i = 0; i < sourceList.size(); i++) {
-            final String line = sourceList.get(i);
-            final TokenList tokenizedLine = this.tokenizeLineImpl(program, i + 1, line, false);
-            boolean hasInclude = false;
-            for (int ii = 0; ii < tokenizedLine.size(); ii++) {
-                if (tokenizedLine.get(ii).getText().equalsIgnoreCase(Directive.INCLUDE.getName())
-                    && (tokenizedLine.size() > ii + 1)
-                    && tokenizedLine.get(ii + 1).getType() == TokenType.QUOTED_STRING) {
-                    String filename = tokenizedLine
-                        .get(ii + 1)
-                        .getText()
-                        .transform((s) -> s.substring(1, s.length() - 1));
-                    // Handle either absolute or relative pathname for .include file
-                    if (!new File(filename).isAbsolute()) {
-                        filename = program.getFile().getParent() + File.separator + filename;
-                    }
-                    if (inclFiles.containsKey(filename)) {
-                        // This is a recursive include. Generate error message and return immediately.
-                        final Token t = tokenizedLine.get(ii + 1);
-                        this.errors.add(ErrorMessage.error(
-                            program, t.getSourceLine(), t.getStartPos(),
-                            "Recursive include of file " + filename
-                        ));
-                        throw new AssemblyException(this.errors);
-                    }
-                    inclFiles.put(filename, filename);
-                    final RISCVProgram incl = new RISCVProgram();
-                    try {
-                        incl.readSource(new File(filename));
-                    } catch (final AssemblyException p) {
-                        final Token token = tokenizedLine.get(ii + 1);
-                        this.errors.addTokenError(token, "Error reading include file " + filename);
-                        throw new AssemblyException(this.errors);
-                    }
-                    final var allLines = this.processIncludes(incl, inclFiles);
-                    result.addAll(allLines);
-                    hasInclude = true;
-                    break;
-                }
-            }
-            if (!hasInclude) {
-                result.add(new SourceLine(line, program, i + 1));// line);
-            }
+            this.processCandidateToken(theLine, line, from, tokenStart, tokenLength, program, lineNum, result);
         }
-        return result;
     }
 
     private @NotNull TokenList processEqv(
         final @Nullable RISCVProgram program, final int lineNum,
-        @NotNull String theLine,
+        final @NotNull String theLine,
         final @NotNull TokenList tokens
     ) {
+        tokens.setProcessedLine(theLine); // DPS 03-Jan-2013. Related to changes of 11-July-2012.
         // See if it is .eqv directive. If so, record it...
         // Have to assure it is a well-formed statement right now (can't wait for
         // assembler).
@@ -560,7 +625,7 @@ public final class Tokenizer {
                 // but if left
                 // undetected it will result in infinite recursion. e.g. .eqv ONE, (ONE)
                 for (int i = dirPos + 2; i < tokens.size(); i++) {
-                    if (tokens.get(i).getText().equals(symbol)) {
+                    if (tokens.get(i).getLength() == symbol.length() && tokens.get(i).getText().equals(symbol)) {
                         this.errors.add(ErrorMessage.error(
                             program, lineNum, tokens.get(dirPos).getStartPos(),
                             "Cannot substitute " + symbol + " for itself in " + Directive.EQV.getName()
@@ -576,53 +641,169 @@ public final class Tokenizer {
                 // COMMENT or to the end.
                 final int startExpression = tokens.get(dirPos + 2).getStartPos();
                 final int endExpression = tokens.get(tokenPosLastOperand).getStartPos()
-                    + tokens.get(tokenPosLastOperand).getText().length();
+                    + tokens.get(tokenPosLastOperand).getSourceLength();
                 final String expression = theLine.substring(startExpression - 1, endExpression - 1);
+                final var expressionTokens = new ArrayList<Token>(tokenPosLastOperand - dirPos - 1);
+                for (int i = dirPos + 2; i <= tokenPosLastOperand; i++) {
+                    expressionTokens.add(tokens.get(i));
+                }
                 // Removed equivalents checking - this is a tokenizer, not a semantic checker
-                this.equivalents.put(symbol, expression);
+                this.equivalents.put(symbol, new Equivalent(expression, startExpression, expressionTokens));
                 return tokens;
             }
         }
-        // Check if a substitution from defined .eqv is to be made. If so, make one.
-        boolean substitutionMade = false;
-        for (int i = 0; i < tokens.size(); i++) {
-            final Token token = tokens.get(i);
-            if (token.getType() == TokenType.IDENTIFIER
-                && this.equivalents.containsKey(token.getText())) {
-                // do the substitution
-                final String sub = this.equivalents.get(token.getText());
-                final int startPos = token.getStartPos();
-                theLine = theLine.substring(0, startPos - 1) + sub
-                    + theLine.substring(startPos + token.getText().length() - 1);
-                substitutionMade = true; // one substitution per call. If there are multiple, will catch next one on the
-                // recursion
-                break;
+        if (this.equivalents.isEmpty() || !this.usesEquivalent(tokens)) {
+            return tokens;
+        }
+        // Make the substitutions from defined .eqv, including those of symbols used in their expressions.
+        final var processedLine = new StringBuilder(theLine.length());
+        final var result = new TokenList();
+        this.substitute(theLine, 1, tokens, program, lineNum, processedLine, result, new HashSet<>());
+        result.setProcessedLine(processedLine.toString());
+        return result;
+    }
+
+    private boolean usesEquivalent(final @NotNull TokenList tokens) {
+        for (final Token token : tokens) {
+            if (token.getType() == TokenType.IDENTIFIER && this.equivalents.containsKey(token.getText())) {
+                return true;
             }
         }
-        tokens.setProcessedLine(theLine); // DPS 03-Jan-2013. Related to changes of 11-July-2012.
+        return false;
+    }
 
-        return substitutionMade ? this.tokenizeLineImpl(this.program, lineNum, theLine, true) : tokens;
+    /**
+     * Appends {@code tokens} to {@code result} with the symbols defined by
+     * {@code .eqv} replaced by copies of the tokens of their expressions, and
+     * the text they come from, with the same replacements, to
+     * {@code processedLine}. The copies are placed where their text ends up
+     * in the processed line.
+     *
+     * @param text
+     *     the text {@code tokens} were lexed from
+     * @param textStart
+     *     position of the first character of {@code text} in its source line
+     * @param expanding
+     *     the symbols being substituted, which cannot be substituted again
+     */
+    private void substitute(
+        final @NotNull String text,
+        final int textStart,
+        final @NotNull Iterable<@NotNull Token> tokens,
+        final @Nullable RISCVProgram program,
+        final int lineNum,
+        final @NotNull StringBuilder processedLine,
+        final @NotNull TokenList result,
+        final @NotNull Set<@NotNull String> expanding
+    ) {
+        int copied = 0;
+        for (final Token token : tokens) {
+            final int tokenOffset = token.getStartPos() - textStart;
+            processedLine.append(text, copied, tokenOffset);
+            copied = tokenOffset + token.getSourceLength();
+            final var equivalent = token.getType() == TokenType.IDENTIFIER
+                ? this.equivalents.get(token.getText())
+                : null;
+            if (equivalent != null && expanding.add(token.getText())) {
+                this.substitute(
+                    equivalent.text(), equivalent.start(), equivalent.tokens(), program, lineNum, processedLine,
+                    result, expanding
+                );
+                expanding.remove(token.getText());
+                continue;
+            }
+            if (equivalent != null) {
+                // e.g. .eqv ONE, TWO and .eqv TWO, ONE; the substitution would never end
+                this.errors.add(ErrorMessage.error(
+                    program, lineNum, processedLine.length() + 1,
+                    "Cannot substitute " + token.getText() + " for itself in " + Directive.EQV.getName()
+                        + " directive"
+                ));
+            }
+            this.addSubstituted(token, program, lineNum, processedLine.length() + 1, result);
+            processedLine.append(text, tokenOffset, copied);
+        }
+        processedLine.append(text, copied, text.length());
+    }
+
+    /**
+     * Appends a copy of a token to a line with substitutions. A sign that
+     * ends up right before a number, and does not follow an identifier, is
+     * merged into the number, as {@link #lexLine} would do if it saw the
+     * substituted text, e.g. for {@code -STEP} after {@code .eqv STEP, 2}.
+     */
+    private void addSubstituted(
+        final @NotNull Token token,
+        final @Nullable RISCVProgram program,
+        final int lineNum,
+        final int startPos,
+        final @NotNull TokenList result
+    ) {
+        final int size = result.size();
+        if (size > 0) {
+            final Token sign = result.get(size - 1);
+            if ((sign.getType() == TokenType.MINUS || sign.getType() == TokenType.PLUS)
+                && sign.getStartPos() + 1 == startPos
+                && (size == 1 || result.get(size - 2).getType() != TokenType.IDENTIFIER)
+                && Character.isDigit(token.getText().charAt(0))) {
+                final String value = sign.getText() + token.getText();
+                final TokenType type = TokenType.matchTokenType(value);
+                if (type == TokenType.ERROR) {
+                    this.errors.add(ErrorMessage.error(
+                        program, lineNum, sign.getStartPos(),
+                        "Invalid language element: " + value
+                    ));
+                }
+                result.set(size - 1, new Token(type, value, program, lineNum, sign.getStartPos()));
+                return;
+            }
+        }
+        result.add(token.copyAt(program, lineNum, startPos));
     }
 
     /// Given candidate token and its position, will classify and record it.
     private void processCandidateToken(
-        final char[] token, final @Nullable RISCVProgram program, final int line,
         final @NotNull String theLine,
-        final int tokenPos, final int tokenStartPos,
+        final char @NotNull [] line,
+        final int lineStart,
+        final int tokenStart,
+        final int tokenLength,
+        final @Nullable RISCVProgram program,
+        final int lineNum,
         final @NotNull TokenList tokenList
     ) {
-        String value = new String(token, 0, tokenPos);
-        if (!value.isEmpty() && value.charAt(0) == '\'') {
+        final int tokenStartPos = tokenStart - lineStart + 1;
+        final TokenType simpleType = Tokenizer.matchSimpleTokenType(line[tokenStart], tokenLength);
+        if (simpleType != null) {
+            tokenList.add(new Token(simpleType, line, tokenStart, tokenLength, program, lineNum, tokenStartPos));
+            return;
+        }
+        String value = new String(line, tokenStart, tokenLength);
+        if (value.charAt(0) == '\'') {
             value = preprocessCharacterLiteral(value);
         }
         final TokenType type = TokenType.matchTokenType(value);
         if (type == TokenType.ERROR) {
             this.errors.add(ErrorMessage.error(
-                program, line, tokenStartPos,
+                program, lineNum, tokenStartPos,
                 theLine + "\nInvalid language element: " + value
             ));
         }
-        final Token toke = new Token(type, value, program, line, tokenStartPos);
+        final Token toke = new Token(type, value, tokenLength, program, lineNum, tokenStartPos);
         tokenList.add(toke);
     }
+
+    /**
+     * Expression of a symbol defined by {@code .eqv}, with the tokens it was
+     * lexed into on the line of the directive.
+     *
+     * @param text
+     *     the expression, as written
+     * @param start
+     *     position of the expression in the line of the directive
+     * @param tokens
+     *     the tokens of the expression, positioned in the line of the directive
+     */
+    private record Equivalent(@NotNull String text, int start, @NotNull List<@NotNull Token> tokens) {
+    }
 }
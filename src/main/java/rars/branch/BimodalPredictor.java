@@ -0,0 +1,29 @@
+package rars.branch;
+
+import org.jetbrains.annotations.NotNull;
+import rars.simulator.BranchKind;
+
+/** A table of saturating counters indexed by the branch address. */
+final class BimodalPredictor implements BranchPredictor {
+    private final @NotNull CounterTable counters;
+
+    BimodalPredictor(final int entries, final int counterBits) {
+        this.counters = new CounterTable(entries, counterBits);
+    }
+
+    @Override
+    public boolean predicts(final @NotNull BranchKind kind) {
+        return kind == BranchKind.CONDITIONAL;
+    }
+
+    @Override
+    public boolean resolve(final int pc, final int target, final boolean taken, final @NotNull BranchKind kind) {
+        if (kind != BranchKind.CONDITIONAL) {
+            return true;
+        }
+        final var index = CounterTable.index(pc);
+        final var prediction = this.counters.predict(index);
+        this.counters.update(index, taken);
+        return prediction == taken;
+    }
+}
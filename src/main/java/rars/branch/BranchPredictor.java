@@ -0,0 +1,24 @@
+package rars.branch;
+
+import org.jetbrains.annotations.NotNull;
+import rars.simulator.BranchKind;
+
+/**
+ * A branch predictor model. The {@link BranchPredictorEngine} hands it every
+ * control transfer of the program, but only scores it on the kinds it
+ * {@link #predicts(BranchKind) predicts}; the other ones may still update its
+ * state (e.g. calls push onto a return address stack).
+ */
+public interface BranchPredictor {
+    /** @return whether the predictor is scored on control transfers of this kind */
+    boolean predicts(@NotNull BranchKind kind);
+
+    /**
+     * Predicts the outcome of a control transfer and then learns its actual
+     * outcome.
+     *
+     * @return whether the prediction was correct
+     * @see rars.simulator.BranchListener#branchResolved(int, int, boolean, BranchKind)
+     */
+    boolean resolve(int pc, int target, boolean taken, @NotNull BranchKind kind);
+}
@@ -0,0 +1,165 @@
+package rars.branch;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Locale;
+
+/**
+ * Organization of a single branch predictor.
+ * <p>
+ * The textual form, accepted by {@link #parse(String)} and produced by
+ * {@link #toString()}, is the {@link BranchPredictorType type} followed by its
+ * parameters, all separated with {@code :}:
+ * <ul>
+ *     <li>{@code taken}, {@code not-taken}, {@code btfn} - static predictors,</li>
+ *     <li>{@code bimodal:entries[:bits]} - {@code entries} counters of
+ *     {@code bits} bits (2 by default),</li>
+ *     <li>{@code gshare:entries:history[:bits]} and
+ *     {@code tournament:entries:history[:bits]} - the same, with
+ *     {@code history} bits of global history,</li>
+ *     <li>{@code btb:entries} - a branch target buffer,</li>
+ *     <li>{@code ras:depth} - a return address stack.</li>
+ * </ul>
+ * The number of entries of a table must be a power of two.
+ *
+ * @param type
+ *     the kind of predictor
+ * @param entries
+ *     number of entries of the tables, or depth of the return address stack
+ * @param historyBits
+ *     length of the global history
+ * @param counterBits
+ *     width of the saturating counters
+ */
+public record BranchPredictorConfiguration(
+    @NotNull BranchPredictorType type,
+    int entries,
+    int historyBits,
+    int counterBits
+) {
+    private static final int DEFAULT_COUNTER_BITS = 2;
+
+    public BranchPredictorConfiguration {
+        switch (type) {
+            case TAKEN, NOT_TAKEN, BTFN -> {
+            }
+            case RAS -> {
+                if (entries <= 0) {
+                    throw new IllegalArgumentException("The return address stack depth must be positive.");
+                }
+            }
+            case BTB -> requirePowerOfTwo(entries);
+            case BIMODAL, GSHARE, TOURNAMENT -> {
+                requirePowerOfTwo(entries);
+                if (counterBits < 1 || counterBits > 7) {
+                    throw new IllegalArgumentException("Counters must be between 1 and 7 bits wide.");
+                }
+                if (historyBits < 0 || historyBits > 30) {
+                    throw new IllegalArgumentException("The global history must be between 0 and 30 bits long.");
+                }
+            }
+        }
+    }
+
+    private static void requirePowerOfTwo(final int entries) {
+        if (Integer.bitCount(entries) != 1) {
+            throw new IllegalArgumentException("The number of entries must be a power of two.");
+        }
+    }
+
+    /**
+     * Parses a configuration in the format described in the class
+     * documentation.
+     *
+     * @throws IllegalArgumentException
+     *     if the text is not a valid configuration
+     */
+    public static @NotNull BranchPredictorConfiguration parse(final @NotNull String text) {
+        final var parts = text.trim().toLowerCase(Locale.ROOT).split(":");
+        final var type = parseType(parts[0]);
+        final var parameters = parts.length - 1;
+        return switch (type) {
+            case TAKEN, NOT_TAKEN, BTFN -> {
+                expectParameters(text, parameters, 0, 0);
+                yield new BranchPredictorConfiguration(type, 0, 0, 0);
+            }
+            case BIMODAL -> {
+                expectParameters(text, parameters, 1, 2);
+                yield new BranchPredictorConfiguration(
+                    type,
+                    parseNumber(parts[1]),
+                    0,
+                    parameters > 1 ? parseNumber(parts[2]) : DEFAULT_COUNTER_BITS
+                );
+            }
+            case GSHARE, TOURNAMENT -> {
+                expectParameters(text, parameters, 2, 3);
+                yield new BranchPredictorConfiguration(
+                    type,
+                    parseNumber(parts[1]),
+                    parseNumber(parts[2]),
+                    parameters > 2 ? parseNumber(parts[3]) : DEFAULT_COUNTER_BITS
+                );
+            }
+            case BTB, RAS -> {
+                expectParameters(text, parameters, 1, 1);
+                yield new BranchPredictorConfiguration(type, parseNumber(parts[1]), 0, 0);
+            }
+        };
+    }
+
+    private static @NotNull BranchPredictorType parseType(final @NotNull String text) {
+        for (final var type : BranchPredictorType.values()) {
+            if (type.toString().equals(text)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown branch predictor \"" + text + "\".");
+    }
+
+    private static void expectParameters(
+        final @NotNull String text,
+        final int count,
+        final int minimum,
+        final int maximum
+    ) {
+        if (count < minimum || count > maximum) {
+            throw new IllegalArgumentException("Wrong number of parameters in \"" + text + "\".");
+        }
+    }
+
+    private static int parseNumber(final @NotNull String text) {
+        try {
+            return Integer.parseInt(text);
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number \"" + text + "\".", e);
+        }
+    }
+
+    /** @return a new predictor with this organization, in its initial state */
+    public @NotNull BranchPredictor create() {
+        return switch (this.type) {
+            case TAKEN, NOT_TAKEN, BTFN -> new StaticPredictor(this.type);
+            case BIMODAL -> new BimodalPredictor(this.entries, this.counterBits);
+            case GSHARE -> new GsharePredictor(this.entries, this.historyBits, this.counterBits);
+            case TOURNAMENT -> new TournamentPredictor(this.entries, this.historyBits, this.counterBits);
+            case BTB -> new BranchTargetBuffer(this.entries);
+            case RAS -> new ReturnAddressStack(this.entries);
+        };
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return switch (this.type) {
+            case TAKEN, NOT_TAKEN, BTFN -> this.type.toString();
+            case BIMODAL -> "%s:%d:%d".formatted(this.type, this.entries, this.counterBits);
+            case GSHARE, TOURNAMENT -> "%s:%d:%d:%d".formatted(
+                this.type,
+                this.entries,
+                this.historyBits,
+                this.counterBits
+            );
+            case BTB, RAS -> "%s:%d".formatted(this.type, this.entries);
+        };
+    }
+}
@@ -0,0 +1,172 @@
+package rars.branch;
+
+import org.jetbrains.annotations.NotNull;
+import rars.simulator.BranchKind;
+import rars.simulator.BranchListener;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Evaluates several branch predictors over the control transfers of a run.
+ * It is attached to the simulator with
+ * {@link rars.simulator.Simulator#setBranchListener(BranchListener)}.
+ * <p>
+ * Besides the aggregate accuracy of every predictor, it keeps per-branch
+ * counters in flat arrays: the branches are numbered in the order they are
+ * first executed, and an open addressing table maps their addresses to those
+ * numbers, so resolving a branch allocates nothing.
+ */
+public final class BranchPredictorEngine implements BranchListener {
+    private static final int INITIAL_CAPACITY = 256;
+
+    public final @NotNull List<@NotNull BranchPredictorConfiguration> configurations;
+    private final @NotNull BranchPredictor @NotNull [] predictors;
+    private final long @NotNull [] scored;
+    private final long @NotNull [] correct;
+
+    /// Number of each branch plus one, 0 marks a free slot.
+    private int @NotNull [] slots;
+    private int branchCount;
+    private int @NotNull [] branchPcs;
+    private byte @NotNull [] branchKinds;
+    private long @NotNull [] executions;
+    private long @NotNull [] takenCounts;
+    /// Mispredictions of branch `b` by predictor `p` at `b * predictors.length + p`.
+    private long @NotNull [] mispredictions;
+
+    public BranchPredictorEngine(final @NotNull List<@NotNull BranchPredictorConfiguration> configurations) {
+        this.configurations = List.copyOf(configurations);
+        this.predictors = configurations.stream()
+            .map(BranchPredictorConfiguration::create)
+            .toArray(BranchPredictor[]::new);
+        this.scored = new long[this.predictors.length];
+        this.correct = new long[this.predictors.length];
+        this.slots = new int[2 * INITIAL_CAPACITY];
+        this.branchCount = 0;
+        this.branchPcs = new int[INITIAL_CAPACITY];
+        this.branchKinds = new byte[INITIAL_CAPACITY];
+        this.executions = new long[INITIAL_CAPACITY];
+        this.takenCounts = new long[INITIAL_CAPACITY];
+        this.mispredictions = new long[INITIAL_CAPACITY * this.predictors.length];
+    }
+
+    @Override
+    public void branchResolved(final int pc, final int target, final boolean taken, final @NotNull BranchKind kind) {
+        final var branch = this.branchIndex(pc, kind);
+        this.executions[branch]++;
+        if (taken) {
+            this.takenCounts[branch]++;
+        }
+        final var base = branch * this.predictors.length;
+        for (var p = 0; p < this.predictors.length; p++) {
+            final var predictor = this.predictors[p];
+            final var hit = predictor.resolve(pc, target, taken, kind);
+            if (predictor.predicts(kind)) {
+                this.scored[p]++;
+                if (hit) {
+                    this.correct[p]++;
+                } else {
+                    this.mispredictions[base + p]++;
+                }
+            }
+        }
+    }
+
+    private int branchIndex(final int pc, final @NotNull BranchKind kind) {
+        final var mask = this.slots.length - 1;
+        var slot = hash(pc) & mask;
+        while (this.slots[slot] != 0) {
+            final var branch = this.slots[slot] - 1;
+            if (this.branchPcs[branch] == pc) {
+                return branch;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (this.branchCount == this.branchPcs.length) {
+            this.grow();
+            return this.branchIndex(pc, kind);
+        }
+        final var branch = this.branchCount++;
+        this.slots[slot] = branch + 1;
+        this.branchPcs[branch] = pc;
+        this.branchKinds[branch] = (byte) kind.ordinal();
+        return branch;
+    }
+
+    private static int hash(final int pc) {
+        return (pc * 0x9E3779B9) >>> 7;
+    }
+
+    private void grow() {
+        final var capacity = 2 * this.branchPcs.length;
+        this.branchPcs = Arrays.copyOf(this.branchPcs, capacity);
+        this.branchKinds = Arrays.copyOf(this.branchKinds, capacity);
+        this.executions = Arrays.copyOf(this.executions, capacity);
+        this.takenCounts = Arrays.copyOf(this.takenCounts, capacity);
+        this.mispredictions = Arrays.copyOf(this.mispredictions, capacity * this.predictors.length);
+        this.slots = new int[2 * capacity];
+        final var mask = this.slots.length - 1;
+        for (var branch = 0; branch < this.branchCount; branch++) {
+            var slot = hash(this.branchPcs[branch]) & mask;
+            while (this.slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            this.slots[slot] = branch + 1;
+        }
+    }
+
+    /** @return the number of control transfers predictor {@code p} was scored on */
+    public long getScored(final int p) {
+        return this.scored[p];
+    }
+
+    public long getCorrect(final int p) {
+        return this.correct[p];
+    }
+
+    public double getAccuracy(final int p) {
+        return this.scored[p] == 0 ? 0 : (double) this.correct[p] / this.scored[p];
+    }
+
+    /** @return the executed branches, ordered by address */
+    public @NotNull List<@NotNull BranchStatistics> getBranches() {
+        final var branches = new BranchStatistics[this.branchCount];
+        for (var b = 0; b < this.branchCount; b++) {
+            branches[b] = new BranchStatistics(
+                this.branchPcs[b],
+                BranchKind.values()[this.branchKinds[b]],
+                this.executions[b],
+                this.takenCounts[b],
+                Arrays.copyOfRange(
+                    this.mispredictions,
+                    b * this.predictors.length,
+                    (b + 1) * this.predictors.length
+                )
+            );
+        }
+        Arrays.sort(branches, (first, second) -> Integer.compareUnsigned(first.pc(), second.pc()));
+        return List.of(branches);
+    }
+
+    /** @return whether predictor {@code p} is scored on branches of this kind */
+    public boolean predicts(final int p, final @NotNull BranchKind kind) {
+        return this.predictors[p].predicts(kind);
+    }
+
+    /**
+     * Counters of a single static branch.
+     *
+     * @param mispredictions
+     *     mispredictions by each predictor, in the order of
+     *     {@link #configurations}
+     */
+    public record BranchStatistics(
+        int pc,
+        @NotNull BranchKind kind,
+        long executions,
+        long taken,
+        long @NotNull [] mispredictions
+    ) {
+    }
+}
@@ -0,0 +1,126 @@
+package rars.branch;
+
+import org.jetbrains.annotations.NotNull;
+import rars.api.ReportFormat;
+import rars.util.BinaryUtils;
+
+import java.io.PrintStream;
+import java.util.Locale;
+
+/**
+ * Writes the results of a {@link BranchPredictorEngine} as CSV or JSON: the
+ * aggregate accuracy of each predictor, then one entry per branch and
+ * predictor scored on it.
+ */
+public final class BranchPredictorReport {
+    private static final @NotNull String SUMMARY_CSV_HEADER = "predictor,predictions,correct,mispredictions,accuracy";
+    private static final @NotNull String BRANCH_CSV_HEADER =
+        "pc,kind,executions,taken,predictor,mispredictions,accuracy";
+
+    private BranchPredictorReport() {
+    }
+
+    public static void write(
+        final @NotNull PrintStream out,
+        final @NotNull ReportFormat format,
+        final @NotNull BranchPredictorEngine engine
+    ) {
+        switch (format) {
+            case CSV -> writeCsv(out, engine);
+            case JSON -> writeJson(out, engine);
+        }
+        out.flush();
+    }
+
+    private static double accuracy(final long executions, final long mispredictions) {
+        return executions == 0 ? 0 : (double) (executions - mispredictions) / executions;
+    }
+
+    /** Two tables separated with an empty line. */
+    private static void writeCsv(final @NotNull PrintStream out, final @NotNull BranchPredictorEngine engine) {
+        final var configurations = engine.configurations;
+        out.println(SUMMARY_CSV_HEADER);
+        for (var p = 0; p < configurations.size(); p++) {
+            out.printf(
+                Locale.ROOT,
+                "%s,%d,%d,%d,%.6f%n",
+                configurations.get(p),
+                engine.getScored(p),
+                engine.getCorrect(p),
+                engine.getScored(p) - engine.getCorrect(p),
+                engine.getAccuracy(p)
+            );
+        }
+        out.println();
+        out.println(BRANCH_CSV_HEADER);
+        for (final var branch : engine.getBranches()) {
+            for (var p = 0; p < configurations.size(); p++) {
+                if (!engine.predicts(p, branch.kind())) {
+                    continue;
+                }
+                out.printf(
+                    Locale.ROOT,
+                    "%s,%s,%d,%d,%s,%d,%.6f%n",
+                    BinaryUtils.intToHexString(branch.pc()),
+                    branch.kind().name().toLowerCase(Locale.ROOT),
+                    branch.executions(),
+                    branch.taken(),
+                    configurations.get(p),
+                    branch.mispredictions()[p],
+                    accuracy(branch.executions(), branch.mispredictions()[p])
+                );
+            }
+        }
+    }
+
+    private static void writeJson(final @NotNull PrintStream out, final @NotNull BranchPredictorEngine engine) {
+        final var configurations = engine.configurations;
+        out.println("{");
+        out.println("  \"predictors\": [");
+        for (var p = 0; p < configurations.size(); p++) {
+            out.printf(
+                Locale.ROOT,
+                "    {\"predictor\": \"%s\", \"predictions\": %d, \"correct\": %d, \"mispredictions\": %d, " +
+                    "\"accuracy\": %.6f}%s%n",
+                configurations.get(p),
+                engine.getScored(p),
+                engine.getCorrect(p),
+                engine.getScored(p) - engine.getCorrect(p),
+                engine.getAccuracy(p),
+                p + 1 < configurations.size() ? "," : ""
+            );
+        }
+        out.println("  ],");
+        out.println("  \"branches\": [");
+        final var branches = engine.getBranches();
+        for (var b = 0; b < branches.size(); b++) {
+            final var branch = branches.get(b);
+            out.printf(
+                Locale.ROOT,
+                "    {\"pc\": \"%s\", \"kind\": \"%s\", \"executions\": %d, \"taken\": %d, \"predictors\": [",
+                BinaryUtils.intToHexString(branch.pc()),
+                branch.kind().name().toLowerCase(Locale.ROOT),
+                branch.executions(),
+                branch.taken()
+            );
+            var first = true;
+            for (var p = 0; p < configurations.size(); p++) {
+                if (!engine.predicts(p, branch.kind())) {
+                    continue;
+                }
+                out.printf(
+                    Locale.ROOT,
+                    "%s{\"predictor\": \"%s\", \"mispredictions\": %d, \"accuracy\": %.6f}",
+                    first ? "" : ", ",
+                    configurations.get(p),
+                    branch.mispredictions()[p],
+                    accuracy(branch.executions(), branch.mispredictions()[p])
+                );
+                first = false;
+            }
+            out.println(b + 1 < branches.size() ? "]}," : "]}");
+        }
+        out.println("  ]");
+        out.println("}");
+    }
+}
@@ -0,0 +1,30 @@
+package rars.branch;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Locale;
+
+/** The branch predictors available to a {@link BranchPredictorConfiguration}. */
+public enum BranchPredictorType {
+    /** Always predicts taken. */
+    TAKEN,
+    /** Always predicts not taken. */
+    NOT_TAKEN,
+    /** Predicts backward branches taken and forward branches not taken. */
+    BTFN,
+    /** Table of saturating counters indexed by the branch address. */
+    BIMODAL,
+    /** Table of saturating counters indexed by the branch address xor the global history. */
+    GSHARE,
+    /** Bimodal and gshare predictors with a table of counters choosing between them. */
+    TOURNAMENT,
+    /** Direct-mapped branch target buffer predicting the next pc of every control transfer. */
+    BTB,
+    /** Return address stack predicting the targets of returns. */
+    RAS;
+
+    @Override
+    public @NotNull String toString() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+}
@@ -0,0 +1,48 @@
+package rars.branch;
+
+import org.jetbrains.annotations.NotNull;
+import rars.riscv.BasicInstruction;
+import rars.simulator.BranchKind;
+
+import java.util.Arrays;
+
+/**
+ * A direct-mapped branch target buffer. A hit predicts a jump to the stored
+ * target, a miss predicts the next sequential instruction, and the prediction
+ * is correct if it matches the actual next pc. Taken control transfers are
+ * inserted, so a conditional branch stays predicted taken until it is evicted.
+ */
+final class BranchTargetBuffer implements BranchPredictor {
+    /// Tag of an empty entry; instructions are aligned, so no pc is odd.
+    private static final int EMPTY = -1;
+
+    private final int @NotNull [] tags;
+    private final int @NotNull [] targets;
+    private final int mask;
+
+    BranchTargetBuffer(final int entries) {
+        this.tags = new int[entries];
+        Arrays.fill(this.tags, BranchTargetBuffer.EMPTY);
+        this.targets = new int[entries];
+        this.mask = entries - 1;
+    }
+
+    @Override
+    public boolean predicts(final @NotNull BranchKind kind) {
+        return true;
+    }
+
+    @Override
+    public boolean resolve(final int pc, final int target, final boolean taken, final @NotNull BranchKind kind) {
+        final var index = CounterTable.index(pc) & this.mask;
+        final var fallThrough = pc + BasicInstruction.BASIC_INSTRUCTION_LENGTH;
+        final var hit = this.tags[index] == pc;
+        final var predicted = hit ? this.targets[index] : fallThrough;
+        final var actual = taken ? target : fallThrough;
+        if (taken) {
+            this.tags[index] = pc;
+            this.targets[index] = target;
+        }
+        return predicted == actual;
+    }
+}
@@ -0,0 +1,68 @@
+package rars.branch;
+
+import org.jetbrains.annotations.NotNull;
+import rars.riscv.BasicInstruction;
+import rars.simulator.BranchKind;
+import rars.simulator.BranchListener;
+import rars.trace.TraceBatch;
+
+import java.util.function.Consumer;
+
+/**
+ * Recovers the control transfers of a run from the instruction fetches of its
+ * trace and reports them to a {@link BranchListener}, e.g. a
+ * {@link BranchPredictorEngine}, as the simulator would have.
+ * <p>
+ * A control transfer is resolved by the fetch that follows it. A conditional
+ * branch is taken if that fetch is not the next instruction, so a branch to
+ * the next instruction is counted as not taken, and a trap raised by a
+ * control transfer is taken for the transfer itself. The last fetch of the
+ * trace has no successor and is not reported.
+ */
+public final class BranchTraceReplay implements Consumer<TraceBatch> {
+    private final @NotNull BranchListener listener;
+    /// The last fetched instruction, if it is a control transfer.
+    private boolean isPending = false;
+    private int pendingPc;
+    private int pendingStatement;
+    private @NotNull BranchKind pendingKind = BranchKind.CONDITIONAL;
+
+    public BranchTraceReplay(final @NotNull BranchListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void accept(final @NotNull TraceBatch batch) {
+        for (var i = 0; i < batch.size(); i++) {
+            if (batch.type(i) != TraceBatch.FETCH) {
+                continue;
+            }
+            final var pc = batch.address(i);
+            if (this.isPending) {
+                this.resolve(pc);
+            }
+            final var binaryStatement = batch.value(i);
+            final var kind = BranchKind.of(binaryStatement);
+            this.isPending = kind != null;
+            if (kind != null) {
+                this.pendingPc = pc;
+                this.pendingStatement = binaryStatement;
+                this.pendingKind = kind;
+            }
+        }
+    }
+
+    private void resolve(final int nextPc) {
+        if (this.pendingKind != BranchKind.CONDITIONAL) {
+            this.listener.branchResolved(this.pendingPc, nextPc, true, this.pendingKind);
+            return;
+        }
+        final var taken = nextPc != this.pendingPc + BasicInstruction.BASIC_INSTRUCTION_LENGTH;
+        this.listener.branchResolved(
+            this.pendingPc,
+            this.pendingPc + BranchKind.branchOffset(this.pendingStatement),
+            taken,
+            BranchKind.CONDITIONAL
+        );
+    }
+}
@@ -0,0 +1,44 @@
+package rars.branch;
+
+import java.util.Arrays;
+
+/**
+ * Table of saturating counters. A counter predicts taken when its most
+ * significant bit is set; all of them start just below that, i.e. weakly not
+ * taken.
+ */
+final class CounterTable {
+    private final byte[] counters;
+    private final int mask;
+    private final int maximum;
+    private final int threshold;
+
+    CounterTable(final int entries, final int bits) {
+        this.counters = new byte[entries];
+        this.mask = entries - 1;
+        this.maximum = (1 << bits) - 1;
+        this.threshold = 1 << (bits - 1);
+        Arrays.fill(this.counters, (byte) (this.threshold - 1));
+    }
+
+    boolean predict(final int index) {
+        return this.counters[index & this.mask] >= this.threshold;
+    }
+
+    void update(final int index, final boolean taken) {
+        final var i = index & this.mask;
+        final var counter = this.counters[i];
+        if (taken) {
+            if (counter < this.maximum) {
+                this.counters[i] = (byte) (counter + 1);
+            }
+        } else if (counter > 0) {
+            this.counters[i] = (byte) (counter - 1);
+        }
+    }
+
+    /** @return the index of a branch address, ignoring the always zero low bits */
+    static int index(final int pc) {
+        return pc >>> 2;
+    }
+}
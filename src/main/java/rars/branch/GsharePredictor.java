@@ -0,0 +1,37 @@
+package rars.branch;
+
+import org.jetbrains.annotations.NotNull;
+import rars.simulator.BranchKind;
+
+/**
+ * A table of saturating counters indexed by the branch address xor the
+ * outcomes of the last conditional branches.
+ */
+final class GsharePredictor implements BranchPredictor {
+    private final @NotNull CounterTable counters;
+    private final int historyMask;
+    private int history;
+
+    GsharePredictor(final int entries, final int historyBits, final int counterBits) {
+        this.counters = new CounterTable(entries, counterBits);
+        this.historyMask = (1 << historyBits) - 1;
+        this.history = 0;
+    }
+
+    @Override
+    public boolean predicts(final @NotNull BranchKind kind) {
+        return kind == BranchKind.CONDITIONAL;
+    }
+
+    @Override
+    public boolean resolve(final int pc, final int target, final boolean taken, final @NotNull BranchKind kind) {
+        if (kind != BranchKind.CONDITIONAL) {
+            return true;
+        }
+        final var index = CounterTable.index(pc) ^ this.history;
+        final var prediction = this.counters.predict(index);
+        this.counters.update(index, taken);
+        this.history = ((this.history << 1) | (taken ? 1 : 0)) & this.historyMask;
+        return prediction == taken;
+    }
+}
@@ -0,0 +1,51 @@
+package rars.branch;
+
+import org.jetbrains.annotations.NotNull;
+import rars.riscv.BasicInstruction;
+import rars.simulator.BranchKind;
+
+/**
+ * A circular return address stack: calls push their return address, returns
+ * pop the predicted target. When it overflows, the oldest entries are
+ * overwritten.
+ */
+final class ReturnAddressStack implements BranchPredictor {
+    private final int @NotNull [] addresses;
+    private int top;
+    private int size;
+
+    ReturnAddressStack(final int depth) {
+        this.addresses = new int[depth];
+        this.top = 0;
+        this.size = 0;
+    }
+
+    @Override
+    public boolean predicts(final @NotNull BranchKind kind) {
+        return kind == BranchKind.RETURN;
+    }
+
+    @Override
+    public boolean resolve(final int pc, final int target, final boolean taken, final @NotNull BranchKind kind) {
+        switch (kind) {
+            case CALL -> {
+                this.top = (this.top + 1) % this.addresses.length;
+                this.addresses[this.top] = pc + BasicInstruction.BASIC_INSTRUCTION_LENGTH;
+                this.size = Math.min(this.size + 1, this.addresses.length);
+                return true;
+            }
+            case RETURN -> {
+                if (this.size == 0) {
+                    return false;
+                }
+                final var predicted = this.addresses[this.top];
+                this.top = (this.top + this.addresses.length - 1) % this.addresses.length;
+                this.size--;
+                return predicted == target;
+            }
+            default -> {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package rars.branch;
+
+import org.jetbrains.annotations.NotNull;
+import rars.simulator.BranchKind;
+
+/** A predictor that always makes the same prediction for a given branch. */
+final class StaticPredictor implements BranchPredictor {
+    private final @NotNull BranchPredictorType type;
+
+    StaticPredictor(final @NotNull BranchPredictorType type) {
+        this.type = type;
+    }
+
+    @Override
+    public boolean predicts(final @NotNull BranchKind kind) {
+        return kind == BranchKind.CONDITIONAL;
+    }
+
+    @Override
+    public boolean resolve(final int pc, final int target, final boolean taken, final @NotNull BranchKind kind) {
+        final var prediction = switch (this.type) {
+            case TAKEN -> true;
+            case BTFN -> Integer.compareUnsigned(target, pc) <= 0;
+            default -> false;
+        };
+        return prediction == taken;
+    }
+}
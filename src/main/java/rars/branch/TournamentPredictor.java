@@ -0,0 +1,42 @@
+package rars.branch;
+
+import org.jetbrains.annotations.NotNull;
+import rars.simulator.BranchKind;
+
+/**
+ * A bimodal and a gshare predictor of the same size, with a table of
+ * saturating counters indexed by the branch address choosing between them.
+ * The chooser only learns from the branches on which the two disagree.
+ */
+final class TournamentPredictor implements BranchPredictor {
+    private final @NotNull BimodalPredictor bimodal;
+    private final @NotNull GsharePredictor gshare;
+    /// A counter predicting "taken" selects gshare.
+    private final @NotNull CounterTable chooser;
+
+    TournamentPredictor(final int entries, final int historyBits, final int counterBits) {
+        this.bimodal = new BimodalPredictor(entries, counterBits);
+        this.gshare = new GsharePredictor(entries, historyBits, counterBits);
+        this.chooser = new CounterTable(entries, 2);
+    }
+
+    @Override
+    public boolean predicts(final @NotNull BranchKind kind) {
+        return kind == BranchKind.CONDITIONAL;
+    }
+
+    @Override
+    public boolean resolve(final int pc, final int target, final boolean taken, final @NotNull BranchKind kind) {
+        if (kind != BranchKind.CONDITIONAL) {
+            return true;
+        }
+        final var index = CounterTable.index(pc);
+        final var useGshare = this.chooser.predict(index);
+        final var bimodalCorrect = this.bimodal.resolve(pc, target, taken, kind);
+        final var gshareCorrect = this.gshare.resolve(pc, target, taken, kind);
+        if (bimodalCorrect != gshareCorrect) {
+            this.chooser.update(index, gshareCorrect);
+        }
+        return useGshare ? gshareCorrect : bimodalCorrect;
+    }
+}
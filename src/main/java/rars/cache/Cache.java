@@ -0,0 +1,188 @@
+package rars.cache;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.SplittableRandom;
+
+/**
+ * Model of a single cache level. Only the tags and the state of each block
+ * are tracked, the data itself lives in the simulated memory.
+ * <p>
+ * The state of all the blocks is kept in flat primitive arrays indexed by
+ * {@code set * associativity + way}, and an access allocates nothing, so many
+ * caches can be fed the same long trace at a reasonable speed.
+ */
+public final class Cache {
+    private static final byte VALID = 1;
+    private static final byte DIRTY = 2;
+
+    public final @NotNull CacheConfiguration configuration;
+    private final @Nullable Cache next;
+    private final @NotNull CacheStatistics statistics;
+
+    private final int ways;
+    private final int blockShift;
+    private final int blockMask;
+    private final int setBits;
+    private final int setMask;
+    private final int plruLevels;
+
+    private final int @NotNull [] tags;
+    private final byte @NotNull [] states;
+    /// Time of the last access (LRU) or of the fill (FIFO) of each block.
+    private final long @NotNull [] stamps;
+    /// Tree bits of each set, node `n` is bit `n`; a set bit points to the right half.
+    private final long @NotNull [] plruTrees;
+    private final @NotNull SplittableRandom random;
+    private long clock;
+
+    /**
+     * @param configuration
+     *     the organization of this level
+     * @param next
+     *     the next level of the hierarchy, or {@code null} if misses go
+     *     straight to memory
+     */
+    public Cache(final @NotNull CacheConfiguration configuration, final @Nullable Cache next) {
+        this.configuration = configuration;
+        this.next = next;
+        this.statistics = new CacheStatistics();
+        this.ways = configuration.associativity();
+        this.blockShift = Integer.numberOfTrailingZeros(configuration.blockSizeInBytes());
+        this.blockMask = configuration.blockSizeInBytes() - 1;
+        this.setBits = Integer.numberOfTrailingZeros(configuration.numberOfSets());
+        this.setMask = configuration.numberOfSets() - 1;
+        this.plruLevels = Integer.numberOfTrailingZeros(this.ways);
+        final var numberOfBlocks = configuration.numberOfBlocks();
+        this.tags = new int[numberOfBlocks];
+        this.states = new byte[numberOfBlocks];
+        this.stamps = new long[numberOfBlocks];
+        this.plruTrees = new long[configuration.replacementPolicy() == ReplacementPolicy.PLRU
+            ? configuration.numberOfSets()
+            : 0];
+        // fixed seed, so that runs are reproducible
+        this.random = new SplittableRandom(0);
+        this.clock = 0;
+    }
+
+    public @NotNull CacheStatistics getStatistics() {
+        return this.statistics;
+    }
+
+    public @Nullable Cache getNext() {
+        return this.next;
+    }
+
+    /**
+     * Simulates an access of {@code size} bytes starting at {@code address}.
+     * An access crossing a block boundary touches every block it spans.
+     */
+    public void access(final int address, final int size, final boolean write) {
+        final var blocks = (((address & this.blockMask) + Math.max(size, 1) - 1) >>> this.blockShift) + 1;
+        var block = address >>> this.blockShift;
+        var forwardWrite = write && !this.configuration.writeBack();
+        for (var i = 0; i < blocks; i++, block++) {
+            forwardWrite |= this.accessBlock(block, write);
+        }
+        if (forwardWrite && this.next != null) {
+            this.next.access(address, size, true);
+        }
+    }
+
+    /** @return {@code true} if the access was a write miss that did not allocate */
+    private boolean accessBlock(final int block, final boolean write) {
+        final var set = block & this.setMask;
+        final var tag = block >>> this.setBits;
+        final var base = set * this.ways;
+        this.clock++;
+        for (var way = 0; way < this.ways; way++) {
+            final var index = base + way;
+            if ((this.states[index] & VALID) != 0 && this.tags[index] == tag) {
+                this.statistics.recordHit(write);
+                this.touch(set, way, index);
+                if (write && this.configuration.writeBack()) {
+                    this.states[index] |= DIRTY;
+                }
+                return false;
+            }
+        }
+        this.statistics.recordMiss(write);
+        if (write && !this.configuration.writeAllocate()) {
+            return true;
+        }
+        final var way = this.chooseVictim(set, base);
+        final var index = base + way;
+        if ((this.states[index] & VALID) != 0) {
+            final var dirty = (this.states[index] & DIRTY) != 0;
+            this.statistics.recordEviction(dirty);
+            if (dirty && this.next != null) {
+                final var victimAddress = ((this.tags[index] << this.setBits) | set) << this.blockShift;
+                this.next.access(victimAddress, this.configuration.blockSizeInBytes(), true);
+            }
+        }
+        if (this.next != null) {
+            this.next.access(block << this.blockShift, this.configuration.blockSizeInBytes(), false);
+        }
+        this.tags[index] = tag;
+        this.states[index] = (write && this.configuration.writeBack()) ? VALID | DIRTY : VALID;
+        this.stamps[index] = this.clock;
+        if (this.plruTrees.length != 0) {
+            this.touchPlru(set, way);
+        }
+        return false;
+    }
+
+    private void touch(final int set, final int way, final int index) {
+        switch (this.configuration.replacementPolicy()) {
+            case LRU -> this.stamps[index] = this.clock;
+            case PLRU -> this.touchPlru(set, way);
+            case FIFO, RANDOM -> {
+            }
+        }
+    }
+
+    private int chooseVictim(final int set, final int base) {
+        for (var way = 0; way < this.ways; way++) {
+            if ((this.states[base + way] & VALID) == 0) {
+                return way;
+            }
+        }
+        return switch (this.configuration.replacementPolicy()) {
+            case LRU, FIFO -> {
+                var victim = 0;
+                for (var way = 1; way < this.ways; way++) {
+                    if (this.stamps[base + way] < this.stamps[base + victim]) {
+                        victim = way;
+                    }
+                }
+                yield victim;
+            }
+            case RANDOM -> this.random.nextInt(this.ways);
+            case PLRU -> {
+                final var tree = this.plruTrees[set];
+                var node = 1;
+                for (var level = 0; level < this.plruLevels; level++) {
+                    node = 2 * node + (int) ((tree >>> node) & 1);
+                }
+                yield node - this.ways;
+            }
+        };
+    }
+
+    /** Makes every node on the path to {@code way} point away from it. */
+    private void touchPlru(final int set, final int way) {
+        var tree = this.plruTrees[set];
+        var node = 1;
+        for (var level = this.plruLevels - 1; level >= 0; level--) {
+            final var direction = (way >>> level) & 1;
+            if (direction == 0) {
+                tree |= 1L << node;
+            } else {
+                tree &= ~(1L << node);
+            }
+            node = 2 * node + direction;
+        }
+        this.plruTrees[set] = tree;
+    }
+}
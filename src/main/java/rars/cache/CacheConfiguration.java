@@ -0,0 +1,161 @@
+package rars.cache;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Locale;
+
+/**
+ * Organization of a single cache level.
+ * <p>
+ * The textual form, accepted by {@link #parse(String)} and produced by
+ * {@link #toString()}, is {@code size:block:ways[:replacement[:write]]}:
+ * <ul>
+ *     <li>{@code size} - capacity in bytes, optionally suffixed with
+ *     {@code K} or {@code M},</li>
+ *     <li>{@code block} - block size in bytes,</li>
+ *     <li>{@code ways} - number of blocks in a set or {@code full} for a
+ *     fully associative cache,</li>
+ *     <li>{@code replacement} - one of {@code lru} (default), {@code fifo},
+ *     {@code random} and {@code plru},</li>
+ *     <li>{@code write} - {@code wb} (write-back, default) or {@code wt}
+ *     (write-through), optionally followed by {@code -wa} (write-allocate) or
+ *     {@code -nwa} (no-write-allocate). Write-back caches allocate on a write
+ *     miss by default, write-through caches do not.</li>
+ * </ul>
+ * For example, {@code 4K:16:2:plru:wt-wa} is a 4 KiB two-way cache with
+ * 16-byte blocks.
+ *
+ * @param sizeInBytes
+ *     total capacity of the cache
+ * @param blockSizeInBytes
+ *     size of a single block
+ * @param associativity
+ *     number of blocks in each set
+ * @param replacementPolicy
+ *     how a victim is chosen in a full set
+ * @param writeBack
+ *     whether writes are kept in the cache until the block is evicted
+ * @param writeAllocate
+ *     whether a write miss brings the block into the cache
+ */
+public record CacheConfiguration(
+    int sizeInBytes,
+    int blockSizeInBytes,
+    int associativity,
+    @NotNull ReplacementPolicy replacementPolicy,
+    boolean writeBack,
+    boolean writeAllocate
+) {
+    public CacheConfiguration {
+        if (Integer.bitCount(sizeInBytes) != 1 || Integer.bitCount(blockSizeInBytes) != 1) {
+            throw new IllegalArgumentException("Cache and block sizes must be powers of two.");
+        }
+        if (blockSizeInBytes > sizeInBytes) {
+            throw new IllegalArgumentException("Block size cannot exceed the cache size.");
+        }
+        final var numberOfBlocks = sizeInBytes / blockSizeInBytes;
+        if (Integer.bitCount(associativity) != 1 || associativity > numberOfBlocks) {
+            throw new IllegalArgumentException(
+                "Associativity must be a power of two no greater than the number of blocks (%d).".formatted(
+                    numberOfBlocks
+                )
+            );
+        }
+        if (replacementPolicy == ReplacementPolicy.PLRU && associativity > Long.SIZE) {
+            throw new IllegalArgumentException("Pseudo-LRU supports at most %d ways.".formatted(Long.SIZE));
+        }
+    }
+
+    /**
+     * Parses a configuration in the format described in the class
+     * documentation.
+     *
+     * @throws IllegalArgumentException
+     *     if the text is not a valid configuration
+     */
+    public static @NotNull CacheConfiguration parse(final @NotNull String text) {
+        final var parts = text.trim().toLowerCase(Locale.ROOT).split(":");
+        if (parts.length < 3 || parts.length > 5) {
+            throw new IllegalArgumentException(
+                "Expected size:block:ways[:replacement[:write]], but got \"" + text + "\"."
+            );
+        }
+        final var size = parseSize(parts[0]);
+        final var blockSize = parseSize(parts[1]);
+        final var associativity = parts[2].equals("full") ? size / blockSize : parseSize(parts[2]);
+        final var replacementPolicy = parts.length > 3 ? parseReplacementPolicy(parts[3]) : ReplacementPolicy.LRU;
+        var writeBack = true;
+        var writeAllocate = true;
+        if (parts.length > 4) {
+            final var writeParts = parts[4].split("-");
+            writeBack = switch (writeParts[0]) {
+                case "wb" -> true;
+                case "wt" -> false;
+                default -> throw new IllegalArgumentException("Unknown write policy \"" + writeParts[0] + "\".");
+            };
+            writeAllocate = writeBack;
+            if (writeParts.length > 2) {
+                throw new IllegalArgumentException("Unknown write policy \"" + parts[4] + "\".");
+            } else if (writeParts.length == 2) {
+                writeAllocate = switch (writeParts[1]) {
+                    case "wa" -> true;
+                    case "nwa" -> false;
+                    default -> throw new IllegalArgumentException(
+                        "Unknown write miss policy \"" + writeParts[1] + "\"."
+                    );
+                };
+            }
+        }
+        return new CacheConfiguration(size, blockSize, associativity, replacementPolicy, writeBack, writeAllocate);
+    }
+
+    private static int parseSize(final @NotNull String text) {
+        var multiplier = 1;
+        var digits = text;
+        if (text.endsWith("k")) {
+            multiplier = 1 << 10;
+            digits = text.substring(0, text.length() - 1);
+        } else if (text.endsWith("m")) {
+            multiplier = 1 << 20;
+            digits = text.substring(0, text.length() - 1);
+        }
+        try {
+            return Math.multiplyExact(Integer.parseInt(digits), multiplier);
+        } catch (final NumberFormatException | ArithmeticException e) {
+            throw new IllegalArgumentException("Invalid size \"" + text + "\".", e);
+        }
+    }
+
+    private static @NotNull ReplacementPolicy parseReplacementPolicy(final @NotNull String text) {
+        for (final var policy : ReplacementPolicy.values()) {
+            if (policy.toString().equals(text)) {
+                return policy;
+            }
+        }
+        throw new IllegalArgumentException("Unknown replacement policy \"" + text + "\".");
+    }
+
+    public int numberOfBlocks() {
+        return this.sizeInBytes / this.blockSizeInBytes;
+    }
+
+    public int numberOfSets() {
+        return this.numberOfBlocks() / this.associativity;
+    }
+
+    /** @return the write policy part of the textual form, e.g. {@code wb-wa} */
+    public @NotNull String writePolicy() {
+        return (this.writeBack ? "wb" : "wt") + (this.writeAllocate ? "-wa" : "-nwa");
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "%d:%d:%d:%s:%s".formatted(
+            this.sizeInBytes,
+            this.blockSizeInBytes,
+            this.associativity,
+            this.replacementPolicy,
+            this.writePolicy()
+        );
+    }
+}
@@ -0,0 +1,73 @@
+package rars.cache;
+
+import org.jetbrains.annotations.NotNull;
+import rars.trace.TraceBatch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/** A chain of cache levels built from a {@link CacheHierarchyConfiguration}. */
+public final class CacheHierarchy {
+    public final @NotNull CacheHierarchyConfiguration configuration;
+    private final @NotNull List<@NotNull Cache> levels;
+    /// Scratch space of {@link #accessLevel(int, int, boolean)}.
+    private final long @NotNull [] missesBefore;
+
+    public CacheHierarchy(final @NotNull CacheHierarchyConfiguration configuration) {
+        this.configuration = configuration;
+        final var levels = new ArrayList<Cache>(configuration.levels().size());
+        Cache next = null;
+        // build from the last level, so that each level knows the next one
+        for (final var level : configuration.levels().reversed()) {
+            next = new Cache(level, next);
+            levels.add(next);
+        }
+        this.levels = Collections.unmodifiableList(levels.reversed());
+        this.missesBefore = new long[levels.size()];
+    }
+
+    /** @return the levels of the hierarchy, L1 first */
+    public @NotNull List<@NotNull Cache> getLevels() {
+        return this.levels;
+    }
+
+    public void access(final int address, final int size, final boolean write) {
+        this.levels.getFirst().access(address, size, write);
+    }
+
+    /**
+     * Simulates an access and finds out where its data was found.
+     *
+     * @return the index of the first level that hit, L1 being 0, or the
+     * number of levels if the access went all the way to memory
+     */
+    public int accessLevel(final int address, final int size, final boolean write) {
+        final var levelCount = this.levels.size();
+        final var missesBefore = this.missesBefore;
+        for (var i = 0; i < levelCount; i++) {
+            missesBefore[i] = this.levels.get(i).getStatistics().getMisses();
+        }
+        this.levels.getFirst().access(address, size, write);
+        for (var i = 0; i < levelCount; i++) {
+            if (this.levels.get(i).getStatistics().getMisses() == missesBefore[i]) {
+                return i;
+            }
+        }
+        return levelCount;
+    }
+
+    /**
+     * Feeds the loads and stores of a trace batch to the hierarchy.
+     * Instruction fetches are not modelled.
+     */
+    public void accept(final @NotNull TraceBatch batch) {
+        final var first = this.levels.getFirst();
+        for (var i = 0; i < batch.size(); i++) {
+            final var type = batch.type(i);
+            if (type != TraceBatch.FETCH) {
+                first.access(batch.address(i), batch.accessSize(i), type == TraceBatch.STORE);
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package rars.cache;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Organization of a multi-level cache hierarchy, starting with the level
+ * closest to the processor. Its textual form is the textual form of each
+ * {@link CacheConfiguration level} joined with {@code +}, e.g.
+ * {@code 4K:16:2+64K:64:8:plru}.
+ *
+ * @param levels
+ *     the levels of the hierarchy, L1 first
+ */
+public record CacheHierarchyConfiguration(@NotNull List<@NotNull CacheConfiguration> levels) {
+    public CacheHierarchyConfiguration {
+        if (levels.isEmpty()) {
+            throw new IllegalArgumentException("A cache hierarchy needs at least one level.");
+        }
+        levels = List.copyOf(levels);
+    }
+
+    /**
+     * Parses a hierarchy in the format described in the class documentation.
+     *
+     * @throws IllegalArgumentException
+     *     if the text is not a valid hierarchy
+     */
+    public static @NotNull CacheHierarchyConfiguration parse(final @NotNull String text) {
+        return new CacheHierarchyConfiguration(
+            Arrays.stream(text.split("\\+")).map(CacheConfiguration::parse).toList()
+        );
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return this.levels.stream().map(CacheConfiguration::toString).collect(Collectors.joining("+"));
+    }
+}
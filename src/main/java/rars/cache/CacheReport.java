@@ -0,0 +1,107 @@
+package rars.cache;
+
+import org.jetbrains.annotations.NotNull;
+import rars.api.ReportFormat;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Locale;
+
+/** Writes the statistics of a {@link CacheSweep} as CSV or JSON. */
+public final class CacheReport {
+    private static final @NotNull String CSV_HEADER =
+        "hierarchy,level,size,block_size,associativity,replacement,write_policy," +
+            "accesses,reads,writes,hits,misses,hit_rate,evictions,writebacks";
+
+    private CacheReport() {
+    }
+
+    public static void write(
+        final @NotNull PrintStream out,
+        final @NotNull ReportFormat format,
+        final @NotNull List<@NotNull CacheHierarchy> hierarchies
+    ) {
+        switch (format) {
+            case CSV -> writeCsv(out, hierarchies);
+            case JSON -> writeJson(out, hierarchies);
+        }
+        out.flush();
+    }
+
+    /** One row per level of each hierarchy. */
+    private static void writeCsv(
+        final @NotNull PrintStream out,
+        final @NotNull List<@NotNull CacheHierarchy> hierarchies
+    ) {
+        out.println(CSV_HEADER);
+        for (final var hierarchy : hierarchies) {
+            final var levels = hierarchy.getLevels();
+            for (var i = 0; i < levels.size(); i++) {
+                final var configuration = levels.get(i).configuration;
+                final var statistics = levels.get(i).getStatistics();
+                out.printf(
+                    Locale.ROOT,
+                    "%s,L%d,%d,%d,%d,%s,%s,%d,%d,%d,%d,%d,%.6f,%d,%d%n",
+                    hierarchy.configuration,
+                    i + 1,
+                    configuration.sizeInBytes(),
+                    configuration.blockSizeInBytes(),
+                    configuration.associativity(),
+                    configuration.replacementPolicy(),
+                    configuration.writePolicy(),
+                    statistics.getAccesses(),
+                    statistics.getReads(),
+                    statistics.getWrites(),
+                    statistics.getHits(),
+                    statistics.getMisses(),
+                    statistics.getHitRate(),
+                    statistics.getEvictions(),
+                    statistics.getWritebacks()
+                );
+            }
+        }
+    }
+
+    private static void writeJson(
+        final @NotNull PrintStream out,
+        final @NotNull List<@NotNull CacheHierarchy> hierarchies
+    ) {
+        out.println("[");
+        for (var h = 0; h < hierarchies.size(); h++) {
+            final var hierarchy = hierarchies.get(h);
+            out.println("  {");
+            out.println("    \"hierarchy\": \"" + hierarchy.configuration + "\",");
+            out.println("    \"levels\": [");
+            final var levels = hierarchy.getLevels();
+            for (var i = 0; i < levels.size(); i++) {
+                final var configuration = levels.get(i).configuration;
+                final var statistics = levels.get(i).getStatistics();
+                out.printf(
+                    Locale.ROOT,
+                    "      {\"level\": %d, \"size\": %d, \"block_size\": %d, \"associativity\": %d, " +
+                        "\"replacement\": \"%s\", \"write_policy\": \"%s\", \"accesses\": %d, \"reads\": %d, " +
+                        "\"writes\": %d, \"hits\": %d, \"misses\": %d, \"hit_rate\": %.6f, \"evictions\": %d, " +
+                        "\"writebacks\": %d}%s%n",
+                    i + 1,
+                    configuration.sizeInBytes(),
+                    configuration.blockSizeInBytes(),
+                    configuration.associativity(),
+                    configuration.replacementPolicy(),
+                    configuration.writePolicy(),
+                    statistics.getAccesses(),
+                    statistics.getReads(),
+                    statistics.getWrites(),
+                    statistics.getHits(),
+                    statistics.getMisses(),
+                    statistics.getHitRate(),
+                    statistics.getEvictions(),
+                    statistics.getWritebacks(),
+                    i + 1 < levels.size() ? "," : ""
+                );
+            }
+            out.println("    ]");
+            out.println(h + 1 < hierarchies.size() ? "  }," : "  }");
+        }
+        out.println("]");
+    }
+}
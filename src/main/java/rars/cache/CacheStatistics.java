@@ -0,0 +1,75 @@
+package rars.cache;
+
+/** Access counters of a single cache level. */
+public final class CacheStatistics {
+    private long reads, writes, readHits, writeHits, evictions, writebacks;
+
+    void recordHit(final boolean write) {
+        if (write) {
+            this.writes++;
+            this.writeHits++;
+        } else {
+            this.reads++;
+            this.readHits++;
+        }
+    }
+
+    void recordMiss(final boolean write) {
+        if (write) {
+            this.writes++;
+        } else {
+            this.reads++;
+        }
+    }
+
+    void recordEviction(final boolean dirty) {
+        this.evictions++;
+        if (dirty) {
+            this.writebacks++;
+        }
+    }
+
+    public long getReads() {
+        return this.reads;
+    }
+
+    public long getWrites() {
+        return this.writes;
+    }
+
+    public long getAccesses() {
+        return this.reads + this.writes;
+    }
+
+    public long getReadHits() {
+        return this.readHits;
+    }
+
+    public long getWriteHits() {
+        return this.writeHits;
+    }
+
+    public long getHits() {
+        return this.readHits + this.writeHits;
+    }
+
+    public long getMisses() {
+        return this.getAccesses() - this.getHits();
+    }
+
+    /** @return number of valid blocks that were replaced */
+    public long getEvictions() {
+        return this.evictions;
+    }
+
+    /** @return number of dirty blocks written to the next level on eviction */
+    public long getWritebacks() {
+        return this.writebacks;
+    }
+
+    /** @return hits divided by accesses, or 0 if there were no accesses */
+    public double getHitRate() {
+        final var accesses = this.getAccesses();
+        return accesses == 0 ? 0.0 : (double) this.getHits() / accesses;
+    }
+}
@@ -0,0 +1,33 @@
+package rars.cache;
+
+import org.jetbrains.annotations.NotNull;
+import rars.trace.TraceBatch;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Evaluates several cache hierarchies over the same memory trace. Every batch
+ * is handed to all the hierarchies, which are independent of each other and
+ * are therefore updated in parallel.
+ */
+public final class CacheSweep implements Consumer<TraceBatch> {
+    private final @NotNull List<@NotNull CacheHierarchy> hierarchies;
+
+    public CacheSweep(final @NotNull List<@NotNull CacheHierarchyConfiguration> configurations) {
+        this.hierarchies = configurations.stream().map(CacheHierarchy::new).toList();
+    }
+
+    public @NotNull List<@NotNull CacheHierarchy> getHierarchies() {
+        return this.hierarchies;
+    }
+
+    @Override
+    public void accept(final @NotNull TraceBatch batch) {
+        if (this.hierarchies.size() == 1) {
+            this.hierarchies.getFirst().accept(batch);
+        } else {
+            this.hierarchies.parallelStream().forEach(hierarchy -> hierarchy.accept(batch));
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package rars.cache;
+
+import org.jetbrains.annotations.NotNull;
+
+/** Policy used to choose which block of a full set is evicted. */
+public enum ReplacementPolicy {
+    /** Least recently used block. */
+    LRU,
+    /** Block that was brought into the set first. */
+    FIFO,
+    /** Uniformly random block. */
+    RANDOM,
+    /** Tree-based pseudo-LRU approximation. Requires a power of two associativity. */
+    PLRU;
+
+    @Override
+    public @NotNull String toString() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,276 @@
+package rars.elf;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The parts of an ELF file that matter for running it: the header, the
+ * program headers (segments), the section headers and the symbol table.
+ * Both ELF32 and ELF64 are read; only little endian files are, as RISC-V
+ * is little endian.
+ * <p>
+ * The contents are not copied: {@link #read(Path)} maps the file, and
+ * {@link #getContents(long, long)} returns views of the mapping.
+ */
+public final class ElfFile {
+    public static final byte @NotNull [] MAGIC = {0x7f, 'E', 'L', 'F'};
+    public static final int CLASS_32 = 1, CLASS_64 = 2;
+    public static final int DATA_LITTLE_ENDIAN = 1;
+    public static final int VERSION_CURRENT = 1;
+
+    public static final int ET_REL = 1, ET_EXEC = 2, ET_DYN = 3;
+    public static final int EM_RISCV = 243;
+    /// Set in the header flags when the code uses compressed instructions.
+    public static final int EF_RISCV_RVC = 0x1;
+    /// Soft-float ABI, the one of code that passes floating point values in integer registers.
+    public static final int EF_RISCV_FLOAT_ABI_SOFT = 0x0;
+
+    public static final int PT_LOAD = 1, PT_DYNAMIC = 2, PT_INTERP = 3;
+    public static final int PF_X = 0x1, PF_W = 0x2, PF_R = 0x4;
+
+    public static final int SHT_NULL = 0, SHT_PROGBITS = 1, SHT_SYMTAB = 2, SHT_STRTAB = 3, SHT_NOBITS = 8;
+    public static final int SHF_WRITE = 0x1, SHF_ALLOC = 0x2, SHF_EXECINSTR = 0x4;
+    public static final int SHN_UNDEF = 0, SHN_LORESERVE = 0xff00, SHN_ABS = 0xfff1;
+
+    public static final int STB_LOCAL = 0, STB_GLOBAL = 1, STB_WEAK = 2;
+    public static final int STT_NOTYPE = 0, STT_OBJECT = 1, STT_FUNC = 2, STT_SECTION = 3, STT_FILE = 4;
+
+    public final boolean is64;
+    public final int type;
+    public final int machine;
+    public final int flags;
+    public final long entry;
+    public final @NotNull List<@NotNull Segment> segments;
+    public final @NotNull List<@NotNull Section> sections;
+    public final @NotNull List<@NotNull ElfSymbol> symbols;
+    private final @NotNull ByteBuffer contents;
+
+    /** A program header: a part of the file to place in memory, among others. */
+    public record Segment(int type, int flags, long offset, long address, long fileSize, long memorySize) {
+    }
+
+    /** A section header. */
+    public record Section(
+        @NotNull String name,
+        int type,
+        long flags,
+        long address,
+        long offset,
+        long size,
+        int link
+    ) {
+    }
+
+    /** An entry of the symbol table. */
+    public record ElfSymbol(@NotNull String name, long value, long size, int binding, int type, int sectionIndex) {
+    }
+
+    private ElfFile(final @NotNull ByteBuffer contents) throws IOException {
+        this.contents = contents.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        final var header = this.contents.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        final var identification = new byte[16];
+        header.get(identification);
+        if (!ElfFile.hasMagic(identification)) {
+            throw new IOException("Not an ELF file.");
+        }
+        if (identification[4] != ElfFile.CLASS_32 && identification[4] != ElfFile.CLASS_64) {
+            throw new IOException("Unknown ELF class " + identification[4] + '.');
+        }
+        if (identification[5] != ElfFile.DATA_LITTLE_ENDIAN) {
+            throw new IOException("Only little endian ELF files are supported.");
+        }
+        this.is64 = identification[4] == ElfFile.CLASS_64;
+        this.type = Short.toUnsignedInt(header.getShort());
+        this.machine = Short.toUnsignedInt(header.getShort());
+        header.getInt(); // version
+        this.entry = this.getAddress(header);
+        final var programHeaderOffset = this.getAddress(header);
+        final var sectionHeaderOffset = this.getAddress(header);
+        this.flags = header.getInt();
+        header.getShort(); // header size
+        final var programHeaderSize = Short.toUnsignedInt(header.getShort());
+        final var programHeaderCount = Short.toUnsignedInt(header.getShort());
+        final var sectionHeaderSize = Short.toUnsignedInt(header.getShort());
+        final var sectionHeaderCount = Short.toUnsignedInt(header.getShort());
+        final var sectionNamesIndex = Short.toUnsignedInt(header.getShort());
+
+        final var segments = new ArrayList<Segment>(programHeaderCount);
+        for (var i = 0; i < programHeaderCount; i++) {
+            final var entry = this.getContents(programHeaderOffset + (long) i * programHeaderSize, programHeaderSize);
+            segments.add(this.is64
+                ? ElfFile.readSegment64(entry)
+                : new Segment(
+                entry.getInt(),
+                entry.getInt(24),
+                Integer.toUnsignedLong(entry.getInt(4)),
+                Integer.toUnsignedLong(entry.getInt(8)),
+                Integer.toUnsignedLong(entry.getInt(16)),
+                Integer.toUnsignedLong(entry.getInt(20))
+            ));
+        }
+        this.segments = List.copyOf(segments);
+
+        final var rawSections = new ArrayList<Section>(sectionHeaderCount);
+        for (var i = 0; i < sectionHeaderCount; i++) {
+            final var entry = this.getContents(sectionHeaderOffset + (long) i * sectionHeaderSize, sectionHeaderSize);
+            final var nameOffset = entry.getInt();
+            final var sectionType = entry.getInt();
+            final var sectionFlags = this.getAddress(entry);
+            final var address = this.getAddress(entry);
+            final var offset = this.getAddress(entry);
+            final var size = this.getAddress(entry);
+            final var link = entry.getInt();
+            rawSections.add(new Section(Integer.toString(nameOffset), sectionType, sectionFlags, address, offset, size,
+                link));
+        }
+        final var sectionNames = sectionNamesIndex < rawSections.size() && sectionNamesIndex != ElfFile.SHN_UNDEF
+            ? rawSections.get(sectionNamesIndex)
+            : null;
+        final var sections = new ArrayList<Section>(rawSections.size());
+        for (final var section : rawSections) {
+            sections.add(new Section(
+                this.getString(sectionNames, Integer.parseInt(section.name())),
+                section.type(), section.flags(), section.address(), section.offset(), section.size(), section.link()
+            ));
+        }
+        this.sections = List.copyOf(sections);
+        this.symbols = this.readSymbols();
+    }
+
+    /**
+     * Maps a file and reads its headers and symbols.
+     *
+     * @throws IOException
+     *     if the file cannot be read or is not a valid ELF file
+     */
+    public static @NotNull ElfFile read(final @NotNull Path path) throws IOException {
+        try (final var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return ElfFile.parse(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Reads the headers and symbols of an ELF file already in memory.
+     *
+     * @throws IOException
+     *     if the contents are not a valid ELF file
+     */
+    public static @NotNull ElfFile parse(final @NotNull ByteBuffer contents) throws IOException {
+        try {
+            return new ElfFile(contents);
+        } catch (final BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new EOFException("Truncated ELF file.");
+        }
+    }
+
+    /** @return whether the file starts like an ELF file; false if it cannot be read */
+    public static boolean isElf(final @NotNull Path path) {
+        try (final var stream = Files.newInputStream(path)) {
+            return ElfFile.hasMagic(stream.readNBytes(ElfFile.MAGIC.length));
+        } catch (final IOException e) {
+            return false;
+        }
+    }
+
+    private static boolean hasMagic(final byte @NotNull [] bytes) {
+        return bytes.length >= ElfFile.MAGIC.length
+            && Arrays.equals(bytes, 0, ElfFile.MAGIC.length, ElfFile.MAGIC, 0, ElfFile.MAGIC.length);
+    }
+
+    private static @NotNull Segment readSegment64(final @NotNull ByteBuffer entry) {
+        return new Segment(
+            entry.getInt(),
+            entry.getInt(4),
+            entry.getLong(8),
+            entry.getLong(16),
+            entry.getLong(32),
+            entry.getLong(40)
+        );
+    }
+
+    /**
+     * @return a little endian view of {@code length} bytes of the file from
+     * {@code offset}
+     * @throws EOFException
+     *     if they are not all in the file
+     */
+    public @NotNull ByteBuffer getContents(final long offset, final long length) throws EOFException {
+        if (offset < 0 || length < 0 || offset + length > this.contents.capacity()) {
+            throw new EOFException("Truncated ELF file.");
+        }
+        return this.contents.slice((int) offset, (int) length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /** @return the section with the given name, if there is one */
+    public @Nullable Section findSection(final @NotNull String name) {
+        return this.sections.stream().filter(section -> section.name().equals(name)).findFirst().orElse(null);
+    }
+
+    /// Reads an address, offset or size: 4 bytes in ELF32, 8 in ELF64.
+    private long getAddress(final @NotNull ByteBuffer buffer) {
+        return this.is64 ? buffer.getLong() : Integer.toUnsignedLong(buffer.getInt());
+    }
+
+    private @NotNull String getString(final @Nullable Section table, final int offset) throws EOFException {
+        if (table == null || table.type() != ElfFile.SHT_STRTAB || offset < 0 || offset >= table.size()) {
+            return "";
+        }
+        final var bytes = this.getContents(table.offset() + offset, table.size() - offset);
+        var length = 0;
+        while (length < bytes.limit() && bytes.get(length) != 0) {
+            length++;
+        }
+        final var text = new byte[length];
+        bytes.get(text);
+        return new String(text, StandardCharsets.UTF_8);
+    }
+
+    private @NotNull List<@NotNull ElfSymbol> readSymbols() throws EOFException {
+        final var symbolTable = this.sections.stream()
+            .filter(section -> section.type() == ElfFile.SHT_SYMTAB)
+            .findFirst()
+            .orElse(null);
+        if (symbolTable == null) {
+            return List.of();
+        }
+        final var names = symbolTable.link() < this.sections.size() ? this.sections.get(symbolTable.link()) : null;
+        final var entrySize = this.is64 ? 24 : 16;
+        final var count = (int) (symbolTable.size() / entrySize);
+        final var entries = this.getContents(symbolTable.offset(), (long) count * entrySize);
+        final var symbols = new ArrayList<ElfSymbol>(count);
+        for (var i = 0; i < count; i++) {
+            final var entry = entries.slice(i * entrySize, entrySize).order(ByteOrder.LITTLE_ENDIAN);
+            final var nameOffset = entry.getInt(0);
+            final long value, size;
+            final int info, sectionIndex;
+            if (this.is64) {
+                info = Byte.toUnsignedInt(entry.get(4));
+                sectionIndex = Short.toUnsignedInt(entry.getShort(6));
+                value = entry.getLong(8);
+                size = entry.getLong(16);
+            } else {
+                value = Integer.toUnsignedLong(entry.getInt(4));
+                size = Integer.toUnsignedLong(entry.getInt(8));
+                info = Byte.toUnsignedInt(entry.get(12));
+                sectionIndex = Short.toUnsignedInt(entry.getShort(14));
+            }
+            symbols.add(new ElfSymbol(this.getString(names, nameOffset), value, size, info >> 4, info & 0xf,
+                sectionIndex));
+        }
+        return List.copyOf(symbols);
+    }
+}
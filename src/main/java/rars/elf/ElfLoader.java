@@ -0,0 +1,246 @@
+package rars.elf;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import rars.ProgramStatement;
+import rars.assembler.DataTypes;
+import rars.assembler.Symbol;
+import rars.assembler.SymbolTable;
+import rars.exceptions.AddressErrorException;
+import rars.riscv.InstructionsRegistry;
+import rars.riscv.hardware.Memory;
+import rars.util.BinaryUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Loads a statically linked RISC-V executable built by an external toolchain
+ * into memory, instead of assembling source code.
+ * <p>
+ * Every loadable segment has to lie within the text segment or within the
+ * data segment of the memory configuration. Words of the text segment are
+ * decoded into {@link ProgramStatement}s, the same way code written by a
+ * running program is; those that are not instructions can be loaded from but
+ * not executed. As RARS does not implement compressed instructions, code
+ * built with the C extension is refused.
+ */
+public final class ElfLoader {
+    /// Symbol GNU and LLVM linkers define for the value of the global pointer.
+    public static final @NotNull String GLOBAL_POINTER_SYMBOL = "__global_pointer$";
+
+    private ElfLoader() {
+    }
+
+    /**
+     * What a loaded executable needs to start.
+     *
+     * @param entry
+     *     address of the first instruction to execute
+     * @param globalPointer
+     *     value the global pointer register should start with, if the
+     *     executable defines one
+     * @param hasDataInText
+     *     whether non-code sections, e.g. read-only data, were placed in the
+     *     text segment; reading them needs self-modifying code to be enabled
+     * @param symbolCount
+     *     number of symbols added to the symbol table
+     */
+    public record LoadedElf(int entry, @Nullable Integer globalPointer, boolean hasDataInText, int symbolCount) {
+    }
+
+    /**
+     * Reads an executable and places its segments in memory and its symbols
+     * in the symbol table.
+     *
+     * @throws IOException
+     *     if the file cannot be read, is not a RISC-V executable RARS can run,
+     *     or does not fit in the memory configuration
+     */
+    public static @NotNull LoadedElf load(
+        final @NotNull Path path,
+        final @NotNull Memory memory,
+        final @NotNull SymbolTable symbolTable
+    ) throws IOException {
+        final var elf = ElfFile.read(path);
+        ElfLoader.checkLoadable(elf, path);
+        final var entry = ElfLoader.toAddress(elf.entry, "entry point");
+        if (!memory.isAddressInTextSegment(entry)) {
+            throw new IOException("The entry point " + BinaryUtils.intToHexString(entry) + " of " + path
+                + " is outside the text segment.");
+        }
+        for (final var segment : elf.segments) {
+            if (segment.type() == ElfFile.PT_LOAD && segment.memorySize() > 0) {
+                ElfLoader.loadSegment(elf, segment, memory);
+            }
+        }
+        final var hasDataInText = elf.sections.stream().anyMatch(section ->
+            (section.flags() & ElfFile.SHF_ALLOC) != 0
+                && (section.flags() & ElfFile.SHF_EXECINSTR) == 0
+                && section.type() != ElfFile.SHT_NOBITS
+                && section.size() > 0
+                && memory.isAddressInTextSegment((int) section.address())
+        );
+
+        final var symbols = new ArrayList<ElfFile.ElfSymbol>();
+        Integer globalPointer = null;
+        for (final var symbol : elf.symbols) {
+            if (ElfLoader.isLabel(symbol)) {
+                symbols.add(symbol);
+            }
+            if (symbol.name().equals(ElfLoader.GLOBAL_POINTER_SYMBOL) && symbol.sectionIndex() != ElfFile.SHN_UNDEF) {
+                globalPointer = ElfLoader.toAddress(symbol.value(), "global pointer");
+            }
+        }
+        // a global symbol wins over a local one of the same name
+        symbols.sort(Comparator.comparing(symbol -> symbol.binding() == ElfFile.STB_LOCAL));
+        final var added = symbolTable.addSymbols(ElfLoader.toSymbols(symbols, memory));
+        return new LoadedElf(entry, globalPointer, hasDataInText, added);
+    }
+
+    private static void checkLoadable(final @NotNull ElfFile elf, final @NotNull Path path) throws IOException {
+        if (elf.machine != ElfFile.EM_RISCV) {
+            throw new IOException(path + " is not a RISC-V executable.");
+        }
+        if (elf.type == ElfFile.ET_REL) {
+            throw new IOException(path + " is an object file; link it into an executable first.");
+        }
+        final var isDynamic = elf.segments.stream()
+            .anyMatch(segment -> segment.type() == ElfFile.PT_INTERP || segment.type() == ElfFile.PT_DYNAMIC);
+        if (elf.type != ElfFile.ET_EXEC || isDynamic) {
+            throw new IOException(path + " is not a statically linked executable.");
+        }
+        if (elf.is64 != InstructionsRegistry.RV64_MODE_FLAG) {
+            throw new IOException(path + " is a " + (elf.is64 ? 64 : 32) + "-bit executable, but RARS is in "
+                + (InstructionsRegistry.RV64_MODE_FLAG ? 64 : 32) + "-bit mode.");
+        }
+        if ((elf.flags & ElfFile.EF_RISCV_RVC) != 0) {
+            throw new IOException(path + " uses compressed instructions, which RARS does not support; "
+                + "build it without the C extension, e.g. with -march=rv32im.");
+        }
+    }
+
+    private static void loadSegment(
+        final @NotNull ElfFile elf,
+        final @NotNull ElfFile.Segment segment,
+        final @NotNull Memory memory
+    ) throws IOException {
+        if (segment.fileSize() > segment.memorySize()) {
+            throw new IOException("A segment at " + BinaryUtils.longToHexString(segment.address())
+                + " is larger in the file than in memory.");
+        }
+        final var start = ElfLoader.toAddress(segment.address(), "segment address");
+        final var end = ElfLoader.toAddress(segment.address() + segment.memorySize() - 1, "segment end");
+        final boolean isText;
+        if (memory.isAddressInTextSegment(start) && memory.isAddressInTextSegment(end)) {
+            isText = true;
+        } else if (memory.isAddressInDataSegment(start) && memory.isAddressInDataSegment(end)) {
+            isText = false;
+        } else {
+            throw new IOException("The segment from " + BinaryUtils.intToHexString(start) + " to "
+                + BinaryUtils.intToHexString(end) + " is not within the text or the data segment of the memory "
+                + "configuration.");
+        }
+        final var firstWord = start & -DataTypes.WORD_SIZE;
+        final var lastWord = end & -DataTypes.WORD_SIZE;
+        final var wordCount = (lastWord - firstWord) / DataTypes.WORD_SIZE + 1;
+        final var bytes = ByteBuffer.allocate(wordCount * DataTypes.WORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        // whatever lies past the contents in the file is zero, as the buffer starts out
+        final var contents = elf.getContents(segment.offset(), segment.fileSize());
+        bytes.put(start - firstWord, contents, 0, contents.limit());
+        final var words = new int[wordCount];
+        bytes.asIntBuffer().get(words);
+        try {
+            // a segment need not start or end on a word boundary: keep the bytes around it
+            final var keptBelow = ElfLoader.byteMask(start - firstWord);
+            final var keptAbove = ~ElfLoader.byteMask(end - lastWord + 1);
+            if (keptBelow != 0) {
+                words[0] |= ElfLoader.getWord(memory, firstWord, isText) & keptBelow;
+            }
+            if (keptAbove != 0) {
+                words[wordCount - 1] |= ElfLoader.getWord(memory, lastWord, isText) & keptAbove;
+            }
+            if (isText) {
+                ElfLoader.storeStatements(memory, firstWord, words);
+            } else {
+                memory.setRawWordsInDataSegment(firstWord, words, 0, wordCount);
+            }
+        } catch (final AddressErrorException e) {
+            // the range was checked above
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /// @return a mask of the lowest {@code bytes} bytes of a word
+    private static int byteMask(final int bytes) {
+        return bytes == DataTypes.WORD_SIZE ? -1 : (1 << (8 * bytes)) - 1;
+    }
+
+    private static int getWord(final @NotNull Memory memory, final int address, final boolean isText)
+        throws AddressErrorException {
+        if (isText) {
+            final var statement = memory.getStatementNoNotify(address);
+            return statement == null ? 0 : statement.getBinaryStatement();
+        }
+        final var word = memory.getRawWordOrNull(address);
+        return word == null ? 0 : word;
+    }
+
+    private static void storeStatements(final @NotNull Memory memory, final int firstWord, final int @NotNull [] words)
+        throws AddressErrorException {
+        // the decode tables are built on first use, which must not happen from several threads at once
+        InstructionsRegistry.findBasicInstructionByBinaryCode(0);
+        final var statements = IntStream.range(0, words.length)
+            .parallel()
+            .mapToObj(i -> new ProgramStatement(words[i], firstWord + i * DataTypes.WORD_SIZE))
+            .toArray(ProgramStatement[]::new);
+        for (final var statement : statements) {
+            memory.setStatement(statement.getAddress(), statement);
+        }
+    }
+
+    private static boolean isLabel(final @NotNull ElfFile.ElfSymbol symbol) {
+        return !symbol.name().isEmpty()
+            // mapping symbols such as $x and $d mark code and data, they are not labels
+            && !symbol.name().startsWith("$")
+            && symbol.sectionIndex() != ElfFile.SHN_UNDEF
+            && symbol.sectionIndex() < ElfFile.SHN_LORESERVE
+            && symbol.type() != ElfFile.STT_SECTION
+            && symbol.type() != ElfFile.STT_FILE
+            && ElfLoader.fitsInAddress(symbol.value());
+    }
+
+    private static @NotNull List<@NotNull Symbol> toSymbols(
+        final @NotNull List<ElfFile.@NotNull ElfSymbol> symbols,
+        final @NotNull Memory memory
+    ) {
+        return symbols.stream()
+            .filter(symbol -> memory.isAddressInTextSegment((int) symbol.value())
+                || memory.isAddressInDataSegment((int) symbol.value()))
+            .map(symbol -> new Symbol(
+                symbol.name(),
+                (int) symbol.value(),
+                !memory.isAddressInTextSegment((int) symbol.value())
+            ))
+            .toList();
+    }
+
+    /// Whether a value is a 32-bit address, zero or sign extended to 64 bits.
+    private static boolean fitsInAddress(final long value) {
+        return value >>> 32 == 0 || value >> 31 == -1;
+    }
+
+    private static int toAddress(final long value, final @NotNull String what) throws IOException {
+        if (!ElfLoader.fitsInAddress(value)) {
+            throw new IOException("The " + what + ' ' + BinaryUtils.longToHexString(value)
+                + " does not fit in 32 bits.");
+        }
+        return (int) value;
+    }
+}
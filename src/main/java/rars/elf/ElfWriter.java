@@ -0,0 +1,242 @@
+package rars.elf;
+
+import org.jetbrains.annotations.NotNull;
+import rars.assembler.DataTypes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes a {@link ProgramImage} as a statically linked ELF executable, which
+ * {@link ElfLoader} and other tools such as objdump or QEMU can read.
+ * <p>
+ * Each segment of the image becomes a loadable segment and a section of the
+ * same name, and the labels go to {@code .symtab}. The file is ELF64 for RV64
+ * programs and ELF32 otherwise.
+ */
+public final class ElfWriter {
+    private final @NotNull ProgramImage image;
+    private final int headerSize, programHeaderSize, sectionHeaderSize, symbolSize;
+
+    private ElfWriter(final @NotNull ProgramImage image) {
+        this.image = image;
+        this.headerSize = image.is64() ? 64 : 52;
+        this.programHeaderSize = image.is64() ? 56 : 32;
+        this.sectionHeaderSize = image.is64() ? 64 : 40;
+        this.symbolSize = image.is64() ? 24 : 16;
+    }
+
+    /**
+     * Writes the image to a file, replacing it if it exists.
+     *
+     * @throws IOException
+     *     if the file cannot be written
+     */
+    public static void write(final @NotNull Path path, final @NotNull ProgramImage image) throws IOException {
+        try (final var channel = FileChannel.open(
+            path,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE
+        )) {
+            final var contents = new ElfWriter(image).toBytes();
+            while (contents.hasRemaining()) {
+                channel.write(contents);
+            }
+        }
+    }
+
+    private @NotNull ByteBuffer toBytes() {
+        final var segments = this.image.segments();
+        // sections: null, one per segment, .symtab, .strtab, .shstrtab
+        final var symbolTableIndex = segments.size() + 1;
+        final var sectionCount = symbolTableIndex + 3;
+
+        final var sectionNames = new StringTable();
+        final var sectionNameOffsets = new int[sectionCount];
+        for (var i = 0; i < segments.size(); i++) {
+            sectionNameOffsets[i + 1] = sectionNames.add(segments.get(i).name());
+        }
+        sectionNameOffsets[symbolTableIndex] = sectionNames.add(".symtab");
+        sectionNameOffsets[symbolTableIndex + 1] = sectionNames.add(".strtab");
+        sectionNameOffsets[symbolTableIndex + 2] = sectionNames.add(".shstrtab");
+
+        final var symbolNames = new StringTable();
+        final var symbols = this.createSymbolTable(symbolNames);
+        final var localSymbolCount = 1 + (int) this.image.symbols().stream().filter(s -> !s.isGlobal()).count();
+
+        // layout: header, program headers, segment contents, symbols, strings, section headers
+        var offset = (long) this.headerSize + (long) segments.size() * this.programHeaderSize;
+        final var segmentOffsets = new long[segments.size()];
+        for (var i = 0; i < segments.size(); i++) {
+            segmentOffsets[i] = offset;
+            offset += (long) segments.get(i).fileWords() * DataTypes.WORD_SIZE;
+        }
+        final var symbolsOffset = ElfWriter.align(offset, 8);
+        final var symbolNamesOffset = symbolsOffset + symbols.capacity();
+        final var sectionNamesOffset = symbolNamesOffset + symbolNames.size();
+        final var sectionHeadersOffset = ElfWriter.align(sectionNamesOffset + sectionNames.size(), 8);
+        final var fileSize = sectionHeadersOffset + (long) sectionCount * this.sectionHeaderSize;
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IllegalStateException("The program is too large for an ELF file.");
+        }
+
+        final var out = ByteBuffer.allocate((int) fileSize).order(ByteOrder.LITTLE_ENDIAN);
+        out.put(ElfFile.MAGIC)
+            .put((byte) (this.image.is64() ? ElfFile.CLASS_64 : ElfFile.CLASS_32))
+            .put((byte) ElfFile.DATA_LITTLE_ENDIAN)
+            .put((byte) ElfFile.VERSION_CURRENT)
+            .put(new byte[9]);
+        out.putShort((short) ElfFile.ET_EXEC).putShort((short) ElfFile.EM_RISCV).putInt(ElfFile.VERSION_CURRENT);
+        this.putAddress(out, Integer.toUnsignedLong(this.image.entry()));
+        this.putAddress(out, this.headerSize);
+        this.putAddress(out, sectionHeadersOffset);
+        out.putInt(ElfFile.EF_RISCV_FLOAT_ABI_SOFT)
+            .putShort((short) this.headerSize)
+            .putShort((short) this.programHeaderSize)
+            .putShort((short) segments.size())
+            .putShort((short) this.sectionHeaderSize)
+            .putShort((short) sectionCount)
+            .putShort((short) (symbolTableIndex + 2));
+
+        for (var i = 0; i < segments.size(); i++) {
+            final var segment = segments.get(i);
+            final var flags = ElfFile.PF_R | (segment.isText() ? ElfFile.PF_X : ElfFile.PF_W);
+            final var address = Integer.toUnsignedLong(segment.address());
+            out.putInt(ElfFile.PT_LOAD);
+            if (this.image.is64()) {
+                out.putInt(flags);
+            }
+            this.putAddress(out, segmentOffsets[i]);
+            this.putAddress(out, address);
+            this.putAddress(out, address);
+            this.putAddress(out, (long) segment.fileWords() * DataTypes.WORD_SIZE);
+            this.putAddress(out, (long) segment.words().length * DataTypes.WORD_SIZE);
+            if (!this.image.is64()) {
+                out.putInt(flags);
+            }
+            this.putAddress(out, DataTypes.WORD_SIZE);
+        }
+        for (final var segment : segments) {
+            out.asIntBuffer().put(segment.words(), 0, segment.fileWords());
+            out.position(out.position() + segment.fileWords() * DataTypes.WORD_SIZE);
+        }
+        out.position((int) symbolsOffset).put(symbols);
+        out.put(symbolNames.toBytes()).put(sectionNames.toBytes());
+
+        out.position((int) sectionHeadersOffset).put(new byte[this.sectionHeaderSize]);
+        for (var i = 0; i < segments.size(); i++) {
+            final var segment = segments.get(i);
+            this.putSection(
+                out,
+                sectionNameOffsets[i + 1],
+                ElfFile.SHT_PROGBITS,
+                ElfFile.SHF_ALLOC | (segment.isText() ? ElfFile.SHF_EXECINSTR : ElfFile.SHF_WRITE),
+                Integer.toUnsignedLong(segment.address()),
+                segmentOffsets[i],
+                (long) segment.fileWords() * DataTypes.WORD_SIZE,
+                0,
+                0,
+                0
+            );
+        }
+        this.putSection(out, sectionNameOffsets[symbolTableIndex], ElfFile.SHT_SYMTAB, 0, 0, symbolsOffset,
+            symbols.capacity(), symbolTableIndex + 1, localSymbolCount, this.symbolSize);
+        this.putSection(out, sectionNameOffsets[symbolTableIndex + 1], ElfFile.SHT_STRTAB, 0, 0, symbolNamesOffset,
+            symbolNames.size(), 0, 0, 0);
+        this.putSection(out, sectionNameOffsets[symbolTableIndex + 2], ElfFile.SHT_STRTAB, 0, 0, sectionNamesOffset,
+            sectionNames.size(), 0, 0, 0);
+        return out.flip();
+    }
+
+    /// Symbol table entries, local symbols first as ELF requires, after the null symbol.
+    private @NotNull ByteBuffer createSymbolTable(final @NotNull StringTable names) {
+        final var symbols = new ArrayList<>(this.image.symbols());
+        symbols.sort((first, second) -> Boolean.compare(first.isGlobal(), second.isGlobal()));
+        final var table = ByteBuffer.allocate((symbols.size() + 1) * this.symbolSize).order(ByteOrder.LITTLE_ENDIAN);
+        table.put(new byte[this.symbolSize]);
+        final List<ProgramImage.Segment> segments = this.image.segments();
+        for (final var symbol : symbols) {
+            final var segment = this.image.findSegment(symbol.address());
+            final var section = segment == null ? ElfFile.SHN_ABS : segments.indexOf(segment) + 1;
+            final var info = (symbol.isGlobal() ? ElfFile.STB_GLOBAL : ElfFile.STB_LOCAL) << 4
+                | (symbol.isData() ? ElfFile.STT_OBJECT : ElfFile.STT_NOTYPE);
+            final var value = Integer.toUnsignedLong(symbol.address());
+            table.putInt(names.add(symbol.name()));
+            if (this.image.is64()) {
+                table.put((byte) info).put((byte) 0).putShort((short) section).putLong(value).putLong(0);
+            } else {
+                table.putInt((int) value).putInt(0).put((byte) info).put((byte) 0).putShort((short) section);
+            }
+        }
+        return table.flip();
+    }
+
+    private void putSection(
+        final @NotNull ByteBuffer out,
+        final int name,
+        final int type,
+        final long flags,
+        final long address,
+        final long offset,
+        final long size,
+        final int link,
+        final int info,
+        final int entrySize
+    ) {
+        out.putInt(name).putInt(type);
+        this.putAddress(out, flags);
+        this.putAddress(out, address);
+        this.putAddress(out, offset);
+        this.putAddress(out, size);
+        out.putInt(link).putInt(info);
+        this.putAddress(out, type == ElfFile.SHT_STRTAB ? 1 : DataTypes.WORD_SIZE);
+        this.putAddress(out, entrySize);
+    }
+
+    /// Writes an address, offset or size: 4 bytes in ELF32, 8 in ELF64.
+    private void putAddress(final @NotNull ByteBuffer out, final long value) {
+        if (this.image.is64()) {
+            out.putLong(value);
+        } else {
+            out.putInt((int) value);
+        }
+    }
+
+    private static long align(final long offset, final int alignment) {
+        return (offset + alignment - 1) / alignment * alignment;
+    }
+
+    /** Null terminated strings, referred to by their offsets; the first one is empty. */
+    private static final class StringTable {
+        private final @NotNull ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        private StringTable() {
+            this.bytes.write(0);
+        }
+
+        /** @return the offset of the string */
+        private int add(final @NotNull String string) {
+            final var offset = this.bytes.size();
+            this.bytes.writeBytes(string.getBytes(StandardCharsets.UTF_8));
+            this.bytes.write(0);
+            return offset;
+        }
+
+        private int size() {
+            return this.bytes.size();
+        }
+
+        private byte @NotNull [] toBytes() {
+            return this.bytes.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package rars.elf;
+
+import org.jetbrains.annotations.NotNull;
+import rars.assembler.DataTypes;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a {@link ProgramImage} as a flat binary: the stored words of its
+ * segments, one after the other, with nothing in between. A linker map in
+ * JSON tells where each segment is in the file and at which address it goes,
+ * and lists the labels, e.g.
+ * <pre>
+ * {
+ *   "entry": 4194304,
+ *   "xlen": 32,
+ *   "segments": [
+ *     {"name": ".text", "address": 4194304, "offset": 0, "size": 12, "memory_size": 12, "executable": true}
+ *   ],
+ *   "symbols": [
+ *     {"name": "main", "address": 4194304, "segment": ".text", "global": true}
+ *   ]
+ * }
+ * </pre>
+ * Addresses are unsigned and sizes are in bytes; the part of a segment past
+ * its size and up to its memory size is zeros.
+ */
+public final class FlatBinaryWriter {
+    private FlatBinaryWriter() {
+    }
+
+    /**
+     * Writes the binary and its linker map, replacing them if they exist.
+     *
+     * @throws IOException
+     *     if a file cannot be written
+     */
+    public static void write(final @NotNull Path binary, final @NotNull Path map, final @NotNull ProgramImage image)
+        throws IOException {
+        try (final var channel = FileChannel.open(
+            binary,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE
+        )) {
+            for (final var segment : image.segments()) {
+                final var bytes = ByteBuffer.allocate(segment.fileWords() * DataTypes.WORD_SIZE)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+                bytes.asIntBuffer().put(segment.words(), 0, segment.fileWords());
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+            }
+        }
+        try (final var out = new PrintStream(Files.newOutputStream(map), false, StandardCharsets.UTF_8)) {
+            FlatBinaryWriter.writeMap(out, image);
+            if (out.checkError()) {
+                throw new IOException("Could not write the linker map " + map + '.');
+            }
+        }
+    }
+
+    private static void writeMap(final @NotNull PrintStream out, final @NotNull ProgramImage image) {
+        out.println("{");
+        out.println("  \"entry\": " + Integer.toUnsignedString(image.entry()) + ",");
+        out.println("  \"xlen\": " + (image.is64() ? 64 : 32) + ",");
+        out.println("  \"segments\": [");
+        final var segments = image.segments();
+        var offset = 0L;
+        for (var i = 0; i < segments.size(); i++) {
+            final var segment = segments.get(i);
+            final var size = (long) segment.fileWords() * DataTypes.WORD_SIZE;
+            out.println("    {\"name\": \"" + segment.name() + "\", \"address\": "
+                + Integer.toUnsignedString(segment.address()) + ", \"offset\": " + offset + ", \"size\": " + size
+                + ", \"memory_size\": " + (long) segment.words().length * DataTypes.WORD_SIZE
+                + ", \"executable\": " + segment.isText() + "}" + (i + 1 < segments.size() ? "," : ""));
+            offset += size;
+        }
+        out.println("  ],");
+        out.println("  \"symbols\": [");
+        final var symbols = image.symbols();
+        for (var i = 0; i < symbols.size(); i++) {
+            final var symbol = symbols.get(i);
+            final var segment = image.findSegment(symbol.address());
+            out.println("    {\"name\": \"" + FlatBinaryWriter.escape(symbol.name()) + "\", \"address\": "
+                + Integer.toUnsignedString(symbol.address()) + ", \"segment\": "
+                + (segment == null ? "null" : "\"" + segment.name() + "\"") + ", \"global\": " + symbol.isGlobal()
+                + "}" + (i + 1 < symbols.size() ? "," : ""));
+        }
+        out.println("  ]");
+        out.println("}");
+    }
+
+    /// Labels can hold any character but quotes and backslashes, which JSON strings must escape.
+    private static @NotNull String escape(final @NotNull String string) {
+        return string.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
@@ -0,0 +1,179 @@
+package rars.elf;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import rars.assembler.DataTypes;
+import rars.assembler.SymbolTable;
+import rars.exceptions.AddressErrorException;
+import rars.riscv.dump.MemoryRangeReader;
+import rars.riscv.hardware.Memory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * What an assembled program puts in memory before it starts: its code, its
+ * data, its labels and where it starts. This is what {@link ElfWriter} and
+ * {@link FlatBinaryWriter} write.
+ *
+ * @param entry
+ *     address of the first instruction to execute
+ * @param is64
+ *     whether the program is for RV64
+ * @param segments
+ *     the written parts of memory: the text segment, then the {@code .extern}
+ *     and {@code .data} parts of the data segment
+ * @param symbols
+ *     the labels, local ones first
+ */
+public record ProgramImage(
+    int entry,
+    boolean is64,
+    @NotNull List<@NotNull Segment> segments,
+    @NotNull List<@NotNull ImageSymbol> symbols
+) {
+    /**
+     * A written part of memory.
+     *
+     * @param name
+     *     name of the segment, as in the assembler directive that fills it
+     * @param address
+     *     address of the first word
+     * @param words
+     *     the contents, up to the end of the memory taken by the segment
+     * @param fileWords
+     *     number of words to store; the rest of {@code words} are zeros
+     * @param isText
+     *     whether the segment holds code
+     */
+    public record Segment(@NotNull String name, int address, int @NotNull [] words, int fileWords, boolean isText) {
+        /** @return whether the address falls in the memory taken by the segment */
+        public boolean contains(final int address) {
+            return Integer.compareUnsigned(address, this.address) >= 0
+                && Integer.toUnsignedLong(address) < Integer.toUnsignedLong(this.address)
+                + (long) this.words.length * DataTypes.WORD_SIZE;
+        }
+    }
+
+    /** A label of the program. */
+    public record ImageSymbol(@NotNull String name, int address, boolean isData, boolean isGlobal) {
+    }
+
+    /**
+     * Reads the image of a program from the memory it was assembled into.
+     * <p>
+     * The text segment is read up to its first empty word. The data
+     * segment is read from the {@code .extern} and {@code .data} bases up to
+     * the first block no directive has written to, and the zeros at the end
+     * of each are left out of the stored words.
+     *
+     * @param globalSymbols
+     *     labels declared global
+     * @param localSymbols
+     *     the labels local to each source file
+     */
+    public static @NotNull ProgramImage read(
+        final @NotNull Memory memory,
+        final int entry,
+        final boolean is64,
+        final @NotNull SymbolTable globalSymbols,
+        final @NotNull List<@NotNull SymbolTable> localSymbols
+    ) {
+        final var configuration = memory.getMemoryConfiguration();
+        final var segments = new ArrayList<Segment>();
+        try {
+            final var text = ProgramImage.readText(memory, configuration.textBaseAddress);
+            if (text != null) {
+                segments.add(text);
+            }
+            final var dataLimit = configuration.dataSegmentLimitAddress;
+            final var extern = ProgramImage.readData(
+                memory,
+                ".extern",
+                configuration.externBaseAddress,
+                ProgramImage.getLastAddress(configuration.externBaseAddress, configuration.dataBaseAddress, dataLimit)
+            );
+            if (extern != null) {
+                segments.add(extern);
+            }
+            final var data = ProgramImage.readData(
+                memory,
+                ".data",
+                configuration.dataBaseAddress,
+                ProgramImage.getLastAddress(configuration.dataBaseAddress, configuration.externBaseAddress, dataLimit)
+            );
+            if (data != null) {
+                segments.add(data);
+            }
+        } catch (final AddressErrorException e) {
+            // the addresses all come from the memory configuration
+            throw new IllegalStateException(e);
+        }
+
+        final var symbols = new ArrayList<ImageSymbol>();
+        for (final var table : localSymbols) {
+            for (final var symbol : table.getAllSymbols()) {
+                symbols.add(new ImageSymbol(symbol.name(), symbol.address(), symbol.isData(), false));
+            }
+        }
+        for (final var symbol : globalSymbols.getAllSymbols()) {
+            symbols.add(new ImageSymbol(symbol.name(), symbol.address(), symbol.isData(), true));
+        }
+        return new ProgramImage(entry, is64, List.copyOf(segments), List.copyOf(symbols));
+    }
+
+    /** @return the segment holding the address, if any */
+    public @Nullable Segment findSegment(final int address) {
+        return this.segments.stream().filter(segment -> segment.contains(address)).findFirst().orElse(null);
+    }
+
+    /// @return the last word address of a part of the data segment, which ends where the next part begins
+    private static int getLastAddress(final int baseAddress, final int otherBaseAddress, final int limitAddress) {
+        final var end = Integer.compareUnsigned(otherBaseAddress, baseAddress) > 0 ? otherBaseAddress : limitAddress;
+        return (end & -DataTypes.WORD_SIZE) - DataTypes.WORD_SIZE;
+    }
+
+    private static @Nullable Segment readText(final @NotNull Memory memory, final int baseAddress)
+        throws AddressErrorException {
+        var words = new int[MemoryRangeReader.BLOCK_WORDS];
+        var count = 0;
+        for (var address = baseAddress; memory.isAddressInTextSegment(address); address += DataTypes.WORD_SIZE) {
+            final var statement = memory.getStatementNoNotify(address);
+            if (statement == null) {
+                break;
+            }
+            if (count == words.length) {
+                words = Arrays.copyOf(words, 2 * count);
+            }
+            words[count++] = statement.getBinaryStatement();
+        }
+        return count == 0 ? null : new Segment(".text", baseAddress, Arrays.copyOf(words, count), count, true);
+    }
+
+    private static @Nullable Segment readData(
+        final @NotNull Memory memory,
+        final @NotNull String name,
+        final int baseAddress,
+        final int lastAddress
+    ) throws AddressErrorException {
+        final var reader = new MemoryRangeReader(memory, baseAddress, lastAddress);
+        var words = new int[MemoryRangeReader.BLOCK_WORDS];
+        var count = 0;
+        while (true) {
+            if (count == words.length) {
+                words = Arrays.copyOf(words, 2 * count);
+            }
+            final var read = reader.read(words, count, words.length - count);
+            if (read == 0) {
+                break;
+            }
+            count += read;
+        }
+        var fileWords = count;
+        while (fileWords > 0 && words[fileWords - 1] == 0) {
+            fileWords--;
+        }
+        return fileWords == 0 ? null : new Segment(name, baseAddress, Arrays.copyOf(words, count), fileWords, false);
+    }
+}
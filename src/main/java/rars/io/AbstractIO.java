@@ -1,6 +1,7 @@
 package rars.io;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import rars.riscv.Syscall;
 
 public interface AbstractIO {
@@ -22,6 +23,19 @@ public interface AbstractIO {
     int SEEK_CUR = 1;
     int SEEK_END = 2;
 
+    // Message kinds of the MessageDialog syscall. They match the ones used by
+    // Swing's option panes.
+    int ERROR_MESSAGE = 0;
+    int INFORMATION_MESSAGE = 1;
+    int WARNING_MESSAGE = 2;
+    int QUESTION_MESSAGE = 3;
+    int PLAIN_MESSAGE = -1;
+
+    // Answers to a confirmation request.
+    int CONFIRM_YES = 0;
+    int CONFIRM_NO = 1;
+    int CONFIRM_CANCEL = 2;
+
     /**
      * Implements syscall to read a double value.
      * Client is responsible for catching NumberFormatException.
@@ -188,4 +202,49 @@ public interface AbstractIO {
     int readFromFile(final int fd, final byte[] myBuffer, final int lengthRequested);
 
     void flush();
+
+    /**
+     * Implements the MessageDialog family of syscalls.
+     *
+     * @param message
+     *     the message to show to the user
+     * @param messageType
+     *     one of {@link #ERROR_MESSAGE}, {@link #INFORMATION_MESSAGE},
+     *     {@link #WARNING_MESSAGE}, {@link #QUESTION_MESSAGE} or
+     *     {@link #PLAIN_MESSAGE}
+     */
+    void showMessage(final @NotNull String message, final int messageType);
+
+    /**
+     * Implements the InputDialog family of syscalls.
+     *
+     * @param prompt
+     *     the message to show to the user
+     * @return the entered text or {@code null} if the user cancelled the
+     * input
+     */
+    @Nullable String requestInput(final @NotNull String prompt);
+
+    /**
+     * Implements the ConfirmDialog syscall.
+     *
+     * @param message
+     *     the question to ask the user
+     * @return one of {@link #CONFIRM_YES}, {@link #CONFIRM_NO} or
+     * {@link #CONFIRM_CANCEL}
+     */
+    int requestConfirmation(final @NotNull String message);
+
+    /**
+     * Implements the DisplayBitmap syscall. Frontends without a display may
+     * ignore it.
+     *
+     * @param baseAddress
+     *     address of the first pixel of the bitmap
+     * @param width
+     *     width of the bitmap in pixels
+     * @param height
+     *     height of the bitmap in pixels
+     */
+    void displayBitmap(final int baseAddress, final int width, final int height);
 }
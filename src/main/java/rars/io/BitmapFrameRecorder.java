@@ -0,0 +1,116 @@
+package rars.io;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import rars.Globals;
+import rars.riscv.hardware.DeviceBus;
+import rars.riscv.hardware.Memory;
+import rars.util.BitmapFramebuffer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Headless version of the bitmap display shown by the DisplayBitmap system
+ * call, which writes the frames to numbered PNG files instead, so graphical
+ * programs can be checked without a display.
+ * <p>
+ * Once the program shows a bitmap, the recorder looks at it every fixed
+ * number of instructions, scheduled on the {@link DeviceBus}, and writes a
+ * frame whenever it changed. The frames therefore only depend on the
+ * program, not on the speed of the host. A last frame is written when the
+ * recorder is closed if the bitmap changed since the previous one.
+ */
+public final class BitmapFrameRecorder implements AutoCloseable {
+    public static final int DEFAULT_INTERVAL = 100_000;
+
+    private static final @NotNull Logger LOGGER = LogManager.getLogger(BitmapFrameRecorder.class);
+
+    private final @NotNull DeviceBus bus;
+    private final @NotNull Memory memory;
+    private final @NotNull Path directory;
+    private final int interval;
+    private final @NotNull Runnable capture = this::capture;
+    private @Nullable BitmapFramebuffer framebuffer;
+    private int frameCount;
+    private long lastRetired;
+
+    /**
+     * @param directory
+     *     directory the frames are written to, created if needed
+     * @param interval
+     *     number of instructions between two looks at the bitmap
+     */
+    public BitmapFrameRecorder(
+        final @NotNull DeviceBus bus,
+        final @NotNull Memory memory,
+        final @NotNull Path directory,
+        final int interval
+    ) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("The frame interval must be positive.");
+        }
+        this.bus = bus;
+        this.memory = memory;
+        this.directory = directory;
+        this.interval = interval;
+    }
+
+    /** @return the number of frames written so far */
+    public int getFrameCount() {
+        return this.frameCount;
+    }
+
+    /** Starts recording the given region, or moves the recording to it. */
+    public void show(final int baseAddress, final int width, final int height) {
+        final var framebuffer = this.framebuffer;
+        if (framebuffer == null || framebuffer.width != width || framebuffer.height != height) {
+            this.framebuffer = new BitmapFramebuffer(this.memory, baseAddress, width, height);
+        } else {
+            framebuffer.setBaseAddress(baseAddress);
+        }
+        this.bus.getScheduler().cancel(this.capture);
+        this.capture();
+    }
+
+    /** Stops recording and writes the last frame. */
+    @Override
+    public void close() {
+        this.bus.getScheduler().cancel(this.capture);
+        if (this.framebuffer != null) {
+            this.writeFrameIfChanged(this.framebuffer);
+        }
+    }
+
+    private void capture() {
+        final var framebuffer = this.framebuffer;
+        if (framebuffer == null) {
+            return;
+        }
+        this.writeFrameIfChanged(framebuffer);
+        // while the processor waits for an interrupt, the scheduler runs this straight away again;
+        // if nothing else is scheduled, nothing can wake the processor, so stop instead of spinning
+        final var retired = Globals.CS_REGISTER_FILE.instret.getValueNoNotify();
+        if (retired != this.lastRetired || this.bus.getScheduler().hasPendingEvents()) {
+            this.bus.getScheduler().scheduleAfter(this.interval, this.capture);
+        }
+        this.lastRetired = retired;
+    }
+
+    private void writeFrameIfChanged(final @NotNull BitmapFramebuffer framebuffer) {
+        if (framebuffer.refresh() == null && this.frameCount > 0) {
+            return;
+        }
+        final var file = this.directory.resolve("frame-%05d.png".formatted(this.frameCount));
+        try {
+            Files.createDirectories(this.directory);
+            framebuffer.writePng(file);
+            this.frameCount++;
+        } catch (final IOException e) {
+            BitmapFrameRecorder.LOGGER.error("Error while writing bitmap frame {}", file, e);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package rars.io;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import rars.settings.BoolSettings;
 import rars.util.Lazy;
 
@@ -11,6 +12,7 @@ public final class ConsoleIO implements AbstractIO {
     private final @NotNull Lazy<@NotNull BufferedWriter> outputWriter, errorWriter;
     private final @NotNull InputStream stdin;
     private final @NotNull FileHandler fileHandler;
+    private @Nullable BitmapFrameRecorder bitmapFrameRecorder;
 
     public ConsoleIO(
         final @NotNull InputStream stdin,
@@ -120,4 +122,46 @@ public final class ConsoleIO implements AbstractIO {
     public void flush() {
 
     }
+
+    @Override
+    public void showMessage(final @NotNull String message, final int messageType) {
+        this.printString(message + '\n');
+    }
+
+    @Override
+    public @Nullable String requestInput(final @NotNull String prompt) {
+        this.printString(prompt);
+        try {
+            // end of input is the console counterpart of cancelling the dialog
+            return this.inputReader.get().readLine();
+        } catch (final IOException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public int requestConfirmation(final @NotNull String message) {
+        final var answer = this.requestInput(message + " [y/n] ");
+        if (answer == null) {
+            return CONFIRM_CANCEL;
+        }
+        return switch (answer.trim().toLowerCase()) {
+            case "y", "yes" -> CONFIRM_YES;
+            case "n", "no" -> CONFIRM_NO;
+            default -> CONFIRM_CANCEL;
+        };
+    }
+
+    /** Records the bitmaps the program displays with the given recorder, or drops them if it is {@code null}. */
+    public void setBitmapFrameRecorder(final @Nullable BitmapFrameRecorder recorder) {
+        this.bitmapFrameRecorder = recorder;
+    }
+
+    @Override
+    public void displayBitmap(final int baseAddress, final int width, final int height) {
+        // without a recorder, there is nothing to display the bitmap on
+        if (this.bitmapFrameRecorder != null) {
+            this.bitmapFrameRecorder.show(baseAddress, width, height);
+        }
+    }
 }
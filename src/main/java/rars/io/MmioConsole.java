@@ -0,0 +1,196 @@
+package rars.io;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import rars.Globals;
+import rars.exceptions.AddressErrorException;
+import rars.riscv.hardware.DeviceBus;
+import rars.riscv.hardware.MemoryMappedDevice;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Headless version of the memory-mapped console of the Keyboard and Display
+ * MMIO Simulator tool, for running interrupt-driven I/O programs without a
+ * display, e.g. when grading them.
+ * <p>
+ * The four registers are the same as the tool's, starting at the base of
+ * the memory-mapped region: receiver control and data, then transmitter
+ * control and data. The ready bits are in bit 0 of the control registers
+ * and the program enables interrupts with bit 1.
+ * <p>
+ * The keyboard types the bytes of an input stream. Each one becomes ready a
+ * fixed number of instructions after the previous one was loaded, so no
+ * input is lost to a program that is slow to read it. The display writes
+ * the low byte of each transmitted word to an output stream the same number
+ * of instructions after the store. Control characters are written like any
+ * other byte. Both delays are events on the {@link DeviceBus}'s scheduler,
+ * so the run is the same every time.
+ */
+public final class MmioConsole implements MemoryMappedDevice, AutoCloseable {
+    public static final int EXTERNAL_INTERRUPT_KEYBOARD = 0x00000040;
+    public static final int EXTERNAL_INTERRUPT_DISPLAY = 0x00000080;
+    public static final int DEFAULT_DELAY = 5;
+
+    private static final @NotNull Logger LOGGER = LogManager.getLogger(MmioConsole.class);
+    private static final int READY = 1;
+    private static final int INTERRUPT_ENABLE = 2;
+
+    private final @NotNull DeviceBus bus;
+    private final @NotNull InputStream input;
+    private final @NotNull OutputStream output;
+    private final int receiverControlAddress;
+    private final int delay;
+    private final @NotNull Runnable keyTyped = this::typeKey;
+    private final @NotNull Runnable characterDisplayed = this::displayCharacter;
+    private int receiverControl, receiverData, transmitterControl, transmitterData;
+    private boolean inputExhausted;
+
+    /**
+     * @param baseAddress
+     *     address of the receiver control register; the others follow it
+     * @param delay
+     *     number of instructions it takes to type or display a character
+     */
+    public MmioConsole(
+        final @NotNull DeviceBus bus,
+        final int baseAddress,
+        final @NotNull InputStream input,
+        final @NotNull OutputStream output,
+        final int delay
+    ) {
+        if (delay < 1) {
+            throw new IllegalArgumentException("The console delay must be positive.");
+        }
+        this.bus = bus;
+        this.receiverControlAddress = baseAddress;
+        this.input = new BufferedInputStream(input);
+        this.output = new BufferedOutputStream(output);
+        this.delay = delay;
+        this.transmitterControl = MmioConsole.READY;
+    }
+
+    /**
+     * Attaches the registers to the bus and starts typing the input.
+     *
+     * @throws AddressErrorException
+     *     if another device is already attached to them
+     */
+    public void attach() throws AddressErrorException {
+        this.bus.attach(this, this.receiverControlAddress, this.receiverControlAddress + 12);
+        this.bus.getScheduler().scheduleAfter(this.delay, this.keyTyped);
+    }
+
+    /**
+     * Detaches the console from the bus and flushes the output, including a
+     * character the program stored just before it ended.
+     */
+    @Override
+    public void close() throws IOException {
+        this.bus.detach(this);
+        this.bus.getScheduler().cancel(this.keyTyped);
+        this.bus.getScheduler().cancel(this.characterDisplayed);
+        if ((this.transmitterControl & MmioConsole.READY) == 0) {
+            this.output.write(this.transmitterData & 0xFF);
+            this.transmitterControl |= MmioConsole.READY;
+        }
+        this.output.flush();
+    }
+
+    @Override
+    public int read(final int address, final int length, final int storedValue) {
+        final var word = switch ((address - this.receiverControlAddress) >>> 2) {
+            case 0 -> this.receiverControl;
+            case 1 -> {
+                // the character has been taken, so the keyboard may type the next one
+                if ((this.receiverControl & MmioConsole.READY) != 0) {
+                    this.receiverControl &= ~MmioConsole.READY;
+                    this.bus.getScheduler().scheduleAfter(this.delay, this.keyTyped);
+                }
+                yield this.receiverData;
+            }
+            case 2 -> this.transmitterControl;
+            default -> this.transmitterData;
+        };
+        return MemoryMappedDevice.bytesOf(word, address, length);
+    }
+
+    @Override
+    public void write(final int address, final int length, final int value) {
+        // only the interrupt enable bits and the transmitter data can be written
+        switch (address - this.receiverControlAddress) {
+            case 0 -> this.receiverControl = MmioConsole.enableInterrupts(
+                this.receiverControl,
+                value,
+                MmioConsole.EXTERNAL_INTERRUPT_KEYBOARD
+            );
+            case 8 -> this.transmitterControl = MmioConsole.enableInterrupts(
+                this.transmitterControl,
+                value,
+                MmioConsole.EXTERNAL_INTERRUPT_DISPLAY
+            );
+            case 12 -> {
+                // a display that is not ready ignores the character
+                if ((this.transmitterControl & MmioConsole.READY) != 0) {
+                    this.transmitterControl &= ~MmioConsole.READY;
+                    this.transmitterData = value;
+                    this.bus.getScheduler().scheduleAfter(this.delay, this.characterDisplayed);
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    /// Updates the interrupt enable bit of a control register. If the device is already ready when
+    /// its interrupts get enabled, the program is interrupted right away, as it would be by the
+    /// level of an interrupt line, so it cannot miss a character that arrived during its setup.
+    private static int enableInterrupts(final int control, final int value, final int interrupt) {
+        final var updated = (control & MmioConsole.READY) | (value & MmioConsole.INTERRUPT_ENABLE);
+        if (updated == (MmioConsole.READY | MmioConsole.INTERRUPT_ENABLE)
+            && (control & MmioConsole.INTERRUPT_ENABLE) == 0) {
+            Globals.INTERRUPT_CONTROLLER.registerExternalInterrupt(interrupt);
+        }
+        return updated;
+    }
+
+    private void typeKey() {
+        if (this.inputExhausted) {
+            return;
+        }
+        final int character;
+        try {
+            character = this.input.read();
+        } catch (final IOException e) {
+            MmioConsole.LOGGER.error("Error while reading the input of the console", e);
+            this.inputExhausted = true;
+            return;
+        }
+        if (character < 0) {
+            this.inputExhausted = true;
+            return;
+        }
+        this.receiverData = character;
+        this.receiverControl |= MmioConsole.READY;
+        if ((this.receiverControl & MmioConsole.INTERRUPT_ENABLE) != 0) {
+            Globals.INTERRUPT_CONTROLLER.registerExternalInterrupt(MmioConsole.EXTERNAL_INTERRUPT_KEYBOARD);
+        }
+    }
+
+    private void displayCharacter() {
+        try {
+            this.output.write(this.transmitterData & 0xFF);
+        } catch (final IOException e) {
+            MmioConsole.LOGGER.error("Error while writing the output of the console", e);
+        }
+        this.transmitterControl |= MmioConsole.READY;
+        if ((this.transmitterControl & MmioConsole.INTERRUPT_ENABLE) != 0) {
+            Globals.INTERRUPT_CONTROLLER.registerExternalInterrupt(MmioConsole.EXTERNAL_INTERRUPT_DISPLAY);
+        }
+    }
+}
@@ -1,10 +1,13 @@
 package rars.io;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import rars.riscv.syscalls.DisplayBitmapImpl;
 import rars.settings.BoolSetting;
 import rars.settings.BoolSettings;
 import rars.venus.MessagesPane;
 
+import javax.swing.*;
 import java.nio.charset.StandardCharsets;
 
 public final class VenusIO implements AbstractIO {
@@ -13,8 +16,6 @@ public final class VenusIO implements AbstractIO {
 
     private final @NotNull BoolSettings boolSettings;
     private final @NotNull FileHandler fileHandler;
-    private @NotNull String buffer;
-    private long lastTime;
 
     public VenusIO(
         final @NotNull MessagesPane messagesPane,
@@ -24,8 +25,6 @@ public final class VenusIO implements AbstractIO {
         this.messagesPane = messagesPane;
         this.boolSettings = boolSettings;
         this.fileHandler = new FileHandler(SYSCALL_MAXFILES - 3, this.boolSettings);
-        this.buffer = "";
-        this.lastTime = 0;
     }
 
     @Override
@@ -97,19 +96,36 @@ public final class VenusIO implements AbstractIO {
 
     @Override
     public void flush() {
-        this.messagesPane.postRunMessage(this.buffer);
-        this.buffer = "";
-        this.lastTime = System.currentTimeMillis() + 100;
+        // the messages pane shows what was printed with its next refresh
+    }
+
+    @Override
+    public void showMessage(final @NotNull String message, final int messageType) {
+        JOptionPane.showMessageDialog(null, message, null, messageType);
+    }
+
+    @Override
+    public @Nullable String requestInput(final @NotNull String prompt) {
+        return JOptionPane.showInputDialog(prompt);
+    }
+
+    @Override
+    public int requestConfirmation(final @NotNull String message) {
+        final var result = JOptionPane.showConfirmDialog(null, message);
+        return switch (result) {
+            case JOptionPane.YES_OPTION -> CONFIRM_YES;
+            case JOptionPane.NO_OPTION -> CONFIRM_NO;
+            default -> CONFIRM_CANCEL;
+        };
+    }
+
+    @Override
+    public void displayBitmap(final int baseAddress, final int width, final int height) {
+        DisplayBitmapImpl.INSTANCE.show(baseAddress, width, height);
     }
 
     private void printToGui(final @NotNull String message) {
-        final long time = System.currentTimeMillis();
-        if (time > this.lastTime) {
-            this.messagesPane.postRunMessage(this.buffer + message);
-            this.buffer = "";
-            this.lastTime = time + 100;
-        } else {
-            this.buffer += message;
-        }
+        // the messages pane collects the text and shows it once per frame
+        this.messagesPane.postRunMessage(message);
     }
 }
@@ -29,6 +29,7 @@ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
  */
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Object provided to Observers of runtime access to memory or registers.
@@ -46,8 +47,37 @@ public abstract sealed class AccessNotice permits MemoryAccessNotice, RegisterAc
     public final boolean isAccessFromRISCV;
 
     protected AccessNotice(final @NotNull AccessType type) {
+        this(type, AccessNotice.isSimulatorThread());
+    }
+
+    /**
+     * Creates a notice for an access that did not necessarily happen on the
+     * current thread, e.g. one replayed from a {@link MemoryAccessBus}.
+     */
+    protected AccessNotice(final @NotNull AccessType type, final boolean isAccessFromRISCV) {
         this.accessType = type;
-        this.isAccessFromRISCV = Thread.currentThread().getName().startsWith("RISCV");
+        this.isAccessFromRISCV = isAccessFromRISCV;
+    }
+
+    /// Thread simulating a program without a thread of its own, as the command line does.
+    private static volatile @Nullable Thread borrowedSimulatorThread = null;
+
+    /** @return {@code true} if the current thread is the one running the simulation */
+    public static boolean isSimulatorThread() {
+        final var current = Thread.currentThread();
+        return current == AccessNotice.borrowedSimulatorThread || current.getName().startsWith("RISCV");
+    }
+
+    /**
+     * Marks the current thread as the one running the simulation while it
+     * simulates a program directly, e.g. from the command line, where the
+     * simulator does not start a thread named after it.
+     *
+     * @param simulating
+     *     {@code false} once the simulation has returned
+     */
+    public static void setSimulatingOnCurrentThread(final boolean simulating) {
+        AccessNotice.borrowedSimulatorThread = simulating ? Thread.currentThread() : null;
     }
 
     public enum AccessType {
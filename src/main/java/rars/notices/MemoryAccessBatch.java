@@ -0,0 +1,91 @@
+package rars.notices;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A batch of memory accesses polled from a {@link MemoryAccessBus}, stored in
+ * parallel primitive arrays. Each record is an {@code (type, address, length,
+ * value)} tuple, the same data a {@link MemoryAccessNotice} carries.
+ * <p>
+ * A batch is refilled by every poll, so a subscriber must not keep a
+ * reference to it after it has processed the records.
+ */
+public final class MemoryAccessBatch {
+    /** Default number of records in a batch. */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private final byte[] types;
+    private final int[] addresses;
+    private final byte[] lengths;
+    private final int[] values;
+    private int count;
+
+    public MemoryAccessBatch(final int capacity) {
+        this.types = new byte[capacity];
+        this.addresses = new int[capacity];
+        this.lengths = new byte[capacity];
+        this.values = new int[capacity];
+        this.count = 0;
+    }
+
+    void add(final byte type, final int address, final byte length, final int value) {
+        final var index = this.count++;
+        this.types[index] = type;
+        this.addresses[index] = address;
+        this.lengths[index] = length;
+        this.values[index] = value;
+    }
+
+    void clear() {
+        this.count = 0;
+    }
+
+    public boolean isFull() {
+        return this.count == this.types.length;
+    }
+
+    public int size() {
+        return this.count;
+    }
+
+    public boolean isEmpty() {
+        return this.count == 0;
+    }
+
+    public @NotNull AccessNotice.AccessType accessType(final int index) {
+        return this.types[index] == MemoryAccessBus.WRITE
+            ? AccessNotice.AccessType.WRITE
+            : AccessNotice.AccessType.READ;
+    }
+
+    public int address(final int index) {
+        return this.addresses[index];
+    }
+
+    public int length(final int index) {
+        return this.lengths[index];
+    }
+
+    public int value(final int index) {
+        return this.values[index];
+    }
+
+    public int capacity() {
+        return this.types.length;
+    }
+
+    /**
+     * Creates a notice for a single record, for subscribers written against
+     * the notice-based API. All the accesses on the bus come from the
+     * simulator thread.
+     */
+    public @NotNull MemoryAccessNotice toNotice(final int index) {
+        return new MemoryAccessNotice(
+            this.accessType(index),
+            this.addresses[index],
+            this.lengths[index],
+            this.values[index],
+            true
+        );
+    }
+}
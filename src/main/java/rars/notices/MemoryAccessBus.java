@@ -0,0 +1,196 @@
+package rars.notices;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Batched alternative to subscribing a listener to the memory. The accesses
+ * made by the simulator thread are appended to a ring buffer of primitive
+ * arrays, and every {@link Subscription} pulls the ones in its address range
+ * whenever it suits it: from its own thread, or once per frame on the Swing
+ * event dispatch thread.
+ * <p>
+ * Publishing costs no allocation and no lock, and the simulator never waits
+ * for a subscriber. A subscriber that falls a whole ring behind skips ahead
+ * to the oldest access that is still buffered; the number of accesses it
+ * missed is available from {@link Subscription#getLostCount()}.
+ * <p>
+ * Only the simulator thread publishes, so the ring has a single producer.
+ * Nothing is recorded while there are no subscriptions.
+ */
+public final class MemoryAccessBus {
+    /** Default number of accesses kept in the ring. */
+    public static final int DEFAULT_CAPACITY = 1 << 18;
+
+    static final byte READ = 0;
+    static final byte WRITE = 1;
+
+    private static final Subscription[] NO_SUBSCRIPTIONS = new Subscription[0];
+
+    private final int capacity;
+    private final int mask;
+    private final byte[] types;
+    private final int[] addresses;
+    private final byte[] lengths;
+    private final int[] values;
+    /// Sequence number of the next access, published with release semantics after the access has been written.
+    private final @NotNull AtomicLong head;
+    private volatile @NotNull Subscription @NotNull [] subscriptions;
+
+    public MemoryAccessBus() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity
+     *     number of accesses kept in the ring, must be a power of two
+     */
+    public MemoryAccessBus(final int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("The capacity of the ring must be a power of two.");
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.types = new byte[capacity];
+        this.addresses = new int[capacity];
+        this.lengths = new byte[capacity];
+        this.values = new int[capacity];
+        this.head = new AtomicLong();
+        this.subscriptions = NO_SUBSCRIPTIONS;
+    }
+
+    /** @return {@code true} if at least one subscription is open */
+    public boolean isActive() {
+        return this.subscriptions.length != 0;
+    }
+
+    /**
+     * Records an access if it is made by the simulator thread and falls into
+     * the range of some subscription.
+     */
+    public void publish(
+        final @NotNull AccessNotice.AccessType type,
+        final int address,
+        final int length,
+        final int value
+    ) {
+        final var current = this.subscriptions;
+        if (current.length == 0 || !AccessNotice.isSimulatorThread()) {
+            return;
+        }
+        var wanted = false;
+        for (final var subscription : current) {
+            if (subscription.matches(address)) {
+                wanted = true;
+                break;
+            }
+        }
+        if (!wanted) {
+            return;
+        }
+        final var sequence = this.head.getPlain();
+        final var slot = (int) sequence & this.mask;
+        this.types[slot] = type == AccessNotice.AccessType.WRITE ? WRITE : READ;
+        this.addresses[slot] = address;
+        this.lengths[slot] = (byte) length;
+        this.values[slot] = value;
+        this.head.lazySet(sequence + 1);
+    }
+
+    /**
+     * Opens a subscription to the accesses from {@code startAddr} up to and
+     * including the word at {@code endAddr}, using the same convention as
+     * {@code Memory.subscribe}. Only the accesses published after this call
+     * are delivered.
+     */
+    public @NotNull Subscription subscribe(final int startAddr, final int endAddr) {
+        final var subscription = new Subscription(startAddr, endAddr, this.head.get());
+        synchronized (this) {
+            final var current = this.subscriptions;
+            final var updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = subscription;
+            this.subscriptions = updated;
+        }
+        return subscription;
+    }
+
+    /** Closes a subscription. It may still be polled, but gets no new accesses. */
+    public void unsubscribe(final @NotNull Subscription subscription) {
+        synchronized (this) {
+            this.subscriptions = Arrays.stream(this.subscriptions)
+                .filter(s -> s != subscription)
+                .toArray(Subscription[]::new);
+        }
+    }
+
+    /**
+     * A cursor into the ring together with the address range it is
+     * interested in. A subscription must only be polled by one thread at a
+     * time.
+     */
+    public final class Subscription {
+        private final int lowAddress;
+        private final int highAddress;
+        private long cursor;
+        private long lostCount;
+
+        private Subscription(final int startAddr, final int endAddr, final long cursor) {
+            this.lowAddress = startAddr;
+            this.highAddress = endAddr;
+            this.cursor = cursor;
+            this.lostCount = 0;
+        }
+
+        private boolean matches(final int address) {
+            return address >= this.lowAddress && address <= this.highAddress + 3;
+        }
+
+        /**
+         * Moves the accesses published since the last poll into
+         * {@code batch}, replacing its contents.
+         *
+         * @return the number of accesses in the batch; if it equals the
+         * capacity of the batch, more may be waiting
+         */
+        public int poll(final @NotNull MemoryAccessBatch batch) {
+            final var bus = MemoryAccessBus.this;
+            while (true) {
+                batch.clear();
+                final var end = bus.head.get();
+                // the slot of the access at end - capacity may already be overwritten by the one at end
+                final var oldest = end - bus.capacity + 1;
+                var start = this.cursor;
+                if (start < oldest) {
+                    this.lostCount += oldest - start;
+                    start = oldest;
+                }
+                var sequence = start;
+                for (; sequence < end && !batch.isFull(); sequence++) {
+                    final var slot = (int) sequence & bus.mask;
+                    final var address = bus.addresses[slot];
+                    if (this.matches(address)) {
+                        batch.add(bus.types[slot], address, bus.lengths[slot], bus.values[slot]);
+                    }
+                }
+                // the producer may have lapped us while we were copying, in which
+                // case the oldest records can be torn and the batch is discarded;
+                // the fence keeps the copying reads before the read of the head
+                VarHandle.acquireFence();
+                if (start > bus.head.get() - bus.capacity) {
+                    this.cursor = sequence;
+                    return batch.size();
+                }
+                this.lostCount += sequence - start;
+                this.cursor = sequence;
+            }
+        }
+
+        /** @return the number of accesses dropped because this subscription fell behind */
+        public long getLostCount() {
+            return this.lostCount;
+        }
+    }
+}
@@ -56,6 +56,23 @@ public final class MemoryAccessNotice extends AccessNotice {
         this.value = value;
     }
 
+    /**
+     * Creates a notice for an access that was recorded earlier, possibly on
+     * another thread.
+     */
+    public MemoryAccessNotice(
+        final @NotNull AccessType type,
+        final int address,
+        final int length,
+        final int value,
+        final boolean isAccessFromRISCV
+    ) {
+        super(type, isAccessFromRISCV);
+        this.address = address;
+        this.length = length;
+        this.value = value;
+    }
+
     /**
      * String representation indicates access type, address and length in bytes
      *
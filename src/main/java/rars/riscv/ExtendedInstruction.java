@@ -2,12 +2,18 @@ package rars.riscv;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import rars.ProgramStatement;
 import rars.RISCVProgram;
 import rars.assembler.Symbol;
+import rars.assembler.Token;
 import rars.assembler.TokenList;
+import rars.assembler.TokenType;
+import rars.assembler.Tokenizer;
+import rars.exceptions.AssemblyException;
 import rars.util.BinaryUtils;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.StringTokenizer;
 
 /*
@@ -52,7 +58,12 @@ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
  */
 public final class ExtendedInstruction extends Instruction {
     private final ArrayList<String> translationStrings;
-//    private final List<Instruction> translatedInstructions;
+    /**
+     * {@link #translationStrings} compiled into tokens
+     *
+     * @see #getCompiledTemplates()
+     */
+    private volatile @Nullable List<@NotNull List<@NotNull TemplateToken>> compiledTemplates;
 
     /**
      * Constructor for ExtendedInstruction. No compact translation is provided.
@@ -92,14 +103,12 @@ public final class ExtendedInstruction extends Instruction {
     }
 
     /**
-     * Given a basic instruction template and the list of tokens from an extended
-     * instruction statement, substitute operands from the token list appropriately
-     * into the
-     * template to generate the basic statement. Assumes the extended instruction
-     * statement has
-     * been translated from source form to basic assembly form (e.g. register
-     * mnemonics
-     * translated to corresponding register numbers).
+     * Given the list of tokens from an extended instruction statement, substitute
+     * operands from the token list appropriately into each of the basic
+     * instruction templates to generate the basic statements. Assumes the
+     * extended instruction statement has been translated from source form to
+     * basic assembly form (e.g. register mnemonics translated to corresponding
+     * register numbers, see {@link ProgramStatement#getBasicTokenList()}).
      * Operand format of source statement is already verified correct.
      * Assume the template has correct number and positions of operands.
      * Template is String with special markers. In the list below, n represents
@@ -120,112 +129,199 @@ public final class ExtendedInstruction extends Instruction {
      * n.
      * <LI>VHn means substitute high order 16 bits from 32 bit value in source token
      * n, then add 1 if value's bit 15 is 1.
+     * <LI>LIAn ... LIEn mean substitute the parts of a 64 bit value in source
+     * token n used to load it with a sequence of shifts and additions.
      * <LI>LAB means substitute textual label from last token of source statement.
      * Used for various branches.
      * </UL>
+     * The templates are compiled into tokens the first time the instruction is
+     * expanded, so the expansion only binds operands to the marker tokens and
+     * never builds or tokenizes the text of the generated statements.
      *
-     * @param template
-     *     a String containing template for basic statement.
-     * @param tokenList
-     *     a TokenList containing tokens from extended instruction.
      * @param program
      *     a {@link RISCVProgram} object
+     * @param tokenList
+     *     a TokenList containing tokens from extended instruction in basic
+     *     assembly form.
+     * @param lineNumber
+     *     the source line number of the extended instruction
      * @param PC
-     *     a int
-     * @return String representing basic assembler statement.
+     *     address of the extended instruction
+     * @return one TokenList for each basic statement generated.
      */
-    public static String makeTemplateSubstitutions(
+    public @NotNull List<@NotNull TokenList> expand(
         final @NotNull RISCVProgram program,
-        final @NotNull String template,
         final @NotNull TokenList tokenList,
+        final int lineNumber,
         final int PC
     ) {
-        String instruction = template;
-        // substitute first operand token for template's RG1 or OP1, second for RG2 or
-        // OP2, etc
-        for (int op = 1; op < tokenList.size(); op++) {
-            instruction = instruction.replace("RG" + op, tokenList.get(op).getText());
+        final var templates = this.getCompiledTemplates();
+        final var result = new ArrayList<TokenList>(templates.size());
+        for (final var template : templates) {
+            final var statement = new TokenList();
+            for (final var templateToken : template) {
+                statement.add(ExtendedInstruction.substitute(program, templateToken, tokenList, lineNumber, PC));
+            }
+            result.add(statement);
+        }
+        return result;
+    }
 
-            final String strValue = tokenList.get(op).getText();
-            int val;
-            try {
-                val = BinaryUtils.stringToInt(strValue); // KENV 1/6/05
-            } catch (final NumberFormatException e) {
-                final long lval;
-                try {
-                    lval = BinaryUtils.stringToLong(strValue);
-                } catch (final NumberFormatException nfe) {
-                    continue;
-                }
-                val = (int) (lval >> 32);
-                final int vall = (int) lval;
-                // this shouldn't happen if is is for LL .. VH
-                if (instruction.contains("LIA" + op)) {
-                    final int extra = BinaryUtils.bitValue(val, 11); // add extra to compesate for sign extension
-                    instruction = instruction.replace("LIA" + op, String.valueOf((val >> 12) + extra));
-                } else if (instruction.contains("LIB" + op)) {
-                    instruction = instruction.replace("LIB" + op, String.valueOf(val << 20 >> 20));
-                } else if (instruction.contains("LIC" + op)) {
-                    instruction = instruction.replace("LIC" + op, String.valueOf((vall >> 21) & 0x7FF));
-                } else if (instruction.contains("LID" + op)) {
-                    instruction = instruction.replace("LID" + op, String.valueOf((vall >> 10) & 0x7FF));
-                } else if (instruction.contains("LIE" + op)) {
-                    instruction = instruction.replace("LIE" + op, String.valueOf(vall & 0x3FF));
+    private static @NotNull Token substitute(
+        final @NotNull RISCVProgram program,
+        final @NotNull TemplateToken templateToken,
+        final @NotNull TokenList tokenList,
+        final int lineNumber,
+        final int PC
+    ) {
+        final int op = templateToken.operand();
+        switch (templateToken.slot()) {
+            case LITERAL -> {
+            }
+            case RG -> {
+                if (op < tokenList.size()) {
+                    final Token operand = tokenList.get(op);
+                    return templateToken.toToken(operand.getType(), operand.getText(), lineNumber);
                 }
-                continue;
             }
-
-            final int relative = val - PC;
-            if (instruction.contains("PCH" + op)) {
-                final int extra = BinaryUtils.bitValue(relative, 11);// add extra to compesate for sign extension
-                instruction = instruction.replace("PCH" + op, String.valueOf((relative >> 12) + extra));
+            case LAB -> {
+                // label has to be last token. It has already been translated to address
+                // by symtab lookup, so I need to get the text label back so parseLine() won't
+                // puke.
+                final String label = tokenList.get(tokenList.size() - 1).getText();
+                final Symbol sym = program.getLocalSymbolTable().getSymbolGivenAddressLocalOrGlobal(label);
+                if (sym != null) {
+                    // should never be null, since there would not be an address if label were not
+                    // in symtab!
+                    return templateToken.toToken(TokenType.IDENTIFIER, sym.name(), lineNumber);
+                }
             }
-            if (instruction.contains("PCL" + op)) {
-                instruction = instruction.replace("PCL" + op, String.valueOf(relative << 20 >> 20));
+            default -> {
+                if (op < tokenList.size()) {
+                    final Integer value = ExtendedInstruction.substituteValue(
+                        templateToken.slot(),
+                        tokenList.get(op).getText(),
+                        PC
+                    );
+                    if (value != null) {
+                        return templateToken.toToken(
+                            TokenType.matchIntegerType(value),
+                            String.valueOf(value),
+                            lineNumber
+                        );
+                    }
+                }
             }
+        }
+        // Markers that cannot be substituted are left in place, as in the template text.
+        return templateToken.toToken(templateToken.type(), templateToken.text(), lineNumber);
+    }
 
-            if (instruction.contains("LH" + op)) {
-                final int extra = BinaryUtils.bitValue(val, 11);// add extra to compesate for sign extension
-//                instruction = ExtendedInstruction.substitute(instruction, "LH" + op, String.valueOf((val >> 12) + 
-//                extra));
-                instruction = instruction.replace("LH" + op, String.valueOf((val >> 12) + extra));
-            }
-            if (instruction.contains("LL" + op)) {
-                instruction = instruction.replace("LL" + op, String.valueOf(val << 20 >> 20));
+    /**
+     * Computes the value of a numeric template marker.
+     *
+     * @return the value to substitute, or {@code null} if {@code text} is not a
+     * value the marker applies to.
+     */
+    private static @Nullable Integer substituteValue(
+        final @NotNull Slot slot,
+        final @NotNull String text,
+        final int PC
+    ) {
+        final int val;
+        try {
+            val = BinaryUtils.stringToInt(text); // KENV 1/6/05
+        } catch (final NumberFormatException e) {
+            final long lval;
+            try {
+                lval = BinaryUtils.stringToLong(text);
+            } catch (final NumberFormatException nfe) {
+                return null;
             }
+            final int high = (int) (lval >> 32);
+            final int low = (int) lval;
+            // this shouldn't happen if is is for LL .. VH
+            return switch (slot) {
+                // add extra to compesate for sign extension
+                case LIA -> (high >> 12) + BinaryUtils.bitValue(high, 11);
+                case LIB -> high << 20 >> 20;
+                case LIC -> (low >> 21) & 0x7FF;
+                case LID -> (low >> 10) & 0x7FF;
+                case LIE -> low & 0x3FF;
+                default -> null;
+            };
+        }
+        final int relative = val - PC;
+        return switch (slot) {
+            // add extra to compesate for sign extension
+            case PCH -> (relative >> 12) + BinaryUtils.bitValue(relative, 11);
+            case PCL -> relative << 20 >> 20;
+            case LH, VH -> (val >> 12) + BinaryUtils.bitValue(val, 11);
+            case LL, VL -> val << 20 >> 20;
+            default -> null;
+        };
+    }
 
-            if (instruction.contains("VH" + op)) {
-                final int extra = BinaryUtils.bitValue(val, 11); // add extra to compesate for sign extension
-                instruction = instruction.replace("VH" + op, String.valueOf((val >> 12) + extra));
+    /**
+     * Compiles the basic instruction templates on first use. This cannot be done
+     * in the constructor, because tokenizing the templates needs the instruction
+     * set, which is still being built while extended instructions are created.
+     */
+    private @NotNull List<@NotNull List<@NotNull TemplateToken>> getCompiledTemplates() {
+        var templates = this.compiledTemplates;
+        if (templates == null) {
+            final var compiled = new ArrayList<List<TemplateToken>>(this.translationStrings.size());
+            for (final var template : this.translationStrings) {
+                compiled.add(ExtendedInstruction.compileTemplate(template));
             }
-            if (instruction.contains("VL" + op)) {
-                instruction = instruction.replace("VL" + op, String.valueOf(val << 20 >> 20));
+            templates = List.copyOf(compiled);
+            this.compiledTemplates = templates;
+        }
+        return templates;
+    }
+
+    private static @NotNull List<@NotNull TemplateToken> compileTemplate(final @NotNull String template) {
+        final TokenList tokens;
+        try {
+            tokens = Tokenizer.tokenizeExampleInstruction(template);
+        } catch (final AssemblyException e) {
+            throw new IllegalStateException(
+                "CONFIGURATION ERROR: Pseudo-instruction template \"" + template + "\" contains invalid token(s).",
+                e
+            );
+        }
+        final var result = new ArrayList<TemplateToken>(tokens.size());
+        for (final Token token : tokens) {
+            final String text = token.getText();
+            Slot slot = Slot.LITERAL;
+            int operand = 0;
+            if (token.getType() == TokenType.IDENTIFIER) {
+                if (text.equals("LAB")) {
+                    slot = Slot.LAB;
+                } else {
+                    for (final Slot candidate : Slot.MARKERS) {
+                        final String marker = candidate.name();
+                        if (text.length() > marker.length() && text.startsWith(marker)
+                            && ExtendedInstruction.isDigits(text, marker.length())) {
+                            slot = candidate;
+                            operand = Integer.parseInt(text, marker.length(), text.length(), 10);
+                            break;
+                        }
+                    }
+                }
             }
+            result.add(new TemplateToken(slot, operand, token.getType(), text, token.getStartPos()));
         }
-        // substitute label if necessary
-        if (instruction.contains("LAB")) {
-            // label has to be last token. It has already been translated to address
-            // by symtab lookup, so I need to get the text label back so parseLine() won't
-            // puke.
-            final String label = tokenList.get(tokenList.size() - 1).getText();
-            final Symbol sym = program.getLocalSymbolTable().getSymbolGivenAddressLocalOrGlobal(label);
-            if (sym != null) {
-                // should never be null, since there would not be an address if label were not
-                // in symtab!
-                // DPS 9 Dec 2007: The "substitute()" method will substitute for ALL matches.
-                // Here
-                // we want to substitute only for the first match, for two reasons: (1) a
-                // statement
-                // can only contain one label reference, its last operand, and (2) If the user's
-                // label
-                // contains the substring "LAB", then substitute() will go into an infinite loop
-                // because
-                // it will keep matching the substituted string!
-//                instruction = ExtendedInstruction.substituteFirst(instruction, "LAB", sym.name);
-                instruction = instruction.replace("LAB", sym.name());
+        return List.copyOf(result);
+    }
+
+    private static boolean isDigits(final @NotNull String text, final int from) {
+        for (int i = from; i < text.length(); i++) {
+            if (!Character.isDigit(text.charAt(i))) {
+                return false;
             }
         }
-        return instruction;
+        return true;
     }
 
     private static @Nullable ArrayList<String> buildTranslationList(final String translation) {
@@ -280,4 +376,45 @@ public final class ExtendedInstruction extends Instruction {
     public ArrayList<String> getBasicIntructionTemplateList() {
         return this.translationStrings;
     }
+
+    /**
+     * Kinds of template tokens. Apart from {@link #LITERAL} and {@link #LAB},
+     * the name of each kind is the marker used in the template text.
+     */
+    private enum Slot {
+        LITERAL, LAB, RG, LL, LH, PCL, PCH, VL, VH, LIA, LIB, LIC, LID, LIE;
+
+        /**
+         * Kinds that are followed by an operand index in the template text
+         */
+        private static final @NotNull Slot @NotNull [] MARKERS = {
+            RG, LL, LH, PCL, PCH, VL, VH, LIA, LIB, LIC, LID, LIE
+        };
+    }
+
+    /**
+     * One token of a compiled basic instruction template.
+     *
+     * @param slot
+     *     how the token is substituted
+     * @param operand
+     *     index of the source statement token the marker refers to
+     * @param type
+     *     type of the token in the template
+     * @param text
+     *     text of the token in the template
+     * @param start
+     *     position of the token in the template
+     */
+    private record TemplateToken(
+        @NotNull Slot slot,
+        int operand,
+        @NotNull TokenType type,
+        @NotNull String text,
+        int start
+    ) {
+        private @NotNull Token toToken(final @NotNull TokenType type, final @NotNull String text, final int line) {
+            return new Token(type, text, null, line, this.start);
+        }
+    }
 }
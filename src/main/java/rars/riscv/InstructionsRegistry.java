@@ -14,6 +14,7 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static rars.Globals.BOOL_SETTINGS;
@@ -33,11 +34,21 @@ public final class InstructionsRegistry {
     public static final @NotNull SingleInstructionSet<@NotNull Instruction> ALL_INSTRUCTIONS;
     private static final @NotNull String PSEUDO_OPS_PATH = "/pseudoOps/";
     private static final @NotNull Logger LOGGER = LogManager.getLogger(InstructionsRegistry.class);
-    private final static @NotNull List<@NotNull MatchMap> R32_MATCH_MAPS;
-    private final static @NotNull List<@NotNull MatchMap> R64_MATCH_MAPS;
-    private static final boolean initialized;
-    private final static @NotNull Map<@NotNull Instruction, @NotNull TokenList> tokenListMap;
+    /**
+     * Tokenized example formats of the instructions, filled in on first use of
+     * each instruction.
+     *
+     * @see #getTokenList(Instruction)
+     */
+    private final static @NotNull Map<@NotNull Instruction, @NotNull TokenList> tokenListMap =
+        new ConcurrentHashMap<>();
     public static boolean RV64_MODE_FLAG;
+    // The lookup tables below are built on first use for the ISA mode that is
+    // selected at that time, so a run that never switches modes only pays for one.
+    private static volatile @Nullable List<@NotNull MatchMap> r32MatchMaps;
+    private static volatile @Nullable List<@NotNull MatchMap> r64MatchMaps;
+    private static volatile @Nullable Map<@NotNull String, @NotNull List<@NotNull Instruction>> r32OperatorIndex;
+    private static volatile @Nullable Map<@NotNull String, @NotNull List<@NotNull Instruction>> r64OperatorIndex;
 
     static {
         BASIC_INSTRUCTIONS = new SingleInstructionSet<>(
@@ -241,31 +252,23 @@ public final class InstructionsRegistry {
 
     static {
         RV64_MODE_FLAG = BOOL_SETTINGS.getSetting(BoolSetting.RV64_ENABLED);
-        R32_MATCH_MAPS = createMatchMaps(BASIC_INSTRUCTIONS.r32All);
-        R64_MATCH_MAPS = createMatchMaps(BASIC_INSTRUCTIONS.r64All);
-        tokenListMap = createTokenListMap();
-        initialized = true;
     }
 
     private InstructionsRegistry() {
     }
 
     public static @Nullable BasicInstruction findBasicInstructionByBinaryCode(final int binaryCode) {
-        final var matchMaps = RV64_MODE_FLAG ? R64_MATCH_MAPS : R32_MATCH_MAPS;
-        return matchMaps.stream()
-            .filter(matchMap -> matchMap.find(binaryCode) != null)
-            .findAny()
-            .map(matchMap -> matchMap.find(binaryCode))
-            .orElse(null);
+        for (final var matchMap : getMatchMaps()) {
+            final var instruction = matchMap.find(binaryCode);
+            if (instruction != null) {
+                return instruction;
+            }
+        }
+        return null;
     }
 
     public static @NotNull List<@NotNull Instruction> matchOperator(final @NotNull String operator) {
-        final var instructionSet = initialized ? ALL_INSTRUCTIONS : BASIC_INSTRUCTIONS;
-        final var instructionsToSearch = RV64_MODE_FLAG ? instructionSet.r64All : instructionSet.r32All;
-        return instructionsToSearch.stream()
-            .filter(instruction -> instruction.mnemonic.equalsIgnoreCase(operator))
-            .map(instruction -> (Instruction) instruction)
-            .toList();
+        return getOperatorIndex().getOrDefault(operator.toLowerCase(Locale.ROOT), List.of());
     }
 
     public static @NotNull List<@NotNull Instruction> matchOperatorByPrefix(final @NotNull String operator) {
@@ -332,25 +335,71 @@ public final class InstructionsRegistry {
         return matchMaps.stream().sorted().toList();
     }
 
-    private static @NotNull Map<Instruction, TokenList> createTokenListMap() {
-        final var result = new HashMap<Instruction, TokenList>();
-        for (final var instruction : ALL_INSTRUCTIONS.allInstructions) {
-            final var exampleFormat = instruction.exampleFormat;
-            try {
-                final var tokenList = Tokenizer.tokenizeExampleInstruction(exampleFormat);
-                result.put(instruction, tokenList);
-            } catch (final AssemblyException e) {
-                InstructionsRegistry.LOGGER.error(
-                    "CONFIGURATION ERROR: Instruction example \"{}\" contains invalid token(s)" +
-                        ".", exampleFormat
-                );
+    private static @NotNull List<@NotNull MatchMap> getMatchMaps() {
+        if (RV64_MODE_FLAG) {
+            var matchMaps = r64MatchMaps;
+            if (matchMaps == null) {
+                matchMaps = createMatchMaps(BASIC_INSTRUCTIONS.r64All);
+                r64MatchMaps = matchMaps;
+            }
+            return matchMaps;
+        }
+        var matchMaps = r32MatchMaps;
+        if (matchMaps == null) {
+            matchMaps = createMatchMaps(BASIC_INSTRUCTIONS.r32All);
+            r32MatchMaps = matchMaps;
+        }
+        return matchMaps;
+    }
+
+    private static @NotNull Map<@NotNull String, @NotNull List<@NotNull Instruction>> getOperatorIndex() {
+        if (RV64_MODE_FLAG) {
+            var index = r64OperatorIndex;
+            if (index == null) {
+                index = createOperatorIndex(ALL_INSTRUCTIONS.r64All);
+                r64OperatorIndex = index;
             }
+            return index;
+        }
+        var index = r32OperatorIndex;
+        if (index == null) {
+            index = createOperatorIndex(ALL_INSTRUCTIONS.r32All);
+            r32OperatorIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Groups instructions by their lower-case mnemonic, keeping the order of
+     * {@code instructionList} within each group.
+     */
+    private static @NotNull Map<@NotNull String, @NotNull List<@NotNull Instruction>> createOperatorIndex(
+        final @NotNull List<? extends @NotNull Instruction> instructionList
+    ) {
+        final var index = new HashMap<String, List<Instruction>>();
+        for (final var instruction : instructionList) {
+            index.computeIfAbsent(instruction.mnemonic.toLowerCase(Locale.ROOT), k -> new ArrayList<>())
+                .add(instruction);
+        }
+        index.replaceAll((mnemonic, instructions) -> List.copyOf(instructions));
+        return Map.copyOf(index);
+    }
+
+    private static @Nullable TokenList tokenizeExample(final @NotNull Instruction instruction) {
+        final var exampleFormat = instruction.exampleFormat;
+        try {
+            return Tokenizer.tokenizeExampleInstruction(exampleFormat);
+        } catch (final AssemblyException e) {
+            InstructionsRegistry.LOGGER.error(
+                "CONFIGURATION ERROR: Instruction example \"{}\" contains invalid token(s)" +
+                    ".", exampleFormat
+            );
+            return null;
         }
-        return result;
     }
 
     public static @NotNull TokenList getTokenList(final @NotNull Instruction instruction) {
-        return tokenListMap.get(instruction);
+        return tokenListMap.computeIfAbsent(instruction, InstructionsRegistry::tokenizeExample);
     }
 
     private static class MatchMap implements Comparable<@NotNull MatchMap> {
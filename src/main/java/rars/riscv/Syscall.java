@@ -8,14 +8,13 @@ import rars.ProgramStatement;
 import rars.exceptions.AddressErrorException;
 import rars.exceptions.ExitingException;
 import rars.exceptions.SimulationException;
-import rars.riscv.syscalls.DisplayBitmapImpl;
+import rars.io.AbstractIO;
 import rars.riscv.syscalls.RandomStreams;
 import rars.riscv.syscalls.ToneGenerator;
 import rars.simulator.SimulationContext;
 import rars.util.BinaryUtils;
 import rars.util.NullString;
 
-import javax.swing.*;
 import java.nio.charset.StandardCharsets;
 import java.util.Random;
 
@@ -37,10 +36,7 @@ public enum Syscall implements SimulationCallback {
         "a0 = Yes (0), No (1), or Cancel(2)",
         (stmt, ctxt) -> {
             final var message = NullString.get(stmt);
-            int result = JOptionPane.showConfirmDialog(null, message);
-            if (result == JOptionPane.CLOSED_OPTION) {
-                result = JOptionPane.CANCEL_OPTION;
-            }
+            final int result = ctxt.io().requestConfirmation(message);
             ctxt.registerFile().updateRegisterByName("a0", result);
         }
     ),
@@ -54,7 +50,7 @@ public enum Syscall implements SimulationCallback {
             a2 = height of the bitmap
             """,
         "N/A",
-        (stmt, ctxt) -> DisplayBitmapImpl.INSTANCE.show(
+        (stmt, ctxt) -> ctxt.io().displayBitmap(
             ctxt.registerFile().getIntValue("a0"),
             ctxt.registerFile().getIntValue("a1"),
             ctxt.registerFile().getIntValue("a2")
@@ -144,7 +140,7 @@ public enum Syscall implements SimulationCallback {
 
             final var prompt = NullString.get(stmt, "tp");
 
-            final var inputValue = JOptionPane.showInputDialog(prompt);
+            final var inputValue = ctxt.io().requestInput(prompt);
 
             var exitCode = 0;
             var result = 0.0;
@@ -173,7 +169,7 @@ public enum Syscall implements SimulationCallback {
 
         final var prompt = NullString.get(stmt);
 
-        final var input = JOptionPane.showInputDialog(prompt);
+        final var input = ctxt.io().requestInput(prompt);
 
         final var registerFile = ctxt.registerFile();
         final var fpRegisterFile = ctxt.fpRegisterFile();
@@ -212,7 +208,7 @@ public enum Syscall implements SimulationCallback {
               - 3 - OK was chosen but no data had been input into field.""",
         (stmt, ctxt) -> {
             final var prompt = NullString.get(stmt);
-            final var inputValue = JOptionPane.showInputDialog(prompt);
+            final var inputValue = ctxt.io().requestInput(prompt);
             int exitCode = 0, result = 0;
             if (inputValue == null) {
                 // Cancel was chosen
@@ -255,7 +251,7 @@ public enum Syscall implements SimulationCallback {
             // A null return value means that "Cancel" was chosen rather than OK.
             // An empty string returned (that is, inputString.length() of zero)
             // means that OK was chosen but no string was input.
-            final String inputString = JOptionPane.showInputDialog(prompt);
+            final String inputString = ctxt.io().requestInput(prompt);
             final int byteAddress = registerFile.getIntValue("a1"); // byteAddress of string is in a1
             final int maxLength = registerFile.getIntValue("a2"); // input buffer size for input string is in a2
 
@@ -328,15 +324,10 @@ public enum Syscall implements SimulationCallback {
             - other: plain message""",
         "N/A", (stmt, ctxt) -> {
         int msgType = ctxt.registerFile().getIntValue("a1");
-        if (msgType < JOptionPane.ERROR_MESSAGE || msgType > JOptionPane.ERROR_MESSAGE) {
-            msgType = JOptionPane.PLAIN_MESSAGE;
+        if (msgType < AbstractIO.ERROR_MESSAGE || msgType > AbstractIO.QUESTION_MESSAGE) {
+            msgType = AbstractIO.PLAIN_MESSAGE;
         }
-        JOptionPane.showMessageDialog(
-            null,
-            NullString.get(stmt),
-            null,
-            msgType
-        );
+        ctxt.io().showMessage(NullString.get(stmt), msgType);
     }
     ),
     MessageDialogDouble(
@@ -367,11 +358,9 @@ public enum Syscall implements SimulationCallback {
                 throw new ExitingException(stmt, e);
             }
 
-            JOptionPane.showMessageDialog(
-                null,
+            ctxt.io().showMessage(
                 message + Double.longBitsToDouble(ctxt.fpRegisterFile().fa0.getValue()),
-                null,
-                JOptionPane.INFORMATION_MESSAGE
+                AbstractIO.INFORMATION_MESSAGE
             );
         }
     ),
@@ -384,11 +373,9 @@ public enum Syscall implements SimulationCallback {
         final String message = NullString.get(stmt);
 
         // Display the dialog.
-        JOptionPane.showMessageDialog(
-            null,
+        ctxt.io().showMessage(
             message + ctxt.fpRegisterFile().getFloatFromRegister(ctxt.fpRegisterFile().fa1),
-            null,
-            JOptionPane.INFORMATION_MESSAGE
+            AbstractIO.INFORMATION_MESSAGE
         );
     }
     ),
@@ -401,11 +388,9 @@ public enum Syscall implements SimulationCallback {
         final String message = NullString.get(stmt);
 
         // Display the dialog.
-        JOptionPane.showMessageDialog(
-            null,
+        ctxt.io().showMessage(
             message + (int) ctxt.registerFile().getIntValue("a1"),
-            null,
-            JOptionPane.INFORMATION_MESSAGE
+            AbstractIO.INFORMATION_MESSAGE
         );
     }
     ),
@@ -414,11 +399,9 @@ public enum Syscall implements SimulationCallback {
         """
             a0 = address of null-terminated string that is the message to user
             a1 = address of the second string to display""",
-        "N/A", (stmt, ctxt) -> JOptionPane.showMessageDialog(
-        null,
+        "N/A", (stmt, ctxt) -> ctxt.io().showMessage(
         NullString.get(stmt) + NullString.get(stmt, "a1"),
-        null,
-        JOptionPane.INFORMATION_MESSAGE
+        AbstractIO.INFORMATION_MESSAGE
     )
     ),
     MidiOut(
@@ -806,20 +789,20 @@ public enum Syscall implements SimulationCallback {
     ),
     Sleep(
         "Sleep", 32, "Set the current thread to sleep for a time (not precise)", "a0 = time to sleep in milliseconds",
-        "N/A", (stmt, ctxt) -> {
-
-        try {
-            Thread.sleep(ctxt.registerFile().getIntValue("a0"));
-        } catch (final InterruptedException ignored) {
-        }
-    }
+        "N/A",
+        // the simulator sleeps once the ecall has retired, outside the memory and registers lock
+        (stmt, ctxt) -> Globals.DEVICE_BUS.getClock().requestSleep(ctxt.registerFile().getIntValue("a0"))
     ),
     Time(
-        "Time", 30, "Get the current time (milliseconds since 1 January 1970)", "N/A",
+        "Time", 30,
+        "Get the current time (milliseconds since 1 January 1970, or since the program started in virtual time)",
+        "N/A",
         """
             a0 = low order 32 bits
             a1=high order 32 bits""", (stmt, ctxt) -> {
-        final var time = System.currentTimeMillis();
+        final var clock = Globals.DEVICE_BUS.getClock();
+        clock.sample();
+        final var time = clock.getTime();
         ctxt.registerFile().updateRegisterByName("a0", BinaryUtils.lowOrderLongToInt(time));
         ctxt.registerFile().updateRegisterByName("a1", BinaryUtils.highOrderLongToInt(time));
     }
@@ -6,6 +6,9 @@ import rars.riscv.hardware.Memory;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
 
 /**
  * Interface for memory dump file formats. All RARS needs to be able
@@ -66,7 +69,45 @@ public interface DumpFormat {
      * @throws java.io.IOException
      *     if error occurs during file output.
      */
-    void dumpMemoryRange(@NotNull File file, int firstAddress, int lastAddress, @NotNull Memory memory)
-        throws AddressErrorException, IOException;
+    default void dumpMemoryRange(
+        final @NotNull File file,
+        final int firstAddress,
+        final int lastAddress,
+        final @NotNull Memory memory
+    ) throws AddressErrorException, IOException {
+        try (final var channel = FileChannel.open(
+            file.toPath(),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE
+        )) {
+            this.dumpMemoryRange(channel, firstAddress, lastAddress, memory);
+        }
+    }
 
+    /**
+     * Writes memory contents according to the specification for this format
+     * to a channel, e.g. a {@link FileChannel}. The range is read a block at a
+     * time with {@link Memory#getRawWordsOrNull(int, int[], int, int)} and
+     * ends early at the first word that was never written, like
+     * {@link Memory#getRawWordOrNull(int)} would.
+     * <p>
+     * The dump gives up with a {@link java.util.concurrent.CancellationException}
+     * if the calling thread is interrupted between two blocks.
+     *
+     * @param channel
+     *     where to write the memory contents; it is not closed
+     * @throws AddressErrorException
+     *     if firstAddress is invalid or not on a word
+     *     boundary.
+     * @throws IOException
+     *     if error occurs during output.
+     * @see #dumpMemoryRange(File, int, int, Memory)
+     */
+    void dumpMemoryRange(
+        @NotNull WritableByteChannel channel,
+        int firstAddress,
+        int lastAddress,
+        @NotNull Memory memory
+    ) throws AddressErrorException, IOException;
 }
@@ -0,0 +1,65 @@
+package rars.riscv.dump;
+
+import org.jetbrains.annotations.NotNull;
+import rars.assembler.DataTypes;
+import rars.exceptions.AddressErrorException;
+import rars.riscv.hardware.Memory;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Reads a range of memory for a dump, many words at a time. Reading ends at
+ * the last address of the range or just before the first word that was never
+ * written, whichever comes first, the same place where looping over
+ * {@link Memory#getRawWordOrNull(int)} would stop.
+ */
+public final class MemoryRangeReader {
+    /// Number of words in a block of simulated memory.
+    public static final int BLOCK_WORDS = 1024;
+
+    private final @NotNull Memory memory;
+    private int nextAddress;
+    private long remainingWords;
+
+    /**
+     * @param firstAddress
+     *     first address to read, on a word boundary
+     * @param lastAddress
+     *     address of the last word to read
+     */
+    public MemoryRangeReader(final @NotNull Memory memory, final int firstAddress, final int lastAddress) {
+        this.memory = memory;
+        this.nextAddress = firstAddress;
+        this.remainingWords = Math.max(0, ((long) lastAddress - firstAddress) / DataTypes.WORD_SIZE + 1);
+    }
+
+    /** @return the address of the next word to read */
+    public int getNextAddress() {
+        return this.nextAddress;
+    }
+
+    /**
+     * Reads the next words of the range.
+     *
+     * @return the number of words read, at most {@code count}; 0 once the range
+     * is over
+     * @throws CancellationException
+     *     if the current thread was interrupted
+     * @throws AddressErrorException
+     *     if the next address is not on a word boundary or is out of range
+     */
+    public int read(final int @NotNull [] destination, final int offset, final int count)
+        throws AddressErrorException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("The memory dump was interrupted.");
+        }
+        final var wanted = (int) Math.min(count, this.remainingWords);
+        if (wanted == 0) {
+            return 0;
+        }
+        final var read = this.memory.getRawWordsOrNull(this.nextAddress, destination, offset, wanted);
+        this.nextAddress += read * DataTypes.WORD_SIZE;
+        this.remainingWords = read < wanted ? 0 : this.remainingWords - read;
+        return read;
+    }
+}
@@ -1,12 +1,7 @@
 package rars.riscv.dump.formats;
 
 import org.jetbrains.annotations.NotNull;
-import rars.exceptions.AddressErrorException;
 import rars.riscv.dump.DumpFormat;
-import rars.riscv.hardware.Memory;
-
-import java.io.File;
-import java.io.IOException;
 
 /**
  * Abstract class for memory dump file formats. Provides constructors and
@@ -65,11 +60,4 @@ public abstract class AbstractDumpFormat implements DumpFormat {
         return commandDescriptor;
     }
 
-    @Override
-    public abstract void dumpMemoryRange(
-        final @NotNull File file, int firstAddress, int lastAddress,
-        @NotNull Memory memory
-    )
-        throws AddressErrorException, IOException;
-
 }
@@ -0,0 +1,127 @@
+package rars.riscv.dump.formats;
+
+import org.jetbrains.annotations.NotNull;
+import rars.assembler.DataTypes;
+import rars.exceptions.AddressErrorException;
+import rars.riscv.dump.MemoryRangeReader;
+import rars.riscv.hardware.Memory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.IntStream;
+
+/**
+ * A dump format that writes memory as lines of text, a few words at a time.
+ * <p>
+ * Memory is read {@link #BATCH_BLOCKS} blocks at a time. The blocks of a
+ * batch are formatted in parallel, each into its own piece of text, and the
+ * pieces are then written in order, so a format only has to say how a single
+ * word looks. Lines end with the platform's line separator, as they did when
+ * the formats printed with {@code PrintStream.println}.
+ */
+public abstract class AbstractTextDumpFormat extends AbstractDumpFormat {
+    /// Line separator of the written text.
+    protected static final @NotNull String NEWLINE = System.lineSeparator();
+
+    private static final int BATCH_BLOCKS = 64;
+
+    protected AbstractTextDumpFormat(
+        final @NotNull String name,
+        final @NotNull String commandDescriptor,
+        final @NotNull String description
+    ) {
+        super(name, commandDescriptor, description);
+    }
+
+    /**
+     * Formats the words of one dump. It is called from several threads at
+     * once, so it must not change any state.
+     */
+    protected interface WordFormatter {
+        /**
+         * Appends the text for the word at {@code address}, line separator
+         * included if it ends a line.
+         */
+        void appendWord(@NotNull StringBuilder builder, int address, int word);
+
+        /** @return text written before the first word */
+        default @NotNull String getHeader() {
+            return "";
+        }
+
+        /**
+         * @param wordCount
+         *     the number of words that were dumped
+         * @return text written after the last word
+         */
+        default @NotNull String getTrailer(final int wordCount) {
+            return "";
+        }
+    }
+
+    /** @return the formatter for a dump starting at {@code firstAddress} */
+    protected abstract @NotNull WordFormatter createFormatter(int firstAddress, @NotNull Memory memory);
+
+    @Override
+    public final void dumpMemoryRange(
+        final @NotNull WritableByteChannel channel,
+        final int firstAddress,
+        final int lastAddress,
+        final @NotNull Memory memory
+    ) throws AddressErrorException, IOException {
+        final var formatter = this.createFormatter(firstAddress, memory);
+        final var reader = new MemoryRangeReader(memory, firstAddress, lastAddress);
+        final var words = new int[AbstractTextDumpFormat.BATCH_BLOCKS * MemoryRangeReader.BLOCK_WORDS];
+        AbstractTextDumpFormat.write(channel, formatter.getHeader());
+        var wordCount = 0;
+        while (true) {
+            final var batchAddress = reader.getNextAddress();
+            final var read = reader.read(words, 0, words.length);
+            if (read == 0) {
+                break;
+            }
+            final var blocks = (read + MemoryRangeReader.BLOCK_WORDS - 1) / MemoryRangeReader.BLOCK_WORDS;
+            final var pieces = IntStream.range(0, blocks)
+                .parallel()
+                .mapToObj(block -> AbstractTextDumpFormat.formatBlock(formatter, words, read, batchAddress, block))
+                .toList();
+            for (final var piece : pieces) {
+                AbstractTextDumpFormat.write(channel, piece);
+            }
+            wordCount += read;
+        }
+        AbstractTextDumpFormat.write(channel, formatter.getTrailer(wordCount));
+    }
+
+    private static @NotNull ByteBuffer formatBlock(
+        final @NotNull WordFormatter formatter,
+        final int @NotNull [] words,
+        final int count,
+        final int batchAddress,
+        final int block
+    ) {
+        final var start = block * MemoryRangeReader.BLOCK_WORDS;
+        final var end = Math.min(count, start + MemoryRangeReader.BLOCK_WORDS);
+        final var builder = new StringBuilder((end - start) * 12);
+        for (var i = start; i < end; i++) {
+            formatter.appendWord(builder, batchAddress + i * DataTypes.WORD_SIZE, words[i]);
+        }
+        return StandardCharsets.UTF_8.encode(builder.toString());
+    }
+
+    private static void write(final @NotNull WritableByteChannel channel, final @NotNull String text)
+        throws IOException {
+        if (!text.isEmpty()) {
+            AbstractTextDumpFormat.write(channel, StandardCharsets.UTF_8.encode(text));
+        }
+    }
+
+    private static void write(final @NotNull WritableByteChannel channel, final @NotNull ByteBuffer bytes)
+        throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+}
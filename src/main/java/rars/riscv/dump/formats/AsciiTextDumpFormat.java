@@ -1,16 +1,9 @@
 package rars.riscv.dump.formats;
 
 import org.jetbrains.annotations.NotNull;
-import rars.assembler.DataTypes;
-import rars.exceptions.AddressErrorException;
 import rars.riscv.hardware.Memory;
 import rars.util.BinaryUtils;
 
-import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.PrintStream;
-
 /**
  * Class that represents the "ASCII text" memory dump format. Memory contents
  * are interpreted as ASCII codes. The output
@@ -22,7 +15,7 @@ import java.io.PrintStream;
  * @author Pete Sanderson
  * @version December 2010
  */
-public class AsciiTextDumpFormat extends AbstractDumpFormat {
+public class AsciiTextDumpFormat extends AbstractTextDumpFormat {
 
     public AsciiTextDumpFormat() {
         super("ASCII Text", "AsciiText", "Memory contents interpreted as ASCII characters");
@@ -36,27 +29,13 @@ public class AsciiTextDumpFormat extends AbstractDumpFormat {
      * corresponding to tab, newline, null, etc are rendered as backslash
      * followed by single-character code, e.g. \t for tab, \0 for null.
      * Non-printing character (control code,
-     * values above 127) is rendered as a period (.). Written
-     * using PrintStream's println() method.
+     * values above 127) is rendered as a period (.).
      * Adapted by Pete Sanderson from code written by Greg Gibeling.
      *
-     * @see AbstractDumpFormat
+     * @see AbstractTextDumpFormat
      */
     @Override
-    public void dumpMemoryRange(
-        @NotNull final File file, final int firstAddress, final int lastAddress,
-        @NotNull final Memory memory
-    )
-        throws AddressErrorException, IOException {
-        try (final PrintStream out = new PrintStream(new FileOutputStream(file))) {
-            for (int address = firstAddress; address <= lastAddress; address += DataTypes.WORD_SIZE) {
-                final Integer temp = memory.getRawWordOrNull(address);
-                if (temp == null) {
-                    break;
-                }
-                out.println(BinaryUtils.intToAscii(temp));
-            }
-        }
+    protected @NotNull WordFormatter createFormatter(final int firstAddress, final @NotNull Memory memory) {
+        return (builder, address, word) -> builder.append(BinaryUtils.intToAscii(word)).append(NEWLINE);
     }
-
 }
@@ -3,12 +3,13 @@ package rars.riscv.dump.formats;
 import org.jetbrains.annotations.NotNull;
 import rars.assembler.DataTypes;
 import rars.exceptions.AddressErrorException;
+import rars.riscv.dump.MemoryRangeReader;
 import rars.riscv.hardware.Memory;
 
-import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
 
 /**
  * Class that represents the "binary" memory dump format. The output
@@ -19,6 +20,7 @@ import java.io.PrintStream;
  * @version December 2007
  */
 public class BinaryDumpFormat extends AbstractDumpFormat {
+    private static final int BATCH_BLOCKS = 64;
 
     public BinaryDumpFormat() {
         super("Binary", "Binary", "Written as byte stream to binary file");
@@ -27,32 +29,32 @@ public class BinaryDumpFormat extends AbstractDumpFormat {
     /**
      * {@inheritDoc}
      * <p>
-     * Write memory contents in pure binary format. One byte at a time
-     * using PrintStream's write() method. Adapted by Pete Sanderson from
+     * Write memory contents in pure binary format, each word as four bytes
+     * in little endian order. Memory is read and written
+     * {@link #BATCH_BLOCKS} blocks at a time. Adapted by Pete Sanderson from
      * code written by Greg Gibeling.
      *
      * @see AbstractDumpFormat
      */
     @Override
     public void dumpMemoryRange(
-        @NotNull final File file,
+        final @NotNull WritableByteChannel channel,
         final int firstAddress,
         final int lastAddress,
-        @NotNull final Memory memory
-    )
-        throws AddressErrorException, IOException {
-        try (final PrintStream out = new PrintStream(new FileOutputStream(file))) {
-            for (int address = firstAddress; address <= lastAddress; address += DataTypes.WORD_SIZE) {
-                final Integer temp = memory.getRawWordOrNull(address);
-                if (temp == null) {
-                    break;
-                }
-                final int word = temp;
-                for (int i = 0; i < 4; i++) {
-                    out.write((word >>> (i << 3)) & 0xFF);
-                }
+        final @NotNull Memory memory
+    ) throws AddressErrorException, IOException {
+        final var reader = new MemoryRangeReader(memory, firstAddress, lastAddress);
+        final var words = new int[BinaryDumpFormat.BATCH_BLOCKS * MemoryRangeReader.BLOCK_WORDS];
+        final var bytes = ByteBuffer.allocateDirect(words.length * DataTypes.WORD_SIZE)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        int read;
+        while ((read = reader.read(words, 0, words.length)) > 0) {
+            bytes.clear();
+            bytes.asIntBuffer().put(words, 0, read);
+            bytes.limit(read * DataTypes.WORD_SIZE);
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
             }
         }
     }
-
 }
@@ -1,15 +1,8 @@
 package rars.riscv.dump.formats;
 
 import org.jetbrains.annotations.NotNull;
-import rars.assembler.DataTypes;
-import rars.exceptions.AddressErrorException;
 import rars.riscv.hardware.Memory;
 
-import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.PrintStream;
-
 /**
  * Class that represents the "binary text" memory dump format. The output
  * is a text file with one word of memory per line. The word is formatted
@@ -18,7 +11,7 @@ import java.io.PrintStream;
  * @author Pete Sanderson
  * @version December 2007
  */
-public class BinaryTextDumpFormat extends AbstractDumpFormat {
+public class BinaryTextDumpFormat extends AbstractTextDumpFormat {
 
     /**
      * Constructor. There is no standard file extension for this format.
@@ -31,33 +24,18 @@ public class BinaryTextDumpFormat extends AbstractDumpFormat {
      * {@inheritDoc}
      * <p>
      * Write memory contents in binary text format. Each line of
-     * text contains one memory word written as 32 '0' and '1' characters. Written
-     * using PrintStream's println() method.
+     * text contains one memory word written as 32 '0' and '1' characters.
      * Adapted by Pete Sanderson from code written by Greg Gibeling.
      *
-     * @see AbstractDumpFormat
+     * @see AbstractTextDumpFormat
      */
     @Override
-    public void dumpMemoryRange(
-        @NotNull final File file,
-        final int firstAddress,
-        final int lastAddress,
-        @NotNull final Memory memory
-    )
-        throws AddressErrorException, IOException {
-        try (final PrintStream out = new PrintStream(new FileOutputStream(file))) {
-            for (int address = firstAddress; address <= lastAddress; address += DataTypes.WORD_SIZE) {
-                final Integer temp = memory.getRawWordOrNull(address);
-                if (temp == null) {
-                    break;
-                }
-                StringBuilder string = new StringBuilder(Integer.toBinaryString(temp));
-                while (string.length() < 32) {
-                    string.insert(0, '0');
-                }
-                out.println(string);
+    protected @NotNull WordFormatter createFormatter(final int firstAddress, final @NotNull Memory memory) {
+        return (builder, address, word) -> {
+            for (var bit = 31; bit >= 0; bit--) {
+                builder.append((char) ('0' + ((word >>> bit) & 1)));
             }
-        }
+            builder.append(NEWLINE);
+        };
     }
-
 }
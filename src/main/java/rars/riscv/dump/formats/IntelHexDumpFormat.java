@@ -1,22 +1,16 @@
 package rars.riscv.dump.formats;
 
 import org.jetbrains.annotations.NotNull;
-import rars.assembler.DataTypes;
-import rars.exceptions.AddressErrorException;
 import rars.riscv.hardware.Memory;
 
-import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.PrintStream;
-
 /**
  * Intel's Hex memory initialization format
  *
  * @author Leo Alterman
  * @version July 2011
  */
-public class IntelHexDumpFormat extends AbstractDumpFormat {
+public class IntelHexDumpFormat extends AbstractTextDumpFormat {
+    private static final String HEX_DIGITS = "0123456789ABCDEF";
 
     public IntelHexDumpFormat() {
         super("Intel hex format", "HEX", "Written as Intel Hex Memory File");
@@ -25,52 +19,57 @@ public class IntelHexDumpFormat extends AbstractDumpFormat {
     /**
      * {@inheritDoc}
      * <p>
-     * Write memory contents according to the Memory Initialization File
-     * (MIF) specification.
+     * Write memory contents according to the Intel Hex specification: one
+     * data record per word, addressed from the start of the dump, followed
+     * by an end of file record. Past the first 64 KB, an extended linear
+     * address record gives the upper half of the addresses that follow.
      *
-     * @see AbstractDumpFormat
+     * @see AbstractTextDumpFormat
      */
     @Override
-    public void dumpMemoryRange(
-        @NotNull final File file,
-        final int firstAddress,
-        final int lastAddress,
-        @NotNull final Memory memory
-    )
-        throws AddressErrorException, IOException {
-        try (final PrintStream out = new PrintStream(new FileOutputStream(file))) {
-            for (int address = firstAddress; address <= lastAddress; address += DataTypes.WORD_SIZE) {
-                final Integer temp = memory.getRawWordOrNull(address);
-                if (temp == null) {
-                    break;
-                }
-                StringBuilder string = new StringBuilder(Integer.toHexString(temp));
-                while (string.length() < 8) {
-                    string.insert(0, '0');
-                }
-                final StringBuilder addr = new StringBuilder(Integer.toHexString(address - firstAddress));
-                while (addr.length() < 4) {
-                    addr.insert(0, '0');
+    protected @NotNull WordFormatter createFormatter(final int firstAddress, final @NotNull Memory memory) {
+        return new WordFormatter() {
+            @Override
+            public void appendWord(final @NotNull StringBuilder builder, final int address, final int word) {
+                final var offset = address - firstAddress;
+                if (offset != 0 && (offset & 0xFFFF) == 0) {
+                    IntelHexDumpFormat.appendRecord(builder, 4, 0, offset >>> 16, 2);
                 }
-                int tmp_chksum = 0;
-                tmp_chksum += 4;
-                tmp_chksum += 0xFF & (address - firstAddress);
-                tmp_chksum += 0xFF & ((address - firstAddress) >> 8);
-                tmp_chksum += 0xFF & temp;
-                tmp_chksum += 0xFF & (temp >> 8);
-                tmp_chksum += 0xFF & (temp >> 16);
-                tmp_chksum += 0xFF & (temp >> 24);
-                tmp_chksum = tmp_chksum % 256;
-                tmp_chksum = ~tmp_chksum + 1;
-                String chksum = Integer.toHexString(0xFF & tmp_chksum);
-                if (chksum.length() == 1) {
-                    chksum = '0' + chksum;
-                }
-                final String finalstr = ":04" + addr + "00" + string + chksum;
-                out.println(finalstr.toUpperCase());
+                IntelHexDumpFormat.appendRecord(builder, 0, offset & 0xFFFF, word, 4);
             }
-            out.println(":00000001FF");
+
+            @Override
+            public @NotNull String getTrailer(final int wordCount) {
+                return ":00000001FF" + NEWLINE;
+            }
+        };
+    }
+
+    /// Appends a record holding the `length` low bytes of `data`, most significant first, and its checksum.
+    private static void appendRecord(
+        final @NotNull StringBuilder builder,
+        final int type,
+        final int address,
+        final int data,
+        final int length
+    ) {
+        var checksum = length + (address >> 8) + (address & 0xFF) + type;
+        builder.append(':');
+        IntelHexDumpFormat.appendHexByte(builder, length);
+        IntelHexDumpFormat.appendHexByte(builder, address >> 8);
+        IntelHexDumpFormat.appendHexByte(builder, address);
+        IntelHexDumpFormat.appendHexByte(builder, type);
+        for (var i = length - 1; i >= 0; i--) {
+            final var dataByte = (data >>> (i * 8)) & 0xFF;
+            IntelHexDumpFormat.appendHexByte(builder, dataByte);
+            checksum += dataByte;
         }
+        IntelHexDumpFormat.appendHexByte(builder, -checksum);
+        builder.append(NEWLINE);
+    }
 
+    private static void appendHexByte(final @NotNull StringBuilder builder, final int value) {
+        builder.append(IntelHexDumpFormat.HEX_DIGITS.charAt((value >> 4) & 0xF))
+            .append(IntelHexDumpFormat.HEX_DIGITS.charAt(value & 0xF));
     }
 }
@@ -1,7 +1,6 @@
 package rars.riscv.dump.formats;
 
 import org.jetbrains.annotations.NotNull;
-import rars.Globals;
 import rars.ProgramStatement;
 import rars.assembler.DataTypes;
 import rars.exceptions.AddressErrorException;
@@ -9,18 +8,12 @@ import rars.riscv.hardware.Memory;
 import rars.settings.BoolSetting;
 import rars.util.BinaryUtils;
 
-import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.PrintStream;
-
 import static rars.Globals.BOOL_SETTINGS;
 
 /**
  * Dump memory contents in Segment Window format. Each line of
  * text output resembles the Text Segment Window or Data Segment Window
- * depending on which segment is selected for the dump. Written
- * using PrintStream's println() method. Each line of Text Segment
+ * depending on which segment is selected for the dump. Each line of Text Segment
  * Window represents one word of text segment memory. The line
  * includes (1) address, (2) machine code in hex, (3) basic instruction,
  * (4) source line. Each line of Data Segment Window represents 8
@@ -33,7 +26,9 @@ import static rars.Globals.BOOL_SETTINGS;
  * @author Pete Sanderson
  * @version January 2008
  */
-public class SegmentWindowDumpFormat extends AbstractDumpFormat {
+public class SegmentWindowDumpFormat extends AbstractTextDumpFormat {
+    private static final int DATA_WORDS_PER_LINE = 8;
+
 
     public SegmentWindowDumpFormat() {
         super(
@@ -47,80 +42,71 @@ public class SegmentWindowDumpFormat extends AbstractDumpFormat {
      * <p>
      * Write memory contents in Segment Window format. Each line of
      * text output resembles the Text Segment Window or Data Segment Window
-     * depending on which segment is selected for the dump. Written
-     * using PrintStream's println() method.
+     * depending on which segment is selected for the dump. Nothing is written
+     * for addresses in other segments.
      *
-     * @see AbstractDumpFormat
+     * @see AbstractTextDumpFormat
      */
     @Override
-    public void dumpMemoryRange(
-        final @NotNull File file,
-        final int firstAddress,
-        final int lastAddress,
-        final @NotNull Memory memory
-    ) throws AddressErrorException, IOException {
-
+    protected @NotNull WordFormatter createFormatter(final int firstAddress, final @NotNull Memory memory) {
         // TODO: check if these settings work right
         final boolean doDisplayAddressesInHex = BOOL_SETTINGS.getSetting(BoolSetting.DISPLAY_ADDRESSES_IN_HEX);
-
-        // If address in data segment, print in same format as Data Segment Window
-        if (Globals.MEMORY_INSTANCE.isAddressInDataSegment(firstAddress)) {
-            try (final var outStream = new PrintStream(new FileOutputStream(file))) {
-                final var builder = new StringBuilder();
-                int offset = 0;
-                for (int address = firstAddress; address <= lastAddress; address += DataTypes.WORD_SIZE) {
-                    if (offset % 8 == 0) {
-                        final var formattedAddress = (doDisplayAddressesInHex)
-                            ? BinaryUtils.intToHexString(address)
-                            : BinaryUtils.unsignedIntToIntString(address);
-                        builder.append(formattedAddress).append("    ");
+        if (memory.isAddressInDataSegment(firstAddress)) {
+            // Same format as the Data Segment Window, 8 words per line
+            return new WordFormatter() {
+                @Override
+                public void appendWord(final @NotNull StringBuilder builder, final int address, final int word) {
+                    final var index = (address - firstAddress) / DataTypes.WORD_SIZE;
+                    if (index % SegmentWindowDumpFormat.DATA_WORDS_PER_LINE == 0) {
+                        builder.append(SegmentWindowDumpFormat.formatAddress(address, doDisplayAddressesInHex))
+                            .append("    ");
                     }
-                    offset++;
-                    final var optWord = memory.getRawWordOrNull(address);
-                    if (optWord == null) {
-                        break;
-                    }
-                    builder.append((doDisplayAddressesInHex)
-                        ? BinaryUtils.intToHexString(optWord)
-                        : ("           " + optWord).substring(optWord.toString().length())).append(" ");
-                    if (offset % 8 == 0) {
-                        outStream.println(builder);
+                    builder.append(doDisplayAddressesInHex
+                        ? BinaryUtils.intToHexString(word)
+                        : "%11d".formatted(word)).append(" ");
+                    if (index % SegmentWindowDumpFormat.DATA_WORDS_PER_LINE
+                        == SegmentWindowDumpFormat.DATA_WORDS_PER_LINE - 1) {
+                        builder.append(NEWLINE);
                     }
                 }
-            }
-        } else if (Globals.MEMORY_INSTANCE.isAddressInTextSegment(firstAddress)) {
-            // If address in text segment, print in same format as Text Segment Window
-            try (final var outStream = new PrintStream(new FileOutputStream(file))) {
-                outStream.println("Address     Code        Basic                        Line Source");
-                outStream.println();
-                for (int address = firstAddress; address <= lastAddress; address += DataTypes.WORD_SIZE) {
-                    final var builder = new StringBuilder();
-                    final var formattedAddress = (doDisplayAddressesInHex)
-                        ? BinaryUtils.intToHexString(address)
-                        : BinaryUtils.unsignedIntToIntString(address);
-                    builder.append(formattedAddress).append("    ");
-                    final var optWord = memory.getRawWordOrNull(address);
-                    if (optWord == null) {
-                        break;
-                    }
-                    builder.append(BinaryUtils.intToHexString(optWord));
-                    builder.append("  ");
+
+                @Override
+                public @NotNull String getTrailer(final int wordCount) {
+                    return wordCount % SegmentWindowDumpFormat.DATA_WORDS_PER_LINE == 0 ? "" : NEWLINE;
+                }
+            };
+        } else if (memory.isAddressInTextSegment(firstAddress)) {
+            // Same format as the Text Segment Window, one word per line
+            return new WordFormatter() {
+                @Override
+                public void appendWord(final @NotNull StringBuilder builder, final int address, final int word) {
+                    builder.append(SegmentWindowDumpFormat.formatAddress(address, doDisplayAddressesInHex))
+                        .append("    ")
+                        .append(BinaryUtils.intToHexString(word))
+                        .append("  ");
                     try {
-                        final ProgramStatement ps = memory.getStatement(address);
+                        final ProgramStatement ps = memory.getStatementNoNotify(address);
                         builder.append("%-29s".formatted(ps.getPrintableBasicAssemblyStatement()));
                         if (ps.sourceLine != null) {
                             builder.append("%-5s".formatted(ps.sourceLine.lineNumber()));
                             builder.append(ps.sourceLine.source());
-                            builder.append(("%-5s".formatted(Integer.toString(ps.sourceLine.lineNumber()))));
-                            builder.append(ps.sourceLine.source());
                         }
                     } catch (final AddressErrorException ignored) {
                     }
-                    outStream.println(builder);
+                    builder.append(NEWLINE);
                 }
-            }
-        }
 
+                @Override
+                public @NotNull String getHeader() {
+                    return "Address     Code        Basic                        Line Source" + NEWLINE + NEWLINE;
+                }
+            };
+        }
+        return (builder, address, word) -> {
+        };
     }
 
+    private static @NotNull String formatAddress(final int address, final boolean inHex) {
+        return inHex ? BinaryUtils.intToHexString(address) : BinaryUtils.unsignedIntToIntString(address);
+    }
 }
@@ -0,0 +1,219 @@
+package rars.riscv.hardware;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable index from addresses to the values registered for address
+ * ranges containing them, used to find the observers of a memory access.
+ * <p>
+ * Small ranges are entered into every 4 KiB page they overlap. The pages
+ * live in a two-level table whose directories are only allocated where some
+ * range lies, so an access to an unobserved page costs a directory load and
+ * a null check. Ranges spanning more than {@link #MAX_PAGED_RANGE_PAGES}
+ * pages, such as a subscription to the whole address space, would fill too
+ * many pages and are kept in a static interval tree instead.
+ * <p>
+ * Addresses and range bounds are compared as unsigned numbers. The index is
+ * rebuilt whenever its ranges change, which is rare compared to lookups.
+ *
+ * @param <T>
+ *     type of the values associated with the ranges
+ */
+final class AddressRangeIndex<T> {
+    static final int PAGE_BITS = 12;
+    /** Ranges spanning more pages than this go to the interval tree. */
+    static final int MAX_PAGED_RANGE_PAGES = 256;
+
+    private static final int DIRECTORY_BITS = 10;
+    private static final int PAGES_PER_DIRECTORY = 1 << DIRECTORY_BITS;
+    private static final int DIRECTORY_SHIFT = AddressRangeIndex.PAGE_BITS + AddressRangeIndex.DIRECTORY_BITS;
+
+    /// `directories[address >>> 22][(address >>> 12) & 1023]` holds the ranges overlapping the page, or `null`.
+    private final @Nullable Range<T> @Nullable [] @Nullable [] @NotNull [] directories;
+    /// Large ranges sorted by their low address, an implicit binary search tree rooted in the middle.
+    private final @NotNull Range<T> @NotNull [] intervals;
+    /// Highest address covered by the subtree of the interval tree rooted at each index.
+    private final int @NotNull [] subtreeHighs;
+
+    /**
+     * A range of addresses and the value associated with it.
+     *
+     * @param low
+     *     the first address in the range
+     * @param high
+     *     the last address in the range, inclusive
+     */
+    record Range<T>(int low, int high, @NotNull T value) {
+        boolean contains(final int address) {
+            return Integer.compareUnsigned(address, this.low) >= 0
+                && Integer.compareUnsigned(address, this.high) <= 0;
+        }
+
+        int pageCount() {
+            return ((this.high >>> PAGE_BITS) - (this.low >>> PAGE_BITS)) + 1;
+        }
+    }
+
+    AddressRangeIndex(final @NotNull List<@NotNull Range<T>> ranges) {
+        this.directories = AddressRangeIndex.newDirectories(1 << (Integer.SIZE - AddressRangeIndex.DIRECTORY_SHIFT));
+        final var pages = new HashMap<Integer, List<Range<T>>>();
+        final var large = new ArrayList<Range<T>>();
+        for (final var range : ranges) {
+            if (Integer.compareUnsigned(range.low, range.high) > 0) {
+                throw new IllegalArgumentException("The end of a range cannot precede its start.");
+            }
+            if (range.pageCount() > AddressRangeIndex.MAX_PAGED_RANGE_PAGES) {
+                large.add(range);
+                continue;
+            }
+            final var lastPage = range.high >>> AddressRangeIndex.PAGE_BITS;
+            for (var page = range.low >>> AddressRangeIndex.PAGE_BITS; page <= lastPage; page++) {
+                pages.computeIfAbsent(page, p -> new ArrayList<>()).add(range);
+            }
+        }
+        pages.forEach((page, pageRanges) -> {
+            final var directoryIndex = page >>> AddressRangeIndex.DIRECTORY_BITS;
+            var directory = this.directories[directoryIndex];
+            if (directory == null) {
+                directory = AddressRangeIndex.newPages(AddressRangeIndex.PAGES_PER_DIRECTORY);
+                this.directories[directoryIndex] = directory;
+            }
+            directory[page & (AddressRangeIndex.PAGES_PER_DIRECTORY - 1)] = pageRanges.toArray(AddressRangeIndex::newRanges);
+        });
+        large.sort(Comparator.comparingInt(range -> range.low ^ Integer.MIN_VALUE));
+        this.intervals = large.toArray(AddressRangeIndex::newRanges);
+        this.subtreeHighs = new int[this.intervals.length];
+        this.computeSubtreeHighs(0, this.intervals.length);
+    }
+
+    // generic arrays cannot be created directly, but arrays of Range<?> can hold any Range<T>
+    @SuppressWarnings("unchecked")
+    private static <T> @NotNull Range<T> @NotNull [] newRanges(final int length) {
+        return (Range<T>[]) new Range<?>[length];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> @Nullable Range<T> @NotNull [] @NotNull [] newPages(final int length) {
+        return (Range<T>[][]) new Range<?>[length][];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> @Nullable Range<T> @Nullable [] @NotNull [] @NotNull [] newDirectories(final int length) {
+        return (Range<T>[][][]) new Range<?>[length][][];
+    }
+
+    /** @return an index with no ranges */
+    static <T> @NotNull AddressRangeIndex<T> empty() {
+        return new AddressRangeIndex<>(List.of());
+    }
+
+    private int computeSubtreeHighs(final int from, final int to) {
+        if (from >= to) {
+            return 0;
+        }
+        final var middle = (from + to) >>> 1;
+        var high = this.intervals[middle].high;
+        high = AddressRangeIndex.maxUnsigned(high, this.computeSubtreeHighs(from, middle));
+        high = AddressRangeIndex.maxUnsigned(high, this.computeSubtreeHighs(middle + 1, to));
+        this.subtreeHighs[middle] = high;
+        return high;
+    }
+
+    private static int maxUnsigned(final int a, final int b) {
+        return Integer.compareUnsigned(a, b) >= 0 ? a : b;
+    }
+
+    private @NotNull Range<T> @Nullable [] page(final int address) {
+        final var directory = this.directories[address >>> AddressRangeIndex.DIRECTORY_SHIFT];
+        return directory == null
+            ? null
+            : directory[(address >>> AddressRangeIndex.PAGE_BITS) & (AddressRangeIndex.PAGES_PER_DIRECTORY - 1)];
+    }
+
+    /**
+     * Cheap check that can rule out any match before the data for
+     * {@link #forEachMatch} is created.
+     *
+     * @return {@code false} if no range contains the address
+     */
+    boolean mayContain(final int address) {
+        return this.intervals.length != 0 || this.page(address) != null;
+    }
+
+    /**
+     * Calls {@code action} with the value of every range containing
+     * {@code address} and with {@code argument}. Passing the argument
+     * through lets callers use a non-capturing lambda.
+     */
+    <A> void forEachMatch(
+        final int address,
+        final A argument,
+        final @NotNull BiConsumer<? super T, ? super A> action
+    ) {
+        final var page = this.page(address);
+        if (page != null) {
+            for (final var range : page) {
+                if (range.contains(address)) {
+                    action.accept(range.value, argument);
+                }
+            }
+        }
+        if (this.intervals.length != 0) {
+            this.stab(0, this.intervals.length, address, argument, action);
+        }
+    }
+
+    /**
+     * @return the value of some range containing {@code address}, or
+     * {@code null} if there is none; meant for indexes of ranges that do not
+     * overlap
+     */
+    @Nullable T find(final int address) {
+        final var page = this.page(address);
+        if (page != null) {
+            for (final var range : page) {
+                if (range.contains(address)) {
+                    return range.value;
+                }
+            }
+        }
+        for (final var range : this.intervals) {
+            if (range.contains(address)) {
+                return range.value;
+            }
+        }
+        return null;
+    }
+
+    private <A> void stab(
+        int from,
+        final int to,
+        final int address,
+        final A argument,
+        final @NotNull BiConsumer<? super T, ? super A> action
+    ) {
+        while (from < to) {
+            final var middle = (from + to) >>> 1;
+            if (Integer.compareUnsigned(this.subtreeHighs[middle], address) < 0) {
+                return;
+            }
+            this.stab(from, middle, address, argument, action);
+            final var range = this.intervals[middle];
+            if (Integer.compareUnsigned(range.low, address) > 0) {
+                // this range and everything to its right start after the address
+                return;
+            }
+            if (Integer.compareUnsigned(address, range.high) <= 0) {
+                action.accept(range.value, argument);
+            }
+            from = middle + 1;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package rars.riscv.hardware;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import rars.exceptions.AddressErrorException;
+import rars.exceptions.ExceptionReason;
+import rars.notices.AccessNotice;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Connects {@link MemoryMappedDevice memory-mapped devices} to the simulated
+ * processor. Each device is attached to an address range; a load or store of
+ * the simulated program that falls into the range is decoded to the device,
+ * which handles it synchronously on the simulator thread. Devices that need
+ * to act later use the bus's {@link EventScheduler}, which counts retired
+ * instructions.
+ * <p>
+ * Unlike memory observers, devices see only the accesses of the simulated
+ * program, not the ones the GUI or other tools make, and ranges of
+ * different devices may not overlap.
+ */
+public final class DeviceBus {
+    private final @NotNull List<AddressRangeIndex.Range<MemoryMappedDevice>> ranges;
+    private volatile @NotNull AddressRangeIndex<MemoryMappedDevice> index;
+    private final @NotNull EventScheduler scheduler;
+    private final @NotNull SimulationClock clock;
+
+    public DeviceBus() {
+        this.ranges = new ArrayList<>();
+        this.index = AddressRangeIndex.empty();
+        this.scheduler = new EventScheduler();
+        this.clock = new SimulationClock(this.scheduler);
+    }
+
+    public @NotNull EventScheduler getScheduler() {
+        return this.scheduler;
+    }
+
+    /** @return the clock of the simulated program, which runs on the scheduler's instruction count */
+    public @NotNull SimulationClock getClock() {
+        return this.clock;
+    }
+
+    /**
+     * Attaches a device to the addresses from {@code startAddr} up to and
+     * including the word at {@code endAddr}, using the same convention as
+     * {@link Memory#subscribe(java.util.function.Consumer, int, int)}.
+     *
+     * @throws AddressErrorException
+     *     if the range is empty or overlaps the range of another device
+     */
+    public synchronized void attach(
+        final @NotNull MemoryMappedDevice device,
+        final int startAddr,
+        final int endAddr
+    ) throws AddressErrorException {
+        final var range = new AddressRangeIndex.Range<>(startAddr, endAddr + 3, device);
+        if (Integer.compareUnsigned(startAddr, endAddr) > 0) {
+            throw new AddressErrorException(
+                "end address of range < start address of range ",
+                ExceptionReason.STORE_ACCESS_FAULT,
+                startAddr
+            );
+        }
+        for (final var other : this.ranges) {
+            if (other.value() != device
+                && Integer.compareUnsigned(other.low(), range.high()) <= 0
+                && Integer.compareUnsigned(range.low(), other.high()) <= 0) {
+                throw new AddressErrorException(
+                    "range is already taken by another device",
+                    ExceptionReason.STORE_ACCESS_FAULT,
+                    startAddr
+                );
+            }
+        }
+        this.ranges.add(range);
+        this.index = new AddressRangeIndex<>(this.ranges);
+    }
+
+    /** Detaches a device from all the ranges it is attached to. */
+    public synchronized void detach(final @NotNull MemoryMappedDevice device) {
+        if (this.ranges.removeIf(range -> range.value() == device)) {
+            this.index = new AddressRangeIndex<>(this.ranges);
+        }
+    }
+
+    /**
+     * Cancels every scheduled event and restarts the clock, e.g. when the
+     * program is reset. The devices stay attached.
+     */
+    public void reset() {
+        this.scheduler.reset();
+        this.clock.reset();
+    }
+
+    private @Nullable MemoryMappedDevice decode(final int address) {
+        final var current = this.index;
+        if (!current.mayContain(address) || !AccessNotice.isSimulatorThread()) {
+            return null;
+        }
+        return current.find(address);
+    }
+
+    /** Lets the device at {@code address}, if any, supply the value of a load. */
+    int read(final int address, final int length, final int storedValue) {
+        final var device = this.decode(address);
+        return device == null ? storedValue : device.read(address, length, storedValue);
+    }
+
+    /** Tells the device at {@code address}, if any, about a store. */
+    void write(final int address, final int length, final int value) {
+        final var device = this.decode(address);
+        if (device != null) {
+            device.write(address, length, value);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package rars.riscv.hardware;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs device events once the simulated program has retired a given number
+ * of instructions. Because time is measured in instructions rather than
+ * milliseconds, the events of a run happen at the same point of the program
+ * every time it is run, no matter how fast the host is.
+ * <p>
+ * The simulator calls {@link #tick()} after every instruction; unless an
+ * event is due, that is an increment and a comparison. Events run on the
+ * simulator thread, outside the memory and registers lock, in the order of
+ * their due time and, for equal times, in the order they were scheduled.
+ */
+public final class EventScheduler {
+    private final @NotNull PriorityQueue<Event> queue;
+    private long sequence;
+    /// Number of ticks since the last reset. Only the simulator thread writes it, with a cheap ordered store.
+    private final @NotNull AtomicLong now;
+    /// Due time of the earliest event, {@link Long#MAX_VALUE} when nothing is scheduled.
+    private volatile long nextDue;
+
+    private record Event(long due, long sequence, @NotNull Runnable action) implements Comparable<Event> {
+        @Override
+        public int compareTo(final @NotNull Event other) {
+            final var byDue = Long.compare(this.due, other.due);
+            return byDue != 0 ? byDue : Long.compare(this.sequence, other.sequence);
+        }
+    }
+
+    public EventScheduler() {
+        this.queue = new PriorityQueue<>();
+        this.sequence = 0;
+        this.now = new AtomicLong();
+        this.nextDue = Long.MAX_VALUE;
+    }
+
+    /** @return the number of instructions retired since the last reset */
+    public long getNow() {
+        return this.now.get();
+    }
+
+    /**
+     * Schedules {@code action} to run once {@code instructions} more
+     * instructions have retired. A delay below one is treated as one, so an
+     * event never runs during the instruction that scheduled it.
+     */
+    public synchronized void scheduleAfter(final long instructions, final @NotNull Runnable action) {
+        final var event = new Event(this.now.get() + Math.max(instructions, 1), this.sequence++, action);
+        this.queue.add(event);
+        this.nextDue = this.queue.peek().due;
+    }
+
+    /** Removes every pending occurrence of {@code action}. */
+    public synchronized void cancel(final @NotNull Runnable action) {
+        this.queue.removeIf(event -> event.action == action);
+        this.updateNextDue();
+    }
+
+    /** @return whether any event is scheduled */
+    public synchronized boolean hasPendingEvents() {
+        return !this.queue.isEmpty();
+    }
+
+    /** Removes every pending event and starts counting from zero again. */
+    public synchronized void reset() {
+        this.queue.clear();
+        this.now.set(0);
+        this.updateNextDue();
+    }
+
+    /** Counts one retired instruction and runs the events that are due. */
+    public void tick() {
+        final var current = this.now.getPlain() + 1;
+        this.now.lazySet(current);
+        if (current >= this.nextDue) {
+            this.runDueEvents(current);
+        }
+    }
+
+    /**
+     * Jumps straight to the earliest scheduled event and runs it, as if the
+     * processor idled until then. Used while the program waits for an
+     * interrupt, since no instructions retire to move time forward.
+     *
+     * @return {@code false} if no event was scheduled
+     */
+    public boolean skipToNextEvent() {
+        final long due;
+        synchronized (this) {
+            final var head = this.queue.peek();
+            if (head == null) {
+                return false;
+            }
+            due = head.due;
+        }
+        this.advanceTo(due);
+        return true;
+    }
+
+    /**
+     * Moves time forward by {@code instructions} without retiring any, e.g.
+     * while the program sleeps. The events falling into the skipped interval
+     * run in order on the calling thread, each seeing the time it was due at.
+     */
+    public void advance(final long instructions) {
+        if (instructions > 0) {
+            this.advanceTo(this.now.getPlain() + instructions);
+        }
+    }
+
+    private void advanceTo(final long target) {
+        while (true) {
+            final Event event;
+            synchronized (this) {
+                final var head = this.queue.peek();
+                if (head == null || head.due > target) {
+                    this.now.lazySet(Math.max(target, this.now.getPlain()));
+                    this.updateNextDue();
+                    return;
+                }
+                event = this.queue.poll();
+                this.now.lazySet(Math.max(event.due, this.now.getPlain()));
+            }
+            event.action.run();
+        }
+    }
+
+    private void runDueEvents(final long retiredInstructions) {
+        while (true) {
+            final Event event;
+            synchronized (this) {
+                final var head = this.queue.peek();
+                if (head == null || head.due > retiredInstructions) {
+                    this.updateNextDue();
+                    return;
+                }
+                event = this.queue.poll();
+            }
+            // run outside the monitor, the action may schedule further events
+            event.action.run();
+        }
+    }
+
+    private void updateNextDue() {
+        final var head = this.queue.peek();
+        this.nextDue = head == null ? Long.MAX_VALUE : head.due;
+    }
+}
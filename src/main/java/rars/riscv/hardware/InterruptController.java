@@ -14,17 +14,25 @@ import rars.simulator.Simulator;
  * Roughly corresponds to PLIC in the spec, but it additionally (kindof) handles
  */
 public final class InterruptController {
+    /** Bit of {@link #getPending()} set while an external interrupt is pending. */
+    public static final int EXTERNAL = 1;
+    /** Bit of {@link #getPending()} set while a timer interrupt is pending. */
+    public static final int TIMER = 1 << 1;
+    /** Bit of {@link #getPending()} set while a synchronous trap is pending. */
+    public static final int TRAP = 1 << 2;
 
     private final @NotNull Simulator simulator;
     private final @NotNull RegisterFile registerFile;
-    /** Status for the interrupt state */
-    private boolean externalPending = false;
+    /**
+     * Bitmask of the pending interrupts and traps. It is only changed while
+     * holding the monitor, but read without it, so that the simulator can
+     * check for pending work with a single volatile read per instruction.
+     */
+    private volatile int pending = 0;
     private int externalValue;
-    private boolean timerPending = false;
     private int timerValue;
 
     /** Status for trap state */
-    private boolean trapPending = false;
     private SimulationException trapSE;
     private int trapPC;
 
@@ -36,74 +44,80 @@ public final class InterruptController {
         this.registerFile = registerFile;
     }
 
+    /**
+     * @return the bitmask of pending interrupts and traps, a combination of
+     * {@link #EXTERNAL}, {@link #TIMER} and {@link #TRAP}
+     */
+    public int getPending() {
+        return this.pending;
+    }
+
     public synchronized SimulationException claimTrap() {
-        assert trapPending : "Cannot claim, no trap pending";
+        assert this.trapPending() : "Cannot claim, no trap pending";
         assert trapPC == this.registerFile.getProgramCounter() - BasicInstruction.BASIC_INSTRUCTION_LENGTH
             : "trapPC doesn't match current pc";
-        trapPending = false;
+        this.pending &= ~InterruptController.TRAP;
         return trapSE;
 
     }
 
-    public synchronized boolean externalPending() {
-        return externalPending;
+    public boolean externalPending() {
+        return (this.pending & InterruptController.EXTERNAL) != 0;
     }
 
-    public synchronized boolean timerPending() {
-        return timerPending;
+    public boolean timerPending() {
+        return (this.pending & InterruptController.TIMER) != 0;
     }
 
-    public synchronized boolean trapPending() {
-        return trapPending;
+    public boolean trapPending() {
+        return (this.pending & InterruptController.TRAP) != 0;
     }
 
     public synchronized int claimExternal() {
-        assert externalPending : "Cannot claim, no external interrupt pending";
-        externalPending = false;
+        assert this.externalPending() : "Cannot claim, no external interrupt pending";
+        this.pending &= ~InterruptController.EXTERNAL;
         return externalValue;
 
     }
 
     public synchronized int claimTimer() {
-        assert timerPending : "Cannot claim, no timer interrupt pending";
-        timerPending = false;
+        assert this.timerPending() : "Cannot claim, no timer interrupt pending";
+        this.pending &= ~InterruptController.TIMER;
         return timerValue;
 
     }
 
     public synchronized void reset() {
-        externalPending = false;
-        timerPending = false;
-        trapPending = false;
+        this.pending = 0;
     }
 
     public synchronized boolean registerExternalInterrupt(final int value) {
-        if (externalPending) {
+        if (this.externalPending()) {
             return false;
         }
         externalValue = value;
-        externalPending = true;
+        this.pending |= InterruptController.EXTERNAL;
         this.simulator.interrupt();
         return true;
     }
 
     public synchronized boolean registerTimerInterrupt(final int value) {
-        if (timerPending) {
+        if (this.timerPending()) {
             return false;
         }
         timerValue = value;
-        timerPending = true;
+        this.pending |= InterruptController.TIMER;
         this.simulator.interrupt();
         return true;
     }
 
     public synchronized boolean registerSynchronousTrap(final SimulationException se, final int pc) {
-        if (trapPending) {
+        if (this.trapPending()) {
             return false;
         }
         trapSE = se;
         trapPC = pc;
-        trapPending = true;
+        this.pending |= InterruptController.TRAP;
         return true;
 
     }
@@ -11,14 +11,17 @@ import rars.assembler.DataTypes;
 import rars.exceptions.AddressErrorException;
 import rars.exceptions.ExceptionReason;
 import rars.notices.AccessNotice;
+import rars.notices.MemoryAccessBus;
 import rars.notices.MemoryAccessNotice;
 import rars.riscv.BasicInstruction;
 import rars.settings.BoolSetting;
 import rars.settings.OtherSettings;
+import rars.trace.MemoryTracer;
 import rars.util.ListenerDispatcher;
 
-import java.util.Collection;
-import java.util.Vector;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.function.Consumer;
 
 import static rars.Globals.BOOL_SETTINGS;
@@ -66,6 +69,10 @@ public final class Memory {
     private static final int MMIO_TABLE_LENGTH = 16; // Each entry of table points to a 4K block.
     private static final int TEXT_BLOCK_LENGTH_WORDS = 1024; // allocated blocksize 1024 ints == 4K bytes
     private static final int TEXT_BLOCK_TABLE_LENGTH = 1024; // Each entry of table points to a block.
+    /** Size in bytes of the pages whose writes are counted, see {@link #getPageGeneration(int)}. */
+    public static final int PAGE_SIZE = 4096;
+    private static final int PAGE_SHIFT = Integer.numberOfTrailingZeros(Memory.PAGE_SIZE);
+    private static final int PAGE_GENERATION_SLOTS = 1024; // power of two
     /**
      * Memory will maintain a collection of observables.  Each one is associated
      * with a specific memory address or address range, and each will have at least
@@ -73,12 +80,37 @@ public final class Memory {
      * observables associated with that address send notices to their observers.
      * This assures that observers are not bombarded with notices from memory
      * addresses they do not care about.
-     * Would like a tree-like implementation, but that is complicated by this fact:
-     * key for insertion into the tree would be based on Comparable using both low
-     * and high end of address range, but retrieval from the tree has to be based
-     * on target address being ANYWHERE IN THE RANGE (not an exact key match).
+     * Guarded by its own monitor; every change republishes {@link #observerIndex}.
      */
-    private final Collection<MemoryObservable> observables = new Vector<>();
+    private final List<MemoryObservable> observables = new ArrayList<>();
+    /**
+     * Index of {@link #observables} by address, consulted on every access.
+     * It is immutable and replaced as a whole, so the simulator thread can
+     * read it without locking.
+     */
+    private volatile @NotNull AddressRangeIndex<MemoryObservable> observerIndex = AddressRangeIndex.empty();
+    /**
+     * Receives every access made by the simulated program, if set. Unlike the
+     * observers, it is called directly and costs a single null check when
+     * tracing is disabled.
+     */
+    private @Nullable MemoryTracer tracer = null;
+    /**
+     * Batched delivery of the accesses to tools that do not need to react to
+     * each one immediately. Created on first use, since its ring buffer is
+     * a few megabytes.
+     */
+    private @Nullable MemoryAccessBus accessBus = null;
+    /**
+     * Write counters of the pages of memory, for views that only redraw a
+     * region after it changed. Pages are hashed onto a fixed number of
+     * counters, so a view may now and then re-read a page that was not
+     * written, but never misses one that was. Counting a write is a single
+     * increment. Changes to the whole memory, such as a reset, move the epoch
+     * instead.
+     */
+    private final int @NotNull [] pageGenerations = new int[Memory.PAGE_GENERATION_SLOTS];
+    private volatile int epoch;
     /**
      * Current memory configuration for simulation. Configuration is a
      * collection of memory segment addresses. e.g. text segment starting at
@@ -335,6 +367,8 @@ public final class Memory {
             // The memory configurations don't match up
             return;
         }
+        this.epoch++;
+        this.currentHeapAddress = other.currentHeapAddress;
 
         for (int i = 0; i < this.textBlockTable.length; i++) {
             if (other.textBlockTable[i] != null) {
@@ -368,6 +402,7 @@ public final class Memory {
     }
 
     public void reset() {
+        this.epoch++;
         this.currentHeapAddress = this.currentConfiguration.heapBaseAddress;
         this.textBlockTable = new ProgramStatement[Memory.TEXT_BLOCK_TABLE_LENGTH][];
         this.dataBlockTable = new int[Memory.BLOCK_TABLE_LENGTH][]; // array of null int[] references
@@ -448,10 +483,17 @@ public final class Memory {
             // memory mapped I/O.
             final var relativeByteAddress = address - this.currentConfiguration.memoryMapBaseAddress;
             oldValue = this.storeBytesInTable(this.memoryMapBlockTable, relativeByteAddress, length, value);
+            Globals.DEVICE_BUS.write(address, length, value);
         } else {
             // falls outside addressing range
             throw new AddressErrorException("address out of range ", ExceptionReason.STORE_ACCESS_FAULT, address);
         }
+        this.markWritten(address);
+        this.markWritten(address + length - 1);
+        final var tracer = this.tracer;
+        if (tracer != null) {
+            tracer.recordStore(address, length, value);
+        }
         this.notifyAnyObservers(AccessNotice.AccessType.WRITE, address, length, value);
         return oldValue;
     }
@@ -506,10 +548,16 @@ public final class Memory {
             // memory mapped I/O.
             relative = (address - this.currentConfiguration.memoryMapBaseAddress) >> 2; // convert byte address to word
             oldValue = this.storeWordInTable(this.memoryMapBlockTable, relative, value);
+            Globals.DEVICE_BUS.write(address, DataTypes.WORD_SIZE, value);
         } else {
             // falls outside addressing range
             throw new AddressErrorException("store address out of range ", ExceptionReason.STORE_ACCESS_FAULT, address);
         }
+        this.markWritten(address);
+        final var tracer = this.tracer;
+        if (tracer != null) {
+            tracer.recordStore(address, DataTypes.WORD_SIZE, value);
+        }
         this.notifyAnyObservers(AccessNotice.AccessType.WRITE, address, DataTypes.WORD_SIZE, value);
         if (OtherSettings.getBackSteppingEnabled()) {
             Globals.program.getBackStepper().addMemoryRestoreRawWord(address, oldValue);
@@ -661,6 +709,28 @@ public final class Memory {
             this.currentConfiguration.textBaseAddress,
             this.textBlockTable
         );
+        this.markWritten(address);
+    }
+
+    /**
+     * Returns a number that changes whenever the page of {@link #PAGE_SIZE}
+     * bytes holding the address is written, so a view can tell whether it
+     * needs to read the page again by comparing it with the number it saw
+     * last time. The number may also change when the page was not written.
+     * Memory-mapped devices can change their registers without any write, so
+     * their pages must always be read again.
+     */
+    public long getPageGeneration(final int address) {
+        final var generation = this.pageGenerations[Memory.pageGenerationSlot(address)];
+        return ((long) this.epoch << 32) | Integer.toUnsignedLong(generation);
+    }
+
+    private void markWritten(final int address) {
+        this.pageGenerations[Memory.pageGenerationSlot(address)]++;
+    }
+
+    private static int pageGenerationSlot(final int address) {
+        return (address >>> Memory.PAGE_SHIFT) & (Memory.PAGE_GENERATION_SLOTS - 1);
     }
 
     /**
@@ -698,7 +768,8 @@ public final class Memory {
             && address < this.actualMemoryMapLimitAddress) {
             // memory mapped I/O.
             relativeByteAddress = address - this.currentConfiguration.memoryMapBaseAddress;
-            value = this.fetchBytesFromTable(this.memoryMapBlockTable, relativeByteAddress, length);
+            final var storedValue = this.fetchBytesFromTable(this.memoryMapBlockTable, relativeByteAddress, length);
+            value = notify ? Globals.DEVICE_BUS.read(address, length, storedValue) : storedValue;
         } else if (this.isAddressInTextSegment(address)) {
             // Burch Mod (Jan 2013): replace throw with calls to getStatementNoNotify &
             // getBinaryStatement
@@ -733,6 +804,10 @@ public final class Memory {
             throw new AddressErrorException("address out of range ", ExceptionReason.LOAD_ACCESS_FAULT, address);
         }
         if (notify) {
+            final var tracer = this.tracer;
+            if (tracer != null) {
+                tracer.recordLoad(address, length, value);
+            }
             this.notifyAnyObservers(AccessNotice.AccessType.READ, address, length, value);
         }
         return value;
@@ -771,7 +846,11 @@ public final class Memory {
             && address < this.actualMemoryMapLimitAddress) {
             // memory mapped I/O.
             relative = (address - this.currentConfiguration.memoryMapBaseAddress) >> 2;
-            value = this.fetchWordFromTable(this.memoryMapBlockTable, relative);
+            value = Globals.DEVICE_BUS.read(
+                address,
+                DataTypes.WORD_SIZE,
+                this.fetchWordFromTable(this.memoryMapBlockTable, relative)
+            );
         } else if (this.isAddressInTextSegment(address)) {
             // Burch Mod (Jan 2013): replace throw with calls to getStatementNoNotify &
             // getBinaryStatement
@@ -790,6 +869,10 @@ public final class Memory {
             // falls outside addressing range
             throw new AddressErrorException("address out of range ", ExceptionReason.LOAD_ACCESS_FAULT, address);
         }
+        final var tracer = this.tracer;
+        if (tracer != null) {
+            tracer.recordLoad(address, DataTypes.WORD_SIZE, value);
+        }
         this.notifyAnyObservers(AccessNotice.AccessType.READ, address, DataTypes.WORD_SIZE, value);
         return value;
     }
@@ -847,6 +930,45 @@ public final class Memory {
         // dump feature, not the executing program.
     }
 
+    /**
+     * Reads up to {@code count} consecutive words starting at the given word
+     * address into {@code destination}, as {@link #getRawWordOrNull(int)} would
+     * one by one, stopping before the first word it would return null for.
+     * Ranges in the data segment are copied a block at a time while holding the
+     * memory's lock once, without boxing, which is what keeps dumping large
+     * segments fast. Observers are NOT notified.
+     *
+     * @return the number of words read; less than {@code count} if a null word
+     * was reached
+     * @throws AddressErrorException
+     *     If address is not on word boundary or falls outside the addressing range.
+     */
+    public int getRawWordsOrNull(
+        final int address,
+        final int @NotNull [] destination,
+        final int offset,
+        final int count
+    ) throws AddressErrorException {
+        MemoryUtils.checkLoadWordAligned(address);
+        if (count <= 0) {
+            return 0;
+        }
+        final var lastAddress = address + (count - 1) * DataTypes.WORD_SIZE;
+        if (this.isAddressInDataSegment(address) && this.isAddressInDataSegment(lastAddress)
+            && Integer.compareUnsigned(address, lastAddress) <= 0) {
+            final var relative = (address - this.currentConfiguration.dataSegmentBaseAddress) >> 2;
+            return this.fetchWordsOrNullFromTable(this.dataBlockTable, relative, destination, offset, count);
+        }
+        for (var i = 0; i < count; i++) {
+            final var word = this.getRawWordOrNull(address + i * DataTypes.WORD_SIZE);
+            if (word == null) {
+                return i;
+            }
+            destination[offset + i] = word;
+        }
+        return count;
+    }
+
     /**
      * Look for first "null" memory value in an address range. For text segment
      * (binary code), this
@@ -867,9 +989,16 @@ public final class Memory {
      *     if the base address is not on a word boundary
      */
     public int getAddressOfFirstNull(final int baseAddress, final int limitAddress) throws AddressErrorException {
+        final var words = new int[Memory.BLOCK_LENGTH_WORDS];
         int address = baseAddress;
-        for (; address < limitAddress; address += DataTypes.WORD_SIZE) {
-            if (this.getRawWordOrNull(address) == null) {
+        while (address < limitAddress) {
+            final var count = (int) Math.min(
+                Memory.BLOCK_LENGTH_WORDS,
+                ((long) limitAddress - address + DataTypes.WORD_SIZE - 1) / DataTypes.WORD_SIZE
+            );
+            final var read = this.getRawWordsOrNull(address, words, 0, count);
+            address += read * DataTypes.WORD_SIZE;
+            if (read < count) {
                 break;
             }
         }
@@ -924,6 +1053,79 @@ public final class Memory {
         return this.get(address, DataTypes.WORD_SIZE, false);
     }
 
+    /**
+     * Reads {@code count} consecutive words starting at the given word address
+     * into {@code destination}, as {@link #getWordNoNotify(int)} would one by
+     * one. Ranges in the data segment are copied a block at a time while
+     * holding the memory's lock once, which is what makes views of large
+     * regions, such as a bitmap display, cheap to refresh. Observers are NOT
+     * notified.
+     *
+     * @throws AddressErrorException
+     *     If address is not on word boundary or some word cannot be read.
+     */
+    public void getWordsNoNotify(
+        final int address,
+        final int @NotNull [] destination,
+        final int offset,
+        final int count
+    ) throws AddressErrorException {
+        MemoryUtils.checkLoadWordAligned(address);
+        if (count <= 0) {
+            return;
+        }
+        final var lastAddress = address + (count - 1) * DataTypes.WORD_SIZE;
+        if (this.isAddressInDataSegment(address) && this.isAddressInDataSegment(lastAddress)
+            && Integer.compareUnsigned(address, lastAddress) <= 0) {
+            final var relative = (address - this.currentConfiguration.dataSegmentBaseAddress) >> 2;
+            this.fetchWordsFromTable(this.dataBlockTable, relative, destination, offset, count);
+            return;
+        }
+        for (var i = 0; i < count; i++) {
+            destination[offset + i] = this.getWordNoNotify(address + i * DataTypes.WORD_SIZE);
+        }
+    }
+
+    /**
+     * Writes {@code count} consecutive words from {@code source} starting at
+     * the given word address in the data segment, a block at a time while
+     * holding the memory's lock once. Meant for loading a program image, so
+     * observers are NOT notified and nothing is traced.
+     *
+     * @throws AddressErrorException
+     *     If address is not on word boundary or the words do not all fall in
+     *     the data segment.
+     */
+    public void setRawWordsInDataSegment(
+        final int address,
+        final int @NotNull [] source,
+        final int offset,
+        final int count
+    ) throws AddressErrorException {
+        MemoryUtils.checkStoreWordAligned(address);
+        if (count <= 0) {
+            return;
+        }
+        final var lastAddress = address + (count - 1) * DataTypes.WORD_SIZE;
+        if (!this.isAddressInDataSegment(address) || !this.isAddressInDataSegment(lastAddress)
+            || Integer.compareUnsigned(address, lastAddress) > 0) {
+            throw new AddressErrorException(
+                "store address out of data segment ",
+                ExceptionReason.STORE_ACCESS_FAULT,
+                this.isAddressInDataSegment(address) ? lastAddress : address
+            );
+        }
+        final var relative = (address - this.currentConfiguration.dataSegmentBaseAddress) >> 2;
+        this.storeWordsInTable(this.dataBlockTable, relative, source, offset, count);
+        for (var page = address; Integer.compareUnsigned(page, lastAddress) <= 0; page += Memory.PAGE_SIZE) {
+            this.markWritten(page);
+            if (page + Memory.PAGE_SIZE < page) {
+                break;
+            }
+        }
+        this.markWritten(lastAddress);
+    }
+
     // ALL THE OBSERVABLE STUFF GOES HERE. FOR COMPATIBILITY, Memory IS STILL
     // EXTENDING OBSERVABLE, BUT WILL NOT USE INHERITED METHODS. WILL INSTEAD
     // USE A COLLECTION OF MemoryObserver OBJECTS, EACH OF WHICH IS COMBINATION
@@ -1009,12 +1211,17 @@ public final class Memory {
             );
         }
         if (this.isAddressInTextSegment(address)) {
-            return this.readProgramStatement(
+            final var statement = this.readProgramStatement(
                 address,
                 this.currentConfiguration.textBaseAddress,
                 this.textBlockTable,
                 notify
             );
+            final var tracer = this.tracer;
+            if (notify && tracer != null) {
+                tracer.recordFetch(address, statement == null ? 0 : statement.getBinaryStatement());
+            }
+            return statement;
         } else {
             return new ProgramStatement(this.get(address, DataTypes.WORD_SIZE), address);
         }
@@ -1093,18 +1300,59 @@ public final class Memory {
                 startAddr
             );
         }
-        this.observables.add(new MemoryObservable(listener, startAddr, endAddr));
+        synchronized (this.observables) {
+            this.observables.add(new MemoryObservable(listener, startAddr, endAddr));
+            this.rebuildObserverIndex();
+        }
+    }
+
+    /**
+     * Sets the tracer that records the accesses of the simulated program.
+     *
+     * @param tracer
+     *     the tracer, or {@code null} to disable tracing
+     */
+    public void setTracer(final @Nullable MemoryTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    /**
+     * Returns the bus that subscribers can pull batches of accesses from,
+     * instead of being called back on every access.
+     */
+    public synchronized @NotNull MemoryAccessBus getAccessBus() {
+        if (this.accessBus == null) {
+            this.accessBus = new MemoryAccessBus();
+        }
+        return this.accessBus;
     }
 
     /**
      * Remove specified memory observers
      */
     public void deleteSubscriber(final @NotNull Consumer<? super MemoryAccessNotice> listener) {
-        for (final var observable : this.observables) {
-            observable.hook.unsubscribe(listener);
+        synchronized (this.observables) {
+            for (final var observable : this.observables) {
+                observable.hook.unsubscribe(listener);
+            }
+            if (this.observables.removeIf(observable -> !observable.dispatcher.hasListeners())) {
+                this.rebuildObserverIndex();
+            }
         }
     }
 
+    private void rebuildObserverIndex() {
+        this.observerIndex = new AddressRangeIndex<>(
+            this.observables.stream()
+                .map(observable -> new AddressRangeIndex.Range<>(
+                    observable.lowAddress,
+                    observable.highAddress - 1 + DataTypes.WORD_SIZE,
+                    observable
+                ))
+                .toList()
+        );
+    }
+
     /// Method to notify any observers of memory operation that has just occurred.
     /// The `|| Globals.getGui()==null` is a hack added 19 July 2012 DPS. IF
     /// simulation
@@ -1116,14 +1364,19 @@ public final class Memory {
         final int length,
         final int value
     ) {
-        this.observables.stream()
-            .filter((mo) -> mo.match(address))
-            .forEach((mo) -> mo.dispatcher.dispatch(new MemoryAccessNotice(
-                type,
+        final var bus = this.accessBus;
+        if (bus != null && bus.isActive()) {
+            bus.publish(type, address, length, value);
+        }
+        final var index = this.observerIndex;
+        if (index.mayContain(address)) {
+            // the notice is immutable, so all the matching observables share it
+            index.forEachMatch(
                 address,
-                length,
-                value
-            )));
+                new MemoryAccessNotice(type, address, length, value),
+                (observable, notice) -> observable.dispatcher.dispatch(notice)
+            );
+        }
     }
 
     /**
@@ -1268,6 +1521,86 @@ public final class Memory {
         return result == null ? 0 : result;
     }
 
+    /**
+     * Bulk version of {@link Memory#fetchWordFromTable} for a forward-growing
+     * table, copying whole runs of a block at once.
+     */
+    private synchronized void fetchWordsFromTable(
+        final int @NotNull [] @Nullable [] blockTable,
+        final int relative,
+        final int @NotNull [] destination,
+        final int offset,
+        final int count
+    ) {
+        var copied = 0;
+        while (copied < count) {
+            final var word = relative + copied;
+            final var block = blockTable[word / Memory.BLOCK_LENGTH_WORDS];
+            final var start = word % Memory.BLOCK_LENGTH_WORDS;
+            final var length = Math.min(count - copied, Memory.BLOCK_LENGTH_WORDS - start);
+            if (block == null) {
+                Arrays.fill(destination, offset + copied, offset + copied + length, 0);
+            } else {
+                System.arraycopy(block, start, destination, offset + copied, length);
+            }
+            copied += length;
+        }
+    }
+
+    /**
+     * Same as {@link Memory#storeWordInTable}, for consecutive words, allocating
+     * blocks as needed.
+     */
+    private synchronized void storeWordsInTable(
+        final int @NotNull [] @Nullable [] blockTable,
+        final int relative,
+        final int @NotNull [] source,
+        final int offset,
+        final int count
+    ) {
+        var copied = 0;
+        while (copied < count) {
+            final var word = relative + copied;
+            final var blockIndex = word / Memory.BLOCK_LENGTH_WORDS;
+            if (blockTable[blockIndex] == null) {
+                blockTable[blockIndex] = new int[Memory.BLOCK_LENGTH_WORDS];
+            }
+            final var start = word % Memory.BLOCK_LENGTH_WORDS;
+            final var length = Math.min(count - copied, Memory.BLOCK_LENGTH_WORDS - start);
+            // noinspection DataFlowIssue
+            System.arraycopy(source, offset + copied, blockTable[blockIndex], start, length);
+            copied += length;
+        }
+    }
+
+    /**
+     * Same as {@link Memory#fetchWordsFromTable}, but stops at the first block
+     * that hasn't been allocated.
+     *
+     * @return the number of words copied
+     */
+    private synchronized int fetchWordsOrNullFromTable(
+        final int @NotNull [] @Nullable [] blockTable,
+        final int relative,
+        final int @NotNull [] destination,
+        final int offset,
+        final int count
+    ) {
+        var copied = 0;
+        while (copied < count) {
+            final var word = relative + copied;
+            final var block = blockTable[word / Memory.BLOCK_LENGTH_WORDS];
+            if (block == null) {
+                break;
+            }
+            final var start = word % Memory.BLOCK_LENGTH_WORDS;
+            final var length = Math.min(count - copied, Memory.BLOCK_LENGTH_WORDS - start);
+            System.arraycopy(block, start, destination, offset + copied, length);
+            copied += length;
+        }
+        return copied;
+    }
+
     /**
      * Same as {@link Memory#fetchWordFromTable}, but if it hasn't been allocated returns null.
      */
@@ -1380,7 +1713,7 @@ public final class Memory {
      * Private class whose objects will represent an observable-observer pair
      * for a given memory address or range.
      */
-    private static class MemoryObservable implements Comparable<MemoryObservable> {
+    private static final class MemoryObservable {
         public final @NotNull ListenerDispatcher<@NotNull MemoryAccessNotice> dispatcher;
         public final @NotNull ListenerDispatcher<@NotNull MemoryAccessNotice>.Hook hook;
         private final int lowAddress;
@@ -1397,28 +1730,6 @@ public final class Memory {
             this.hook = this.dispatcher.getHook();
             this.hook.subscribe(listener);
         }
-
-        public boolean match(final int address) {
-            return (address >= this.lowAddress && address <= this.highAddress - 1 + DataTypes.WORD_SIZE);
-        }
-
-        /**
-         * {@inheritDoc}
-         * <p>
-         * Useful to have for future refactoring, if it actually becomes worthwhile to sort
-         * these or put 'em in a tree (rather than sequential search through list).
-         */
-        @Override
-        public int compareTo(final MemoryObservable mo) {
-            if (this.lowAddress < mo.lowAddress
-                || this.lowAddress == mo.lowAddress && this.highAddress < mo.highAddress) {
-                return -1;
-            }
-            if (this.lowAddress > mo.lowAddress || this.highAddress > mo.highAddress) {
-                return 1;
-            }
-            return 0; // they have to be equal at this point.
-        }
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+package rars.riscv.hardware;
+
+/**
+ * A device that responds to the loads and stores of the simulated program in
+ * the address range it is attached to on the {@link DeviceBus}.
+ * <p>
+ * The handlers run on the simulator thread, in the middle of the instruction
+ * that made the access and with the memory and registers lock held, so a
+ * device sees exactly the same sequence of accesses on every run. Work that
+ * should happen later (e.g. a character appearing on a display) is scheduled
+ * on the bus's {@link EventScheduler} instead of on a wall-clock timer.
+ */
+public interface MemoryMappedDevice {
+    /**
+     * Called when the program loads from the device.
+     *
+     * @param address
+     *     the address loaded from
+     * @param length
+     *     the number of bytes loaded
+     * @param storedValue
+     *     the value currently stored in memory at the address
+     * @return the value the program should see
+     */
+    default int read(final int address, final int length, final int storedValue) {
+        return storedValue;
+    }
+
+    /**
+     * Helper for {@link #read} implementations that compute whole registers:
+     * selects the bytes a load of {@code length} bytes from {@code address}
+     * sees in {@code word}, memory being little-endian.
+     */
+    static int bytesOf(final int word, final int address, final int length) {
+        if (length == 4) {
+            return word;
+        }
+        return (word >>> ((address & 3) << 3)) & ((1 << (length << 3)) - 1);
+    }
+
+    /**
+     * Called after the program has stored {@code value} to the device. The
+     * value is already in memory.
+     */
+    default void write(final int address, final int length, final int value) {
+    }
+}
@@ -0,0 +1,169 @@
+package rars.riscv.hardware;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Source of the time the simulated program sees, in milliseconds, through the
+ * {@code time} CSR, the Time system call and timer devices.
+ * <p>
+ * In {@link Mode#REAL_TIME real time}, the host clock is read once every
+ * {@link #getInterval() interval} retired instructions instead of after every
+ * instruction, and whenever the simulation resumes after waiting.
+ * <p>
+ * In {@link Mode#VIRTUAL virtual time}, one millisecond passes every
+ * {@link #getInterval() interval} retired instructions, counted by the
+ * {@link EventScheduler}. Time then starts at zero on every reset and does not
+ * depend on the host at all, so a program that reads the time or uses timer
+ * interrupts behaves the same on every run and on every machine.
+ */
+public final class SimulationClock {
+    public static final int DEFAULT_SAMPLE_INTERVAL = 1000;
+    public static final int DEFAULT_INSTRUCTIONS_PER_MILLISECOND = 1000;
+    private static final long MAX_DELAY = Integer.MAX_VALUE;
+
+    private final @NotNull EventScheduler scheduler;
+    private volatile @NotNull Mode mode;
+    private volatile int interval;
+    /// Time of the last sample in real time, or of the last call to getTime() in virtual time.
+    private volatile long time;
+    /// Instructions left until the host clock is read again.
+    private long countdown;
+    /// Milliseconds the program asked to sleep for during the current instruction.
+    private long requestedSleep;
+
+    public enum Mode {
+        REAL_TIME,
+        VIRTUAL
+    }
+
+    SimulationClock(final @NotNull EventScheduler scheduler) {
+        this.scheduler = scheduler;
+        this.mode = Mode.REAL_TIME;
+        this.interval = SimulationClock.DEFAULT_SAMPLE_INTERVAL;
+        this.sample();
+    }
+
+    public @NotNull Mode getMode() {
+        return this.mode;
+    }
+
+    /**
+     * @return the number of instructions between two samples of the host
+     * clock in real time, or per millisecond in virtual time
+     */
+    public int getInterval() {
+        return this.interval;
+    }
+
+    /**
+     * Switches the clock to another mode, taking effect immediately.
+     *
+     * @param interval
+     *     see {@link #getInterval()}; must be positive
+     */
+    public synchronized void configure(final @NotNull Mode mode, final int interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("The clock interval must be positive.");
+        }
+        this.mode = mode;
+        this.interval = interval;
+        this.sample();
+    }
+
+    /** @return the current time in milliseconds */
+    public long getTime() {
+        if (this.mode == Mode.REAL_TIME) {
+            return this.time;
+        }
+        // derived from the scheduler, so events and skipped instructions see the exact time; the
+        // division is only needed once the instruction count leaves the millisecond of the last call
+        final var now = this.scheduler.getNow();
+        final var interval = this.interval;
+        var time = this.time;
+        final var millisecondStart = time * interval;
+        if (now < millisecondStart || now - millisecondStart >= interval) {
+            time = now / interval;
+            this.time = time;
+        }
+        return time;
+    }
+
+    /**
+     * Counts one retired instruction towards the next sample. Unless the
+     * interval is over, that is a decrement and a comparison.
+     */
+    public void tick() {
+        if (--this.countdown <= 0) {
+            this.sample();
+        }
+    }
+
+    /** Brings the time up to date, reading the host clock in real time. */
+    public void sample() {
+        if (this.mode == Mode.REAL_TIME) {
+            this.time = System.currentTimeMillis();
+        } else {
+            this.time = this.scheduler.getNow() / this.interval;
+        }
+        this.countdown = this.interval;
+    }
+
+    /**
+     * Estimates how many instructions will retire before the clock reaches
+     * {@code time}. In virtual time it is exact, except that very distant
+     * times are capped; in real time the speed of the host is unknown, so the
+     * result is the sampling interval. Either way, the caller should check
+     * the time again when they have retired.
+     *
+     * @return a positive number of instructions
+     */
+    public long instructionsUntil(final long time) {
+        final var interval = this.interval;
+        if (this.mode == Mode.REAL_TIME) {
+            return interval;
+        }
+        if (time <= 0) {
+            return 1;
+        }
+        if (time >= Long.MAX_VALUE / interval) {
+            return SimulationClock.MAX_DELAY;
+        }
+        return Math.min(SimulationClock.MAX_DELAY, Math.max(1, time * interval - this.scheduler.getNow()));
+    }
+
+    /**
+     * Asks for {@code milliseconds} to pass without running the program once
+     * the current instruction has retired. The simulator lets them pass in
+     * {@link #sleepIfRequested()}, after it has released the memory and
+     * registers lock.
+     */
+    public void requestSleep(final long milliseconds) {
+        this.requestedSleep += Math.max(0, milliseconds);
+    }
+
+    /**
+     * Lets the time asked for by {@link #requestSleep(long)} pass, if any. In
+     * virtual time, this skips the corresponding instructions on the
+     * scheduler, so the events due in the meantime still run; in real time,
+     * the calling thread sleeps.
+     */
+    public void sleepIfRequested() throws InterruptedException {
+        final var milliseconds = this.requestedSleep;
+        if (milliseconds == 0) {
+            return;
+        }
+        this.requestedSleep = 0;
+        if (this.mode == Mode.VIRTUAL) {
+            this.scheduler.advance(milliseconds * this.interval);
+        } else {
+            Thread.sleep(milliseconds);
+        }
+        this.sample();
+    }
+
+    /** Drops a sleep that was asked for but has not happened and brings the time up to date. */
+    void reset() {
+        this.requestedSleep = 0;
+        this.sample();
+    }
+}
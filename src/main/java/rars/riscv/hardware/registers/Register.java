@@ -78,7 +78,9 @@ public class Register {
      * @return value The value of the Register.
      */
     public final synchronized long getValue() {
-        this.registerChangeDispatcher.dispatch(new RegisterAccessNotice(AccessNotice.AccessType.READ, this));
+        if (this.registerChangeDispatcher.hasListeners()) {
+            this.registerChangeDispatcher.dispatch(new RegisterAccessNotice(AccessNotice.AccessType.READ, this));
+        }
         return this.getValueNoNotify();
     }
 
@@ -112,7 +114,9 @@ public class Register {
     public synchronized long setValue(final long val) {
         final long old = this.value;
         this.value = val;
-        this.registerChangeDispatcher.dispatch(new RegisterAccessNotice(AccessNotice.AccessType.WRITE, this));
+        if (this.registerChangeDispatcher.hasListeners()) {
+            this.registerChangeDispatcher.dispatch(new RegisterAccessNotice(AccessNotice.AccessType.WRITE, this));
+        }
         return old;
     }
 
@@ -80,6 +80,11 @@ public enum BoolSetting {
      * syscalls
      */
     POPUP_SYSCALL_INPUT("PopupSyscallInput", false),
+    /**
+     * Flag to control whether Run I/O output that no longer fits in the window
+     * is saved to a temporary file instead of discarded
+     */
+    SPILL_RUN_OUTPUT("SpillRunOutput", false),
     /**
      * Flag to control whether language-aware editor will use auto-indent
      * feature
@@ -0,0 +1,23 @@
+package rars.settings;
+
+import org.jetbrains.annotations.NotNull;
+import rars.Globals;
+
+/**
+ * Holder of the settings that are only meaningful for the graphical
+ * interface. They depend on AWT (colors, fonts), so they are kept out of
+ * {@link Globals} and only initialized the first time the GUI (or a tool)
+ * touches them. A command line run never loads this class, which keeps it
+ * free of any AWT initialization.
+ */
+public final class GuiSettings {
+    public static final @NotNull EditorThemeSettings EDITOR_THEME_SETTINGS =
+        new EditorThemeSettings(Globals.SETTINGS_PREFERENCES);
+    public static final @NotNull FontSettings FONT_SETTINGS =
+        new FontSettings(Globals.SETTINGS_PREFERENCES);
+    public static final @NotNull HighlightingSettings HIGHLIGHTING_SETTINGS =
+        new HighlightingSettings(Globals.SETTINGS_PREFERENCES);
+
+    private GuiSettings() {
+    }
+}
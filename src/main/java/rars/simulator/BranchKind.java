@@ -0,0 +1,77 @@
+package rars.simulator;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import rars.ProgramStatement;
+import rars.riscv.BasicInstruction;
+import rars.riscv.instructions.Branch;
+import rars.riscv.instructions.JAL;
+import rars.riscv.instructions.JALR;
+
+/**
+ * Kind of a control transfer instruction. Calls and returns are recognized by
+ * the link registers ({@code x1} and {@code x5}), as suggested by the RISC-V
+ * specification for return-address prediction.
+ */
+public enum BranchKind {
+    /** A conditional branch ({@code beq}, {@code blt}, ...). */
+    CONDITIONAL,
+    /** A {@code jal} that does not link. */
+    JUMP,
+    /** A {@code jal} or {@code jalr} writing a link register. */
+    CALL,
+    /** A {@code jalr} through a link register that does not link. */
+    RETURN,
+    /** Any other {@code jalr}. */
+    INDIRECT;
+
+    private static boolean isLink(final int register) {
+        return register == 1 || register == 5;
+    }
+
+    /** @return the kind of the instruction, or {@code null} if it is not a control transfer */
+    public static @Nullable BranchKind of(
+        final @NotNull BasicInstruction instruction,
+        final @NotNull ProgramStatement statement
+    ) {
+        if (instruction instanceof Branch) {
+            return CONDITIONAL;
+        } else if (instruction == JAL.INSTANCE) {
+            return isLink(statement.getOperand(0)) ? CALL : JUMP;
+        } else if (instruction == JALR.INSTANCE) {
+            final var destination = statement.getOperand(0);
+            if (isLink(destination)) {
+                return CALL;
+            }
+            return destination == 0 && isLink(statement.getOperand(1)) ? RETURN : INDIRECT;
+        }
+        return null;
+    }
+
+    /**
+     * Same as {@link #of(BasicInstruction, ProgramStatement)}, for an encoded
+     * instruction.
+     */
+    public static @Nullable BranchKind of(final int binaryStatement) {
+        final var destination = (binaryStatement >>> 7) & 0x1f;
+        return switch (binaryStatement & 0x7f) {
+            case 0x63 -> CONDITIONAL;
+            case 0x6f -> isLink(destination) ? CALL : JUMP;
+            case 0x67 -> {
+                if (isLink(destination)) {
+                    yield CALL;
+                }
+                yield destination == 0 && isLink((binaryStatement >>> 15) & 0x1f) ? RETURN : INDIRECT;
+            }
+            default -> null;
+        };
+    }
+
+    /** @return the offset of the target of an encoded conditional branch from the branch */
+    public static int branchOffset(final int binaryStatement) {
+        return ((binaryStatement >> 31) << 12)
+            | (((binaryStatement >>> 7) & 0x1) << 11)
+            | (((binaryStatement >>> 25) & 0x3f) << 5)
+            | (((binaryStatement >>> 8) & 0xf) << 1);
+    }
+}
@@ -0,0 +1,25 @@
+package rars.simulator;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Receives every control transfer executed by the simulator, right after the
+ * instruction has been simulated. It is called on the simulation thread, once
+ * per executed branch or jump, so it should be cheap.
+ *
+ * @see Simulator#setBranchListener(BranchListener)
+ */
+@FunctionalInterface
+public interface BranchListener {
+    /**
+     * @param pc
+     *     address of the branch instruction
+     * @param target
+     *     address the instruction jumps to if it is taken
+     * @param taken
+     *     whether the instruction jumped; always {@code true} for jumps
+     * @param kind
+     *     the kind of the instruction
+     */
+    void branchResolved(int pc, int target, boolean taken, @NotNull BranchKind kind);
+}
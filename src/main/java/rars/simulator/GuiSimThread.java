@@ -1,6 +1,8 @@
 package rars.simulator;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import rars.Globals;
 import rars.notices.SimulatorNotice;
 import rars.util.ListenerDispatcher;
 import rars.venus.VenusUI;
@@ -9,17 +11,43 @@ import rars.venus.run.RunSpeedPanel;
 import javax.swing.*;
 
 public final class GuiSimThread extends SimThread {
+    /// Maximum number of times per second the registers, data segment and current step are redrawn in timed runs.
+    private static final int REFRESHES_PER_SECOND = 60;
+
     private final @NotNull VenusUI mainUI;
+    /*
+     * In timed runs, the simulator only publishes that the state changed and
+     * where the program counter is; the timer applies it on the EDT, so however
+     * fast the run, the EDT handles at most one update per frame and the
+     * simulator never waits for it.
+     */
+    private final @NotNull Timer refreshTimer;
+    private volatile boolean refreshPending;
+    private volatile int refreshProgramCounter;
 
     public GuiSimThread(
         final int pc,
         final int maxSteps,
         final int[] breakPoints,
         final @NotNull ListenerDispatcher<@NotNull SimulatorNotice> simulatorNoticeDispatcher,
+        final @Nullable BranchListener branchListener,
+        final @Nullable InstructionListener instructionListener,
         final @NotNull VenusUI mainUI
     ) {
-        super(pc, maxSteps, breakPoints, mainUI.venusIO, simulatorNoticeDispatcher);
+        super(
+            pc,
+            maxSteps,
+            breakPoints,
+            mainUI.venusIO,
+            simulatorNoticeDispatcher,
+            branchListener,
+            instructionListener
+        );
         this.mainUI = mainUI;
+        this.refreshTimer = new Timer(1000 / GuiSimThread.REFRESHES_PER_SECOND, e -> this.refreshUI());
+        if (maxSteps != 1) {
+            this.refreshTimer.start();
+        }
     }
 
     @Override
@@ -29,26 +57,38 @@ public final class GuiSimThread extends SimThread {
 
     @Override
     protected void onEndLoop() {
-        if (this.maxSteps != 1 && this.getRunSpeed() < RunSpeedPanel.UNLIMITED_SPEED) {
-            SwingUtilities.invokeLater(this::updateUI);
-        }
-        if (this.maxSteps != 1 && this.getRunSpeed() < RunSpeedPanel.UNLIMITED_SPEED) {
+        final var runSpeed = this.getRunSpeed();
+        if (this.maxSteps != 1 && runSpeed < RunSpeedPanel.UNLIMITED_SPEED) {
+            this.refreshProgramCounter = Globals.REGISTER_FILE.getProgramCounter();
+            this.refreshPending = true;
             try {
-                this.wait((int) (1000 / this.getRunSpeed()));
+                this.wait((int) (1000 / runSpeed));
             } catch (final InterruptedException ignored) {
             }
+            Globals.DEVICE_BUS.getClock().sample();
         }
     }
 
-    private void updateUI() {
-        if (this.mainUI.registersPane.getSelectedComponent() == this.mainUI.mainPane.executePane.registerValues) {
-            this.mainUI.mainPane.executePane.registerValues.updateRegisters();
+    @Override
+    protected void onStop() {
+        // whoever handles the STOP notice redraws everything
+        this.refreshTimer.stop();
+    }
+
+    private void refreshUI() {
+        // an update may still be queued after the timer was stopped
+        if (!this.refreshPending || !this.refreshTimer.isRunning()) {
+            return;
+        }
+        this.refreshPending = false;
+        final var executePane = this.mainUI.mainPane.executePane;
+        if (this.mainUI.registersPane.getSelectedComponent() == executePane.registerValues) {
+            executePane.registerValues.updateChangedRegisters();
         } else {
-            this.mainUI.mainPane.executePane.fpRegValues.updateRegisters();
+            executePane.fpRegValues.updateChangedRegisters();
         }
-        this.mainUI.mainPane.executePane.dataSegment.updateValues();
-        this.mainUI.mainPane.executePane.textSegment.setCodeHighlighting(true);
-        this.mainUI.mainPane.executePane.textSegment.highlightStepAtPC();
-
+        executePane.dataSegment.updateValues();
+        executePane.textSegment.setCodeHighlighting(true);
+        executePane.textSegment.highlightStepAtAddress(this.refreshProgramCounter);
     }
 }
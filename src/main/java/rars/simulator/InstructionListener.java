@@ -0,0 +1,33 @@
+package rars.simulator;
+
+/**
+ * Receives every instruction executed by the simulator, right after it has
+ * been simulated without raising an exception. It is called on the simulation
+ * thread, so it should be cheap; models that need more time should hand the
+ * events over to another thread.
+ *
+ * @see Simulator#setInstructionListener(InstructionListener)
+ */
+public interface InstructionListener {
+    /**
+     * @param pc
+     *     address of the instruction
+     * @param binaryStatement
+     *     the encoded instruction
+     * @param nextPc
+     *     address of the next instruction to execute
+     * @param dataAddress
+     *     address accessed by a load, store or atomic instruction, 0 for
+     *     other instructions
+     */
+    void instructionExecuted(int pc, int binaryStatement, int nextPc, int dataAddress);
+
+    /**
+     * @return the value the {@code cycle} CSR should have after the last
+     * executed instruction, or a negative number to keep counting one cycle
+     * per instruction
+     */
+    default long getCycle() {
+        return -1;
+    }
+}
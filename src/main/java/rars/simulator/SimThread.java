@@ -8,7 +8,11 @@ import rars.exceptions.*;
 import rars.io.AbstractIO;
 import rars.notices.SimulatorNotice;
 import rars.riscv.BasicInstruction;
+import rars.riscv.hardware.EventScheduler;
+import rars.riscv.hardware.InterruptController;
+import rars.riscv.hardware.SimulationClock;
 import rars.riscv.hardware.registerFiles.CSRegisterFile;
+import rars.riscv.instructions.Branch;
 import rars.settings.OtherSettings;
 import rars.util.BinaryUtils;
 import rars.util.ListenerDispatcher;
@@ -20,10 +24,14 @@ import static rars.Globals.CS_REGISTER_FILE;
 import static rars.Globals.INTERRUPT_CONTROLLER;
 
 public class SimThread implements Runnable {
+    /// How often the host clock is read while a program waits for an interrupt in real time: its resolution.
+    private static final long IDLE_POLL_MILLISECONDS = 1;
     protected final int maxSteps;
     private final @NotNull AbstractIO io;
     private final @NotNull ListenerDispatcher<@NotNull SimulatorNotice> simulatorNoticeDispatcher;
     private final int @NotNull [] breakPoints;
+    private final @Nullable BranchListener branchListener;
+    private final @Nullable InstructionListener instructionListener;
     private int pc;
     private boolean done;
     private @Nullable SimulationException pe;
@@ -35,17 +43,67 @@ public class SimThread implements Runnable {
         final int maxSteps,
         final int[] breakPoints,
         final @NotNull AbstractIO io,
-        final @NotNull ListenerDispatcher<@NotNull SimulatorNotice> simulatorNoticeDispatcher
+        final @NotNull ListenerDispatcher<@NotNull SimulatorNotice> simulatorNoticeDispatcher,
+        final @Nullable BranchListener branchListener,
+        final @Nullable InstructionListener instructionListener
     ) {
         this.pc = pc;
         this.maxSteps = maxSteps;
         this.breakPoints = Arrays.stream(breakPoints).sorted().toArray();
         this.io = io;
         this.simulatorNoticeDispatcher = simulatorNoticeDispatcher;
+        this.branchListener = branchListener;
+        this.instructionListener = instructionListener;
         this.done = false;
         this.pe = null;
     }
 
+    /**
+     * Computes the address accessed by a load, store or atomic instruction
+     * before it executes, since it may overwrite its base register.
+     *
+     * @return the address, or 0 for other instructions
+     */
+    private static int dataAddress(final int binaryStatement) {
+        final int offset;
+        switch (binaryStatement & 0x7f) {
+            // loads: I-type immediate
+            case 0x03, 0x07 -> offset = binaryStatement >> 20;
+            // stores: S-type immediate
+            case 0x23, 0x27 -> offset = ((binaryStatement >> 25) << 5) | ((binaryStatement >>> 7) & 0x1f);
+            // atomics: no offset
+            case 0x2f -> offset = 0;
+            default -> {
+                return 0;
+            }
+        }
+        final var base = Globals.REGISTER_FILE.getRegisterByNumber((binaryStatement >>> 15) & 0x1f);
+        return base == null ? offset : (int) base.getValueNoNotify() + offset;
+    }
+
+    /** Reports the outcome of the instruction at {@link #pc} if it is a control transfer. */
+    private void resolveBranch(
+        final @NotNull BranchListener branchListener,
+        final @NotNull BasicInstruction instruction,
+        final @NotNull ProgramStatement statement
+    ) {
+        final var kind = BranchKind.of(instruction, statement);
+        if (kind == null) {
+            return;
+        }
+        final var nextPc = (int) Globals.REGISTER_FILE.pc.getValueNoNotify();
+        if (kind != BranchKind.CONDITIONAL) {
+            branchListener.branchResolved(this.pc, nextPc, true, kind);
+            return;
+        }
+        // the next pc cannot tell a taken branch to the next instruction from a fall-through, so the
+        // condition is evaluated again; branches write no register, so it still holds after execution
+        final var taken = instruction instanceof final Branch branch
+            ? branch.willBranch.apply(statement, Globals.REGISTER_FILE)
+            : nextPc != this.pc + BasicInstruction.BASIC_INSTRUCTION_LENGTH;
+        branchListener.branchResolved(this.pc, this.pc + statement.getOperand(2), taken, kind);
+    }
+
     public @Nullable SimulationException getPe() {
         return pe;
     }
@@ -85,6 +143,7 @@ public class SimThread implements Runnable {
     }
 
     private void stopExecution(final boolean done, final Simulator.Reason reason) {
+        this.onStop();
         this.done = done;
         this.constructReturnReason = reason;
         this.io.flush();
@@ -266,6 +325,10 @@ public class SimThread implements Runnable {
 
         Globals.REGISTER_FILE.initializeProgramCounter(this.pc);
         int steps = 0;
+        final var scheduler = Globals.DEVICE_BUS.getScheduler();
+        final var clock = Globals.DEVICE_BUS.getClock();
+        // the program may have been paused for a while
+        clock.sample();
 
         // Volatile variable initialized false but can be set true by the main thread.
         // Used to stop or pause a running program. See stopSimulation() above.
@@ -287,65 +350,71 @@ public class SimThread implements Runnable {
             Globals.MEMORY_REGISTERS_LOCK.lock();
             try {
                 // Handle pending interupts and traps first
-                long uip = CS_REGISTER_FILE.uip.getValueNoNotify();
-                final long uie = CS_REGISTER_FILE.uie.getValueNoNotify();
-                final boolean IE = (CS_REGISTER_FILE.ustatus.getValueNoNotify() & CSRegisterFile.INTERRUPT_ENABLE) != 0;
                 // make sure no interrupts sneak in while we are processing them
                 this.pc = Globals.REGISTER_FILE.getProgramCounter();
-                boolean pendingExternal = INTERRUPT_CONTROLLER.externalPending();
-                boolean pendingTimer = INTERRUPT_CONTROLLER.timerPending();
-                final boolean pendingTrap = INTERRUPT_CONTROLLER.trapPending();
-                // This is the explicit (in the spec) order that interrupts should be serviced
-                if (IE && pendingExternal && (uie & CSRegisterFile.EXTERNAL_INTERRUPT) != 0) {
-                    if (this.handleInterrupt(
-                        INTERRUPT_CONTROLLER.claimExternal(),
-                        ExceptionReason.EXTERNAL_INTERRUPT.value, this.pc
-                    )) {
-                        pendingExternal = false;
-                        uip &= ~0x100;
-                    } else {
-                        return; // if the interrupt can't be handled, but the interrupt enable bit is high,
-                        // thats an error
-                    }
-                } else if (IE && (uip & 0x1) != 0
-                    && (uie & CSRegisterFile.SOFTWARE_INTERRUPT) != 0) {
-                    if (this.handleInterrupt(0, ExceptionReason.SOFTWARE_INTERRUPT.value, this.pc)) {
-                        uip &= ~0x1;
-                    } else {
-                        return; // if the interrupt can't be handled, but the interrupt enable bit is high,
-                        // thats an error
-                    }
-                } else if (IE && pendingTimer && (uie & CSRegisterFile.TIMER_INTERRUPT) != 0) {
-                    if (this.handleInterrupt(
-                        INTERRUPT_CONTROLLER.claimTimer(),
-                        ExceptionReason.TIMER_INTERRUPT.value,
-                        this.pc
-                    )) {
-                        pendingTimer = false;
-                        uip &= ~0x10;
-                    } else {
-                        return; // if the interrupt can't be handled, but the interrupt enable bit is high,
-                        // thats an error
-                    }
-                } else if (pendingTrap) { // if we have a pending trap and aren't handling an interrupt it must
-                    // be handled
-                    if (!this.handleTrap(
-                        INTERRUPT_CONTROLLER.claimTrap(),
-                        this.pc - BasicInstruction.BASIC_INSTRUCTION_LENGTH
-                    )) {
-                        return;
+                // a single volatile read covers the interrupt controller, and only the software
+                // interrupt bit has to be checked in the CSR, so the common case costs two reads
+                final int pending = INTERRUPT_CONTROLLER.getPending();
+                long uip = CS_REGISTER_FILE.uip.getValueNoNotify();
+                if (pending != 0 || (uip & CSRegisterFile.SOFTWARE_INTERRUPT) != 0) {
+                    final long uie = CS_REGISTER_FILE.uie.getValueNoNotify();
+                    final boolean IE =
+                        (CS_REGISTER_FILE.ustatus.getValueNoNotify() & CSRegisterFile.INTERRUPT_ENABLE) != 0;
+                    boolean pendingExternal = (pending & InterruptController.EXTERNAL) != 0;
+                    boolean pendingTimer = (pending & InterruptController.TIMER) != 0;
+                    final boolean pendingTrap = (pending & InterruptController.TRAP) != 0;
+                    // This is the explicit (in the spec) order that interrupts should be serviced
+                    if (IE && pendingExternal && (uie & CSRegisterFile.EXTERNAL_INTERRUPT) != 0) {
+                        if (this.handleInterrupt(
+                            INTERRUPT_CONTROLLER.claimExternal(),
+                            ExceptionReason.EXTERNAL_INTERRUPT.value, this.pc
+                        )) {
+                            pendingExternal = false;
+                            uip &= ~0x100;
+                        } else {
+                            return; // if the interrupt can't be handled, but the interrupt enable bit is high,
+                            // thats an error
+                        }
+                    } else if (IE && (uip & 0x1) != 0
+                        && (uie & CSRegisterFile.SOFTWARE_INTERRUPT) != 0) {
+                        if (this.handleInterrupt(0, ExceptionReason.SOFTWARE_INTERRUPT.value, this.pc)) {
+                            uip &= ~0x1;
+                        } else {
+                            return; // if the interrupt can't be handled, but the interrupt enable bit is high,
+                            // thats an error
+                        }
+                    } else if (IE && pendingTimer && (uie & CSRegisterFile.TIMER_INTERRUPT) != 0) {
+                        if (this.handleInterrupt(
+                            INTERRUPT_CONTROLLER.claimTimer(),
+                            ExceptionReason.TIMER_INTERRUPT.value,
+                            this.pc
+                        )) {
+                            pendingTimer = false;
+                            uip &= ~0x10;
+                        } else {
+                            return; // if the interrupt can't be handled, but the interrupt enable bit is high,
+                            // thats an error
+                        }
+                    } else if (pendingTrap) { // if we have a pending trap and aren't handling an interrupt it must
+                        // be handled
+                        if (!this.handleTrap(
+                            INTERRUPT_CONTROLLER.claimTrap(),
+                            this.pc - BasicInstruction.BASIC_INSTRUCTION_LENGTH
+                        )) {
+                            return;
+                        }
                     }
-                }
-                uip |= (pendingExternal ? CSRegisterFile.EXTERNAL_INTERRUPT : 0)
-                    | (pendingTimer ? CSRegisterFile.TIMER_INTERRUPT : 0);
+                    uip |= (pendingExternal ? CSRegisterFile.EXTERNAL_INTERRUPT : 0)
+                        | (pendingTimer ? CSRegisterFile.TIMER_INTERRUPT : 0);
 
-                if (uip != CS_REGISTER_FILE.uip.getValueNoNotify()) {
+                    if (uip != CS_REGISTER_FILE.uip.getValueNoNotify()) {
 
-                    try {
-                        CS_REGISTER_FILE.updateRegisterByName("uip", uip);
-                    } catch (final SimulationException e) {
-                        // should never happen
-                        throw new RuntimeException(e);
+                        try {
+                            CS_REGISTER_FILE.updateRegisterByName("uip", uip);
+                        } catch (final SimulationException e) {
+                            // should never happen
+                            throw new RuntimeException(e);
+                        }
                     }
                 }
 
@@ -406,9 +475,25 @@ public class SimThread implements Runnable {
                             ExceptionReason.ILLEGAL_INSTRUCTION
                         );
                     }
+                    final var instructionListener = this.instructionListener;
+                    final var dataAddress = instructionListener == null
+                        ? 0
+                        : dataAddress(statement.getBinaryStatement());
                     Globals.REGISTER_FILE.incrementPC(instruction.getInstructionLength());
                     // THIS IS WHERE THE INSTRUCTION EXECUTION IS ACTUALLY SIMULATED!
                     instruction.simulate(statement, context);
+                    final var branchListener = this.branchListener;
+                    if (branchListener != null) {
+                        this.resolveBranch(branchListener, instruction, statement);
+                    }
+                    if (instructionListener != null) {
+                        instructionListener.instructionExecuted(
+                            this.pc,
+                            statement.getBinaryStatement(),
+                            (int) Globals.REGISTER_FILE.pc.getValueNoNotify(),
+                            dataAddress
+                        );
+                    }
 
                     // IF statement added 7/26/06 (explanation above)
                     if (OtherSettings.getBackSteppingEnabled()) {
@@ -447,14 +532,28 @@ public class SimThread implements Runnable {
             } finally {
                 Globals.MEMORY_REGISTERS_LOCK.unlock();
             }
+            try {
+                clock.sleepIfRequested();
+            } catch (final InterruptedException ie) {
+                // Don't bother catching an interruption
+            }
 
-            // Update cycle(h) and instret(h)
+            // Update cycle(h), instret(h) and time(h)
             final long cycle = CS_REGISTER_FILE.cycle.getValueNoNotify();
             final long instret = CS_REGISTER_FILE.instret.getValueNoNotify();
-            final long time = System.currentTimeMillis();
-            CS_REGISTER_FILE.updateRegisterBackdoor(CS_REGISTER_FILE.cycle, cycle + 1);
+            final long modelledCycle = this.instructionListener == null ? -1 : this.instructionListener.getCycle();
+            CS_REGISTER_FILE.updateRegisterBackdoor(
+                CS_REGISTER_FILE.cycle,
+                modelledCycle < 0 ? cycle + 1 : modelledCycle
+            );
             CS_REGISTER_FILE.updateRegisterBackdoor(CS_REGISTER_FILE.instret, instret + 1);
-            CS_REGISTER_FILE.updateRegisterBackdoor(CS_REGISTER_FILE.time, time);
+            scheduler.tick();
+            clock.tick();
+            // the clock only moves once per sampling interval, so most instructions leave time as it is
+            final long time = clock.getTime();
+            if (time != CS_REGISTER_FILE.time.getValueNoNotify()) {
+                CS_REGISTER_FILE.updateRegisterBackdoor(CS_REGISTER_FILE.time, time);
+            }
 
             // Return if we've reached a breakpoint.
             if (ebreak || Arrays.binarySearch(this.breakPoints, Globals.REGISTER_FILE.getProgramCounter()) >= 0) {
@@ -464,15 +563,8 @@ public class SimThread implements Runnable {
 
             // Wait if WFI ran
             if (waiting) {
-                if (!(INTERRUPT_CONTROLLER.externalPending() || INTERRUPT_CONTROLLER.timerPending())) {
-                    synchronized (this) {
-                        try {
-                            this.wait();
-                        } catch (final InterruptedException ie) {
-                            // Don't bother catching an interruption
-                        }
-                    }
-                }
+                this.waitForInterrupt(scheduler, clock);
+                clock.sample();
                 waiting = false;
             }
 
@@ -481,7 +573,50 @@ public class SimThread implements Runnable {
         this.stopExecution(false, this.constructReturnReason);
     }
 
+    /**
+     * Idles until an external or timer interrupt is pending or the
+     * simulation stops. No instructions retire meanwhile, so in virtual time
+     * the scheduler jumps from one device event to the next. In real time,
+     * the clock only moves with the host, so the events run as the host clock
+     * is sampled every {@link #IDLE_POLL_MILLISECONDS} until one of them
+     * raises the interrupt.
+     */
+    private void waitForInterrupt(final @NotNull EventScheduler scheduler, final @NotNull SimulationClock clock) {
+        final var interrupts = InterruptController.EXTERNAL | InterruptController.TIMER;
+        while (!this.stop && (INTERRUPT_CONTROLLER.getPending() & interrupts) == 0) {
+            final long timeout;
+            if (!scheduler.hasPendingEvents()) {
+                // only another thread can raise the interrupt now, and it notifies this one
+                timeout = 0;
+            } else if (clock.getMode() == SimulationClock.Mode.VIRTUAL) {
+                scheduler.skipToNextEvent();
+                continue;
+            } else {
+                timeout = SimThread.IDLE_POLL_MILLISECONDS;
+            }
+            synchronized (this) {
+                // checked again under the monitor, so a notify sent in between is not missed
+                if (this.stop || (INTERRUPT_CONTROLLER.getPending() & interrupts) != 0) {
+                    return;
+                }
+                try {
+                    this.wait(timeout);
+                } catch (final InterruptedException ie) {
+                    // Don't bother catching an interruption
+                }
+            }
+            if (timeout != 0) {
+                clock.sample();
+                scheduler.skipToNextEvent();
+            }
+        }
+    }
+
     protected void onEndLoop() {
     }
+
+    /** Called once when the simulation stops, before the STOP notice is dispatched. */
+    protected void onStop() {
+    }
 }
 
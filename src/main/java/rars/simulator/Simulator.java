@@ -4,6 +4,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import rars.exceptions.SimulationException;
 import rars.io.ConsoleIO;
+import rars.notices.AccessNotice;
 import rars.notices.SimulatorNotice;
 import rars.util.ListenerDispatcher;
 import rars.venus.VenusUI;
@@ -49,15 +50,41 @@ public final class Simulator {
     private final @NotNull ListenerDispatcher<Void> stopEventDispatcher;
 
     private @Nullable SimThread simulatorThread;
+    private @Nullable BranchListener branchListener;
+    private @Nullable InstructionListener instructionListener;
 
     public Simulator() {
         this.simulatorThread = null;
+        this.branchListener = null;
+        this.instructionListener = null;
         this.simulatorNoticeDispatcher = new ListenerDispatcher<>();
         this.simulatorNoticeHook = this.simulatorNoticeDispatcher.getHook();
         this.stopEventDispatcher = new ListenerDispatcher<>();
         this.stopEventHook = this.stopEventDispatcher.getHook();
     }
 
+    /**
+     * Sets the listener notified of every control transfer of the simulations
+     * started from now on.
+     *
+     * @param branchListener
+     *     the listener, or {@code null} to disable the notifications
+     */
+    public void setBranchListener(final @Nullable BranchListener branchListener) {
+        this.branchListener = branchListener;
+    }
+
+    /**
+     * Sets the listener notified of every instruction executed by the
+     * simulations started from now on.
+     *
+     * @param instructionListener
+     *     the listener, or {@code null} to disable the notifications
+     */
+    public void setInstructionListener(final @Nullable InstructionListener instructionListener) {
+        this.instructionListener = instructionListener;
+    }
+
     /**
      * Simulate execution of given source program (in this thread). It must have
      * already been assembled.
@@ -82,9 +109,16 @@ public final class Simulator {
             maxSteps,
             new int[0],
             consoleIO,
-            this.simulatorNoticeDispatcher
+            this.simulatorNoticeDispatcher,
+            this.branchListener,
+            this.instructionListener
         );
-        this.simulatorThread.run(); // Just call run, this is a blocking method
+        AccessNotice.setSimulatingOnCurrentThread(true);
+        try {
+            this.simulatorThread.run(); // Just call run, this is a blocking method
+        } finally {
+            AccessNotice.setSimulatingOnCurrentThread(false);
+        }
         final SimulationException pe = this.simulatorThread.getPe();
         final Reason out = this.simulatorThread.getConstructReturnReason();
         this.simulatorThread = null;
@@ -116,7 +150,15 @@ public final class Simulator {
         final int[] breakPoints,
         final @NotNull VenusUI mainUI
     ) {
-        this.simulatorThread = new GuiSimThread(pc, maxSteps, breakPoints, this.simulatorNoticeDispatcher, mainUI);
+        this.simulatorThread = new GuiSimThread(
+            pc,
+            maxSteps,
+            breakPoints,
+            this.simulatorNoticeDispatcher,
+            this.branchListener,
+            this.instructionListener,
+            mainUI
+        );
         new Thread(this.simulatorThread, "RISCV").start();
     }
 
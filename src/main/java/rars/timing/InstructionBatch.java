@@ -0,0 +1,69 @@
+package rars.timing;
+
+/**
+ * A batch of executed instructions stored in parallel primitive arrays, as
+ * reported to a {@link rars.simulator.InstructionListener}.
+ * <p>
+ * Batches are reused by their producer: a consumer must not keep a reference
+ * to a batch after it has been handed back.
+ */
+public final class InstructionBatch {
+    /** Default number of instructions in a batch. */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private final int[] pcs;
+    private final int[] binaryStatements;
+    private final int[] nextPcs;
+    private final int[] dataAddresses;
+    private int count;
+
+    public InstructionBatch(final int capacity) {
+        this.pcs = new int[capacity];
+        this.binaryStatements = new int[capacity];
+        this.nextPcs = new int[capacity];
+        this.dataAddresses = new int[capacity];
+        this.count = 0;
+    }
+
+    /**
+     * Appends an instruction to the batch.
+     *
+     * @return {@code true} if the batch is full after adding the instruction
+     */
+    public boolean add(final int pc, final int binaryStatement, final int nextPc, final int dataAddress) {
+        final var index = this.count++;
+        this.pcs[index] = pc;
+        this.binaryStatements[index] = binaryStatement;
+        this.nextPcs[index] = nextPc;
+        this.dataAddresses[index] = dataAddress;
+        return this.count == this.pcs.length;
+    }
+
+    public void clear() {
+        this.count = 0;
+    }
+
+    public int size() {
+        return this.count;
+    }
+
+    public boolean isEmpty() {
+        return this.count == 0;
+    }
+
+    public int pc(final int index) {
+        return this.pcs[index];
+    }
+
+    public int binaryStatement(final int index) {
+        return this.binaryStatements[index];
+    }
+
+    public int nextPc(final int index) {
+        return this.nextPcs[index];
+    }
+
+    public int dataAddress(final int index) {
+        return this.dataAddresses[index];
+    }
+}
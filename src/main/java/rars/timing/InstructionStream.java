@@ -0,0 +1,138 @@
+package rars.timing;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import rars.simulator.InstructionListener;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * Hands the executed instructions over to a consumer running in its own
+ * thread. The simulation thread only appends the events to a batch; full
+ * batches go through a bounded queue, so a slow consumer eventually slows the
+ * simulation down instead of using up memory, and are recycled once
+ * consumed.
+ * <p>
+ * Since the consumer lags behind, it cannot drive the {@code cycle} CSR while
+ * the program runs.
+ */
+public final class InstructionStream implements InstructionListener, AutoCloseable {
+    /// Marks the end of the stream in the queue of full batches.
+    private static final @NotNull InstructionBatch END = new InstructionBatch(0);
+
+    private final @NotNull BlockingQueue<InstructionBatch> fullBatches;
+    private final @NotNull BlockingQueue<InstructionBatch> freeBatches;
+    private final @NotNull Thread worker;
+    private @NotNull InstructionBatch current;
+    private volatile @Nullable RuntimeException failure;
+
+    /**
+     * @param consumer
+     *     the consumer of the batches, called from the worker thread
+     * @param queueCapacity
+     *     the maximal number of full batches waiting for the consumer
+     */
+    public InstructionStream(
+        final @NotNull Consumer<? super InstructionBatch> consumer,
+        final int queueCapacity
+    ) {
+        // one more slot for the end marker
+        this.fullBatches = new ArrayBlockingQueue<>(queueCapacity + 1);
+        this.freeBatches = new ArrayBlockingQueue<>(queueCapacity + 1);
+        for (var i = 0; i < queueCapacity; i++) {
+            this.freeBatches.add(new InstructionBatch(InstructionBatch.DEFAULT_CAPACITY));
+        }
+        this.current = new InstructionBatch(InstructionBatch.DEFAULT_CAPACITY);
+        this.failure = null;
+        this.worker = new Thread(() -> this.consume(consumer), "RISCV timing");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    private void consume(final @NotNull Consumer<? super InstructionBatch> consumer) {
+        try {
+            while (true) {
+                final var batch = this.fullBatches.take();
+                if (batch == END) {
+                    return;
+                }
+                if (this.failure == null) {
+                    try {
+                        consumer.accept(batch);
+                    } catch (final RuntimeException e) {
+                        // keep recycling the batches, so that the simulation is not blocked
+                        this.failure = e;
+                    }
+                }
+                batch.clear();
+                this.freeBatches.put(batch);
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void instructionExecuted(final int pc, final int binaryStatement, final int nextPc, final int dataAddress) {
+        if (this.current.add(pc, binaryStatement, nextPc, dataAddress)) {
+            this.handOver();
+        }
+    }
+
+    private void handOver() {
+        // the batch must not be lost, so an interruption only ends up in the interrupt status
+        var interrupted = InstructionStream.awaitUninterruptibly(() -> this.fullBatches.put(this.current));
+        interrupted |= InstructionStream.awaitUninterruptibly(() -> this.current = this.freeBatches.take());
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Hands over the last batch and waits until the consumer has processed
+     * everything. An interruption does not cut this short; the interrupt
+     * status is set again before returning.
+     *
+     * @throws RuntimeException
+     *     the first exception thrown by the consumer, if any
+     */
+    @Override
+    public void close() {
+        if (!this.current.isEmpty()) {
+            this.handOver();
+        }
+        var interrupted = InstructionStream.awaitUninterruptibly(() -> this.fullBatches.put(END));
+        interrupted |= InstructionStream.awaitUninterruptibly(this.worker::join);
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        final var failure = this.failure;
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Runs a blocking step until it completes, retrying it when the thread
+     * is interrupted.
+     *
+     * @return whether the thread was interrupted meanwhile
+     */
+    private static boolean awaitUninterruptibly(final @NotNull BlockingStep step) {
+        var interrupted = false;
+        while (true) {
+            try {
+                step.run();
+                return interrupted;
+            } catch (final InterruptedException e) {
+                interrupted = true;
+            }
+        }
+    }
+
+    private interface BlockingStep {
+        void run() throws InterruptedException;
+    }
+}
@@ -0,0 +1,148 @@
+package rars.timing;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import rars.branch.BranchPredictorConfiguration;
+import rars.branch.BranchPredictorType;
+import rars.cache.CacheHierarchyConfiguration;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Parameters of the {@link PipelineModel}. Latencies are in cycles.
+ * <p>
+ * The textual form of the latencies, accepted by
+ * {@link #withLatencies(String)}, is a comma separated list of
+ * {@code name=cycles} pairs, e.g. {@code mul=4,div=32,memory=100}. The names
+ * are {@code mul}, {@code div}, {@code fp}, {@code fpdiv},
+ * {@code branch-penalty}, {@code jump-penalty}, {@code l1} to {@code l4} (hit
+ * latency of each cache level) and {@code memory}.
+ *
+ * @param mulLatency
+ *     latency of the pipelined multiplier
+ * @param divLatency
+ *     latency of the divider, which is not pipelined
+ * @param fpLatency
+ *     latency of the pipelined floating-point unit
+ * @param fpDivLatency
+ *     latency of floating-point divisions and square roots, which are not
+ *     pipelined
+ * @param branchPenalty
+ *     cycles lost on a mispredicted branch or indirect jump, resolved in EX
+ * @param jumpPenalty
+ *     cycles lost on a direct jump the predictor does not predict, resolved
+ *     in ID
+ * @param levelLatencies
+ *     hit latency of each cache level
+ * @param memoryLatency
+ *     latency of an access missing every cache level
+ * @param predictor
+ *     the branch predictor
+ * @param cache
+ *     the data cache hierarchy, or {@code null} if every access takes
+ *     the L1 latency
+ */
+public record PipelineConfiguration(
+    int mulLatency,
+    int divLatency,
+    int fpLatency,
+    int fpDivLatency,
+    int branchPenalty,
+    int jumpPenalty,
+    int @NotNull [] levelLatencies,
+    int memoryLatency,
+    @NotNull BranchPredictorConfiguration predictor,
+    @Nullable CacheHierarchyConfiguration cache
+) {
+    public static final @NotNull PipelineConfiguration DEFAULT = new PipelineConfiguration(
+        3,
+        20,
+        4,
+        20,
+        2,
+        1,
+        new int[]{1, 10, 30, 50},
+        100,
+        new BranchPredictorConfiguration(BranchPredictorType.NOT_TAKEN, 0, 0, 0),
+        null
+    );
+
+    public PipelineConfiguration {
+        levelLatencies = levelLatencies.clone();
+        final var latencies = new int[]{mulLatency, divLatency, fpLatency, fpDivLatency, memoryLatency};
+        if (Arrays.stream(latencies).anyMatch(latency -> latency < 1)
+            || Arrays.stream(levelLatencies).anyMatch(latency -> latency < 1)) {
+            throw new IllegalArgumentException("Latencies must be at least one cycle.");
+        }
+        if (branchPenalty < 0 || jumpPenalty < 0) {
+            throw new IllegalArgumentException("Penalties cannot be negative.");
+        }
+    }
+
+    /** @return the hit latency of cache level {@code level}, counted from 0 */
+    public int levelLatency(final int level) {
+        return this.levelLatencies[Math.min(level, this.levelLatencies.length - 1)];
+    }
+
+    /**
+     * Parses latencies in the format described in the class documentation.
+     *
+     * @return a copy of this configuration with the given latencies replaced
+     * @throws IllegalArgumentException
+     *     if the text is not valid
+     */
+    public @NotNull PipelineConfiguration withLatencies(final @NotNull String text) {
+        var mul = this.mulLatency;
+        var div = this.divLatency;
+        var fp = this.fpLatency;
+        var fpDiv = this.fpDivLatency;
+        var branch = this.branchPenalty;
+        var jump = this.jumpPenalty;
+        final var levels = this.levelLatencies.clone();
+        var memory = this.memoryLatency;
+        for (final var pair : text.trim().toLowerCase(Locale.ROOT).split(",")) {
+            final var parts = pair.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected name=cycles, but got \"" + pair + "\".");
+            }
+            final int value;
+            try {
+                value = Integer.parseInt(parts[1].trim());
+            } catch (final NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid number of cycles \"" + parts[1] + "\".", e);
+            }
+            switch (parts[0].trim()) {
+                case "mul" -> mul = value;
+                case "div" -> div = value;
+                case "fp" -> fp = value;
+                case "fpdiv" -> fpDiv = value;
+                case "branch-penalty" -> branch = value;
+                case "jump-penalty" -> jump = value;
+                case "l1" -> levels[0] = value;
+                case "l2" -> levels[1] = value;
+                case "l3" -> levels[2] = value;
+                case "l4" -> levels[3] = value;
+                case "memory" -> memory = value;
+                default -> throw new IllegalArgumentException("Unknown latency \"" + parts[0] + "\".");
+            }
+        }
+        return new PipelineConfiguration(
+            mul, div, fp, fpDiv, branch, jump, levels, memory, this.predictor, this.cache
+        );
+    }
+
+    public @NotNull PipelineConfiguration withPredictor(final @NotNull BranchPredictorConfiguration predictor) {
+        return new PipelineConfiguration(
+            this.mulLatency, this.divLatency, this.fpLatency, this.fpDivLatency, this.branchPenalty,
+            this.jumpPenalty, this.levelLatencies, this.memoryLatency, predictor, this.cache
+        );
+    }
+
+    public @NotNull PipelineConfiguration withCache(final @Nullable CacheHierarchyConfiguration cache) {
+        return new PipelineConfiguration(
+            this.mulLatency, this.divLatency, this.fpLatency, this.fpDivLatency, this.branchPenalty,
+            this.jumpPenalty, this.levelLatencies, this.memoryLatency, this.predictor, cache
+        );
+    }
+}
@@ -0,0 +1,296 @@
+package rars.timing;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import rars.branch.BranchPredictor;
+import rars.cache.CacheHierarchy;
+import rars.riscv.BasicInstruction;
+import rars.simulator.BranchKind;
+import rars.simulator.InstructionListener;
+
+import java.util.function.Consumer;
+
+/**
+ * Timing model of a classic in-order 5-stage pipeline (IF, ID, EX, MEM, WB)
+ * with full forwarding. It follows the executed instructions in program
+ * order, decoding them from their encoding, and tracks the cycle in which
+ * each one enters EX:
+ * <ul>
+ *     <li>a register is available to EX one cycle after its producer entered
+ *     EX, or after the latency of a multi-cycle unit, or after MEM for a
+ *     load, which gives the classic one cycle load-use stall,</li>
+ *     <li>the dividers are not pipelined, so they stall the next division
+ *     until they are free,</li>
+ *     <li>loads and stores take the hit latency of the cache level serving
+ *     them in MEM, stalling the whole pipeline (blocking caches),</li>
+ *     <li>mispredicted control transfers flush the instructions fetched
+ *     after them.</li>
+ * </ul>
+ * Every cycle is attributed to a {@link StallCause}, which gives the CPI
+ * breakdown.
+ * <p>
+ * It can be used as the {@link InstructionListener} of the simulator, in
+ * which case it also drives the {@code cycle} CSR, or fed batches from
+ * another thread through an {@link InstructionStream}.
+ */
+public final class PipelineModel implements InstructionListener, Consumer<InstructionBatch> {
+    /// Index of `f0` in the scoreboard, the integer registers come first.
+    private static final int FP = 32;
+    private static final int NONE = -1;
+    /// Stages before EX (IF, ID) and after it (MEM, WB).
+    private static final int STAGES_BEFORE_EXECUTE = 2;
+    private static final int STAGES_AFTER_EXECUTE = 2;
+
+    private static final int ALU = 0;
+    private static final int MUL = 1;
+    private static final int DIV = 2;
+    private static final int FP_OP = 3;
+    private static final int FP_DIV = 4;
+    private static final int LOAD = 5;
+    private static final int STORE = 6;
+    private static final int ATOMIC = 7;
+
+    public final @NotNull PipelineConfiguration configuration;
+    private final @NotNull BranchPredictor predictor;
+    private final @Nullable CacheHierarchy cache;
+
+    /// Cycle from which each register can be forwarded to EX.
+    private final long @NotNull [] readyCycles;
+    /// Whether each register was last written by a load.
+    private final boolean @NotNull [] loadedRegisters;
+    private final long @NotNull [] cycles;
+    private long instructions;
+    private long lastExecute;
+    private long dividerFree;
+    private long fpDividerFree;
+    private int pendingPenalty;
+    private @NotNull StallCause pendingCause;
+
+    public PipelineModel(final @NotNull PipelineConfiguration configuration) {
+        this.configuration = configuration;
+        this.predictor = configuration.predictor().create();
+        this.cache = configuration.cache() == null ? null : new CacheHierarchy(configuration.cache());
+        this.readyCycles = new long[2 * FP];
+        this.loadedRegisters = new boolean[2 * FP];
+        this.cycles = new long[StallCause.values().length];
+        this.instructions = 0;
+        this.lastExecute = STAGES_BEFORE_EXECUTE - 1;
+        this.dividerFree = 0;
+        this.fpDividerFree = 0;
+        this.pendingPenalty = 0;
+        this.pendingCause = StallCause.BRANCH_MISPREDICTION;
+    }
+
+    @Override
+    public void accept(final @NotNull InstructionBatch batch) {
+        for (var i = 0; i < batch.size(); i++) {
+            this.instructionExecuted(batch.pc(i), batch.binaryStatement(i), batch.nextPc(i), batch.dataAddress(i));
+        }
+    }
+
+    @Override
+    public void instructionExecuted(final int pc, final int binaryStatement, final int nextPc, final int dataAddress) {
+        if (this.instructions++ == 0) {
+            this.cycles[StallCause.PIPELINE_FILL.ordinal()] = STAGES_BEFORE_EXECUTE + STAGES_AFTER_EXECUTE;
+        }
+        this.cycles[StallCause.BASE.ordinal()]++;
+        var execute = this.lastExecute + 1;
+        if (this.pendingPenalty != 0) {
+            execute += this.stall(this.pendingCause, this.pendingPenalty);
+            this.pendingPenalty = 0;
+        }
+
+        final var unit = unit(binaryStatement);
+        if (unit == DIV && this.dividerFree > execute) {
+            execute += this.stall(StallCause.STRUCTURAL, this.dividerFree - execute);
+        } else if (unit == FP_DIV && this.fpDividerFree > execute) {
+            execute += this.stall(StallCause.STRUCTURAL, this.fpDividerFree - execute);
+        }
+        execute = this.waitFor(source1(binaryStatement), execute);
+        execute = this.waitFor(source2(binaryStatement), execute);
+        execute = this.waitFor(source3(binaryStatement), execute);
+
+        var memoryStall = 0L;
+        final long ready = switch (unit) {
+            case MUL -> execute + this.configuration.mulLatency();
+            case DIV -> this.dividerFree = execute + this.configuration.divLatency();
+            case FP_OP -> execute + this.configuration.fpLatency();
+            case FP_DIV -> this.fpDividerFree = execute + this.configuration.fpDivLatency();
+            case LOAD, STORE, ATOMIC -> {
+                final var latency = this.memoryLatency(binaryStatement, dataAddress, unit != LOAD);
+                memoryStall = this.stall(StallCause.MEMORY, latency - 1);
+                yield execute + 1 + latency;
+            }
+            default -> execute + 1;
+        };
+        final var destination = destination(binaryStatement);
+        if (destination != NONE) {
+            this.readyCycles[destination] = ready;
+            this.loadedRegisters[destination] = unit == LOAD || unit == ATOMIC;
+        }
+        this.lastExecute = execute + memoryStall;
+
+        final var kind = BranchKind.of(binaryStatement);
+        if (kind != null) {
+            this.resolveControlTransfer(pc, binaryStatement, nextPc, kind);
+        }
+    }
+
+    /** Delays the instruction entering EX until register {@code source} is available. */
+    private long waitFor(final int source, final long execute) {
+        if (source == NONE || this.readyCycles[source] <= execute) {
+            return execute;
+        }
+        final var cause = this.loadedRegisters[source] ? StallCause.LOAD_USE : StallCause.DATA_HAZARD;
+        return execute + this.stall(cause, this.readyCycles[source] - execute);
+    }
+
+    private long stall(final @NotNull StallCause cause, final long cycles) {
+        this.cycles[cause.ordinal()] += cycles;
+        return cycles;
+    }
+
+    private int memoryLatency(final int binaryStatement, final int address, final boolean write) {
+        if (this.cache == null) {
+            return this.configuration.levelLatency(0);
+        }
+        final var size = 1 << ((binaryStatement >>> 12) & 0x3);
+        final var level = this.cache.accessLevel(address, size, write);
+        return level == this.cache.getLevels().size()
+            ? this.configuration.memoryLatency()
+            : this.configuration.levelLatency(level);
+    }
+
+    /**
+     * Direct jumps are resolved in ID and the other control transfers in EX.
+     * A control transfer the predictor does not handle is predicted not
+     * taken. A conditional branch to the next instruction leads there either
+     * way, so the stream cannot tell whether it was taken: it is counted as
+     * not taken and never costs a penalty.
+     */
+    private void resolveControlTransfer(
+        final int pc,
+        final int binaryStatement,
+        final int nextPc,
+        final @NotNull BranchKind kind
+    ) {
+        final var direct = (binaryStatement & 0x7f) == 0x6f;
+        final var target = kind == BranchKind.CONDITIONAL ? pc + BranchKind.branchOffset(binaryStatement) : nextPc;
+        final var fallThrough = pc + BasicInstruction.BASIC_INSTRUCTION_LENGTH;
+        final var taken = kind != BranchKind.CONDITIONAL || nextPc != fallThrough;
+        final var correct = this.predictor.resolve(pc, target, taken, kind);
+        final var mispredicted = this.predictor.predicts(kind) ? !correct : taken;
+        if (!mispredicted || target == fallThrough) {
+            return;
+        }
+        if (direct) {
+            this.pendingPenalty = this.configuration.jumpPenalty();
+            this.pendingCause = StallCause.JUMP;
+        } else {
+            this.pendingPenalty = this.configuration.branchPenalty();
+            this.pendingCause = StallCause.BRANCH_MISPREDICTION;
+        }
+    }
+
+    // region Decoding
+
+    private static int unit(final int binaryStatement) {
+        return switch (binaryStatement & 0x7f) {
+            case 0x33, 0x3b -> {
+                if ((binaryStatement >>> 25) != 1) {
+                    yield ALU;
+                }
+                yield ((binaryStatement >>> 12) & 0x7) < 4 ? MUL : DIV;
+            }
+            case 0x03, 0x07 -> LOAD;
+            case 0x23, 0x27 -> STORE;
+            case 0x2f -> ATOMIC;
+            case 0x43, 0x47, 0x4b, 0x4f -> FP_OP;
+            case 0x53 -> switch (binaryStatement >>> 27) {
+                // fdiv, fsqrt
+                case 0x03, 0x0b -> FP_DIV;
+                default -> FP_OP;
+            };
+            default -> ALU;
+        };
+    }
+
+    private static int integerRegister(final int number) {
+        return number == 0 ? NONE : number;
+    }
+
+    private static int destination(final int binaryStatement) {
+        final var rd = (binaryStatement >>> 7) & 0x1f;
+        return switch (binaryStatement & 0x7f) {
+            case 0x03, 0x13, 0x17, 0x1b, 0x2f, 0x33, 0x37, 0x3b, 0x67, 0x6f, 0x73 -> integerRegister(rd);
+            case 0x07, 0x43, 0x47, 0x4b, 0x4f -> FP + rd;
+            case 0x53 -> switch (binaryStatement >>> 27) {
+                // comparisons, conversions to integer, fmv.x.w and fclass
+                case 0x14, 0x18, 0x1c -> integerRegister(rd);
+                default -> FP + rd;
+            };
+            default -> NONE;
+        };
+    }
+
+    private static int source1(final int binaryStatement) {
+        final var rs1 = (binaryStatement >>> 15) & 0x1f;
+        return switch (binaryStatement & 0x7f) {
+            case 0x03, 0x07, 0x13, 0x1b, 0x23, 0x27, 0x2f, 0x33, 0x3b, 0x63, 0x67 -> integerRegister(rs1);
+            // csrrw, csrrs and csrrc, the other CSR instructions take an immediate
+            case 0x73 -> {
+                final var funct3 = (binaryStatement >>> 12) & 0x7;
+                yield funct3 >= 1 && funct3 <= 3 ? integerRegister(rs1) : NONE;
+            }
+            case 0x43, 0x47, 0x4b, 0x4f -> FP + rs1;
+            case 0x53 -> switch (binaryStatement >>> 27) {
+                // conversions from integer and fmv.w.x
+                case 0x1a, 0x1e -> integerRegister(rs1);
+                default -> FP + rs1;
+            };
+            default -> NONE;
+        };
+    }
+
+    private static int source2(final int binaryStatement) {
+        final var rs2 = (binaryStatement >>> 20) & 0x1f;
+        return switch (binaryStatement & 0x7f) {
+            case 0x23, 0x2f, 0x33, 0x3b, 0x63 -> integerRegister(rs2);
+            case 0x27, 0x43, 0x47, 0x4b, 0x4f -> FP + rs2;
+            case 0x53 -> switch (binaryStatement >>> 27) {
+                // single operand instructions
+                case 0x08, 0x0b, 0x18, 0x1a, 0x1c, 0x1e -> NONE;
+                default -> FP + rs2;
+            };
+            default -> NONE;
+        };
+    }
+
+    private static int source3(final int binaryStatement) {
+        return switch (binaryStatement & 0x7f) {
+            case 0x43, 0x47, 0x4b, 0x4f -> FP + (binaryStatement >>> 27);
+            default -> NONE;
+        };
+    }
+
+    // endregion Decoding
+
+    /** @return the number of cycles so far, 0 if no instruction has been executed */
+    @Override
+    public long getCycle() {
+        return this.instructions == 0 ? 0 : this.lastExecute + 1 + STAGES_AFTER_EXECUTE;
+    }
+
+    public long getInstructions() {
+        return this.instructions;
+    }
+
+    /** @return the cycles attributed to the given cause */
+    public long getCycles(final @NotNull StallCause cause) {
+        return this.cycles[cause.ordinal()];
+    }
+
+    public double getCpi() {
+        return this.instructions == 0 ? 0 : (double) this.getCycle() / this.instructions;
+    }
+}
@@ -0,0 +1,66 @@
+package rars.timing;
+
+import org.jetbrains.annotations.NotNull;
+import rars.api.ReportFormat;
+
+import java.io.PrintStream;
+import java.util.Locale;
+
+/**
+ * Writes the results of a {@link PipelineModel} as CSV or JSON: the cycles
+ * attributed to each {@link StallCause} and their contribution to the CPI.
+ */
+public final class PipelineReport {
+    private static final @NotNull String CSV_HEADER = "category,cycles,cpi";
+
+    private PipelineReport() {
+    }
+
+    public static void write(
+        final @NotNull PrintStream out,
+        final @NotNull ReportFormat format,
+        final @NotNull PipelineModel model
+    ) {
+        switch (format) {
+            case CSV -> writeCsv(out, model);
+            case JSON -> writeJson(out, model);
+        }
+        out.flush();
+    }
+
+    private static double cpi(final @NotNull PipelineModel model, final long cycles) {
+        return model.getInstructions() == 0 ? 0 : (double) cycles / model.getInstructions();
+    }
+
+    /** One row per cause, then the total. */
+    private static void writeCsv(final @NotNull PrintStream out, final @NotNull PipelineModel model) {
+        out.println(CSV_HEADER);
+        for (final var cause : StallCause.values()) {
+            final var cycles = model.getCycles(cause);
+            out.printf(Locale.ROOT, "%s,%d,%.6f%n", cause, cycles, cpi(model, cycles));
+        }
+        out.printf(Locale.ROOT, "total,%d,%.6f%n", model.getCycle(), model.getCpi());
+    }
+
+    private static void writeJson(final @NotNull PrintStream out, final @NotNull PipelineModel model) {
+        out.println("{");
+        out.printf(Locale.ROOT, "  \"instructions\": %d,%n", model.getInstructions());
+        out.printf(Locale.ROOT, "  \"cycles\": %d,%n", model.getCycle());
+        out.printf(Locale.ROOT, "  \"cpi\": %.6f,%n", model.getCpi());
+        out.println("  \"breakdown\": [");
+        final var causes = StallCause.values();
+        for (var i = 0; i < causes.length; i++) {
+            final var cycles = model.getCycles(causes[i]);
+            out.printf(
+                Locale.ROOT,
+                "    {\"category\": \"%s\", \"cycles\": %d, \"cpi\": %.6f}%s%n",
+                causes[i],
+                cycles,
+                cpi(model, cycles),
+                i + 1 < causes.length ? "," : ""
+            );
+        }
+        out.println("  ]");
+        out.println("}");
+    }
+}
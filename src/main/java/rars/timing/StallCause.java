@@ -0,0 +1,28 @@
+package rars.timing;
+
+import org.jetbrains.annotations.NotNull;
+
+/** The categories of the cycles counted by the {@link PipelineModel}. */
+public enum StallCause {
+    /** One cycle per instruction. */
+    BASE,
+    /** Cycles filling and draining the pipeline. */
+    PIPELINE_FILL,
+    /** Waiting for the result of a multi-cycle operation. */
+    DATA_HAZARD,
+    /** Waiting for the result of the previous load. */
+    LOAD_USE,
+    /** Waiting for a non-pipelined unit to become free. */
+    STRUCTURAL,
+    /** Flushed after a mispredicted branch or indirect jump. */
+    BRANCH_MISPREDICTION,
+    /** Bubble after a direct jump. */
+    JUMP,
+    /** Waiting for a load or store missing the L1 cache. */
+    MEMORY;
+
+    @Override
+    public @NotNull String toString() {
+        return name().toLowerCase();
+    }
+}
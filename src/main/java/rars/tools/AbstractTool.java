@@ -5,6 +5,8 @@ import org.jetbrains.annotations.Nullable;
 import rars.Globals;
 import rars.exceptions.AddressErrorException;
 import rars.notices.AccessNotice;
+import rars.notices.MemoryAccessBatch;
+import rars.notices.MemoryAccessBus;
 import rars.riscv.hardware.registers.Register;
 import rars.venus.VenusUI;
 
@@ -14,6 +16,11 @@ import javax.swing.border.TitledBorder;
 import java.awt.*;
 import java.awt.event.*;
 import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
 /*
@@ -64,6 +71,18 @@ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
  */
 
 public abstract class AbstractTool extends JFrame {
+    /// Minimum time between two display updates of a tool that observes memory in batches.
+    private static final long FRAME_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(16);
+    /// How long the batch thread waits before polling the accesses of a batched observer again.
+    private static final long IDLE_POLL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+    /// The thread all batched observers process their accesses on.
+    private static final @NotNull ScheduledExecutorService BATCH_THREAD =
+        Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final var thread = new Thread(runnable, "Tool observer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
     protected final @NotNull VenusUI mainUI;
     private final String title; // descriptive title for title bar provided to constructor.
     private final String heading; // Text to be displayed in the top portion of the main window.
@@ -82,6 +101,12 @@ public abstract class AbstractTool extends JFrame {
     // For app, is set true when "Assemble and Run" clicked, false when program
     // terminates.
     private volatile boolean observing = false;
+    private volatile @Nullable MemoryAccessBus.Subscription batchedSubscription = null;
+    private @Nullable ScheduledFuture<?> batchDrain = null;
+    private final @NotNull AtomicBoolean displayUpdatePending = new AtomicBoolean(false);
+    // only touched on the batch thread
+    private long lastDisplayUpdate = 0;
+    private boolean hasUndisplayedAccesses = false;
 
     /**
      * Simple constructor
@@ -318,13 +343,113 @@ public abstract class AbstractTool extends JFrame {
      */
     protected void addAsObserver(final int lowEnd, final int highEnd) {
         try {
-            Globals.MEMORY_INSTANCE.subscribe(this::processAccessNotice, lowEnd, highEnd);
+            Globals.MEMORY_INSTANCE.subscribe(this.callback, lowEnd, highEnd);
         } catch (final AddressErrorException aee) {
             final String errorMessage = "Error connecting to memory";
             this.headingLabel.setText(errorMessage);
         }
     }
 
+    /**
+     * Add this app/tool as a batched observer of the specified subrange of
+     * memory. Instead of being called on the simulator thread for every access,
+     * {@link #processRISCVUpdates(MemoryAccessBatch)} is called with batches of
+     * accesses on a thread shared by all batched observers, and
+     * {@link #updateDisplay()} is called on the event dispatch thread at most
+     * once per frame. This keeps a tool that only gathers statistics from
+     * slowing the simulation down, but it must not be used by tools that have
+     * to react to an access before the next instruction runs (e.g. MMIO
+     * devices).
+     * <p>
+     * As {@link #updateDisplay()} runs while the next batch is processed, it
+     * must only read what {@link #snapshotForDisplay()} publishes, and the
+     * state gathered from the batches must only be changed through
+     * {@link #runOnBatchThread(Runnable)}, e.g. by {@link #reset()}.
+     * Like the other variants, it is undone by {@link #deleteAsSubscriber()}.
+     *
+     * @param lowEnd
+     *     low end of memory address range.
+     * @param highEnd
+     *     high end of memory address range; must be >= lowEnd
+     */
+    protected void addAsBatchedObserver(final int lowEnd, final int highEnd) {
+        final var subscription = Globals.MEMORY_INSTANCE.getAccessBus().subscribe(lowEnd, highEnd);
+        final var batch = new MemoryAccessBatch(MemoryAccessBatch.DEFAULT_CAPACITY);
+        this.batchedSubscription = subscription;
+        this.batchDrain = AbstractTool.BATCH_THREAD.scheduleWithFixedDelay(
+            () -> this.drainAccesses(subscription, batch, false),
+            0,
+            AbstractTool.IDLE_POLL_INTERVAL_NANOS,
+            TimeUnit.NANOSECONDS
+        );
+    }
+
+    /**
+     * Processes the accesses published so far, on the batch thread. The
+     * display is updated if a frame has passed since its last update, or
+     * always if {@code isLast}.
+     */
+    private void drainAccesses(
+        final @NotNull MemoryAccessBus.Subscription subscription,
+        final @NotNull MemoryAccessBatch batch,
+        final boolean isLast
+    ) {
+        int count;
+        do {
+            count = subscription.poll(batch);
+            if (count > 0) {
+                this.processRISCVUpdates(batch);
+                this.hasUndisplayedAccesses = true;
+            }
+            final var now = System.nanoTime();
+            final var isFrameOver = now - this.lastDisplayUpdate >= AbstractTool.FRAME_INTERVAL_NANOS;
+            if (this.hasUndisplayedAccesses && (isLast || isFrameOver)) {
+                this.lastDisplayUpdate = now;
+                this.hasUndisplayedAccesses = false;
+                this.snapshotForDisplay();
+                this.requestDisplayUpdate();
+            }
+            // a partial batch means the accesses are all processed; the other tools get their turn
+        } while (count == batch.capacity());
+    }
+
+    /**
+     * Runs an action on the thread that processes the accesses of batched
+     * observers, between two batches, and then updates the display. Use it to
+     * change the state that {@link #processRISCVUpdates(MemoryAccessBatch)}
+     * gathers, e.g. to reset counters.
+     *
+     * @param action
+     *     the change to make
+     */
+    protected final void runOnBatchThread(final @NotNull Runnable action) {
+        AbstractTool.BATCH_THREAD.execute(() -> {
+            action.run();
+            this.snapshotForDisplay();
+            this.requestDisplayUpdate();
+        });
+    }
+
+    /**
+     * Called on the thread that processes the accesses of a batched observer,
+     * before {@link #updateDisplay()} is scheduled on the event dispatch
+     * thread. A tool registered with {@link #addAsBatchedObserver(int, int)}
+     * copies what it displays here, e.g. to a volatile field that
+     * {@link #updateDisplay()} reads. Does nothing by default.
+     */
+    protected void snapshotForDisplay() {
+    }
+
+    /** Schedules a call to {@link #updateDisplay()}, unless one is already pending. */
+    private void requestDisplayUpdate() {
+        if (this.displayUpdatePending.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(() -> {
+                this.displayUpdatePending.set(false);
+                this.updateDisplay();
+            });
+        }
+    }
+
     protected void processAccessNotice(final @NotNull AccessNotice notice) {
         if (notice.isAccessFromRISCV) {
             this.processRISCVUpdate(notice);
@@ -356,6 +481,17 @@ public abstract class AbstractTool extends JFrame {
      */
     protected void deleteAsSubscriber() {
         Globals.MEMORY_INSTANCE.deleteSubscriber(callback);
+        final var subscription = this.batchedSubscription;
+        final var drain = this.batchDrain;
+        if (subscription != null && drain != null) {
+            Globals.MEMORY_INSTANCE.getAccessBus().unsubscribe(subscription);
+            this.batchedSubscription = null;
+            drain.cancel(false);
+            this.batchDrain = null;
+            // deliver whatever was published before the subscription was closed
+            final var batch = new MemoryAccessBatch(MemoryAccessBatch.DEFAULT_CAPACITY);
+            AbstractTool.BATCH_THREAD.execute(() -> this.drainAccesses(subscription, batch, true));
+        }
     }
 
     /**
@@ -414,6 +550,23 @@ public abstract class AbstractTool extends JFrame {
     protected void processRISCVUpdate(final AccessNotice notice) {
     }
 
+    /**
+     * Called instead of {@link #processRISCVUpdate(AccessNotice)} for a tool
+     * registered with {@link #addAsBatchedObserver(int, int)}. It runs on the
+     * thread that drains the accesses, not on the event dispatch thread. By
+     * default it passes each access to
+     * {@link #processRISCVUpdate(AccessNotice)}; override it to process the
+     * primitive records without creating notices.
+     *
+     * @param batch
+     *     the accesses made since the previous call, in order
+     */
+    protected void processRISCVUpdates(final @NotNull MemoryAccessBatch batch) {
+        for (var i = 0; i < batch.size(); i++) {
+            this.processRISCVUpdate(batch.toNotice(i));
+        }
+    }
+
     // PRIVATE HELPER METHODS 
 
     /**
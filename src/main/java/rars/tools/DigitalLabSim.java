@@ -5,8 +5,7 @@ import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.NotNull;
 import rars.Globals;
 import rars.exceptions.AddressErrorException;
-import rars.notices.AccessNotice;
-import rars.notices.MemoryAccessNotice;
+import rars.riscv.hardware.MemoryMappedDevice;
 import rars.util.BinaryUtils;
 import rars.venus.VenusUI;
 
@@ -26,18 +25,24 @@ public final class DigitalLabSim extends AbstractTool {
     private static final Logger LOGGER = LogManager.getLogger(DigitalLabSim.class);
     private static final String heading = "Digital Lab Sim";
     private static final String version = " Version 1.0 (Didier Teifreto)";
-    // Counter
+    // Counter: raises a timer interrupt every CounterValueMax + 1 instructions
     private static final int CounterValueMax = 30;
+    private static final Runnable COUNTER_TICK = DigitalLabSim::counterTick;
     // GUI Interface.
     private static JPanel panelTools;
     // Keyboard
     private static int KeyBoardValueButtonClick = -1; // -1 no button click
     private static boolean KeyboardInterruptOnOff = false;
-    private static int CounterValue = DigitalLabSim.CounterValueMax;
     private static boolean CounterInterruptOnOff = false;
     // Used to be static final variables now they are regenerated per instance
     private final int IN_ADRESS_DISPLAY_1, IN_ADRESS_DISPLAY_2, IN_ADRESS_HEXA_KEYBOARD, IN_ADRESS_COUNTER,
         OUT_ADRESS_HEXA_KEYBOARD;
+    private final @NotNull MemoryMappedDevice device = new MemoryMappedDevice() {
+        @Override
+        public void write(final int address, final int length, final int value) {
+            DigitalLabSim.this.deviceWritten(address, (char) value);
+        }
+    };
     // Seven Segment display
     private SevenSegmentPanel sevenSegPanel;
     private HexaKeyboard hexaKeyPanel;
@@ -58,17 +63,27 @@ public final class DigitalLabSim extends AbstractTool {
     }
 
     public static void updateOneSecondCounter(final char value) {
-        if (value != 0) {
-            DigitalLabSim.CounterInterruptOnOff = true;
-            DigitalLabSim.CounterValue = DigitalLabSim.CounterValueMax;
-        } else {
-            DigitalLabSim.CounterInterruptOnOff = false;
+        final var scheduler = Globals.DEVICE_BUS.getScheduler();
+        scheduler.cancel(DigitalLabSim.COUNTER_TICK);
+        DigitalLabSim.CounterInterruptOnOff = value != 0;
+        if (DigitalLabSim.CounterInterruptOnOff) {
+            scheduler.scheduleAfter(DigitalLabSim.CounterValueMax + 1, DigitalLabSim.COUNTER_TICK);
         }
     }
 
     public static void resetOneSecondCounter() {
         DigitalLabSim.CounterInterruptOnOff = false;
-        DigitalLabSim.CounterValue = DigitalLabSim.CounterValueMax;
+        Globals.DEVICE_BUS.getScheduler().cancel(DigitalLabSim.COUNTER_TICK);
+    }
+
+    private static void counterTick() {
+        if (DigitalLabSim.CounterInterruptOnOff) {
+            Globals.INTERRUPT_CONTROLLER.registerTimerInterrupt(DigitalLabSim.EXTERNAL_INTERRUPT_TIMER);
+            Globals.DEVICE_BUS.getScheduler().scheduleAfter(
+                DigitalLabSim.CounterValueMax + 1,
+                DigitalLabSim.COUNTER_TICK
+            );
+        }
     }
 
     @Override
@@ -78,16 +93,23 @@ public final class DigitalLabSim extends AbstractTool {
 
     @Override
     protected void addAsObserver() {
-        final var memoryConfiguration = Globals.MEMORY_INSTANCE.getMemoryConfiguration();
-        this.addAsObserver(this.IN_ADRESS_DISPLAY_1, this.IN_ADRESS_DISPLAY_1);
-        this.addAsObserver(memoryConfiguration.textBaseAddress, memoryConfiguration.textLimitAddress);
+        // the displays, the keyboard and the counter all live in the word at IN_ADRESS_DISPLAY_1,
+        // and the counter counts instructions on the device bus, so no fetches need to be observed
+        try {
+            Globals.DEVICE_BUS.attach(this.device, this.IN_ADRESS_DISPLAY_1, this.IN_ADRESS_DISPLAY_1);
+        } catch (final AddressErrorException aee) {
+            DigitalLabSim.LOGGER.error("Error connecting the digital lab to the device bus", aee);
+        }
     }
 
     @Override
-    public void processAccessNotice(final @NotNull AccessNotice notice) {
-        final var memNotice = (MemoryAccessNotice) notice;
-        final int address = memNotice.address;
-        final char value = (char) memNotice.value;
+    protected void deleteAsSubscriber() {
+        Globals.DEVICE_BUS.detach(this.device);
+        resetOneSecondCounter();
+        super.deleteAsSubscriber();
+    }
+
+    private void deviceWritten(final int address, final char value) {
         if (address == this.IN_ADRESS_DISPLAY_1) {
             this.updateSevenSegment(1, value);
         } else if (address == this.IN_ADRESS_DISPLAY_2) {
@@ -97,14 +119,6 @@ public final class DigitalLabSim extends AbstractTool {
         } else if (address == this.IN_ADRESS_COUNTER) {
             DigitalLabSim.updateOneSecondCounter(value);
         }
-        if (DigitalLabSim.CounterInterruptOnOff) {
-            if (DigitalLabSim.CounterValue > 0) {
-                DigitalLabSim.CounterValue--;
-            } else {
-                DigitalLabSim.CounterValue = DigitalLabSim.CounterValueMax;
-                Globals.INTERRUPT_CONTROLLER.registerTimerInterrupt(DigitalLabSim.EXTERNAL_INTERRUPT_TIMER);
-            }
-        }
     }
 
     /**
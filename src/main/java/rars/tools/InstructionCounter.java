@@ -29,6 +29,7 @@ package rars.tools;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import rars.Globals;
 import rars.ProgramStatement;
 import rars.exceptions.AddressErrorException;
@@ -101,6 +102,13 @@ public final class InstructionCounter extends AbstractTool {
      */
     private int lastAddress = -1;
 
+    /**
+     * The counters as last shown. The counters above are only changed on the
+     * thread that processes the accesses, which copies them here for
+     * {@link #updateDisplay()}.
+     */
+    private volatile @NotNull Counts shownCounts = new Counts(0, 0, 0, 0, 0, 0, 0, 0);
+
     /**
      * Simple construction, likely used by the RARS Tools menu mechanism.
      */
@@ -113,6 +121,17 @@ public final class InstructionCounter extends AbstractTool {
         return InstructionCounter.name;
     }
 
+    /**
+     * @return the format of the instruction held by a statement, or
+     * {@code null} if its word is not an instruction, e.g. data in the text
+     * segment of a loaded ELF executable
+     */
+    public static @Nullable BasicInstructionFormat getInstructionFormat(final @NotNull ProgramStatement statement) {
+        return statement.getInstruction() instanceof final BasicInstruction instruction
+            ? instruction.getInstructionFormat()
+            : null;
+    }
+
     @Override
     protected JComponent buildMainDisplayArea() {
         // Create everything
@@ -251,7 +270,7 @@ public final class InstructionCounter extends AbstractTool {
     @Override
     protected void addAsObserver() {
         final var memoryConfiguration = Globals.MEMORY_INSTANCE.getMemoryConfiguration();
-        this.addAsObserver(memoryConfiguration.textBaseAddress, memoryConfiguration.textLimitAddress);
+        this.addAsBatchedObserver(memoryConfiguration.textBaseAddress, memoryConfiguration.textLimitAddress);
     }
 
     @Override
@@ -270,13 +289,16 @@ public final class InstructionCounter extends AbstractTool {
         this.lastAddress = a;
         this.counter++;
         try {
-            final ProgramStatement stmt = Globals.MEMORY_INSTANCE.getStatement(a);
+            final ProgramStatement stmt = Globals.MEMORY_INSTANCE.getStatementNoNotify(a);
 
             // If the program is finished, getStatement() will return null,
             // a null statement will cause the simulator to stall.
             if (stmt != null) {
-                final BasicInstruction instr = (BasicInstruction) stmt.getInstruction();
-                final BasicInstructionFormat format = instr.getInstructionFormat();
+                final BasicInstructionFormat format = InstructionCounter.getInstructionFormat(stmt);
+                // a word that is no instruction traps instead of executing
+                if (format == null) {
+                    return;
+                }
                 switch (format) {
                     case R_FORMAT -> this.counterR++;
                     case R4_FORMAT -> this.counterR4++;
@@ -292,55 +314,65 @@ public final class InstructionCounter extends AbstractTool {
 
             InstructionCounter.LOGGER.error("Error in InstructionCounter", e);
         }
-        this.updateDisplay();
     }
 
     @Override
     protected void initializePreGUI() {
         this.counter = this.counterR = this.counterR4 = this.counterI = this.counterS = this.counterB = this.counterU = this.counterJ = 0;
         this.lastAddress = -1;
+        this.snapshotForDisplay();
     }
 
     @Override
     protected void reset() {
-        this.counter = this.counterR = this.counterR4 = this.counterI = this.counterS = this.counterB = this.counterU = this.counterJ = 0;
-        this.lastAddress = -1;
-        this.updateDisplay();
+        this.runOnBatchThread(() -> {
+            this.counter = this.counterR = this.counterR4 = this.counterI = this.counterS = this.counterB = this.counterU = this.counterJ = 0;
+            this.lastAddress = -1;
+        });
+    }
+
+    @Override
+    protected void snapshotForDisplay() {
+        this.shownCounts = new Counts(
+            this.counter, this.counterR, this.counterR4, this.counterI, this.counterS, this.counterB, this.counterU,
+            this.counterJ
+        );
     }
 
     @Override
     protected void updateDisplay() {
-        this.counterField.setText(String.valueOf(this.counter));
+        final Counts counts = this.shownCounts;
+        this.counterField.setText(String.valueOf(counts.total()));
 
-        this.counterRField.setText(String.valueOf(this.counterR));
-        this.progressbarR.setMaximum(this.counter);
-        this.progressbarR.setValue(this.counterR);
+        this.counterRField.setText(String.valueOf(counts.r()));
+        this.progressbarR.setMaximum(counts.total());
+        this.progressbarR.setValue(counts.r());
 
-        this.counterR4Field.setText(String.valueOf(this.counterR4));
-        this.progressbarR4.setMaximum(this.counter);
-        this.progressbarR4.setValue(this.counterR4);
+        this.counterR4Field.setText(String.valueOf(counts.r4()));
+        this.progressbarR4.setMaximum(counts.total());
+        this.progressbarR4.setValue(counts.r4());
 
-        this.counterIField.setText(String.valueOf(this.counterI));
-        this.progressbarI.setMaximum(this.counter);
-        this.progressbarI.setValue(this.counterI);
+        this.counterIField.setText(String.valueOf(counts.i()));
+        this.progressbarI.setMaximum(counts.total());
+        this.progressbarI.setValue(counts.i());
 
-        this.counterSField.setText(String.valueOf(this.counterS));
-        this.progressbarS.setMaximum(this.counter);
-        this.progressbarS.setValue(this.counterS);
+        this.counterSField.setText(String.valueOf(counts.s()));
+        this.progressbarS.setMaximum(counts.total());
+        this.progressbarS.setValue(counts.s());
 
-        this.counterBField.setText(String.valueOf(this.counterB));
-        this.progressbarB.setMaximum(this.counter);
-        this.progressbarB.setValue(this.counterB);
+        this.counterBField.setText(String.valueOf(counts.b()));
+        this.progressbarB.setMaximum(counts.total());
+        this.progressbarB.setValue(counts.b());
 
-        this.counterUField.setText(String.valueOf(this.counterU));
-        this.progressbarU.setMaximum(this.counter);
-        this.progressbarU.setValue(this.counterU);
+        this.counterUField.setText(String.valueOf(counts.u()));
+        this.progressbarU.setMaximum(counts.total());
+        this.progressbarU.setValue(counts.u());
 
-        this.counterJField.setText(String.valueOf(this.counterJ));
-        this.progressbarJ.setMaximum(this.counter);
-        this.progressbarJ.setValue(this.counterJ);
+        this.counterJField.setText(String.valueOf(counts.j()));
+        this.progressbarJ.setMaximum(counts.total());
+        this.progressbarJ.setValue(counts.j());
 
-        if (this.counter == 0) {
+        if (counts.total() == 0) {
             this.progressbarR.setString("0%");
             this.progressbarR4.setString("0%");
             this.progressbarI.setString("0%");
@@ -349,13 +381,17 @@ public final class InstructionCounter extends AbstractTool {
             this.progressbarU.setString("0%");
             this.progressbarJ.setString("0%");
         } else {
-            this.progressbarR.setString((this.counterR * 100) / this.counter + "%");
-            this.progressbarR4.setString((this.counterR4 * 100) / this.counter + "%");
-            this.progressbarI.setString((this.counterI * 100) / this.counter + "%");
-            this.progressbarS.setString((this.counterS * 100) / this.counter + "%");
-            this.progressbarB.setString((this.counterB * 100) / this.counter + "%");
-            this.progressbarU.setString((this.counterU * 100) / this.counter + "%");
-            this.progressbarJ.setString((this.counterJ * 100) / this.counter + "%");
+            this.progressbarR.setString((counts.r() * 100) / counts.total() + "%");
+            this.progressbarR4.setString((counts.r4() * 100) / counts.total() + "%");
+            this.progressbarI.setString((counts.i() * 100) / counts.total() + "%");
+            this.progressbarS.setString((counts.s() * 100) / counts.total() + "%");
+            this.progressbarB.setString((counts.b() * 100) / counts.total() + "%");
+            this.progressbarU.setString((counts.u() * 100) / counts.total() + "%");
+            this.progressbarJ.setString((counts.j() * 100) / counts.total() + "%");
         }
     }
+
+    /** Counts of executed instructions, in total and by format. */
+    private record Counts(int total, int r, int r4, int i, int s, int b, int u, int j) {
+    }
 }
@@ -75,7 +75,7 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 
-import static rars.Globals.FONT_SETTINGS;
+import static rars.settings.GuiSettings.FONT_SETTINGS;
 
 /**
  * Instruction/memory dump tool. Dumps every instruction run and every memory
@@ -95,6 +95,12 @@ public final class InstructionStatistics extends AbstractTool {
      * constant for any other instruction category
      */
     private static final int CATEGORY_OTHER = 4;
+
+    /**
+     * category of a statement whose word is not an instruction, which is not counted
+     */
+    public static final int CATEGORY_NONE = -1;
+
     /**
      * array of counter variables - one for each instruction category
      */
@@ -130,6 +136,13 @@ public final class InstructionStatistics extends AbstractTool {
      */
     private int m_totalCounter = 0;
 
+    /**
+     * The counters as last shown. The counters above are only changed on the
+     * thread that processes the accesses, which copies them here for
+     * {@link #updateDisplay()}.
+     */
+    private volatile @NotNull Counts m_shownCounts = new Counts(0, new int[InstructionStatistics.MAX_CATEGORY]);
+
     /**
      * Simple construction, likely used by the RARS Tools menu mechanism.
      */
@@ -188,6 +201,22 @@ public final class InstructionStatistics extends AbstractTool {
         return InstructionStatistics.CATEGORY_OTHER;
     }
 
+    /**
+     * determines the category of the instruction held by a statement.
+     *
+     * @param statement
+     *     the statement to decode
+     * @return the category of its instruction, or {@link #CATEGORY_NONE} if
+     * its word is not an instruction, e.g. data in the text segment of a
+     * loaded ELF executable
+     */
+    public static int getStatementCategory(final @NotNull ProgramStatement statement) {
+        final Instruction instruction = statement.getInstruction();
+        return instruction == null
+            ? InstructionStatistics.CATEGORY_NONE
+            : InstructionStatistics.getInstructionCategory(instruction);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -255,7 +284,7 @@ public final class InstructionStatistics extends AbstractTool {
     @Override
     protected void addAsObserver() {
         final var memoryConfiguration = Globals.MEMORY_INSTANCE.getMemoryConfiguration();
-        this.addAsObserver(memoryConfiguration.textBaseAddress, memoryConfiguration.textLimitAddress);
+        this.addAsBatchedObserver(memoryConfiguration.textBaseAddress, memoryConfiguration.textLimitAddress);
     }
 
     /**
@@ -298,11 +327,14 @@ public final class InstructionStatistics extends AbstractTool {
                 // (e.g., if the simulator tries to execute the next instruction after the last
                 // instruction in the text segment)
                 if (stmt != null) {
-                    final int category = InstructionStatistics.getInstructionCategory(stmt.getInstruction());
+                    final int category = InstructionStatistics.getStatementCategory(stmt);
+                    // a word that is no instruction traps instead of executing
+                    if (category == InstructionStatistics.CATEGORY_NONE) {
+                        return;
+                    }
 
                     this.m_totalCounter++;
                     this.m_counters[category]++;
-                    this.updateDisplay();
                 }
             } catch (final AddressErrorException e) {
                 // silently ignore these exceptions
@@ -318,6 +350,7 @@ public final class InstructionStatistics extends AbstractTool {
         this.m_totalCounter = 0;
         this.lastAddress = -1; // from Felipe Lessa's instruction counter tool
         Arrays.fill(this.m_counters, 0);
+        this.snapshotForDisplay();
     }
 
     /**
@@ -325,10 +358,19 @@ public final class InstructionStatistics extends AbstractTool {
      */
     @Override
     protected void reset() {
-        this.m_totalCounter = 0;
-        this.lastAddress = -1; // from Felipe Lessa's instruction counter tool
-        Arrays.fill(this.m_counters, 0);
-        this.updateDisplay();
+        this.runOnBatchThread(() -> {
+            this.m_totalCounter = 0;
+            this.lastAddress = -1; // from Felipe Lessa's instruction counter tool
+            Arrays.fill(this.m_counters, 0);
+        });
+    }
+
+    /**
+     * copies the counter values for the display.
+     */
+    @Override
+    protected void snapshotForDisplay() {
+        this.m_shownCounts = new Counts(this.m_totalCounter, this.m_counters.clone());
     }
 
     /**
@@ -337,12 +379,19 @@ public final class InstructionStatistics extends AbstractTool {
      */
     @Override
     protected void updateDisplay() {
-        this.m_tfTotalCounter.setText(String.valueOf(this.m_totalCounter));
+        final Counts counts = this.m_shownCounts;
+        this.m_tfTotalCounter.setText(String.valueOf(counts.total()));
 
         for (int i = 0; i < InstructionStatistics.MAX_CATEGORY; i++) {
-            this.m_tfCounters[i].setText(String.valueOf(this.m_counters[i]));
-            this.m_pbCounters[i].setMaximum(this.m_totalCounter);
-            this.m_pbCounters[i].setValue(this.m_counters[i]);
+            this.m_tfCounters[i].setText(String.valueOf(counts.categories()[i]));
+            this.m_pbCounters[i].setMaximum(counts.total());
+            this.m_pbCounters[i].setValue(counts.categories()[i]);
         }
     }
+
+    /**
+     * counts of executed instructions, in total and by category.
+     */
+    private record Counts(int total, int @NotNull [] categories) {
+    }
 }
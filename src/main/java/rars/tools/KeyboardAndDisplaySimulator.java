@@ -6,8 +6,8 @@ import org.jetbrains.annotations.NotNull;
 import rars.Globals;
 import rars.assembler.DataTypes;
 import rars.exceptions.AddressErrorException;
-import rars.notices.AccessNotice;
-import rars.notices.MemoryAccessNotice;
+import rars.io.MmioConsole;
+import rars.riscv.hardware.MemoryMappedDevice;
 import rars.util.BinaryUtils;
 import rars.venus.VenusUI;
 
@@ -24,7 +24,7 @@ import java.awt.event.KeyListener;
 import java.util.Arrays;
 import java.util.Random;
 
-import static rars.Globals.FONT_SETTINGS;
+import static rars.settings.GuiSettings.FONT_SETTINGS;
 
 /*
 Copyright (c) 2003-2014,  Pete Sanderson and Kenneth Vollmar
@@ -96,8 +96,8 @@ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
  */
 public final class KeyboardAndDisplaySimulator extends AbstractTool {
     public static final Dimension preferredTextAreaDimension = new Dimension(400, 200);
-    public static final int EXTERNAL_INTERRUPT_KEYBOARD = 0x00000040;
-    public static final int EXTERNAL_INTERRUPT_DISPLAY = 0x00000080;
+    public static final int EXTERNAL_INTERRUPT_KEYBOARD = MmioConsole.EXTERNAL_INTERRUPT_KEYBOARD;
+    public static final int EXTERNAL_INTERRUPT_DISPLAY = MmioConsole.EXTERNAL_INTERRUPT_DISPLAY;
     private static final Logger LOGGER = LogManager.getLogger(KeyboardAndDisplaySimulator.class);
     private static final String version = "Version 1.4";
     private static final String heading = "Keyboard and Display MMIO Simulator";
@@ -121,11 +121,22 @@ public final class KeyboardAndDisplaySimulator extends AbstractTool {
         new NormallyDistributedDelay()
     };
     private final KeyboardAndDisplaySimulator simulator;
-    // These are used to track instruction counts to simulate driver delay of
-    // Transmitter Data
-    private boolean countingInstructions;
-    private int instructionCount;
+    // Driver delay of Transmitter Data, simulated by an event scheduled on the
+    // device bus this many instructions after the character is written
     private int transmitDelayInstructionCountLimit;
+    private final @NotNull Runnable transmitterReady = this::finishTransmission;
+    private final @NotNull MemoryMappedDevice device = new MemoryMappedDevice() {
+        @Override
+        public int read(final int address, final int length, final int storedValue) {
+            KeyboardAndDisplaySimulator.this.receiverDataRead(address);
+            return storedValue;
+        }
+
+        @Override
+        public void write(final int address, final int length, final int value) {
+            KeyboardAndDisplaySimulator.this.transmitterDataWritten(address, value);
+        }
+    };
     /**
      * Should the transmitted character be displayed before the transmitter delay period?
      * If not, hold onto it and print at the end of delay period.
@@ -249,21 +260,32 @@ public final class KeyboardAndDisplaySimulator extends AbstractTool {
             KeyboardAndDisplaySimulator.TRANSMITTER_CONTROL,
             KeyboardAndDisplaySimulator.readyBitSet(KeyboardAndDisplaySimulator.TRANSMITTER_CONTROL)
         );
-        // We want to be an observer only of reads from RECEIVER_DATA and writes to
-        // TRANSMITTER_DATA.
-        // Use the Globals.memory.addObserver() methods instead of inherited method to
-        // achieve this.
-        this.addAsObserver(KeyboardAndDisplaySimulator.RECEIVER_DATA, KeyboardAndDisplaySimulator.RECEIVER_DATA);
-        this.addAsObserver(KeyboardAndDisplaySimulator.TRANSMITTER_DATA, KeyboardAndDisplaySimulator.TRANSMITTER_DATA);
-        // We want to be notified of each instruction execution, because instruction
-        // count is the
-        // basis for delay in re-setting (literally) the TRANSMITTER_CONTROL register.
-        // SPIM does
-        // this too. This simulates the time required for the display unit to process
-        // the
-        // TRANSMITTER_DATA.
-        final var memoryConfiguration = Globals.MEMORY_INSTANCE.getMemoryConfiguration();
-        this.addAsObserver(memoryConfiguration.textBaseAddress, memoryConfiguration.textLimitAddress);
+        // We only care about reads from RECEIVER_DATA and writes to TRANSMITTER_DATA,
+        // so those two words are attached to the device bus. The time required for the
+        // display unit to process the TRANSMITTER_DATA is simulated by an event scheduled
+        // a number of instructions later (SPIM does this too), so there is no need to
+        // watch every instruction fetch.
+        try {
+            Globals.DEVICE_BUS.attach(
+                this.device,
+                KeyboardAndDisplaySimulator.RECEIVER_DATA,
+                KeyboardAndDisplaySimulator.RECEIVER_DATA
+            );
+            Globals.DEVICE_BUS.attach(
+                this.device,
+                KeyboardAndDisplaySimulator.TRANSMITTER_DATA,
+                KeyboardAndDisplaySimulator.TRANSMITTER_DATA
+            );
+        } catch (final AddressErrorException aee) {
+            KeyboardAndDisplaySimulator.LOGGER.error("Error connecting the keyboard and display to the bus", aee);
+        }
+    }
+
+    @Override
+    protected void deleteAsSubscriber() {
+        Globals.DEVICE_BUS.detach(this.device);
+        Globals.DEVICE_BUS.getScheduler().cancel(this.transmitterReady);
+        super.deleteAsSubscriber();
     }
 
     /**
@@ -294,66 +316,57 @@ public final class KeyboardAndDisplaySimulator extends AbstractTool {
         return keyboardAndDisplay;
     }
 
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    protected void processRISCVUpdate(final AccessNotice accessNotice) {
-        final MemoryAccessNotice notice = (MemoryAccessNotice) accessNotice;
-        // If the program has just read (loaded) the receiver (keyboard) data register,
-        // then clear the Ready bit to indicate there is no longer a keystroke
-        // available.
-        // If Ready bit was initially clear, they'll get the old keystroke -- serves 'em
-        // right
-        // for not checking!
-        if (notice.address == KeyboardAndDisplaySimulator.RECEIVER_DATA && notice.accessType == AccessNotice.AccessType.READ) {
+    // The program has just read (loaded) the receiver (keyboard) data register.
+    // Clear the Ready bit to indicate there is no longer a keystroke available.
+    // If Ready bit was initially clear, they'll get the old keystroke -- serves 'em
+    // right for not checking!
+    private void receiverDataRead(final int address) {
+        if (address == KeyboardAndDisplaySimulator.RECEIVER_DATA) {
             this.updateMMIOControl(
                 KeyboardAndDisplaySimulator.RECEIVER_CONTROL,
                 KeyboardAndDisplaySimulator.readyBitCleared(KeyboardAndDisplaySimulator.RECEIVER_CONTROL)
             );
         }
-        // The program has just written (stored) the transmitter (display) data
-        // register. If transmitter
-        // Ready bit is clear, device is not ready yet so ignore this event -- serves
-        // 'em right for not checking!
-        // If transmitter Ready bit is set, then clear it to indicate the display device
-        // is processing the character.
-        // Also start an intruction counter that will simulate the delay of the slower
-        // display device processing the character.
-        if (KeyboardAndDisplaySimulator.isReadyBitSet(KeyboardAndDisplaySimulator.TRANSMITTER_CONTROL) && notice.address == KeyboardAndDisplaySimulator.TRANSMITTER_DATA && notice.accessType == AccessNotice.AccessType.WRITE) {
-            this.updateMMIOControl(
-                KeyboardAndDisplaySimulator.TRANSMITTER_CONTROL,
-                KeyboardAndDisplaySimulator.readyBitCleared(KeyboardAndDisplaySimulator.TRANSMITTER_CONTROL)
-            );
-            this.intWithCharacterToDisplay = notice.value;
-            if (!this.displayAfterDelay) {
-                this.displayCharacter(this.intWithCharacterToDisplay);
-            }
-            this.countingInstructions = true;
-            this.instructionCount = 0;
-            this.transmitDelayInstructionCountLimit = this.generateDelay();
+    }
+
+    // The program has just written (stored) the transmitter (display) data
+    // register. If transmitter Ready bit is clear, device is not ready yet so
+    // ignore this event -- serves 'em right for not checking!
+    // If transmitter Ready bit is set, then clear it to indicate the display device
+    // is processing the character, and schedule the end of the processing to
+    // simulate the delay of the slower display device.
+    private void transmitterDataWritten(final int address, final int value) {
+        if (address != KeyboardAndDisplaySimulator.TRANSMITTER_DATA
+            || !KeyboardAndDisplaySimulator.isReadyBitSet(KeyboardAndDisplaySimulator.TRANSMITTER_CONTROL)) {
+            return;
         }
-        // We have been notified of an instruction execution.
-        // If we are in transmit delay period, increment instruction count and if limit
-        // has been reached, set the transmitter Ready flag to indicate the program
-        // can write another character to the transmitter data register. If the
-        // Interrupt-Enabled
-        // bit had been set by the program, generate an interrupt!
-        if (this.countingInstructions && notice.accessType == AccessNotice.AccessType.READ && Globals.MEMORY_INSTANCE.isAddressInTextSegment(
-            notice.address)) {
-            this.instructionCount++;
-            if (this.instructionCount >= this.transmitDelayInstructionCountLimit) {
-                if (this.displayAfterDelay) {
-                    this.displayCharacter(this.intWithCharacterToDisplay);
-                }
-                this.countingInstructions = false;
-                final int updatedTransmitterControl =
-                    KeyboardAndDisplaySimulator.readyBitSet(KeyboardAndDisplaySimulator.TRANSMITTER_CONTROL);
-                this.updateMMIOControl(KeyboardAndDisplaySimulator.TRANSMITTER_CONTROL, updatedTransmitterControl);
-                if (updatedTransmitterControl != 1) {
-                    Globals.INTERRUPT_CONTROLLER.registerExternalInterrupt(KeyboardAndDisplaySimulator.EXTERNAL_INTERRUPT_DISPLAY);
-                }
-            }
+        this.updateMMIOControl(
+            KeyboardAndDisplaySimulator.TRANSMITTER_CONTROL,
+            KeyboardAndDisplaySimulator.readyBitCleared(KeyboardAndDisplaySimulator.TRANSMITTER_CONTROL)
+        );
+        this.intWithCharacterToDisplay = value;
+        if (!this.displayAfterDelay) {
+            this.displayCharacter(this.intWithCharacterToDisplay);
+        }
+        this.transmitDelayInstructionCountLimit = this.generateDelay();
+        Globals.DEVICE_BUS.getScheduler().scheduleAfter(this.transmitDelayInstructionCountLimit, this.transmitterReady);
+    }
+
+    // The transmit delay period is over. Set the transmitter Ready flag to
+    // indicate the program can write another character to the transmitter data
+    // register. If the Interrupt-Enabled bit had been set by the program,
+    // generate an interrupt!
+    private void finishTransmission() {
+        if (this.displayAfterDelay) {
+            this.displayCharacter(this.intWithCharacterToDisplay);
+        }
+        final int updatedTransmitterControl =
+            KeyboardAndDisplaySimulator.readyBitSet(KeyboardAndDisplaySimulator.TRANSMITTER_CONTROL);
+        this.updateMMIOControl(KeyboardAndDisplaySimulator.TRANSMITTER_CONTROL, updatedTransmitterControl);
+        if (updatedTransmitterControl != 1) {
+            Globals.INTERRUPT_CONTROLLER.registerExternalInterrupt(
+                KeyboardAndDisplaySimulator.EXTERNAL_INTERRUPT_DISPLAY
+            );
         }
     }
 
@@ -843,11 +856,10 @@ public final class KeyboardAndDisplaySimulator extends AbstractTool {
         }
     }
 
-    // Transmit delay is simulated by counting instruction executions.
-    // Here we simly initialize (or reset) the variables.
+    // Transmit delay is simulated by an event scheduled on the device bus.
+    // Here we simly cancel it and reset the delay.
     private void initializeTransmitDelaySimulator() {
-        this.countingInstructions = false;
-        this.instructionCount = 0;
+        Globals.DEVICE_BUS.getScheduler().cancel(this.transmitterReady);
         this.transmitDelayInstructionCountLimit = this.generateDelay();
     }
 
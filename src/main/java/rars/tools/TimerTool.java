@@ -30,7 +30,7 @@ import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.NotNull;
 import rars.Globals;
 import rars.exceptions.AddressErrorException;
-import rars.notices.MemoryAccessNotice;
+import rars.riscv.hardware.MemoryMappedDevice;
 import rars.riscv.hardware.registerFiles.CSRegisterFile;
 import rars.venus.VenusUI;
 
@@ -41,33 +41,59 @@ import java.util.TimerTask;
 
 /**
  * A RARS tool used to implement a timing module and timer inturrpts.
+ * <p>
+ * The time runs on the {@link rars.riscv.hardware.SimulationClock simulation
+ * clock}, so in virtual time the interrupts arrive after the same number of
+ * instructions on every run. The time and timecmp words are attached to the
+ * device bus: the time is computed when the program loads it, and a write to
+ * timecmp schedules the interrupt check for when the clock should reach it.
  */
 public final class TimerTool extends AbstractTool {
     private static final Logger LOGGER = LogManager.getLogger(TimerTool.class);
 
     private static final String heading = "Timer Tool";
     private static final String version = "Version 1.0 (Zachary Selk)";
+    /** How often the displayed time is refreshed, in milliseconds */
+    private static final int DISPLAY_PERIOD = 10;
     // Internal time values
 
-    /** The current time of the program (starting from 0) */
-    private static long time = 0L;
-    /** Tmp unix time used to keep track of how much time has passed */
+    /** The time of the clock when the timer was last started */
     private static long startTime = 0L;
     /** Accumulates time as we pause/play the timer */
     private static long savedTime = 0L;
-    // Timing threads
-    private static TimeCmpDaemon timeCmp = null; // Watches for changes made to timecmp
+    /** Holds the most recent value of timecmp writen to the MMIO */
+    private static long timeCmp = 0L;
+    /** Set when timecmp is written to, cleared once the interrupt is raised */
+    private static boolean postInterrupt = false;
     // Internal timing flags
-    private static boolean updateTime = false; // Controls when time progresses (for pausing)
-    private static boolean running = false; // true while tick thread is running
+    private static volatile boolean updateTime = false; // Controls when time progresses (for pausing)
+    private static boolean running = false; // true while the display thread is running
     private final Timer timer = new Timer();
-    private final Tick tick = new Tick(); // Runs every millisecond to decide if a timer inturrupt should be raised
+    private final Tick tick = new Tick(); // Refreshes the display and the time MMIO for the GUI
+    /** Checks whether the timer interrupt should be raised once the clock may have reached timecmp */
+    private final @NotNull Runnable check = this::checkTimeCmp;
+    private final @NotNull MemoryMappedDevice device = new MemoryMappedDevice() {
+        @Override
+        public int read(final int address, final int length, final int storedValue) {
+            if (address >= TimerTool.getTimeCmpAddress()) {
+                return storedValue;
+            }
+            // Loads of the lower and upper words see the current time
+            final var time = TimerTool.getTime();
+            final var word = address < TimerTool.getTimeAddress() + 4 ? (int) time : (int) (time >> 32);
+            return MemoryMappedDevice.bytesOf(word, address, length);
+        }
+
+        @Override
+        public void write(final int address, final int length, final int value) {
+            TimerTool.this.timeCmpWritten(address, value);
+        }
+    };
     // GUI window sections
     private TimePanel timePanel;
 
     public TimerTool(final @NotNull VenusUI mainUI) {
         super(TimerTool.heading + ", " + TimerTool.version, TimerTool.heading, mainUI);
-        TimerTool.startTimeCmpDaemon();
     }
 
     private static int getTimeAddress() {
@@ -78,11 +104,12 @@ public final class TimerTool extends AbstractTool {
         return Globals.MEMORY_INSTANCE.getMemoryConfiguration().memoryMapBaseAddress + 0x20;
     }
 
-    // A daemon that watches the timecmp MMIO for any changes
-    private static void startTimeCmpDaemon() {
-        if (TimerTool.timeCmp == null) {
-            TimerTool.timeCmp = new TimeCmpDaemon();
-        }
+    /** @return the current time of the program (starting from 0) */
+    private static long getTime() {
+        final var clockTime = Globals.DEVICE_BUS.getClock().getTime();
+        return TimerTool.updateTime
+            ? TimerTool.savedTime + clockTime - TimerTool.startTime
+            : TimerTool.savedTime;
     }
 
     // Set up the tools interface
@@ -93,8 +120,8 @@ public final class TimerTool extends AbstractTool {
     public static void play() {
         // Gaurd against multiple plays
         if (!TimerTool.updateTime) {
+            TimerTool.startTime = Globals.DEVICE_BUS.getClock().getTime();
             TimerTool.updateTime = true;
-            TimerTool.startTime = System.currentTimeMillis();
         }
 
     }
@@ -105,9 +132,8 @@ public final class TimerTool extends AbstractTool {
     public static void pause() {
         // Gaurd against multiple pauses
         if (TimerTool.updateTime) {
+            TimerTool.savedTime = TimerTool.getTime();
             TimerTool.updateTime = false;
-            TimerTool.time = TimerTool.savedTime + System.currentTimeMillis() - TimerTool.startTime;
-            TimerTool.savedTime = TimerTool.time;
         }
     }
 
@@ -151,6 +177,27 @@ public final class TimerTool extends AbstractTool {
         return panelTools;
     }
 
+    /**
+     * Attaches the time and timecmp words to the device bus instead of
+     * observing the data segment.
+     */
+    @Override
+    protected void addAsObserver() {
+        try {
+            Globals.DEVICE_BUS.attach(this.device, TimerTool.getTimeAddress(), TimerTool.getTimeCmpAddress() + 4);
+        } catch (final AddressErrorException aee) {
+            TimerTool.LOGGER.error("Error connecting the timer to the device bus", aee);
+        }
+        this.scheduleCheck();
+    }
+
+    @Override
+    protected void deleteAsSubscriber() {
+        Globals.DEVICE_BUS.detach(this.device);
+        Globals.DEVICE_BUS.getScheduler().cancel(this.check);
+        super.deleteAsSubscriber();
+    }
+
     /**
      * <p>performSpecialClosingDuties.</p>
      */
@@ -164,9 +211,8 @@ public final class TimerTool extends AbstractTool {
      */
     public void start() {
         if (!TimerTool.running) {
-            // Start a timer that checks to see if a timer interupt needs to be raised
-            // every millisecond
-            this.timer.schedule(this.tick, 0, 1);
+            // Start a timer that refreshes the displayed time
+            this.timer.schedule(this.tick, 0, TimerTool.DISPLAY_PERIOD);
             TimerTool.running = true;
         }
     }
@@ -178,15 +224,13 @@ public final class TimerTool extends AbstractTool {
      */
     @Override
     protected void reset() {
-        TimerTool.time = 0L;
         TimerTool.savedTime = 0L;
-        TimerTool.startTime = System.currentTimeMillis();
-        this.tick.updateTimecmp = true;
+        TimerTool.startTime = Globals.DEVICE_BUS.getClock().getTime();
         this.timePanel.updateTime();
         this.tick.reset();
     }
 
-    // Shutdown the timer (note that we keep the TimeCmpDaemon running)
+    // Shutdown the timer
 
     /**
      * <p>stop.</p>
@@ -198,6 +242,54 @@ public final class TimerTool extends AbstractTool {
         this.reset();
     }
 
+    // Called on the simulator thread when the program stores to one of the words
+    private void timeCmpWritten(final int address, final int value) {
+        // Check what word was changed, then update the corrisponding information
+        if (address == TimerTool.getTimeCmpAddress()) {
+            TimerTool.timeCmp = ((TimerTool.timeCmp >> 32) << 32) + value;
+        } else if (address == TimerTool.getTimeCmpAddress() + 4) {
+            TimerTool.timeCmp = TimerTool.timeCmp + (((long) value) << 32);
+        } else {
+            return;
+        }
+        TimerTool.postInterrupt = true; // timecmp was writen to
+        this.scheduleCheck();
+    }
+
+    // Schedules the next check for when the time might have reached timecmp
+    private void scheduleCheck() {
+        final var scheduler = Globals.DEVICE_BUS.getScheduler();
+        scheduler.cancel(this.check);
+        if (!TimerTool.postInterrupt) {
+            return;
+        }
+        final var clock = Globals.DEVICE_BUS.getClock();
+        // While paused, the time does not move, so just poll once per clock interval
+        final var delay = TimerTool.updateTime
+            ? clock.instructionsUntil(TimerTool.timeCmp - TimerTool.savedTime + TimerTool.startTime)
+            : clock.getInterval();
+        scheduler.scheduleAfter(delay, this.check);
+    }
+
+    // Checks the control bits to see if user-level timer inturrupts are enabled
+    private static boolean bitsEnabled() {
+        final boolean utip = (Globals.CS_REGISTER_FILE.uie.getValueNoNotify() & 0x10) == 0x10;
+        final boolean uie = (Globals.CS_REGISTER_FILE.ustatus.getValueNoNotify() & 0x1) == 0x1;
+
+        return (utip && uie);
+    }
+
+    private void checkTimeCmp() {
+        // The logic for if a timer interrupt should be raised
+        // Note: if either the UTIP bit in the uie CSR or the UIE bit in the ustatus CSR
+        // are zero then this interrupt will be stopped further on in the pipeline
+        if (TimerTool.getTime() >= TimerTool.timeCmp && TimerTool.postInterrupt && TimerTool.bitsEnabled()) {
+            Globals.INTERRUPT_CONTROLLER.registerTimerInterrupt(CSRegisterFile.TIMER_INTERRUPT);
+            TimerTool.postInterrupt = false; // Wait for timecmp to be writen to again
+        }
+        this.scheduleCheck();
+    }
+
     // Writes a word to a virtual memory address
     private synchronized void updateMMIOControlAndData(final int dataAddr, final int dataValue) {
         Globals.MEMORY_REGISTERS_LOCK.lock();
@@ -259,92 +351,19 @@ public final class TimerTool extends AbstractTool {
 
     /***************************** Timer Classes *****************************/
 
-    // Watches for changes made to the timecmp MMIO
-    public final static class TimeCmpDaemon {
-        public boolean postInterrupt = false;
-        public long value = 0L; // Holds the most recent value of timecmp writen to the MMIO
-
-        public TimeCmpDaemon() {
-            this.addAsObserver();
-        }
-
-        public void addAsObserver() {
-            try {
-                Globals.MEMORY_INSTANCE.subscribe(
-                    notice -> {
-
-                        final var accessType = notice.accessType;
-                        // If is was a WRITE operation
-                        if (accessType == MemoryAccessNotice.AccessType.WRITE) {
-                            final int address = notice.address;
-                            final int value = notice.value;
-
-                            // Check what word was changed, then update the corrisponding information
-                            if (address == TimerTool.getTimeCmpAddress()) {
-                                this.value = ((this.value >> 32) << 32) + value;
-                                this.postInterrupt = true; // timecmp was writen to
-                            } else if (address == TimerTool.getTimeCmpAddress() + 4) {
-                                this.value = (this.value) + (((long) value) << 32);
-                                this.postInterrupt = true; // timecmp was writen to
-                            }
-                        }
-                    },
-                    TimerTool.getTimeCmpAddress(),
-                    TimerTool.getTimeCmpAddress() + 8
-                );
-            } catch (final AddressErrorException aee) {
-                TimerTool.LOGGER.fatal("Error while adding observer in Timer Tool");
-                System.exit(0);
-            }
-        }
-
-    }
-
-    // Runs every millisecond to decide if a timer inturrupt should be raised
+    // Refreshes the displayed time and mirrors it into the time MMIO, so the data segment shows it as well
     private class Tick extends TimerTask {
-        public volatile boolean updateTimecmp = true;
-
-        // Checks the control bits to see if user-level timer inturrupts are enabled
-        private static boolean bitsEnabled() {
-            final boolean utip = (Globals.CS_REGISTER_FILE.getIntValue("uie") & 0x10) == 0x10;
-            final boolean uie = (Globals.CS_REGISTER_FILE.getIntValue("ustatus") & 0x1) == 0x1;
-
-            return (utip && uie);
-        }
-
         @Override
         public void run() {
             // Check to see if the tool is connected
             // Note: "connectButton != null" short circuits the expression when null
-            if (TimerTool.this.connectButton != null && TimerTool.this.connectButton.isConnected()) {
-                // If the tool is not paused
-                if (TimerTool.updateTime) {
-                    // time is the difference between the last time we started the time and now,
-                    // plus
-                    // our time accumulator
-                    TimerTool.time = TimerTool.savedTime + System.currentTimeMillis() - TimerTool.startTime;
-
-                    // Write the lower and upper words of the time MMIO respectivly
-                    TimerTool.this.updateMMIOControlAndData(TimerTool.getTimeAddress(), (int) (TimerTool.time));
-                    TimerTool.this.updateMMIOControlAndData(
-                        TimerTool.getTimeAddress() + 4,
-                        (int) (TimerTool.time >> 32)
-                    );
-
-                    // The logic for if a timer interrupt should be raised
-                    // Note: if either the UTIP bit in the uie CSR or the UIE bit in the ustatus CSR
-                    // are zero then this interrupt will be stopped further on in the pipeline
-                    if (TimerTool.time >= TimerTool.timeCmp.value && TimerTool.timeCmp.postInterrupt && Tick.bitsEnabled()) {
-                        Globals.INTERRUPT_CONTROLLER.registerTimerInterrupt(CSRegisterFile.TIMER_INTERRUPT);
-                        TimerTool.timeCmp.postInterrupt = false; // Wait for timecmp to be writen to again
-                    }
-                    TimerTool.this.timePanel.updateTime();
-                }
-            }
-            // Otherwise we keep track of the last time the tool was not connected
-            else {
-                TimerTool.time = TimerTool.savedTime + System.currentTimeMillis() - TimerTool.startTime;
-                TimerTool.startTime = System.currentTimeMillis();
+            if (TimerTool.this.connectButton != null && TimerTool.this.connectButton.isConnected()
+                && TimerTool.updateTime) {
+                final var time = TimerTool.getTime();
+                // Write the lower and upper words of the time MMIO respectivly
+                TimerTool.this.updateMMIOControlAndData(TimerTool.getTimeAddress(), (int) time);
+                TimerTool.this.updateMMIOControlAndData(TimerTool.getTimeAddress() + 4, (int) (time >> 32));
+                TimerTool.this.timePanel.updateTime();
             }
         }
 
@@ -372,9 +391,10 @@ public final class TimerTool extends AbstractTool {
         }
 
         public void updateTime() {
+            final var time = TimerTool.getTime();
             this.currentTime.setText(String.format(
-                "%02d:%02d.%02d", TimerTool.time / 60000,
-                (TimerTool.time / 1000) % 60, TimerTool.time % 100
+                "%02d:%02d.%02d", time / 60000,
+                (time / 1000) % 60, time % 100
             ));
         }
     }
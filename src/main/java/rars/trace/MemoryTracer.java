@@ -0,0 +1,56 @@
+package rars.trace;
+
+import org.jetbrains.annotations.NotNull;
+import rars.riscv.BasicInstruction;
+import rars.riscv.hardware.Memory;
+
+import java.util.function.Consumer;
+
+/**
+ * Records the instruction fetches, loads and stores of a simulation into
+ * {@link TraceBatch batches}. It is attached to a {@link Memory} with
+ * {@link Memory#setTracer(MemoryTracer)}, which calls it directly from its
+ * access paths, so no notice objects are created and no observers are
+ * involved.
+ * <p>
+ * The address of the last fetched instruction is used as the {@code pc} of
+ * the loads and stores that follow it.
+ */
+public final class MemoryTracer {
+    private final @NotNull Consumer<? super TraceBatch> sink;
+    private final @NotNull TraceBatch batch;
+    private int currentPc;
+
+    public MemoryTracer(final @NotNull Consumer<? super TraceBatch> sink) {
+        this.sink = sink;
+        this.batch = new TraceBatch(TraceBatch.DEFAULT_CAPACITY);
+        this.currentPc = 0;
+    }
+
+    public void recordFetch(final int address, final int instruction) {
+        this.currentPc = address;
+        this.record(address, TraceBatch.FETCH, BasicInstruction.BASIC_INSTRUCTION_LENGTH, instruction);
+    }
+
+    public void recordLoad(final int address, final int size, final int value) {
+        this.record(address, TraceBatch.LOAD, size, value);
+    }
+
+    public void recordStore(final int address, final int size, final int value) {
+        this.record(address, TraceBatch.STORE, size, value);
+    }
+
+    private void record(final int address, final byte type, final int size, final int value) {
+        if (this.batch.add(this.currentPc, address, type, size, value)) {
+            this.flush();
+        }
+    }
+
+    /** Hands the records collected so far over to the sink. */
+    public void flush() {
+        if (!this.batch.isEmpty()) {
+            this.sink.accept(this.batch);
+            this.batch.clear();
+        }
+    }
+}
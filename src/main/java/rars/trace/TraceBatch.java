@@ -0,0 +1,90 @@
+package rars.trace;
+
+/**
+ * A batch of memory access records stored in parallel primitive arrays.
+ * Each record is a {@code (pc, address, type, size, value)} tuple, where
+ * {@code pc} is the address of the instruction that caused the access and
+ * {@code value} is the value read or written (the instruction word for a
+ * fetch).
+ * <p>
+ * Batches are reused by their producer: a consumer must not keep a reference
+ * to a batch after it has been handed over.
+ */
+public final class TraceBatch {
+    /** Default number of records in a batch. */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    /** Access type of an instruction fetch. */
+    public static final byte FETCH = 0;
+    /** Access type of a load. */
+    public static final byte LOAD = 1;
+    /** Access type of a store. */
+    public static final byte STORE = 2;
+
+    private final int[] pcs;
+    private final int[] addresses;
+    private final byte[] types;
+    private final byte[] sizes;
+    private final int[] values;
+    private int count;
+
+    public TraceBatch(final int capacity) {
+        this.pcs = new int[capacity];
+        this.addresses = new int[capacity];
+        this.types = new byte[capacity];
+        this.sizes = new byte[capacity];
+        this.values = new int[capacity];
+        this.count = 0;
+    }
+
+    /**
+     * Appends a record to the batch.
+     *
+     * @return {@code true} if the batch is full after adding the record
+     */
+    public boolean add(final int pc, final int address, final byte type, final int size, final int value) {
+        final var index = this.count++;
+        this.pcs[index] = pc;
+        this.addresses[index] = address;
+        this.types[index] = type;
+        this.sizes[index] = (byte) size;
+        this.values[index] = value;
+        return this.count == this.pcs.length;
+    }
+
+    public void clear() {
+        this.count = 0;
+    }
+
+    public int size() {
+        return this.count;
+    }
+
+    public boolean isEmpty() {
+        return this.count == 0;
+    }
+
+    public int pc(final int index) {
+        return this.pcs[index];
+    }
+
+    public int address(final int index) {
+        return this.addresses[index];
+    }
+
+    public byte type(final int index) {
+        return this.types[index];
+    }
+
+    public int accessSize(final int index) {
+        return this.sizes[index];
+    }
+
+    public int value(final int index) {
+        return this.values[index];
+    }
+
+    public int capacity() {
+        return this.pcs.length;
+    }
+}
@@ -0,0 +1,79 @@
+package rars.trace;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Layout of the binary trace files written by {@link TraceWriter} and read by
+ * {@link TraceReader}. All the numbers are little-endian.
+ * <p>
+ * A file starts with the magic number, the format version and the flags
+ * ({@link #FLAG_COMPRESSED}), followed by independent blocks. Each block has
+ * a header (raw length, stored length, record count, start pc) and its
+ * records, deflated if the file is compressed. Since the delta encoding
+ * starts over in every block, the blocks can be decoded in any order.
+ * <p>
+ * A record starts with a tag byte:
+ * <ul>
+ *     <li>bits 0-1 - the type ({@link TraceBatch#FETCH}, {@link TraceBatch#LOAD}
+ *     or {@link TraceBatch#STORE}),</li>
+ *     <li>bits 2-3 - the base 2 logarithm of the access size,</li>
+ *     <li>bit 4 ({@link #TAG_SEQUENTIAL}) - the address directly follows the
+ *     previous one of the same kind (the previous fetch plus 4, or the end of
+ *     the previous load or store), so it is omitted. The first fetch of a
+ *     block is compared with its start pc and the first load or store with
+ *     0,</li>
+ *     <li>bit 5 ({@link #TAG_ZERO_VALUE}) - the value is 0, so it is omitted.</li>
+ * </ul>
+ * It is followed by the address difference from the previous fetch or data
+ * address (a zigzag varint) and by the value (an unsigned varint for fetched
+ * instructions, a zigzag varint otherwise). The pc of a load or store is the
+ * address of the last fetch before it, or the start pc of its block.
+ */
+final class TraceFormat {
+    static final int MAGIC = 0x52545652; // "RVTR"
+    static final short VERSION = 1;
+    static final short FLAG_COMPRESSED = 1;
+    static final int FILE_HEADER_SIZE = 8;
+    static final int BLOCK_HEADER_SIZE = 16;
+    /** Size of the uncompressed records of a block. */
+    static final int BLOCK_SIZE = 1 << 16;
+    static final int MAX_RECORD_SIZE = 1 + 5 + 5;
+
+    static final int TAG_TYPE_MASK = 0b11;
+    static final int TAG_SIZE_SHIFT = 2;
+    static final int TAG_SIZE_MASK = 0b11;
+    static final int TAG_SEQUENTIAL = 1 << 4;
+    static final int TAG_ZERO_VALUE = 1 << 5;
+
+    private TraceFormat() {
+    }
+
+    static void putVarInt(final @NotNull ByteBuffer buffer, int value) {
+        while ((value & ~0x7f) != 0) {
+            buffer.put((byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    static int getVarInt(final @NotNull ByteBuffer buffer) {
+        var result = 0;
+        for (var shift = 0; ; shift += 7) {
+            final var b = buffer.get();
+            result |= (b & 0x7f) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+    }
+
+    static int zigzag(final int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    static int unzigzag(final int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,186 @@
+package rars.trace;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static rars.trace.TraceFormat.*;
+
+/**
+ * Reads trace files written by {@link TraceWriter}. Opening a file only reads
+ * the block headers; the blocks themselves are decoded on demand by
+ * {@link #readBlock(int)}, which can be called from several threads at once,
+ * or in order by {@link #forEach(Consumer)}.
+ */
+public final class TraceReader implements Closeable {
+    private final @NotNull FileChannel channel;
+    private final boolean compressed;
+    /// Position of the header of each block.
+    private final long @NotNull [] blockPositions;
+
+    public TraceReader(final @NotNull Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            final var fileHeader = this.read(0, FILE_HEADER_SIZE);
+            if (fileHeader.getInt() != MAGIC) {
+                throw new IOException(path + " is not a trace file.");
+            }
+            final var version = fileHeader.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported trace file version " + version + '.');
+            }
+            this.compressed = (fileHeader.getShort() & FLAG_COMPRESSED) != 0;
+
+            final var size = this.channel.size();
+            var positions = new long[16];
+            var count = 0;
+            for (long position = FILE_HEADER_SIZE; position < size; count++) {
+                if (count == positions.length) {
+                    positions = Arrays.copyOf(positions, count * 2);
+                }
+                positions[count] = position;
+                final var blockHeader = this.read(position, BLOCK_HEADER_SIZE);
+                blockHeader.getInt();
+                position += BLOCK_HEADER_SIZE + Integer.toUnsignedLong(blockHeader.getInt());
+            }
+            this.blockPositions = Arrays.copyOf(positions, count);
+        } catch (final IOException e) {
+            this.channel.close();
+            throw e;
+        }
+    }
+
+    public int getBlockCount() {
+        return this.blockPositions.length;
+    }
+
+    /** Decodes the block with the given index into a new batch. */
+    public @NotNull TraceBatch readBlock(final int index) throws IOException {
+        final var position = this.blockPositions[index];
+        final var blockHeader = this.read(position, BLOCK_HEADER_SIZE);
+        final var rawLength = blockHeader.getInt();
+        final var storedLength = blockHeader.getInt();
+        final var recordCount = blockHeader.getInt();
+        final var startPc = blockHeader.getInt();
+        var data = this.read(position + BLOCK_HEADER_SIZE, storedLength);
+        if (this.compressed) {
+            final var inflater = new Inflater();
+            try {
+                final var raw = ByteBuffer.allocate(rawLength).order(ByteOrder.LITTLE_ENDIAN);
+                inflater.setInput(data);
+                while (raw.hasRemaining() && !inflater.finished()) {
+                    if (inflater.inflate(raw) == 0 && inflater.needsInput()) {
+                        throw new EOFException("Truncated block " + index + '.');
+                    }
+                }
+                data = raw.flip();
+            } catch (final DataFormatException e) {
+                throw new IOException("Corrupted block " + index + '.', e);
+            } finally {
+                inflater.end();
+            }
+        }
+        return decode(data, recordCount, startPc);
+    }
+
+    private static @NotNull TraceBatch decode(final @NotNull ByteBuffer data, final int recordCount,
+                                              final int startPc) {
+        final var batch = new TraceBatch(Math.max(recordCount, 1));
+        var pc = startPc;
+        var lastFetch = startPc - 4;
+        var lastData = 0;
+        var lastDataSize = 0;
+        for (var i = 0; i < recordCount; i++) {
+            final var tag = data.get();
+            final var type = (byte) (tag & TAG_TYPE_MASK);
+            final var size = 1 << ((tag >>> TAG_SIZE_SHIFT) & TAG_SIZE_MASK);
+            final var delta = (tag & TAG_SEQUENTIAL) != 0 ? 0 : unzigzag(getVarInt(data));
+            final int address;
+            if (type == TraceBatch.FETCH) {
+                address = lastFetch + 4 + delta;
+                lastFetch = address;
+                pc = address;
+            } else {
+                address = lastData + lastDataSize + delta;
+                lastData = address;
+                lastDataSize = size;
+            }
+            final int value;
+            if ((tag & TAG_ZERO_VALUE) != 0) {
+                value = 0;
+            } else {
+                final var encoded = getVarInt(data);
+                value = type == TraceBatch.FETCH ? encoded : unzigzag(encoded);
+            }
+            batch.add(pc, address, type, size, value);
+        }
+        return batch;
+    }
+
+    /**
+     * Hands every block to the consumer in order. The next block is decoded
+     * in the background while the consumer processes the current one.
+     */
+    public void forEach(final @NotNull Consumer<? super TraceBatch> consumer) throws IOException {
+        if (this.blockPositions.length == 0) {
+            return;
+        }
+        var next = this.readBlockAsync(0);
+        for (var i = 0; i < this.blockPositions.length; i++) {
+            final TraceBatch batch;
+            try {
+                batch = next.join();
+            } catch (final CompletionException e) {
+                if (e.getCause() instanceof final UncheckedIOException io) {
+                    throw io.getCause();
+                }
+                throw e;
+            }
+            if (i + 1 < this.blockPositions.length) {
+                next = this.readBlockAsync(i + 1);
+            }
+            consumer.accept(batch);
+        }
+    }
+
+    private @NotNull CompletableFuture<TraceBatch> readBlockAsync(final int index) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return this.readBlock(index);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private @NotNull ByteBuffer read(long position, final int length) throws IOException {
+        final var buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            final var read = this.channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of the trace file.");
+            }
+            position += read;
+        }
+        return buffer.flip();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
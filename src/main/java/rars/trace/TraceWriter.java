@@ -0,0 +1,184 @@
+package rars.trace;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.Deflater;
+
+import static rars.trace.TraceFormat.*;
+
+/**
+ * Writes {@link TraceBatch batches} to a file in the format described in
+ * {@link TraceFormat}. The records are encoded into a fixed size block buffer
+ * which is written out (and optionally deflated) whenever it fills up, so the
+ * cost per record is a few byte stores.
+ * <p>
+ * The {@code pc} of the loads and stores is not stored, it is taken from the
+ * preceding fetch, which is how {@link MemoryTracer} records them.
+ * <p>
+ * Since the batches arrive from the simulation, a write error does not
+ * interrupt it: the writer stops recording and {@link #close()} reports the
+ * error.
+ */
+public final class TraceWriter implements Consumer<TraceBatch>, Closeable {
+    private final @NotNull FileChannel channel;
+    private final @Nullable Deflater deflater;
+    private final @NotNull ByteBuffer block;
+    private final @NotNull ByteBuffer header;
+    private @NotNull ByteBuffer compressed;
+    private @Nullable IOException failure;
+
+    private int recordCount;
+    private int startPc;
+    private int lastFetch;
+    private int lastData;
+    private int lastDataSize;
+
+    /**
+     * @param path
+     *     the file to write, replaced if it exists
+     * @param compress
+     *     whether to deflate the blocks
+     */
+    public TraceWriter(final @NotNull Path path, final boolean compress) throws IOException {
+        this.channel = FileChannel.open(
+            path,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING
+        );
+        this.deflater = compress ? new Deflater(Deflater.BEST_SPEED) : null;
+        this.block = ByteBuffer.allocate(BLOCK_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        this.header = ByteBuffer.allocate(BLOCK_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        this.compressed = ByteBuffer.allocate(compress ? BLOCK_SIZE : 0);
+        this.recordCount = 0;
+        this.failure = null;
+
+        final var fileHeader = ByteBuffer.allocate(FILE_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN)
+            .putInt(MAGIC)
+            .putShort(VERSION)
+            .putShort(compress ? FLAG_COMPRESSED : 0)
+            .flip();
+        this.writeFully(fileHeader);
+    }
+
+    @Override
+    public void accept(final @NotNull TraceBatch batch) {
+        if (this.failure != null) {
+            return;
+        }
+        try {
+            for (var i = 0; i < batch.size(); i++) {
+                if (this.block.remaining() < MAX_RECORD_SIZE) {
+                    this.finishBlock();
+                }
+                if (this.recordCount == 0) {
+                    this.startPc = batch.pc(i);
+                    this.lastFetch = this.startPc - 4;
+                    this.lastData = 0;
+                    this.lastDataSize = 0;
+                }
+                this.encode(batch.type(i), batch.address(i), batch.accessSize(i), batch.value(i));
+            }
+        } catch (final IOException e) {
+            this.failure = e;
+        }
+    }
+
+    private void encode(final byte type, final int address, final int size, final int value) {
+        var tag = type | (Integer.numberOfTrailingZeros(size) << TAG_SIZE_SHIFT);
+        final int delta;
+        if (type == TraceBatch.FETCH) {
+            delta = address - this.lastFetch - 4;
+            this.lastFetch = address;
+        } else {
+            delta = address - this.lastData - this.lastDataSize;
+            this.lastData = address;
+            this.lastDataSize = size;
+        }
+        if (delta == 0) {
+            tag |= TAG_SEQUENTIAL;
+        }
+        if (value == 0) {
+            tag |= TAG_ZERO_VALUE;
+        }
+        this.block.put((byte) tag);
+        if (delta != 0) {
+            putVarInt(this.block, zigzag(delta));
+        }
+        if (value != 0) {
+            putVarInt(this.block, type == TraceBatch.FETCH ? value : zigzag(value));
+        }
+        this.recordCount++;
+    }
+
+    private void finishBlock() throws IOException {
+        if (this.recordCount == 0) {
+            return;
+        }
+        this.block.flip();
+        final var rawLength = this.block.remaining();
+        final ByteBuffer stored;
+        if (this.deflater != null) {
+            this.deflater.reset();
+            this.deflater.setInput(this.block);
+            this.deflater.finish();
+            this.compressed.clear();
+            while (!this.deflater.finished()) {
+                if (!this.compressed.hasRemaining()) {
+                    this.compressed = ByteBuffer.allocate(this.compressed.capacity() * 2)
+                        .put(this.compressed.flip());
+                }
+                this.deflater.deflate(this.compressed);
+            }
+            stored = this.compressed.flip();
+        } else {
+            stored = this.block;
+        }
+        this.header.clear()
+            .putInt(rawLength)
+            .putInt(stored.remaining())
+            .putInt(this.recordCount)
+            .putInt(this.startPc)
+            .flip();
+        this.writeFully(this.header);
+        this.writeFully(stored);
+        this.block.clear();
+        this.recordCount = 0;
+    }
+
+    private void writeFully(final @NotNull ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            this.channel.write(buffer);
+        }
+    }
+
+    /**
+     * Writes out the last, partially filled block and closes the file.
+     *
+     * @throws IOException
+     *     if this or any earlier write failed
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (this.failure != null) {
+                throw this.failure;
+            }
+            this.finishBlock();
+        } finally {
+            this.channel.close();
+            if (this.deflater != null) {
+                this.deflater.end();
+            }
+        }
+    }
+}
@@ -1,32 +1,28 @@
 package rars.util;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.NotNull;
-import rars.assembler.DataTypes;
-import rars.exceptions.AddressErrorException;
-import rars.notices.AccessNotice;
-import rars.notices.MemoryAccessNotice;
 import rars.riscv.hardware.Memory;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.function.Consumer;
 
 // TODO: move this class to the common SystemIO class
 
+/**
+ * Window showing a {@link BitmapFramebuffer}. A timer on the event dispatch
+ * thread refreshes the framebuffer at most {@link #FRAMES_PER_SECOND} times a
+ * second and repaints only the rectangle that changed, so the program that
+ * draws never waits for the display.
+ */
 public final class BitmapDisplay extends JFrame {
-
-    private static final @NotNull Logger LOGGER = LogManager.getLogger(BitmapDisplay.class);
+    public static final int FRAMES_PER_SECOND = 60;
 
     public final int displayWidth;
     public final int displayHeight;
-    private final @NotNull Grid grid;
-    private final @NotNull GraphicsPanel panel;
-    private final @NotNull Consumer<@NotNull MemoryAccessNotice> accessNoticeCallback;
-    private final @NotNull Memory memory;
+    private final @NotNull BitmapFramebuffer framebuffer;
+    private final @NotNull JPanel panel;
+    private final @NotNull Timer refreshTimer;
     public int baseAddress;
-    private int upperAddressBound;
 
     public BitmapDisplay(
         final @NotNull Memory memory,
@@ -35,102 +31,53 @@ public final class BitmapDisplay extends JFrame {
         final int displayHeight
     ) {
         super();
-        this.memory = memory;
         this.baseAddress = baseAddress;
         this.displayWidth = displayWidth;
         this.displayHeight = displayHeight;
-        this.upperAddressBound = baseAddress + (displayWidth * displayHeight * DataTypes.WORD_SIZE);
-        this.grid = new Grid(displayHeight, displayWidth);
+        this.framebuffer = new BitmapFramebuffer(memory, baseAddress, displayWidth, displayHeight);
 
         this.setTitle("Syscall: DisplayBitmap");
         this.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
-        this.panel = new GraphicsPanel(new Dimension(displayWidth, displayHeight), this.grid);
+        this.panel = new JPanel() {
+            @Override
+            protected void paintComponent(final @NotNull Graphics g) {
+                g.drawImage(BitmapDisplay.this.framebuffer.getImage(), 0, 0, null);
+            }
+        };
+        final var size = new Dimension(displayWidth, displayHeight);
+        this.panel.setMinimumSize(size);
+        this.panel.setPreferredSize(size);
+        this.panel.setMaximumSize(size);
         this.add(this.panel);
         this.setResizable(false);
 
-        this.fillGrid();
+        this.framebuffer.refresh();
         this.pack();
 
-        this.accessNoticeCallback = notice -> {
-            if (notice.accessType == AccessNotice.AccessType.WRITE) {
-                this.updateDisplay(notice.address, notice.length);
-            }
-        };
+        this.refreshTimer = new Timer(1000 / BitmapDisplay.FRAMES_PER_SECOND, e -> this.refresh());
+        this.refreshTimer.start();
+    }
 
-        try {
-            this.memory.subscribe(this.accessNoticeCallback, baseAddress, upperAddressBound);
-        } catch (final AddressErrorException e) {
-            throw new RuntimeException(e);
+    private void refresh() {
+        final var changed = this.framebuffer.refresh();
+        if (changed != null) {
+            this.panel.repaint(changed);
         }
     }
 
     public void changeBaseAddress(final int newBaseAddress) {
-        this.memory.deleteSubscriber(this.accessNoticeCallback);
         this.baseAddress = newBaseAddress;
-        this.upperAddressBound = newBaseAddress + (this.displayWidth * this.displayHeight * DataTypes.WORD_SIZE);
-        try {
-            this.memory.subscribe(
-                this.accessNoticeCallback,
-                this.baseAddress,
-                this.upperAddressBound
-            );
-        } catch (final AddressErrorException e) {
-            throw new RuntimeException(e);
-        }
+        this.framebuffer.setBaseAddress(newBaseAddress);
     }
 
+    /** Stops following memory; the window keeps showing the last frame. */
     public void unsubscribeFromMemory() {
-        this.memory.deleteSubscriber(this.accessNoticeCallback);
+        this.refreshTimer.stop();
     }
 
-    private void fillGrid() {
-        var currentOffset = 0;
-        for (int row = 0; row < this.displayHeight; row++) {
-            for (int col = 0; col < this.displayWidth; col++) {
-                final int address = this.baseAddress + currentOffset;
-                try {
-                    final var word = this.memory.getWordNoNotify(address);
-                    final var color = new Color(word);
-                    this.grid.setColor(row, col, color);
-                } catch (final AddressErrorException e) {
-                    LOGGER.error("Error updating color for address {} in bitmap display: {}", address, e);
-                    return;
-                }
-                currentOffset += DataTypes.WORD_SIZE;
-            }
-        }
-    }
-
-    private void updateDisplay(final int memoryAddress, final int writeLength) {
-
-        // figure out which pixels were changed
-        final int endAddress = memoryAddress + writeLength;
-        // clamp the range to the display bounds
-        if (endAddress >= this.baseAddress && memoryAddress <= this.upperAddressBound) {
-            // the memory written may not be aligned by 4 bytes, so we round
-            // the start and end to the nearest 4 byte boundary
-            final var start = (Math.max(memoryAddress, this.baseAddress) / 4) * 4;
-            final var end = ((Math.min(endAddress, this.upperAddressBound) + 3) / 4) * 4;
-            // these values are already nicely aligned, so all that's left to
-            // do is to update the grid
-            var row = (start - this.baseAddress) / (this.displayWidth * 4);
-            var col = (start - this.baseAddress) % (this.displayWidth * 4) / 4;
-            for (int i = start; i < end; i += 4) {
-                try {
-                    final var word = this.memory.getWordNoNotify(i);
-                    final var color = new Color(word);
-                    this.grid.setColor(row, col, color);
-                } catch (final AddressErrorException e) {
-                    LOGGER.error("Error updating color for address {} in bitmap display: {}", i, e);
-                    break;
-                }
-                col++;
-                if (col == this.displayWidth) {
-                    col = 0;
-                    row++;
-                }
-            }
-        }
-        this.panel.repaint();
+    @Override
+    public void dispose() {
+        this.refreshTimer.stop();
+        super.dispose();
     }
 }
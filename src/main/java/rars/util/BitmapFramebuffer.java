@@ -0,0 +1,117 @@
+package rars.util;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import rars.assembler.DataTypes;
+import rars.exceptions.AddressErrorException;
+import rars.riscv.hardware.Memory;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Image of a region of memory holding one RGB word per pixel, the first row
+ * of the region being the bottom row of the image.
+ * <p>
+ * The image is brought up to date by {@link #refresh()}, which copies the
+ * region row by row with the bulk memory read straight into the image's
+ * pixel array, and reports the rectangle that changed. Nothing is done per
+ * memory access, so a running program does not slow down however often it
+ * draws; the cost is paid once per frame instead, by whoever shows the
+ * image.
+ */
+public final class BitmapFramebuffer {
+    private static final @NotNull Logger LOGGER = LogManager.getLogger(BitmapFramebuffer.class);
+
+    public final int width;
+    public final int height;
+    private final @NotNull Memory memory;
+    private final @NotNull BufferedImage image;
+    private final int @NotNull [] pixels;
+    private final int @NotNull [] row;
+    private volatile int baseAddress;
+
+    public BitmapFramebuffer(
+        final @NotNull Memory memory,
+        final int baseAddress,
+        final int width,
+        final int height
+    ) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("The bitmap must be at least one pixel wide and high.");
+        }
+        this.memory = memory;
+        this.baseAddress = baseAddress;
+        this.width = width;
+        this.height = height;
+        this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        this.pixels = ((DataBufferInt) this.image.getRaster().getDataBuffer()).getData();
+        this.row = new int[width];
+    }
+
+    public int getBaseAddress() {
+        return this.baseAddress;
+    }
+
+    /** Shows another region of memory from the next refresh on. */
+    public void setBaseAddress(final int baseAddress) {
+        this.baseAddress = baseAddress;
+    }
+
+    public @NotNull BufferedImage getImage() {
+        return this.image;
+    }
+
+    /**
+     * Copies the region into the image.
+     *
+     * @return the bounds of the pixels that changed since the last refresh,
+     * or {@code null} if none did
+     */
+    public @Nullable Rectangle refresh() {
+        final var baseAddress = this.baseAddress;
+        final var rowBytes = this.width * DataTypes.WORD_SIZE;
+        var minX = this.width;
+        var maxX = -1;
+        var minY = this.height;
+        var maxY = -1;
+        for (var memoryRow = 0; memoryRow < this.height; memoryRow++) {
+            try {
+                this.memory.getWordsNoNotify(baseAddress + memoryRow * rowBytes, this.row, 0, this.width);
+            } catch (final AddressErrorException e) {
+                BitmapFramebuffer.LOGGER.error("Error reading row {} of the bitmap display: {}", memoryRow, e);
+                break;
+            }
+            final var y = this.height - memoryRow - 1;
+            final var rowStart = y * this.width;
+            final var first = Arrays.mismatch(this.pixels, rowStart, rowStart + this.width, this.row, 0, this.width);
+            if (first < 0) {
+                continue;
+            }
+            var last = this.width - 1;
+            while (this.pixels[rowStart + last] == this.row[last]) {
+                last--;
+            }
+            System.arraycopy(this.row, first, this.pixels, rowStart + first, last - first + 1);
+            minX = Math.min(minX, first);
+            maxX = Math.max(maxX, last);
+            minY = Math.min(minY, y);
+            maxY = Math.max(maxY, y);
+        }
+        return maxY < 0 ? null : new Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1);
+    }
+
+    /** Writes the image, as of the last refresh, to a PNG file. */
+    public void writePng(final @NotNull Path file) throws IOException {
+        if (!ImageIO.write(this.image, "png", file.toFile())) {
+            throw new IOException("No writer for PNG images is available.");
+        }
+    }
+}
@@ -2,9 +2,7 @@ package rars.util;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import rars.Globals;
 
-import javax.swing.filechooser.FileFilter;
 import java.io.File;
 import java.util.Arrays;
 import java.util.List;
@@ -48,19 +46,6 @@ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
  */
 public final class FilenameFinder {
 
-    public static @NotNull FileFilter RARS_FILE_FILTER = new FileFilter() {
-        @Override
-        public boolean accept(final File f) {
-            if (f.isDirectory()) return true;
-            return isFileExtensionMatch(f, Globals.fileExtensions);
-        }
-
-        @Override
-        public String getDescription() {
-            return "Assembler files (%s)".formatted(String.join(", ", Globals.fileExtensions));
-        }
-    };
-
     private FilenameFinder() {
     }
 
@@ -100,7 +85,7 @@ public final class FilenameFinder {
      * Returns true if a file's name matches one of the given extensions.
      * Also returns true if the extensions list is empty.
      */
-    private static boolean isFileExtensionMatch(
+    public static boolean isFileExtensionMatch(
         final @NotNull File file,
         final @NotNull List<@NotNull String> extensions
     ) {
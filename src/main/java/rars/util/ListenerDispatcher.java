@@ -2,22 +2,32 @@ package rars.util;
 
 import org.jetbrains.annotations.NotNull;
 
-import java.util.HashSet;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.Arrays;
 import java.util.function.Consumer;
 
+/**
+ * Dispatches data to a set of listeners.
+ * <p>
+ * The listeners are kept in a copy-on-write array: subscribing and
+ * unsubscribing replace the array, while {@link #dispatch(Object)} iterates
+ * over the snapshot it read without taking any lock. Listeners are dispatched
+ * to far more often than they change, so this keeps the hot path down to a
+ * volatile read and a loop.
+ *
+ * @param <Data>
+ *     type of the data passed to the listeners
+ */
 public final class ListenerDispatcher<Data> {
+    private static final ListenerWrapper<?>[] NO_LISTENERS = new ListenerWrapper<?>[0];
 
-    private final @NotNull HashSet<@NotNull ListenerWrapper<? super Data>> listeners;
-    private final @NotNull Lock listenersLock;
+    private volatile @NotNull ListenerWrapper<? super Data> @NotNull [] listeners;
 
     /**
      * Creates a new dispatcher.
      */
+    @SuppressWarnings("unchecked")
     public ListenerDispatcher() {
-        this.listeners = new HashSet<>();
-        this.listenersLock = new ReentrantReadWriteLock().writeLock();
+        this.listeners = (ListenerWrapper<? super Data>[]) NO_LISTENERS;
     }
 
     /**
@@ -27,19 +37,23 @@ public final class ListenerDispatcher<Data> {
      *     The data to pass to the listeners.
      */
     public void dispatch(final Data data) {
-        this.listenersLock.lock();
-        try {
-            for (final var listener : this.listeners) {
-                if (!listener.isCancelled) {
-                    listener.innerListener.accept(data);
-                }
+        for (final var listener : this.listeners) {
+            if (!listener.isCancelled) {
+                listener.innerListener.accept(data);
             }
-            this.listeners.removeIf(listener -> listener.isCancelled);
-        } finally {
-            this.listenersLock.unlock();
         }
     }
 
+    /**
+     * Checks whether anybody is listening. Publishers can use it to avoid
+     * creating the data when it would not be delivered anywhere.
+     *
+     * @return {@code true} if at least one listener is subscribed.
+     */
+    public boolean hasListeners() {
+        return this.listeners.length != 0;
+    }
+
     /**
      * Returns a hook that listeners can subscribe to.
      *
@@ -50,15 +64,16 @@ public final class ListenerDispatcher<Data> {
     }
 
     /**
-     * To prevent co-modification errors in the inner set, we wrap the listeners in a class that
-     * allows us to mark them as cancelled. The purpose of this is to allow listeners to call
-     * {@link Hook#unsubscribe(Consumer)} in their body to remove themselves from the list of listeners.
+     * Listeners may call {@link Hook#unsubscribe(Consumer)} in their body to
+     * remove themselves. The array being dispatched to is a snapshot, so the
+     * wrapper is marked as cancelled to stop it from being called by a
+     * dispatch that is already in progress.
      *
      * @param <Data>
      */
     private static final class ListenerWrapper<Data> {
         public final @NotNull Consumer<? super Data> innerListener;
-        public boolean isCancelled;
+        public volatile boolean isCancelled;
 
         private ListenerWrapper(final @NotNull Consumer<? super Data> innerListener) {
             this.innerListener = innerListener;
@@ -82,25 +97,27 @@ public final class ListenerDispatcher<Data> {
          *     The listener to add.
          */
         public void subscribe(final @NotNull Consumer<? super Data> listener) {
-            ListenerDispatcher.this.listenersLock.lock();
-            try {
-                ListenerDispatcher.this.listeners.add(new ListenerWrapper<>(listener));
-            } finally {
-                ListenerDispatcher.this.listenersLock.unlock();
+            synchronized (ListenerDispatcher.this) {
+                final var current = ListenerDispatcher.this.listeners;
+                final var updated = Arrays.copyOf(current, current.length + 1);
+                updated[current.length] = new ListenerWrapper<>(listener);
+                ListenerDispatcher.this.listeners = updated;
             }
         }
 
         public void unsubscribe(final @NotNull Consumer<? super Data> listener) {
-            ListenerDispatcher.this.listenersLock.lock();
-            try {
-                for (final var wrapper : ListenerDispatcher.this.listeners) {
+            synchronized (ListenerDispatcher.this) {
+                final var current = ListenerDispatcher.this.listeners;
+                for (var i = 0; i < current.length; i++) {
+                    final var wrapper = current[i];
                     if (wrapper.innerListener.equals(listener)) {
                         wrapper.isCancelled = true;
+                        final var updated = Arrays.copyOf(current, current.length - 1);
+                        System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                        ListenerDispatcher.this.listeners = updated;
                         break;
                     }
                 }
-            } finally {
-                ListenerDispatcher.this.listenersLock.unlock();
             }
         }
     }
@@ -0,0 +1,287 @@
+package rars.util;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Text printed by a running program, kept as lines in chunks of
+ * {@link #CHUNK_LINES} lines.
+ * <p>
+ * Only the most recent lines are held, up to a number of lines and of
+ * characters given on creation. Past that, the oldest chunk is dropped as a
+ * whole, so appending costs the same however long the output gets. Dropped
+ * lines are counted, and written to a spill file if one is set, so early
+ * output never disappears without a trace. Lines longer than
+ * {@link #MAXIMUM_LINE_LENGTH} are broken into several.
+ * <p>
+ * Lines are numbered from the start of the output, dropped lines included.
+ * The last line is the one still being printed; it is empty right after a
+ * newline. Not thread safe.
+ */
+public final class RunOutputBuffer {
+    public static final int CHUNK_LINES = 1024;
+    public static final int MAXIMUM_LINE_LENGTH = 16 * 1024;
+
+    private static final @NotNull Logger LOGGER = LogManager.getLogger(RunOutputBuffer.class);
+
+    private final int maximumLines;
+    private final long maximumCharacters;
+    /// Completed lines; every chunk but the last is full.
+    private final @NotNull List<@NotNull String[]> chunks;
+    private final @NotNull List<@NotNull Long> chunkCharacters;
+    private int lastChunkSize;
+    private long characters;
+    private final @NotNull StringBuilder openLine;
+    private long droppedLines;
+    private int longestLine;
+    private @Nullable Path spillFile;
+    private @Nullable Writer spillWriter;
+
+    /** A place in the output, as a line number and a column in that line. */
+    public record Position(long line, int column) implements Comparable<Position> {
+        @Override
+        public int compareTo(final @NotNull Position other) {
+            final var byLine = Long.compare(this.line, other.line);
+            return byLine != 0 ? byLine : Integer.compare(this.column, other.column);
+        }
+    }
+
+    /**
+     * @param maximumLines
+     *     number of completed lines to keep, rounded up to whole chunks
+     * @param maximumCharacters
+     *     number of characters to keep; at least one chunk is kept regardless
+     */
+    public RunOutputBuffer(final int maximumLines, final long maximumCharacters) {
+        if (maximumLines < 1 || maximumCharacters < 1) {
+            throw new IllegalArgumentException("The output limits must be positive.");
+        }
+        this.maximumLines = maximumLines;
+        this.maximumCharacters = maximumCharacters;
+        this.chunks = new ArrayList<>();
+        this.chunkCharacters = new ArrayList<>();
+        this.openLine = new StringBuilder();
+        this.clear();
+    }
+
+    /**
+     * Sets the file dropped lines are written to, or {@code null} to only count
+     * them. The file is overwritten when the first line is dropped into it.
+     */
+    public void setSpillFile(final @Nullable Path spillFile) {
+        this.closeSpillWriter();
+        this.spillFile = spillFile;
+    }
+
+    /** @return the file dropped lines are written to, if any */
+    public @Nullable Path getSpillFile() {
+        return this.spillFile;
+    }
+
+    /** Appends text; {@code '\n'} ends a line. */
+    public void append(final @NotNull CharSequence text) {
+        var start = 0;
+        for (var i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                this.appendToOpenLine(text, start, i);
+                this.completeOpenLine();
+                start = i + 1;
+            }
+        }
+        this.appendToOpenLine(text, start, text.length());
+    }
+
+    /** Removes all text, dropped lines included. */
+    public void clear() {
+        this.chunks.clear();
+        this.chunkCharacters.clear();
+        this.chunks.add(new String[RunOutputBuffer.CHUNK_LINES]);
+        this.chunkCharacters.add(0L);
+        this.lastChunkSize = 0;
+        this.characters = 0;
+        this.openLine.setLength(0);
+        this.droppedLines = 0;
+        this.longestLine = 0;
+        this.closeSpillWriter();
+    }
+
+    /** Stops writing to the spill file. */
+    public void close() {
+        this.closeSpillWriter();
+    }
+
+    /** @return the number of the first line still held */
+    public long getFirstLine() {
+        return this.droppedLines;
+    }
+
+    /** @return the number of lines since the start of the output, the line being printed included */
+    public long getLineCount() {
+        return this.droppedLines + this.getHeldLineCount();
+    }
+
+    /** @return the number of lines held, the line being printed included */
+    public int getHeldLineCount() {
+        return (this.chunks.size() - 1) * RunOutputBuffer.CHUNK_LINES + this.lastChunkSize + 1;
+    }
+
+    /** @return the length of the longest line held since the last {@link #clear()} */
+    public int getLongestLineLength() {
+        return Math.max(this.longestLine, this.openLine.length());
+    }
+
+    /**
+     * @param line
+     *     a line number from {@link #getFirstLine()} to {@link #getLineCount()}, exclusive
+     */
+    public @NotNull String getLine(final long line) {
+        final var index = line - this.droppedLines;
+        if (index < 0 || index >= this.getHeldLineCount()) {
+            throw new IndexOutOfBoundsException("Line " + line + " is not held.");
+        }
+        final var completed = this.getHeldLineCount() - 1;
+        if (index == completed) {
+            return this.openLine.toString();
+        }
+        final var chunk = (int) (index / RunOutputBuffer.CHUNK_LINES);
+        return this.chunks.get(chunk)[(int) (index % RunOutputBuffer.CHUNK_LINES)];
+    }
+
+    /**
+     * @return the held text from {@code start} to {@code end}, exclusive, with
+     * the parts that were dropped left out
+     */
+    public @NotNull String getText(final @NotNull Position start, final @NotNull Position end) {
+        final var builder = new StringBuilder();
+        final var from = Math.max(start.line, this.droppedLines);
+        final var to = Math.min(end.line, this.getLineCount() - 1);
+        for (var line = from; line <= to; line++) {
+            final var text = this.getLine(line);
+            final var first = line == start.line ? Math.min(start.column, text.length()) : 0;
+            final var last = line == end.line ? Math.min(end.column, text.length()) : text.length();
+            if (first < last) {
+                builder.append(text, first, last);
+            }
+            if (line < end.line) {
+                builder.append('\n');
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Looks for {@code text}, ignoring case, in the held lines from
+     * {@code from} on, then from the first held line.
+     *
+     * @return where the match starts, or {@code null} if there is none
+     */
+    public @Nullable Position find(final @NotNull String text, final @NotNull Position from) {
+        if (text.isEmpty()) {
+            return null;
+        }
+        final var start = from.line < this.droppedLines || from.line >= this.getLineCount()
+            ? new Position(this.droppedLines, 0)
+            : from;
+        final var lineCount = this.getLineCount();
+        for (var line = start.line; line < lineCount; line++) {
+            final var column = RunOutputBuffer.indexOfIgnoreCase(
+                this.getLine(line), text,
+                line == start.line ? start.column : 0
+            );
+            if (column >= 0) {
+                return new Position(line, column);
+            }
+        }
+        for (var line = this.droppedLines; line <= start.line; line++) {
+            final var column = RunOutputBuffer.indexOfIgnoreCase(this.getLine(line), text, 0);
+            if (column >= 0 && (line < start.line || column < start.column)) {
+                return new Position(line, column);
+            }
+        }
+        return null;
+    }
+
+    private static int indexOfIgnoreCase(final @NotNull String line, final @NotNull String text, final int from) {
+        for (var i = Math.max(from, 0); i + text.length() <= line.length(); i++) {
+            if (line.regionMatches(true, i, text, 0, text.length())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void appendToOpenLine(final @NotNull CharSequence text, int start, final int end) {
+        while (end - start > RunOutputBuffer.MAXIMUM_LINE_LENGTH - this.openLine.length()) {
+            final var split = start + RunOutputBuffer.MAXIMUM_LINE_LENGTH - this.openLine.length();
+            this.openLine.append(text, start, split);
+            this.completeOpenLine();
+            start = split;
+        }
+        this.openLine.append(text, start, end);
+    }
+
+    private void completeOpenLine() {
+        final var line = this.openLine.toString();
+        this.openLine.setLength(0);
+        if (this.lastChunkSize == RunOutputBuffer.CHUNK_LINES) {
+            this.chunks.add(new String[RunOutputBuffer.CHUNK_LINES]);
+            this.chunkCharacters.add(0L);
+            this.lastChunkSize = 0;
+        }
+        final var last = this.chunks.size() - 1;
+        this.chunks.get(last)[this.lastChunkSize++] = line;
+        this.chunkCharacters.set(last, this.chunkCharacters.get(last) + line.length());
+        this.characters += line.length();
+        this.longestLine = Math.max(this.longestLine, line.length());
+        while (this.chunks.size() > 1
+            && (this.getHeldLineCount() - 1 - RunOutputBuffer.CHUNK_LINES >= this.maximumLines
+            || this.characters > this.maximumCharacters)) {
+            this.dropFirstChunk();
+        }
+    }
+
+    private void dropFirstChunk() {
+        final var chunk = this.chunks.removeFirst();
+        this.characters -= this.chunkCharacters.removeFirst();
+        this.droppedLines += chunk.length;
+        if (this.spillFile == null) {
+            return;
+        }
+        try {
+            if (this.spillWriter == null) {
+                this.spillWriter = Files.newBufferedWriter(this.spillFile, StandardCharsets.UTF_8);
+            }
+            for (final var line : chunk) {
+                this.spillWriter.write(line);
+                this.spillWriter.write('\n');
+            }
+            this.spillWriter.flush();
+        } catch (final IOException e) {
+            RunOutputBuffer.LOGGER.error("Error while writing dropped output to {}", this.spillFile, e);
+            this.closeSpillWriter();
+            this.spillFile = null;
+        }
+    }
+
+    private void closeSpillWriter() {
+        if (this.spillWriter == null) {
+            return;
+        }
+        try {
+            this.spillWriter.close();
+        } catch (final IOException e) {
+            RunOutputBuffer.LOGGER.error("Error while closing {}", this.spillFile, e);
+        }
+        this.spillWriter = null;
+    }
+}
@@ -0,0 +1,197 @@
+package rars.venus;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import rars.ErrorList;
+import rars.ErrorMessage;
+import rars.Globals;
+import rars.RISCVProgram;
+import rars.assembler.Assembler;
+import rars.assembler.SymbolTable;
+import rars.exceptions.AssemblyException;
+import rars.riscv.hardware.Memory;
+import rars.riscv.hardware.MemoryConfiguration;
+import rars.settings.BoolSetting;
+import rars.util.FilenameFinder;
+
+import javax.swing.*;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static rars.Globals.BOOL_SETTINGS;
+
+/**
+ * Assembles the program being edited in the background and marks its errors
+ * and warnings in the editors, so they show up while typing rather than only
+ * after an explicit assemble.
+ * <p>
+ * A check starts once the text has not changed for {@link #DELAY_MS}
+ * milliseconds. The text of the open editors is copied on the event dispatch
+ * thread, and assembled on a worker thread into a memory and symbol table of
+ * its own, so the program loaded in the simulator is left alone. Every edit
+ * moves a generation counter on: a check that is no longer current stops at
+ * the next file, and its messages are never shown.
+ */
+public final class BackgroundAssembler {
+    public static final int DELAY_MS = 500;
+
+    private static final @NotNull Logger LOGGER = LogManager.getLogger(BackgroundAssembler.class);
+
+    private final @NotNull EditTabbedPane editTabbedPane;
+    private final @NotNull Timer delayTimer;
+    private final @NotNull ExecutorService worker;
+    private final @NotNull AtomicLong generation;
+
+    /// What a check assembles, as of the moment it was started.
+    private record Check(
+        long generation,
+        @NotNull File leadFile,
+        boolean leadFileIsNew,
+        @NotNull Map<@NotNull File, @NotNull String> openSources,
+        boolean assembleAll,
+        boolean assembleOpen,
+        boolean extendedAssemblerEnabled,
+        boolean warningsAreErrors,
+        @NotNull MemoryConfiguration memoryConfiguration
+    ) {
+    }
+
+    public BackgroundAssembler(final @NotNull EditTabbedPane editTabbedPane) {
+        this.editTabbedPane = editTabbedPane;
+        this.generation = new AtomicLong();
+        this.delayTimer = new Timer(BackgroundAssembler.DELAY_MS, e -> this.startCheck());
+        this.delayTimer.setRepeats(false);
+        this.worker = Executors.newSingleThreadExecutor(runnable -> {
+            final var thread = new Thread(runnable, "Background assembler");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * Checks the program again once editing pauses. Any check under way is
+     * abandoned. Must be called on the event dispatch thread.
+     */
+    public void scheduleCheck() {
+        this.generation.incrementAndGet();
+        this.delayTimer.restart();
+    }
+
+    private void startCheck() {
+        final var leadPane = this.editTabbedPane.getCurrentEditTab();
+        if (leadPane == null || leadPane.getFile() == null) {
+            return;
+        }
+        final var openSources = new HashMap<File, String>();
+        for (final var pane : this.editTabbedPane.getEditPanes()) {
+            if (pane.getFile() != null) {
+                openSources.put(pane.getFile(), pane.getSource());
+            }
+        }
+        final var check = new Check(
+            this.generation.get(),
+            leadPane.getFile(),
+            leadPane.isNew(),
+            openSources,
+            BOOL_SETTINGS.getSetting(BoolSetting.ASSEMBLE_ALL),
+            BOOL_SETTINGS.getSetting(BoolSetting.ASSEMBLE_OPEN),
+            BOOL_SETTINGS.getSetting(BoolSetting.EXTENDED_ASSEMBLER_ENABLED),
+            BOOL_SETTINGS.getSetting(BoolSetting.WARNINGS_ARE_ERRORS),
+            Globals.MEMORY_INSTANCE.getMemoryConfiguration()
+        );
+        this.worker.execute(() -> this.run(check));
+    }
+
+    private boolean isStale(final @NotNull Check check) {
+        return check.generation != this.generation.get();
+    }
+
+    /// The same files an assemble would take, the lead file first.
+    private static @NotNull List<@NotNull File> getFilesToAssemble(final @NotNull Check check) {
+        final var files = new ArrayList<File>();
+        files.add(check.leadFile);
+        final var directory = check.leadFile.getParentFile();
+        if (check.assembleAll && !check.leadFileIsNew && directory != null) {
+            for (final var file : FilenameFinder.getFilenameListForDirectory(directory, Globals.fileExtensions)) {
+                if (!files.contains(file)) {
+                    files.add(file);
+                }
+            }
+        }
+        if (check.assembleOpen) {
+            for (final var file : check.openSources.keySet()) {
+                if (!files.contains(file)) {
+                    files.add(file);
+                }
+            }
+        }
+        return files;
+    }
+
+    private void run(final @NotNull Check check) {
+        if (this.isStale(check)) {
+            return;
+        }
+        final var globalSymbolTable = new SymbolTable();
+        final var programs = new ArrayList<RISCVProgram>();
+        ErrorList messages;
+        try {
+            for (final var file : BackgroundAssembler.getFilesToAssemble(check)) {
+                if (this.isStale(check)) {
+                    return;
+                }
+                final var program = new RISCVProgram();
+                final var source = check.openSources.get(file);
+                if (source != null) {
+                    program.fromString(source, file);
+                } else {
+                    program.readSource(file);
+                }
+                program.tokenize(globalSymbolTable);
+                programs.add(program);
+            }
+            if (this.isStale(check)) {
+                return;
+            }
+            messages = Assembler.assemble(
+                programs,
+                check.extendedAssemblerEnabled,
+                check.warningsAreErrors,
+                new Memory(check.memoryConfiguration),
+                globalSymbolTable
+            ).second();
+        } catch (final AssemblyException e) {
+            messages = e.errors;
+        } catch (final RuntimeException e) {
+            // half-typed code can trip up the assembler; an explicit assemble reports it properly
+            BackgroundAssembler.LOGGER.debug("Background assembly failed", e);
+            return;
+        }
+        final var published = messages.getErrorMessages();
+        SwingUtilities.invokeLater(() -> {
+            if (!this.isStale(check)) {
+                this.showMessages(published);
+            }
+        });
+    }
+
+    private void showMessages(final @NotNull List<@NotNull ErrorMessage> messages) {
+        for (final var pane : this.editTabbedPane.getEditPanes()) {
+            final var file = pane.getFile();
+            pane.sourceCode.setErrorMarkers(
+                messages.stream()
+                    .filter(message -> Objects.equals(message.file, file))
+                    .toList()
+            );
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package rars.venus;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A long operation started from the GUI, such as assembling or dumping
+ * memory, run on a worker thread so the window keeps painting.
+ * <p>
+ * {@link #doInBackground()} runs on a single worker thread shared by all
+ * tasks. It must not touch Swing components or state the EDT reads; it
+ * returns what it produced, and {@link #succeeded(Object)} applies that on
+ * the event dispatch thread. While the task runs, the main window takes no
+ * input. If it takes longer than {@link #PROGRESS_DELAY_MS} milliseconds, a
+ * dialog shows the notes the task {@linkplain #publish(Object[]) publishes},
+ * its {@linkplain #setProgress(int) progress} if it reports any, and a
+ * button that cancels it. Cancelling interrupts the worker thread; work that
+ * takes long should check {@link Thread#isInterrupted()} and give up with a
+ * {@link CancellationException}. The window stays disabled until the worker
+ * has actually returned, so a cancelled task cannot race a new one.
+ *
+ * @param <T>
+ *     the result of the task
+ */
+public abstract class BackgroundTask<T> extends SwingWorker<T, String> {
+    public static final int PROGRESS_DELAY_MS = 300;
+
+    private static final @NotNull ExecutorService WORKER = Executors.newSingleThreadExecutor(runnable -> {
+        final var thread = new Thread(runnable, "GUI task worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    protected final @NotNull VenusUI mainUI;
+    private final @NotNull String title;
+    private final @NotNull Timer progressTimer;
+    private final @NotNull JLabel noteLabel;
+    private final @NotNull JProgressBar progressBar;
+    private @Nullable JDialog progressDialog;
+    // both only touched on the event dispatch thread; the task is over once both are set
+    private boolean isDoneCalled, isWorkerFinished;
+
+    protected BackgroundTask(final @NotNull VenusUI mainUI, final @NotNull String title) {
+        super();
+        this.mainUI = mainUI;
+        this.title = title;
+        this.noteLabel = new JLabel(title + "...");
+        this.progressBar = new JProgressBar(0, 100);
+        this.progressBar.setIndeterminate(true);
+        this.progressTimer = new Timer(BackgroundTask.PROGRESS_DELAY_MS, null);
+        this.progressTimer.setRepeats(false);
+    }
+
+    /** Starts the task. Must be called on the event dispatch thread. */
+    public final void start() {
+        this.progressTimer.addActionListener(e -> this.showProgressDialog());
+        this.addPropertyChangeListener(event -> {
+            if ("progress".equals(event.getPropertyName())) {
+                this.progressBar.setIndeterminate(false);
+                this.progressBar.setValue((Integer) event.getNewValue());
+            }
+        });
+        this.mainUI.setEnabled(false);
+        this.progressTimer.start();
+        BackgroundTask.WORKER.execute(() -> {
+            try {
+                this.run();
+            } finally {
+                SwingUtilities.invokeLater(() -> {
+                    this.isWorkerFinished = true;
+                    this.finish();
+                });
+            }
+        });
+    }
+
+    /** Applies the result of the task, on the event dispatch thread. */
+    protected abstract void succeeded(T result);
+
+    /**
+     * Reports that the task threw {@code cause}, on the event dispatch thread.
+     * By default, shows it in the Messages tab.
+     */
+    protected void failed(final @NotNull Throwable cause) {
+        this.mainUI.messagesPane.postMessage("%s: %s\n\n".formatted(this.title, cause));
+    }
+
+    /** Reports that the task was cancelled, on the event dispatch thread. */
+    protected void cancelled() {
+        this.mainUI.messagesPane.postMessage(this.title + ": cancelled.\n\n");
+    }
+
+    @Override
+    protected final void process(final @NotNull List<String> notes) {
+        this.noteLabel.setText(notes.getLast());
+    }
+
+    /**
+     * Called as soon as the task completes or is cancelled. A cancelled
+     * worker may still be running, so the results are only reported once it
+     * has returned as well.
+     */
+    @Override
+    protected final void done() {
+        this.isDoneCalled = true;
+        if (this.isCancelled() && !this.isWorkerFinished) {
+            this.noteLabel.setText("Cancelling...");
+        }
+        this.finish();
+    }
+
+    private void finish() {
+        if (!this.isDoneCalled || !this.isWorkerFinished) {
+            return;
+        }
+        this.progressTimer.stop();
+        if (this.progressDialog != null) {
+            this.progressDialog.dispose();
+        }
+        this.mainUI.setEnabled(true);
+        this.mainUI.toFront();
+        if (this.isCancelled()) {
+            this.cancelled();
+            return;
+        }
+        try {
+            this.succeeded(this.get());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof CancellationException) {
+                this.cancelled();
+            } else {
+                this.failed(e.getCause());
+            }
+        }
+    }
+
+    private void showProgressDialog() {
+        if (this.isDone()) {
+            return;
+        }
+        final var cancelButton = new JButton("Cancel");
+        cancelButton.addActionListener(e -> {
+            cancelButton.setEnabled(false);
+            this.cancel(true);
+        });
+        final var contents = new JPanel(new BorderLayout(10, 10));
+        contents.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        contents.add(this.noteLabel, BorderLayout.NORTH);
+        contents.add(this.progressBar, BorderLayout.CENTER);
+        final var buttonRow = Box.createHorizontalBox();
+        buttonRow.add(Box.createHorizontalGlue());
+        buttonRow.add(cancelButton);
+        contents.add(buttonRow, BorderLayout.SOUTH);
+
+        this.progressDialog = new JDialog(this.mainUI, this.title, false);
+        this.progressDialog.setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+        this.progressDialog.setContentPane(contents);
+        this.progressDialog.setMinimumSize(new Dimension(320, 0));
+        this.progressDialog.pack();
+        this.progressDialog.setLocationRelativeTo(this.mainUI);
+        this.progressDialog.setVisible(true);
+    }
+}
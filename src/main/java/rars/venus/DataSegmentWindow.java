@@ -9,6 +9,7 @@ import rars.exceptions.AddressErrorException;
 import rars.notices.AccessNotice;
 import rars.notices.MemoryAccessNotice;
 import rars.notices.SimulatorNotice;
+import rars.riscv.hardware.Memory;
 import rars.riscv.hardware.MemoryConfiguration;
 import rars.settings.BoolSetting;
 import rars.util.BinaryUtils;
@@ -27,10 +28,12 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ItemEvent;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.function.Consumer;
 
 import static rars.Globals.*;
+import static rars.settings.GuiSettings.*;
 import static rars.util.Utils.deriveFontFromStyle;
 
 /*
@@ -129,12 +132,34 @@ public final class DataSegmentWindow extends JInternalFrame {
     private int[] displayBaseAddresses;
     private int defaultBaseAddressIndex;
     private JButton[] baseAddressButtons;
+    private static final int FORMAT_CACHE_SIZE = 256; // power of two
+    /*
+     * What the table currently shows, so an update only reads the range again
+     * if memory reports a write to its pages, and only reformats the cells
+     * whose value changed. A null memory means the table must be redrawn.
+     */
+    private @Nullable Memory shownMemory;
+    private int shownFirstAddress;
+    private int shownValueFormat;
+    private long shownFirstPageGeneration, shownLastPageGeneration;
+    private final int @NotNull [] shownValues =
+        new int[DataSegmentWindow.NUMBER_OF_ROWS * DataSegmentWindow.VALUES_PER_ROW];
+    // formatted values by value, direct mapped; most cells hold one of a few common values
+    private final @Nullable String @NotNull [] formattedValues = new String[DataSegmentWindow.FORMAT_CACHE_SIZE];
+    private final int @NotNull [] formattedValueKeys = new int[DataSegmentWindow.FORMAT_CACHE_SIZE];
+    private int formattedValuesFormat = -1;
+    /*
+     * Address of the last write the running program made, highlighted by the
+     * next update rather than on every write.
+     */
+    private volatile int writtenAddress;
+    private volatile boolean writtenAddressPending;
     public final @NotNull Consumer<@NotNull MemoryAccessNotice> processMemoryAccessNotice = notice -> {
         if (notice.accessType == AccessNotice.AccessType.WRITE) {
             // Uses the same highlighting technique as for Text Segment -- see
             // AddressCellRenderer class in DataSegmentWindow.java.
-            final var address = notice.address;
-            this.highlightCellForAddress(address);
+            this.writtenAddress = notice.address;
+            this.writtenAddressPending = true;
         }
     };
 
@@ -558,6 +583,7 @@ public final class DataSegmentWindow extends JInternalFrame {
      * Generates and displays fresh table, typically done upon successful assembly.
      */
     public void setupTable() {
+        this.shownMemory = null;
         this.tablePanel.removeAll();
         this.tablePanel.add(this.generateDataPanel());
         this.contentPane.add(this.tablePanel);
@@ -568,6 +594,7 @@ public final class DataSegmentWindow extends JInternalFrame {
      * Removes the table from its frame, typically done when a file is closed.
      */
     public void clearWindow() {
+        this.shownMemory = null;
         this.tablePanel.removeAll();
         this.disableAllButtons();
     }
@@ -613,66 +640,94 @@ public final class DataSegmentWindow extends JInternalFrame {
         if (this.tablePanel.getComponentCount() == 0) {
             return; // ignore if no content to change
         }
-        final int valueBase = this.getValueDisplayFormat();
+        final Memory memory = Globals.MEMORY_INSTANCE;
+        final int lastAddr = firstAddr + DataSegmentWindow.MEMORY_CHUNK_SIZE - 1;
+        final int valueFormat = this.getValueDisplayFormat();
+        final boolean sameRange = memory == this.shownMemory && firstAddr == this.shownFirstAddress;
+        final boolean sameCells = sameRange && valueFormat == this.shownValueFormat;
+        // the range spans at most two pages; read their generations before the values, so a
+        // write made meanwhile is picked up by the next update
+        final long firstPageGeneration = memory.getPageGeneration(firstAddr);
+        final long lastPageGeneration = memory.getPageGeneration(lastAddr);
+        final boolean memoryMapped = Integer.compareUnsigned(
+            lastAddr,
+            memory.getMemoryConfiguration().memoryMapBaseAddress
+        ) >= 0;
+        if (sameCells && !memoryMapped
+            && firstPageGeneration == this.shownFirstPageGeneration
+            && lastPageGeneration == this.shownLastPageGeneration) {
+            return; // nothing was written to the range since it was shown
+        }
         final int addressBase = this.executePane.getAddressDisplayBase();
+        final var dataModel = (DataTableModel) DataSegmentWindow.dataTable.getModel();
         int address = firstAddr;
-        final TableModel dataModel = DataSegmentWindow.dataTable.getModel();
         for (int row = 0; row < DataSegmentWindow.NUMBER_OF_ROWS; row++) {
-            ((DataTableModel) dataModel).setDisplayAndModelValueAt(
-                NumberDisplayBaseChooser.formatUnsignedInteger(address, addressBase), row,
-                DataSegmentWindow.ADDRESS_COLUMN
-            );
+            if (!sameRange) {
+                dataModel.setDisplayAndModelValueAt(
+                    NumberDisplayBaseChooser.formatUnsignedInteger(address, addressBase), row,
+                    DataSegmentWindow.ADDRESS_COLUMN
+                );
+            }
             for (int column = 1; column < DataSegmentWindow.NUMBER_OF_COLUMNS; column++) {
-                try {
-                    ((DataTableModel) dataModel).setDisplayAndModelValueAt(
-                        NumberDisplayBaseChooser.formatNumber(
-                            Globals.MEMORY_INSTANCE.getWordNoNotify(address),
-                            valueBase
-                        ),
-                        row, column
-                    );
-                } catch (final AddressErrorException aee) {
-                    // Bit of a hack here. Memory will throw an exception if you try to read
-                    // directly from text segment when the
-                    // self-modifying code setting is disabled. This is a good thing if it is the
-                    // executing MIPS program trying to
-                    // read. But not a good thing if it is the DataSegmentDisplay trying to read.
-                    // I'll trick Memory by
-                    // temporarily enabling the setting as "non persistent" so it won't write
-                    // through to the registry.
-                    if (Globals.MEMORY_INSTANCE.isAddressInTextSegment(address)) {
-                        int displayValue = 0;
-                        if (!BOOL_SETTINGS.getSetting(BoolSetting.SELF_MODIFYING_CODE_ENABLED)) {
-                            BOOL_SETTINGS.setSetting(BoolSetting.SELF_MODIFYING_CODE_ENABLED, true);
-                            try {
-                                displayValue = Globals.MEMORY_INSTANCE.getWordNoNotify(address);
-                            } catch (final AddressErrorException e) {
-                                // Still got an exception? Doesn't seem possible but if we drop through it will
-                                // write default value 0.
-                            }
-                            BOOL_SETTINGS.setSetting(BoolSetting.SELF_MODIFYING_CODE_ENABLED, false);
-                        }
-                        ((DataTableModel) dataModel).setDisplayAndModelValueAt(
-                            NumberDisplayBaseChooser.formatNumber(displayValue, valueBase), row, column);
-                    }
-                    // Bug Fix: the following line of code disappeared during the release 4.4 mods,
-                    // but is essential to
-                    // display values of 0 for valid MIPS addresses that are outside the MARS
-                    // simulated address space. Such
-                    // addresses cause an AddressErrorException. Prior to 4.4, they performed this
-                    // line of code unconditionally.
-                    // With 4.4, I added the above IF statement to work with the text segment but
-                    // inadvertently removed this line!
-                    // Now it becomes the "else" part, executed when not in text segment. DPS
-                    // 8-July-2014.
-                    else {
-                        ((DataTableModel) dataModel).setDisplayAndModelValueAt(
-                            NumberDisplayBaseChooser.formatNumber(0, valueBase), row, column);
-                    }
+                final int value = DataSegmentWindow.readWordForDisplay(memory, address);
+                final int index = row * DataSegmentWindow.VALUES_PER_ROW + column - 1;
+                if (!sameCells || value != this.shownValues[index]) {
+                    this.shownValues[index] = value;
+                    dataModel.setDisplayAndModelValueAt(this.formatValue(value, valueFormat), row, column);
                 }
                 address += DataSegmentWindow.BYTES_PER_VALUE;
             }
         }
+        this.shownMemory = memory;
+        this.shownFirstAddress = firstAddr;
+        this.shownValueFormat = valueFormat;
+        this.shownFirstPageGeneration = firstPageGeneration;
+        this.shownLastPageGeneration = lastPageGeneration;
+    }
+
+    private static int readWordForDisplay(final @NotNull Memory memory, final int address) {
+        try {
+            return memory.getWordNoNotify(address);
+        } catch (final AddressErrorException aee) {
+            // Bit of a hack here. Memory will throw an exception if you try to read
+            // directly from text segment when the
+            // self-modifying code setting is disabled. This is a good thing if it is the
+            // executing MIPS program trying to
+            // read. But not a good thing if it is the DataSegmentDisplay trying to read.
+            // I'll trick Memory by
+            // temporarily enabling the setting as "non persistent" so it won't write
+            // through to the registry.
+            int displayValue = 0;
+            if (memory.isAddressInTextSegment(address)
+                && !BOOL_SETTINGS.getSetting(BoolSetting.SELF_MODIFYING_CODE_ENABLED)) {
+                BOOL_SETTINGS.setSetting(BoolSetting.SELF_MODIFYING_CODE_ENABLED, true);
+                try {
+                    displayValue = memory.getWordNoNotify(address);
+                } catch (final AddressErrorException e) {
+                    // Still got an exception? Doesn't seem possible but if we drop through it will
+                    // write default value 0.
+                }
+                BOOL_SETTINGS.setSetting(BoolSetting.SELF_MODIFYING_CODE_ENABLED, false);
+            }
+            // Bug Fix: valid MIPS addresses that are outside the MARS simulated address
+            // space cause an AddressErrorException, and must display as 0. DPS 8-July-2014.
+            return displayValue;
+        }
+    }
+
+    private @NotNull String formatValue(final int value, final int valueFormat) {
+        if (valueFormat != this.formattedValuesFormat) {
+            Arrays.fill(this.formattedValues, null);
+            this.formattedValuesFormat = valueFormat;
+        }
+        final int slot = (value ^ (value >>> 16)) & (DataSegmentWindow.FORMAT_CACHE_SIZE - 1);
+        String formatted = this.formattedValues[slot];
+        if (formatted == null || this.formattedValueKeys[slot] != value) {
+            formatted = NumberDisplayBaseChooser.formatNumber(value, valueFormat);
+            this.formattedValues[slot] = formatted;
+            this.formattedValueKeys[slot] = value;
+        }
+        return formatted;
     }
 
     /**
@@ -684,6 +739,7 @@ public final class DataSegmentWindow extends JInternalFrame {
      *     a int
      */
     public void updateCell(final int address, final int value) {
+        this.shownMemory = null;
         final int offset = address - this.firstAddress;
         if (offset < 0 || offset >= DataSegmentWindow.MEMORY_CHUNK_SIZE) { // out of range
             return;
@@ -727,6 +783,11 @@ public final class DataSegmentWindow extends JInternalFrame {
      * Update data display to show all values
      */
     public void updateValues() {
+        if (this.writtenAddressPending) {
+            this.writtenAddressPending = false;
+            // may move the range to show the address
+            this.highlightCellForAddress(this.writtenAddress);
+        }
         this.updateModelForMemoryRange(this.firstAddress);
     }
 
@@ -742,6 +803,8 @@ public final class DataSegmentWindow extends JInternalFrame {
      * Reset all data display values to 0
      */
     public void resetValues() {
+        this.shownMemory = null;
+        this.writtenAddressPending = false;
         final int valueBase = this.executePane.getValueDisplayBase();
         final TableModel dataModel = DataSegmentWindow.dataTable.getModel();
         for (int row = 0; row < DataSegmentWindow.NUMBER_OF_ROWS; row++) {
@@ -15,6 +15,7 @@ import java.awt.*;
 import java.io.File;
 
 import static rars.Globals.*;
+import static rars.settings.GuiSettings.*;
 
 /*
 Copyright (c) 2003-2011,  Pete Sanderson and Kenneth Vollmar
@@ -107,6 +108,7 @@ public final class EditPane extends JPanel {
             new DocumentListener() {
                 @Override
                 public void insertUpdate(final DocumentEvent evt) {
+                    EditPane.this.mainUI.mainPane.editTabbedPane.backgroundAssembler.scheduleCheck();
                     // IF statement added DPS 9-Aug-2011
                     // This method is triggered when file contents added to document
                     // upon opening, even though not edited by user. The IF
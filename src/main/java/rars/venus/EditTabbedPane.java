@@ -63,6 +63,7 @@ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
  * @author Sanderson
  */
 public final class EditTabbedPane extends JPanel {
+    public final @NotNull BackgroundAssembler backgroundAssembler;
     private final @NotNull MainPane mainPane;
     private final @NotNull VenusUI mainUI;
     private final @NotNull Editor editor;
@@ -91,10 +92,13 @@ public final class EditTabbedPane extends JPanel {
         this.fileOpener = new FileOpener(editor);
         this.mainPane = mainPane;
         this.editor.setEditTabbedPane(this);
+        this.backgroundAssembler = new BackgroundAssembler(this);
         this.tabbedPane.addChangeListener(
             e -> {
                 final EditPane editPane = (EditPane) tabbedPane.getSelectedComponent();
                 if (editPane != null) {
+                    // the selected file is the one assembled first
+                    this.backgroundAssembler.scheduleCheck();
                     // New IF statement to permit free traversal of edit panes w/o invalidating
                     // assembly if assemble-all is selected. DPS 9-Aug-2011
                     if (BOOL_SETTINGS.getSetting(BoolSetting.ASSEMBLE_ALL)) {
@@ -447,6 +451,14 @@ public final class EditTabbedPane extends JPanel {
         return result;
     }
 
+    public @NotNull List<@NotNull EditPane> getEditPanes() {
+        final var result = new ArrayList<EditPane>();
+        for (final var component : tabbedPane.getComponents()) {
+            result.add((EditPane) component);
+        }
+        return result;
+    }
+
     public @NotNull List<@NotNull File> getOpenFilePaths() {
         final var result = new ArrayList<File>();
         for (final var component : tabbedPane.getComponents()) {
@@ -591,6 +603,18 @@ public final class EditTabbedPane extends JPanel {
 
     private final class FileOpener {
         private static final @NotNull Logger LOGGER = LogManager.getLogger(FileOpener.class);
+        private static final @NotNull FileFilter RARS_FILE_FILTER = new FileFilter() {
+            @Override
+            public boolean accept(final File f) {
+                if (f.isDirectory()) return true;
+                return FilenameFinder.isFileExtensionMatch(f, Globals.fileExtensions);
+            }
+
+            @Override
+            public String getDescription() {
+                return "Assembler files (%s)".formatted(String.join(", ", Globals.fileExtensions));
+            }
+        };
         private final @NotNull JFileChooser fileChooser;
         private final @NotNull ArrayList<@NotNull FileFilter> fileFilterList;
         private final @NotNull PropertyChangeListener listenForUserAddedFileFilter;
@@ -608,7 +632,7 @@ public final class EditTabbedPane extends JPanel {
             // Note: add sequence is significant - last one added becomes default.
             this.fileFilterList = new ArrayList<>();
             this.fileFilterList.add(this.fileChooser.getAcceptAllFileFilter());
-            this.fileFilterList.add(FilenameFinder.RARS_FILE_FILTER);
+            this.fileFilterList.add(RARS_FILE_FILTER);
             this.fileFilterCount = 0; // this will trigger fileChooser file filter load in next line
             this.setChoosableFileFilters();
         }
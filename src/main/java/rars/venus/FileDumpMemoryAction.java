@@ -1,6 +1,7 @@
 package rars.venus;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import rars.Globals;
 import rars.assembler.DataTypes;
 import rars.exceptions.AddressErrorException;
@@ -181,60 +182,49 @@ public final class FileDumpMemoryAction extends GuiAction {
             e -> {
                 final var selectedSegment = (AugmentedSegmentInfo) this.segmentListSelector.getSelectedItem();
                 if (selectedSegment == null) return;
-                final var wasDumped = this.performDump(
-                    selectedSegment.segmentInfo.baseAddress(),
-                    selectedSegment.actualHighAddress,
-                    (DumpFormat) this.formatListSelector.getSelectedItem()
-                );
-                if (wasDumped) {
+                final var file = this.chooseDumpFile();
+                if (file != null) {
                     this.closeDialog();
+                    new DumpTask(
+                        file,
+                        selectedSegment.segmentInfo.baseAddress(),
+                        selectedSegment.actualHighAddress,
+                        (DumpFormat) this.formatListSelector.getSelectedItem()
+                    ).start();
                 }
             });
         return dumpButton;
     }
 
-    // User has clicked "Dump" button, so launch a file chooser then get
-    // segment (memory range) and format selections and save to the file.
-    private boolean performDump(final int firstAddress, final int lastAddress, final DumpFormat format) {
-
+    // User has clicked "Dump" button, so launch a file chooser to get the file
+    // to save to. Returns null if the user cancelled.
+    private @Nullable File chooseDumpFile() {
         final JFileChooser saveDialog = new JFileChooser(this.mainUI.editor.getCurrentSaveDirectory());
         saveDialog.setDialogTitle(FileDumpMemoryAction.title);
-        boolean operationOK = false;
-        while (!operationOK) {
+        while (true) {
             final int decision = saveDialog.showSaveDialog(this.mainUI);
             if (decision != JFileChooser.APPROVE_OPTION) {
-                return false;
+                return null;
             }
-            File theFile = saveDialog.getSelectedFile();
-            operationOK = true;
-            if (theFile.exists()) {
-                final int overwrite = JOptionPane.showConfirmDialog(
-                    this.mainUI,
-                    "File " + theFile.getName() + " already exists.  Do you wish to overwrite it?",
-                    "Overwrite existing file?",
-                    JOptionPane.YES_NO_CANCEL_OPTION, JOptionPane.WARNING_MESSAGE
-                );
-                switch (overwrite) {
-                    case JOptionPane.YES_OPTION:
-                        break;
-                    case JOptionPane.NO_OPTION:
-                        operationOK = false;
-                        break;
-                    case JOptionPane.CANCEL_OPTION:
-                        return false;
-                    default: // should never occur
-                        return false;
-                }
+            final File theFile = saveDialog.getSelectedFile();
+            if (!theFile.exists()) {
+                return theFile;
             }
-            if (operationOK) {
-                try {
-                    format.dumpMemoryRange(theFile, firstAddress, lastAddress, Globals.MEMORY_INSTANCE);
-                } catch (final AddressErrorException | IOException ignored) {
-
-                }
+            final int overwrite = JOptionPane.showConfirmDialog(
+                this.mainUI,
+                "File " + theFile.getName() + " already exists.  Do you wish to overwrite it?",
+                "Overwrite existing file?",
+                JOptionPane.YES_NO_CANCEL_OPTION, JOptionPane.WARNING_MESSAGE
+            );
+            switch (overwrite) {
+                case JOptionPane.YES_OPTION:
+                    return theFile;
+                case JOptionPane.NO_OPTION:
+                    break;
+                default: // cancelled or closed
+                    return null;
             }
         }
-        return true;
     }
 
     // We're finished with this modal dialog.
@@ -243,6 +233,38 @@ public final class FileDumpMemoryAction extends GuiAction {
         this.dumpDialog.dispose();
     }
 
+    /// Writes the dump on the GUI task worker, so a large segment does not freeze the window.
+    private final class DumpTask extends BackgroundTask<Void> {
+        private final @NotNull File file;
+        private final int firstAddress;
+        private final int lastAddress;
+        private final @NotNull DumpFormat format;
+
+        private DumpTask(
+            final @NotNull File file,
+            final int firstAddress,
+            final int lastAddress,
+            final @NotNull DumpFormat format
+        ) {
+            super(FileDumpMemoryAction.this.mainUI, FileDumpMemoryAction.title);
+            this.file = file;
+            this.firstAddress = firstAddress;
+            this.lastAddress = lastAddress;
+            this.format = format;
+        }
+
+        @Override
+        protected @Nullable Void doInBackground() throws AddressErrorException, IOException {
+            this.publish("Writing " + this.file.getName());
+            this.format.dumpMemoryRange(this.file, this.firstAddress, this.lastAddress, Globals.MEMORY_INSTANCE);
+            return null;
+        }
+
+        @Override
+        protected void succeeded(final @Nullable Void result) {
+        }
+    }
+
     // Display tool tip for dump format list items. Got the technique from
     // http://forum.java.sun.com/thread.jspa?threadID=488762&messageID=2292482
 
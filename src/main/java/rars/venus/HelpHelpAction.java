@@ -21,7 +21,7 @@ import java.util.Collections;
 import java.util.Objects;
 import java.util.Vector;
 
-import static rars.Globals.FONT_SETTINGS;
+import static rars.settings.GuiSettings.FONT_SETTINGS;
 
 /*
 Copyright (c) 2003-2008,  Pete Sanderson and Kenneth Vollmar
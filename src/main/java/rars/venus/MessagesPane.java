@@ -1,26 +1,34 @@
 package rars.venus;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import rars.ErrorList;
 import rars.Globals;
+import rars.settings.BoolSetting;
 import rars.simulator.Simulator;
+import rars.util.RunOutputBuffer;
 
 import javax.swing.*;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
 import javax.swing.text.BadLocationException;
-import javax.swing.text.NavigationFilter;
-import javax.swing.text.Position.Bias;
-import javax.swing.undo.UndoableEdit;
 import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.function.Consumer;
 
-import static rars.Globals.FONT_SETTINGS;
+import static rars.Globals.BOOL_SETTINGS;
+import static rars.settings.GuiSettings.FONT_SETTINGS;
 
 /*
 Copyright (c) 2003-2010,  Pete Sanderson and Kenneth Vollmar
@@ -65,7 +73,28 @@ public final class MessagesPane extends JTabbedPane {
     public static final int MAXIMUM_SCROLLED_CHARACTERS = Globals.maximumMessageCharacters;
     public static final int NUMBER_OF_CHARACTERS_TO_CUT = Globals.maximumMessageCharacters / 10; // 10%
 
-    private final @NotNull JTextArea assembleTextArea, runTextArea;
+    // The Run I/O area keeps the last RUN_OUTPUT_LINES lines, or fewer if they
+    // add up to more than RUN_OUTPUT_CHARACTERS; older ones are counted, and
+    // saved to a temporary file if the SPILL_RUN_OUTPUT setting is on. Printed
+    // text is collected and shown at most RUN_OUTPUT_REFRESHES_PER_SECOND times
+    // a second; a program printing more than RUN_OUTPUT_MAXIMUM_PENDING
+    // characters in between waits for the display to catch up.
+    public static final int RUN_OUTPUT_LINES = 100_000;
+    public static final int RUN_OUTPUT_CHARACTERS = 10 * Globals.maximumMessageCharacters;
+    private static final int RUN_OUTPUT_REFRESHES_PER_SECOND = 60;
+    private static final int RUN_OUTPUT_MAXIMUM_PENDING = Globals.maximumMessageCharacters;
+
+    private static final @NotNull Logger LOGGER = LogManager.getLogger(MessagesPane.class);
+
+    private final @NotNull JTextArea assembleTextArea;
+    private final @NotNull RunOutputBuffer runOutput;
+    private final @NotNull RunOutputView runOutputView;
+    private final @NotNull JTextField runInputField;
+    /// Text printed since the last refresh; guarded by itself, since the simulator thread prints.
+    private final @NotNull StringBuilder pendingRunOutput;
+    private final @NotNull Timer runOutputTimer;
+    private @Nullable Path runOutputSpillFile;
+    private @NotNull String lastRunOutputSearch;
     private final @NotNull JPanel assembleTab, runTab;
     @NotNull
     private final VenusUI mainUI;
@@ -79,19 +108,31 @@ public final class MessagesPane extends JTabbedPane {
         this.mainUI = mainUI;
         this.setMinimumSize(new Dimension(0, 0));
         this.assembleTextArea = new JTextArea();
-        this.runTextArea = new JTextArea();
+        this.runOutput = new RunOutputBuffer(MessagesPane.RUN_OUTPUT_LINES, MessagesPane.RUN_OUTPUT_CHARACTERS);
+        this.runOutputView = new RunOutputView(this.runOutput);
+        this.runInputField = new JTextField();
+        this.pendingRunOutput = new StringBuilder();
+        this.runOutputTimer = new Timer(
+            1000 / MessagesPane.RUN_OUTPUT_REFRESHES_PER_SECOND,
+            e -> this.showPendingRunOutput()
+        );
+        this.runOutputTimer.setRepeats(false);
+        this.lastRunOutputSearch = "";
+        this.setRunOutputSpilling(BOOL_SETTINGS.getSetting(BoolSetting.SPILL_RUN_OUTPUT));
         FONT_SETTINGS.onChangeListenerHook.subscribe(ignore -> {
             this.assembleTextArea.setFont(FONT_SETTINGS.getCurrentFont());
-            this.runTextArea.setFont(FONT_SETTINGS.getCurrentFont());
+            this.runOutputView.setFont(FONT_SETTINGS.getCurrentFont());
+            this.runInputField.setFont(FONT_SETTINGS.getCurrentFont());
+            this.runOutputView.bufferChanged();
         });
         this.assembleTextArea.setEditable(false);
-        this.runTextArea.setEditable(false);
         // Set both text areas to mono font. For assemble
         // pane, will make messages more readable. For run
         // pane, will allow properly aligned "text graphics"
         // DPS 15 Dec 2008
         this.assembleTextArea.setFont(FONT_SETTINGS.getCurrentFont());
-        this.runTextArea.setFont(FONT_SETTINGS.getCurrentFont());
+        this.runOutputView.setFont(FONT_SETTINGS.getCurrentFont());
+        this.runInputField.setFont(FONT_SETTINGS.getCurrentFont());
 
         final JButton assembleTabClearButton = new JButton("Clear");
         assembleTabClearButton.setToolTipText("Clear the Messages area");
@@ -178,16 +219,38 @@ public final class MessagesPane extends JTabbedPane {
 
         final JButton runTabClearButton = new JButton("Clear");
         runTabClearButton.setToolTipText("Clear the Run I/O area");
-        runTabClearButton.addActionListener(
-            e -> MessagesPane.this.runTextArea.setText(""));
-        this.runTab = new JPanel(new BorderLayout());
-        this.runTab.add(MessagesPane.createBoxForButton(runTabClearButton), BorderLayout.WEST);
-        this.runTab.add(
+        runTabClearButton.addActionListener(e -> this.clearRunOutput());
+        final JButton runTabFindButton = new JButton("Find");
+        runTabFindButton.setToolTipText("Search the Run I/O area");
+        runTabFindButton.addActionListener(e -> this.findInRunOutput());
+        this.runOutputView.getInputMap(JComponent.WHEN_ANCESTOR_OF_FOCUSED_COMPONENT).put(
+            KeyStroke.getKeyStroke(KeyEvent.VK_F, Toolkit.getDefaultToolkit().getMenuShortcutKeyMaskEx()),
+            "find"
+        );
+        this.runOutputView.getActionMap().put("find", new AbstractAction() {
+            @Override
+            public void actionPerformed(final @NotNull ActionEvent e) {
+                MessagesPane.this.findInRunOutput();
+            }
+        });
+        this.runInputField.setVisible(false);
+        final var runTabButtons = Box.createVerticalBox();
+        runTabButtons.add(Box.createVerticalGlue());
+        runTabButtons.add(MessagesPane.createBoxForButton(runTabClearButton));
+        runTabButtons.add(Box.createVerticalStrut(6));
+        runTabButtons.add(MessagesPane.createBoxForButton(runTabFindButton));
+        runTabButtons.add(Box.createVerticalGlue());
+        final var runTabOutput = new JPanel(new BorderLayout());
+        runTabOutput.add(
             new JScrollPane(
-                this.runTextArea, ScrollPaneConstants.VERTICAL_SCROLLBAR_AS_NEEDED,
+                this.runOutputView, ScrollPaneConstants.VERTICAL_SCROLLBAR_AS_NEEDED,
                 ScrollPaneConstants.HORIZONTAL_SCROLLBAR_AS_NEEDED
             ), BorderLayout.CENTER
         );
+        runTabOutput.add(this.runInputField, BorderLayout.SOUTH);
+        this.runTab = new JPanel(new BorderLayout());
+        this.runTab.add(runTabButtons, BorderLayout.WEST);
+        this.runTab.add(runTabOutput, BorderLayout.CENTER);
 
         this.addTab("Messages", this.assembleTab);
         this.addTab("Run I/O", this.runTab);
@@ -269,33 +332,108 @@ public final class MessagesPane extends JTabbedPane {
     }
 
     /**
-     * Post a message to the runtime display
+     * Post a message to the runtime display. May be called from any thread;
+     * the message shows up with the next refresh of the display.
      *
      * @param message
      *     String to append to runtime display text
      */
-    // The work of this method is done by "invokeLater" because
-    // its JTextArea is maintained by the main event thread
-    // but also used, via this method, by the execution thread for
-    // "print" syscalls. "invokeLater" schedules the code to be
-    // run under the event-processing thread no matter what.
-    // DPS, 23 Aug 2005.
-    public void postRunMessage(final String message) {
-        SwingUtilities.invokeLater(
-            () -> {
-                this.setSelectedComponent(this.runTab);
-                this.runTextArea.append(message);
-                // can do some crude cutting here. If the document gets "very large",
-                // let's cut off the oldest text. This will limit scrolling but the limit
-                // can be set reasonably high.
-                if (this.runTextArea.getDocument().getLength() > MessagesPane.MAXIMUM_SCROLLED_CHARACTERS) {
+    public void postRunMessage(final @NotNull String message) {
+        final boolean startTimer;
+        var unlocked = false;
+        try {
+            synchronized (this.pendingRunOutput) {
+                // a program printing faster than the display can keep up waits for it instead of piling up text
+                while (this.pendingRunOutput.length() > MessagesPane.RUN_OUTPUT_MAXIMUM_PENDING
+                    && !SwingUtilities.isEventDispatchThread()) {
+                    // the display may need the lock before it gets to the pending text, as when reading input
+                    if (!unlocked && Globals.MEMORY_REGISTERS_LOCK.isHeldByCurrentThread()) {
+                        Globals.MEMORY_REGISTERS_LOCK.unlock();
+                        unlocked = true;
+                    }
                     try {
-                        this.runTextArea.getDocument().remove(0, MessagesPane.NUMBER_OF_CHARACTERS_TO_CUT);
-                    } catch (final BadLocationException ble) {
-                        // only if NUMBER_OF_CHARACTERS_TO_CUT > MAXIMUM_SCROLLED_CHARACTERS
+                        this.pendingRunOutput.wait();
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
                     }
                 }
-            });
+                startTimer = this.pendingRunOutput.isEmpty();
+                this.pendingRunOutput.append(message);
+            }
+        } finally {
+            // taken again outside the monitor, which threads holding the lock may be waiting for
+            if (unlocked) {
+                Globals.MEMORY_REGISTERS_LOCK.lock();
+            }
+        }
+        if (startTimer) {
+            SwingUtilities.invokeLater(this.runOutputTimer::start);
+        }
+    }
+
+    private void showPendingRunOutput() {
+        synchronized (this.pendingRunOutput) {
+            if (this.pendingRunOutput.isEmpty()) {
+                return;
+            }
+            this.runOutput.append(this.pendingRunOutput);
+            this.pendingRunOutput.setLength(0);
+            this.pendingRunOutput.notifyAll();
+        }
+        this.runOutputView.bufferChanged();
+        if (this.getSelectedComponent() != this.runTab) {
+            this.setSelectedComponent(this.runTab);
+        }
+    }
+
+    private void clearRunOutput() {
+        synchronized (this.pendingRunOutput) {
+            this.pendingRunOutput.setLength(0);
+            this.pendingRunOutput.notifyAll();
+        }
+        this.runOutput.clear();
+        this.runOutputView.clearSelection();
+        this.runOutputView.bufferChanged();
+    }
+
+    private void findInRunOutput() {
+        final var text = (String) JOptionPane.showInputDialog(
+            this.mainUI, "Find in Run I/O:", "Find",
+            JOptionPane.PLAIN_MESSAGE, null, null, this.lastRunOutputSearch
+        );
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        this.lastRunOutputSearch = text;
+        final var selectionStart = this.runOutputView.getSelectionStart();
+        final var from = new RunOutputBuffer.Position(selectionStart.line(), selectionStart.column() + 1);
+        final var found = this.runOutput.find(text, from);
+        if (found == null) {
+            Toolkit.getDefaultToolkit().beep();
+        } else {
+            this.runOutputView.select(found, text.length());
+        }
+    }
+
+    /**
+     * Sets whether lines that no longer fit in the Run I/O area are saved to
+     * a temporary file rather than discarded.
+     */
+    public void setRunOutputSpilling(final boolean enabled) {
+        if (!enabled) {
+            this.runOutput.setSpillFile(null);
+            return;
+        }
+        try {
+            if (this.runOutputSpillFile == null) {
+                this.runOutputSpillFile = Files.createTempFile("rars-run-output-", ".txt");
+                this.runOutputSpillFile.toFile().deleteOnExit();
+            }
+            this.runOutput.setSpillFile(this.runOutputSpillFile);
+        } catch (final IOException e) {
+            MessagesPane.LOGGER.error("Could not create a file for the Run I/O output", e);
+        }
     }
 
     /**
@@ -373,94 +511,53 @@ public final class MessagesPane extends JTabbedPane {
 
     // Thread class for obtaining user input in the Run I/O window (MessagesPane)
     // Written by Ricardo Fern�ndez Pascual [rfernandez@ditec.um.es] December 2009.
+    // The input is typed into a field below the output and echoed to it once given.
     private class Asker {
         private final @NotNull ArrayBlockingQueue<String> resultQueue;
         private final int maxLen;
         private final @NotNull DocumentListener listener;
-        private final @NotNull NavigationFilter navigationFilter;
+        private final @NotNull ActionListener enterListener;
         private final @NotNull Consumer<Void> stopListener;
-        private int initialPos;
+        private boolean answered;
 
         public Asker(final int maxLen) {
             this.maxLen = maxLen;
-            // initialPos will be set in run()
             listener = new DocumentListener() {
                 @Override
                 public void insertUpdate(final DocumentEvent e) {
                     EventQueue.invokeLater(
                         () -> {
-                            try {
-                                final var insertedText = e.getDocument().getText(e.getOffset(), e.getLength());
-                                final int i = insertedText.indexOf('\n');
-                                if (i >= 0) {
-                                    final int offset = e.getOffset() + i;
-                                    if (offset + 1 == e.getDocument().getLength()) {
-                                        Asker.this.returnResponse();
-                                    } else {
-                                        // remove the '\n' and put it at the end
-                                        e.getDocument().remove(offset, 1);
-                                        e.getDocument().insertString(e.getDocument().getLength(), "\n", null);
-                                        // insertUpdate will be called again, since we have inserted the '\n' at the
-                                        // end
-                                    }
-                                } else if (Asker.this.maxLen >= 0 && e.getDocument()
-                                    .getLength() - Asker.this.initialPos >= Asker.this.maxLen) {
-                                    Asker.this.returnResponse();
-                                }
-                            } catch (final BadLocationException ex) {
-                                Asker.this.returnResponse();
+                            final var text = MessagesPane.this.runInputField.getText();
+                            if (Asker.this.maxLen >= 0 && text.length() >= Asker.this.maxLen) {
+                                Asker.this.returnResponse(text);
                             }
                         });
                 }
 
                 @Override
                 public void removeUpdate(final DocumentEvent e) {
-                    EventQueue.invokeLater(
-                        () -> {
-                            if ((
-                                e.getDocument()
-                                    .getLength() < Asker.this.initialPos || e.getOffset() < Asker.this.initialPos
-                            )
-                                && e instanceof UndoableEdit) {
-                                ((UndoableEdit) e).undo();
-                                MessagesPane.this.runTextArea.setCaretPosition(e.getOffset() + e.getLength());
-                            }
-                        });
                 }
 
                 @Override
                 public void changedUpdate(final DocumentEvent e) {
                 }
             };
-            navigationFilter = new NavigationFilter() {
-                @Override
-                public void moveDot(final FilterBypass fb, int dot, final Bias bias) {
-                    if (dot < Asker.this.initialPos) {
-                        dot = Math.min(Asker.this.initialPos, MessagesPane.this.runTextArea.getDocument().getLength());
-                    }
-                    fb.moveDot(dot, bias);
-                }
-
-                @Override
-                public void setDot(final FilterBypass fb, int dot, final Bias bias) {
-                    if (dot < Asker.this.initialPos) {
-                        dot = Math.min(Asker.this.initialPos, MessagesPane.this.runTextArea.getDocument().getLength());
-                    }
-                    fb.setDot(dot, bias);
-                }
-            };
-            stopListener = s -> Asker.this.returnResponse();
+            enterListener = e -> Asker.this.returnResponse(MessagesPane.this.runInputField.getText() + "\n");
+            stopListener = s -> Asker.this.returnResponse(MessagesPane.this.runInputField.getText());
             resultQueue = new ArrayBlockingQueue<>(1);
         }
 
         private void run() { // must be invoked from the GUI thread
+            // the prompt must be on screen before the input is asked for
+            MessagesPane.this.showPendingRunOutput();
             MessagesPane.this.selectRunMessageTab();
-            MessagesPane.this.runTextArea.setEditable(true);
-            MessagesPane.this.runTextArea.requestFocusInWindow();
-            MessagesPane.this.runTextArea.setCaretPosition(MessagesPane.this.runTextArea.getDocument().getLength());
-            this.initialPos = MessagesPane.this.runTextArea.getCaretPosition();
-            MessagesPane.this.runTextArea.setNavigationFilter(this.navigationFilter);
-            MessagesPane.this.runTextArea.getDocument().addDocumentListener(this.listener);
+            final var field = MessagesPane.this.runInputField;
+            field.setText("");
+            field.setVisible(true);
+            field.getParent().revalidate();
+            field.requestFocusInWindow();
+            field.getDocument().addDocumentListener(this.listener);
+            field.addActionListener(this.enterListener);
             final Simulator self = Globals.SIMULATOR;
             self.stopEventHook.subscribe(this.stopListener);
         }
@@ -468,28 +565,28 @@ public final class MessagesPane extends JTabbedPane {
         private void cleanup() { // not required to be called from the GUI thread
             EventQueue.invokeLater(
                 () -> {
-                    MessagesPane.this.runTextArea.getDocument().removeDocumentListener(Asker.this.listener);
-                    MessagesPane.this.runTextArea.setEditable(false);
-                    MessagesPane.this.runTextArea.setNavigationFilter(null);
-                    MessagesPane.this.runTextArea.setCaretPosition(MessagesPane.this.runTextArea.getDocument()
-                        .getLength());
+                    final var field = MessagesPane.this.runInputField;
+                    field.getDocument().removeDocumentListener(Asker.this.listener);
+                    field.removeActionListener(Asker.this.enterListener);
+                    field.setText("");
+                    field.setVisible(false);
+                    field.getParent().revalidate();
                     final Simulator self = Globals.SIMULATOR;
                     self.stopEventHook.unsubscribe(this.stopListener);
                 });
         }
 
-        private void returnResponse() {
-            try {
-                final int p = Math.min(this.initialPos, MessagesPane.this.runTextArea.getDocument().getLength());
-                final int l = Math.min(
-                    MessagesPane.this.runTextArea.getDocument().getLength() - p, this.maxLen >= 0 ?
-                        this.maxLen : Integer.MAX_VALUE
-                );
-                this.resultQueue.offer(MessagesPane.this.runTextArea.getText(p, l));
-            } catch (final BadLocationException ex) {
-                // this cannot happen
-                this.resultQueue.offer("");
+        private synchronized void returnResponse(final @NotNull String text) {
+            if (this.answered) {
+                return;
             }
+            this.answered = true;
+            final var response = this.maxLen >= 0 && text.length() > this.maxLen
+                ? text.substring(0, this.maxLen)
+                : text;
+            // echoed before the program resumes, so it comes before anything printed afterwards
+            MessagesPane.this.postRunMessage(response);
+            this.resultQueue.offer(response);
         }
 
         private @Nullable String response() {
@@ -0,0 +1,292 @@
+package rars.venus;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import rars.util.RunOutputBuffer;
+import rars.util.RunOutputBuffer.Position;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.datatransfer.StringSelection;
+import java.awt.event.ActionEvent;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+/**
+ * Read-only view of a {@link RunOutputBuffer}. Nothing is laid out in
+ * advance: the size comes from the line count and the longest line, and
+ * painting reads only the lines in the visible rectangle, so the view stays
+ * as fast with a million lines as with ten.
+ * <p>
+ * When the buffer dropped lines, a first row says how many and where they
+ * went. Text can be selected with the mouse and copied with the usual keys.
+ * Must only be used on the event dispatch thread.
+ */
+public final class RunOutputView extends JComponent implements Scrollable {
+    private static final int MARGIN = 2;
+
+    private final @NotNull RunOutputBuffer buffer;
+    private @Nullable Position selectionAnchor;
+    private @Nullable Position selectionCaret;
+    private long shownFirstLine;
+
+    public RunOutputView(final @NotNull RunOutputBuffer buffer) {
+        super();
+        this.buffer = buffer;
+        this.setOpaque(true);
+        this.setFocusable(true);
+        this.setCursor(Cursor.getPredefinedCursor(Cursor.TEXT_CURSOR));
+        this.setBackground(UIManager.getColor("TextArea.background"));
+        this.setForeground(UIManager.getColor("TextArea.foreground"));
+
+        final var mouseHandler = new MouseAdapter() {
+            @Override
+            public void mousePressed(final @NotNull MouseEvent e) {
+                RunOutputView.this.requestFocusInWindow();
+                final var position = RunOutputView.this.positionAt(e.getPoint());
+                if (!e.isShiftDown() || RunOutputView.this.selectionAnchor == null) {
+                    RunOutputView.this.selectionAnchor = position;
+                }
+                RunOutputView.this.selectionCaret = position;
+                RunOutputView.this.repaint();
+            }
+
+            @Override
+            public void mouseDragged(final @NotNull MouseEvent e) {
+                RunOutputView.this.selectionCaret = RunOutputView.this.positionAt(e.getPoint());
+                RunOutputView.this.scrollRectToVisible(new Rectangle(e.getX(), e.getY(), 1, 1));
+                RunOutputView.this.repaint();
+            }
+        };
+        this.addMouseListener(mouseHandler);
+        this.addMouseMotionListener(mouseHandler);
+
+        final var shortcut = Toolkit.getDefaultToolkit().getMenuShortcutKeyMaskEx();
+        this.getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_C, shortcut), "copy");
+        this.getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_INSERT, InputEvent.CTRL_DOWN_MASK), "copy");
+        this.getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_A, shortcut), "select-all");
+        this.getActionMap().put("copy", new AbstractAction() {
+            @Override
+            public void actionPerformed(final @NotNull ActionEvent e) {
+                RunOutputView.this.copySelection();
+            }
+        });
+        this.getActionMap().put("select-all", new AbstractAction() {
+            @Override
+            public void actionPerformed(final @NotNull ActionEvent e) {
+                RunOutputView.this.selectAll();
+            }
+        });
+    }
+
+    /**
+     * Updates the view after the buffer changed. Keeps following the end of
+     * the output if it was visible, and otherwise keeps the same lines in
+     * view when older ones were dropped.
+     */
+    public void bufferChanged() {
+        final var viewport = this.getViewport();
+        final var wasAtEnd = viewport == null
+            || viewport.getViewRect().getMaxY() >= this.getHeight() - this.getLineHeight();
+        final var removedRows = this.buffer.getFirstLine() - this.shownFirstLine
+            + (this.shownFirstLine == 0 && this.buffer.getFirstLine() > 0 ? -1 : 0);
+        this.shownFirstLine = this.buffer.getFirstLine();
+        this.revalidate();
+        if (viewport == null) {
+            this.repaint();
+            return;
+        }
+        // the new size only applies once validated; the viewport must see it before scrolling
+        viewport.validate();
+        if (wasAtEnd) {
+            this.scrollRectToVisible(new Rectangle(0, this.getHeight() - 1, 1, 1));
+        } else if (removedRows > 0) {
+            final var position = viewport.getViewPosition();
+            final var y = Math.max(0, position.y - (int) Math.min(removedRows * this.getLineHeight(), position.y));
+            viewport.setViewPosition(new Point(position.x, y));
+        }
+        this.repaint();
+    }
+
+    /** Clears the selection, e.g. after the buffer was cleared. */
+    public void clearSelection() {
+        this.selectionAnchor = null;
+        this.selectionCaret = null;
+        this.repaint();
+    }
+
+    /** Selects {@code length} characters from {@code start} and scrolls them into view. */
+    public void select(final @NotNull Position start, final int length) {
+        this.selectionAnchor = start;
+        this.selectionCaret = new Position(start.line(), start.column() + length);
+        final var metrics = this.getFontMetrics(this.getFont());
+        final var y = this.rowOf(start.line()) * this.getLineHeight();
+        final var x = RunOutputView.MARGIN + metrics.stringWidth(
+            this.buffer.getLine(start.line()).substring(0, start.column())
+        );
+        this.scrollRectToVisible(new Rectangle(x, y, metrics.charWidth('m') * length, this.getLineHeight()));
+        this.repaint();
+    }
+
+    /** @return where the selection starts, or the start of the output */
+    public @NotNull Position getSelectionStart() {
+        final var selection = this.getSelection();
+        return selection == null ? new Position(this.buffer.getFirstLine(), 0) : selection[0];
+    }
+
+    private void selectAll() {
+        final var last = this.buffer.getLineCount() - 1;
+        this.selectionAnchor = new Position(this.buffer.getFirstLine(), 0);
+        this.selectionCaret = new Position(last, this.buffer.getLine(last).length());
+        this.repaint();
+    }
+
+    private void copySelection() {
+        final var selection = this.getSelection();
+        if (selection != null) {
+            final var text = new StringSelection(this.buffer.getText(selection[0], selection[1]));
+            Toolkit.getDefaultToolkit().getSystemClipboard().setContents(text, null);
+        }
+    }
+
+    /// The selection as start and end, or `null` if nothing is selected.
+    private @NotNull Position @Nullable [] getSelection() {
+        if (this.selectionAnchor == null || this.selectionCaret == null
+            || this.selectionAnchor.equals(this.selectionCaret)) {
+            return null;
+        }
+        return this.selectionAnchor.compareTo(this.selectionCaret) < 0
+            ? new Position[]{this.selectionAnchor, this.selectionCaret}
+            : new Position[]{this.selectionCaret, this.selectionAnchor};
+    }
+
+    private @Nullable JViewport getViewport() {
+        return this.getParent() instanceof final JViewport viewport ? viewport : null;
+    }
+
+    private int getLineHeight() {
+        return this.getFontMetrics(this.getFont()).getHeight();
+    }
+
+    private boolean hasNoticeRow() {
+        return this.buffer.getFirstLine() > 0;
+    }
+
+    private int getRowCount() {
+        return this.buffer.getHeldLineCount() + (this.hasNoticeRow() ? 1 : 0);
+    }
+
+    private int rowOf(final long line) {
+        return (int) (line - this.buffer.getFirstLine()) + (this.hasNoticeRow() ? 1 : 0);
+    }
+
+    private @NotNull String getNotice() {
+        final var spillFile = this.buffer.getSpillFile();
+        return spillFile == null
+            ? "[ %d earlier lines were discarded ]".formatted(this.buffer.getFirstLine())
+            : "[ %d earlier lines were saved to %s ]".formatted(this.buffer.getFirstLine(), spillFile);
+    }
+
+    private @NotNull Position positionAt(final @NotNull Point point) {
+        final var row = Math.max(0, point.y / this.getLineHeight());
+        final var line = Math.min(
+            this.buffer.getLineCount() - 1,
+            this.buffer.getFirstLine() + Math.max(0, row - (this.hasNoticeRow() ? 1 : 0))
+        );
+        final var text = this.buffer.getLine(line);
+        final var metrics = this.getFontMetrics(this.getFont());
+        var x = RunOutputView.MARGIN;
+        var column = 0;
+        while (column < text.length()) {
+            final var width = metrics.charWidth(text.charAt(column));
+            if (x + width / 2 > point.x) {
+                break;
+            }
+            x += width;
+            column++;
+        }
+        return new Position(line, column);
+    }
+
+    @Override
+    public @NotNull Dimension getPreferredSize() {
+        final var metrics = this.getFontMetrics(this.getFont());
+        final var widestLine = Math.max(this.buffer.getLongestLineLength(), this.hasNoticeRow()
+            ? this.getNotice().length()
+            : 0);
+        return new Dimension(
+            2 * RunOutputView.MARGIN + widestLine * metrics.charWidth('m'),
+            this.getRowCount() * metrics.getHeight()
+        );
+    }
+
+    @Override
+    protected void paintComponent(final @NotNull Graphics g) {
+        final var clip = g.getClipBounds();
+        g.setColor(this.getBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        g.setFont(this.getFont());
+        final var metrics = g.getFontMetrics();
+        final var lineHeight = metrics.getHeight();
+        final var firstRow = Math.max(0, clip.y / lineHeight);
+        final var lastRow = Math.min(this.getRowCount() - 1, (clip.y + clip.height) / lineHeight);
+        final var selection = this.getSelection();
+        final var noticeRow = this.hasNoticeRow();
+        for (var row = firstRow; row <= lastRow; row++) {
+            final var y = row * lineHeight;
+            if (noticeRow && row == 0) {
+                g.setColor(Color.GRAY);
+                g.drawString(this.getNotice(), RunOutputView.MARGIN, y + metrics.getAscent());
+                continue;
+            }
+            final var line = this.buffer.getFirstLine() + row - (noticeRow ? 1 : 0);
+            final var text = this.buffer.getLine(line);
+            if (selection != null && line >= selection[0].line() && line <= selection[1].line()) {
+                final var from = line == selection[0].line() ? Math.min(selection[0].column(), text.length()) : 0;
+                final var to = line == selection[1].line()
+                    ? Math.min(selection[1].column(), text.length())
+                    : text.length();
+                final var x = RunOutputView.MARGIN + metrics.stringWidth(text.substring(0, from));
+                final var width = metrics.stringWidth(text.substring(from, to))
+                    + (line < selection[1].line() ? metrics.charWidth(' ') : 0);
+                g.setColor(UIManager.getColor("TextArea.selectionBackground"));
+                g.fillRect(x, y, width, lineHeight);
+            }
+            g.setColor(this.getForeground());
+            g.drawString(text, RunOutputView.MARGIN, y + metrics.getAscent());
+        }
+    }
+
+    @Override
+    public @NotNull Dimension getPreferredScrollableViewportSize() {
+        return this.getPreferredSize();
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(final Rectangle visibleRect, final int orientation, final int direction) {
+        return orientation == SwingConstants.VERTICAL
+            ? this.getLineHeight()
+            : this.getFontMetrics(this.getFont()).charWidth('m');
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(final Rectangle visibleRect, final int orientation, final int direction) {
+        return orientation == SwingConstants.VERTICAL
+            ? Math.max(this.getLineHeight(), visibleRect.height - this.getLineHeight())
+            : visibleRect.width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return this.getParent() instanceof final JViewport viewport
+            && viewport.getWidth() > this.getPreferredSize().width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return this.getParent() instanceof final JViewport viewport
+            && viewport.getHeight() > this.getPreferredSize().height;
+    }
+}
@@ -26,11 +26,14 @@ import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.util.Arrays;
 import java.util.Date;
-import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 import static rars.Globals.*;
+import static rars.settings.GuiSettings.*;
 import static rars.util.Utils.deriveFontFromStyle;
 
 /*
@@ -86,19 +89,23 @@ public final class TextSegmentWindow extends JInternalFrame {
 
     private JTable table;
     private JScrollPane tableScroller;
-    private Object[][] data;
     /*
-     * Maintain an int array of code addresses in parallel with ADDRESS_COLUMN,
-     * to speed model-row -> text-address mapping. Maintain a Hashtable of
-     * (text-address, model-row) pairs to speed text-address -> model-row mapping.
-     * The former is used for breakpoints and changing display base (e.g. base 10
-     * to 16); the latter is used for highlighting. Both structures will remain
-     * consistent once set up, since address column is not editable.
+     * The table model does not hold the cells: it formats them from the
+     * statements when the table paints them, so only visible rows cost anything
+     * however large the program is. Row -> text-address mapping uses an int
+     * array in parallel with the statements; text-address -> row mapping
+     * binary searches a sorted long array holding each address in the high
+     * half and its row in the low half. The former is used for breakpoints and
+     * rendering, the latter for highlighting and self-modifying code.
      */
-    private int[] intAddresses; // index is table model row, value is text address
-    private Hashtable<Integer, Integer> addressRows; // first is text address, value is table model row
-    private Hashtable<Integer, ModifiedCode> executeMods; // first is table model row, value is original code, basic,
-    private TextTableModel tableModel;
+    private @NotNull List<@NotNull ProgramStatement> statements = List.of();
+    private int @NotNull [] intAddresses = new int[0]; // index is table model row, value is text address
+    private long @NotNull [] addressRows = new long[0]; // (text address << 32 | table model row), sorted
+    private boolean @NotNull [] breakpoints = new boolean[0]; // index is table model row
+    // key is table model row, value is the code now stored there; only rows changed by self-modifying code
+    private final @NotNull Map<@NotNull Integer, @NotNull Integer> executeMods = new ConcurrentHashMap<>();
+    private int sourceLineDigitCount;
+    private final @NotNull TextTableModel tableModel = new TextTableModel();
     private final @NotNull Consumer<@NotNull MemoryAccessNotice> processMemoryAccessNotice = notice -> {
         if (notice.accessType == AccessNotice.AccessType.WRITE) {
             this.updateTable(notice.address, notice.value);
@@ -106,7 +113,7 @@ public final class TextSegmentWindow extends JInternalFrame {
     };
     private boolean codeHighlighting;
     private boolean breakpointsEnabled; // Added 31 Dec 2009
-    private int highlightAddress;
+    private int highlightRow = -1;
     private TableModelListener tableModelListener;
 
     /**
@@ -152,66 +159,52 @@ public final class TextSegmentWindow extends JInternalFrame {
      * Should convert the lines of code over to the table rows and columns.
      */
     public void setupTable() {
-        final int addressBase = this.executePane.getAddressDisplayBase();
         this.codeHighlighting = true;
         this.breakpointsEnabled = true;
-        final var sourceStatementList = Globals.program.getMachineList();
-        this.data = new Object[sourceStatementList.size()][ColumnData.values().length];
-        this.intAddresses = new int[this.data.length];
-        this.addressRows = new Hashtable<>(this.data.length);
-        this.executeMods = new Hashtable<>(this.data.length);
+        this.highlightRow = -1;
+        this.statements = Globals.program.getMachineList();
+        final var rowCount = this.statements.size();
+        this.intAddresses = new int[rowCount];
+        this.addressRows = new long[rowCount];
+        this.breakpoints = new boolean[rowCount];
+        this.executeMods.clear();
         // Get highest source line number to determine #leading spaces so line numbers
         // will vertically align
         // In multi-file situation, this will not necessarily be the last line b/c
         // sourceStatementList contains
         // source lines from all files. DPS 3-Oct-10
-        final var maxSourceLineNumber = sourceStatementList.stream()
-            .mapToInt(statement -> statement.sourceLine.lineNumber())
-            .max()
-            .orElse(0);
-
-        final var sourceLineDigitCount = Integer.toString(maxSourceLineNumber).length();
-        int lastLine = -1;
-        for (int i = 0; i < sourceStatementList.size(); i++) {
-            final ProgramStatement statement = sourceStatementList.get(i);
-            this.intAddresses[i] = statement.getAddress();
-            this.addressRows.put(this.intAddresses[i], i);
-            this.data[i][ColumnData.BREAKPOINT_COLUMN.number] = false;
-            this.data[i][ColumnData.INSTRUCTION_ADDRESS_COLUMN.number] =
-                NumberDisplayBaseChooser.formatUnsignedInteger(
-                    statement.getAddress(),
-                    addressBase
-                );
-            this.data[i][ColumnData.INSTRUCTION_CODE_COLUMN.number] =
-                NumberDisplayBaseChooser.formatNumber(statement.getBinaryStatement(), 16);
-            this.data[i][ColumnData.BASIC_INSTRUCTIONS_COLUMN.number] = statement.getPrintableBasicAssemblyStatement();
-            final var builder = new StringBuilder();
+        var maxSourceLineNumber = 0;
+        for (var row = 0; row < rowCount; row++) {
+            final var statement = this.statements.get(row);
+            this.intAddresses[row] = statement.getAddress();
+            this.addressRows[row] = ((long) statement.getAddress() << 32) | row;
             if (statement.sourceLine != null) {
-                final int leadingSpacesCount = sourceLineDigitCount - Integer.toString(statement.sourceLine.lineNumber())
-                    .length();
-                final String lineNumber;
-                if (statement.sourceLine.lineNumber() == lastLine) {
-                    lineNumber = " ".repeat(sourceLineDigitCount) + "  ";
-                } else {
-                    lineNumber = " ".repeat(leadingSpacesCount) + statement.sourceLine.lineNumber() + ": ";
-                }
-                builder.append(lineNumber)
-                    .append(FontUtilities.substituteSpacesForTabs(
-                        statement.sourceLine.source(),
-                        OTHER_SETTINGS.getEditorTabSize()
-                    ));
-                lastLine = statement.sourceLine.lineNumber();
-            } else {
-                lastLine = -1;
+                maxSourceLineNumber = Math.max(maxSourceLineNumber, statement.sourceLine.lineNumber());
             }
-            this.data[i][ColumnData.SOURCE_COLUMN.number] = builder.toString();
         }
+        Arrays.sort(this.addressRows);
+        this.sourceLineDigitCount = Integer.toString(maxSourceLineNumber).length();
         this.contentPane.removeAll();
-        this.tableModel = new TextTableModel(this.data);
-        if (this.tableModelListener != null) {
-            this.tableModel.addTableModelListener(this.tableModelListener);
-            this.tableModel.fireTableDataChanged();// initialize listener
+        this.tableModel.fireTableDataChanged();
+        if (this.table == null) {
+            this.createTable();
         }
+        this.contentPane.add(this.tableScroller);
+        if (BOOL_SETTINGS.getSetting(BoolSetting.PROGRAM_ARGUMENTS)) {
+            this.addProgramArgumentsPanel();
+        }
+
+        this.deleteAsTextSegmentObserver();
+        if (BOOL_SETTINGS.getSetting(BoolSetting.SELF_MODIFYING_CODE_ENABLED)) {
+            this.addAsTextSegmentObserver();
+        }
+    }
+
+    /**
+     * Creates the table and its scroller. They are kept across assembles, only
+     * the rows of the model change.
+     */
+    private void createTable() {
         this.table = new MyTippedJTable(this.tableModel);
         table.setAutoResizeMode(JTable.AUTO_RESIZE_SUBSEQUENT_COLUMNS);
         this.updateRowHeight();
@@ -263,15 +256,6 @@ public final class TextSegmentWindow extends JInternalFrame {
             this.table, ScrollPaneConstants.VERTICAL_SCROLLBAR_ALWAYS,
             ScrollPaneConstants.HORIZONTAL_SCROLLBAR_ALWAYS
         );
-        this.contentPane.add(this.tableScroller);
-        if (BOOL_SETTINGS.getSetting(BoolSetting.PROGRAM_ARGUMENTS)) {
-            this.addProgramArgumentsPanel();
-        }
-
-        this.deleteAsTextSegmentObserver();
-        if (BOOL_SETTINGS.getSetting(BoolSetting.SELF_MODIFYING_CODE_ENABLED)) {
-            this.addAsTextSegmentObserver();
-        }
     }
 
     /**
@@ -308,18 +292,19 @@ public final class TextSegmentWindow extends JInternalFrame {
     /**
      * Assign listener to Table model. Used for breakpoints, since that is the only
      * editable
-     * column in the table. Since table model objects are transient (get a new one
-     * with each
-     * successful assemble), this method will simply keep the identity of the
-     * listener then
-     * add it as a listener each time a new table model object is created. Limit 1
-     * listener.
+     * column in the table. The table model lives as long as the window, and
+     * a data changed event is fired on it with each successful assemble.
+     * Limit 1 listener.
      *
      * @param tml
      *     a {@link TableModelListener} object
      */
     public void registerTableModelListener(final TableModelListener tml) {
+        if (this.tableModelListener != null) {
+            this.tableModel.removeTableModelListener(this.tableModelListener);
+        }
         this.tableModelListener = tml;
+        this.tableModel.addTableModelListener(tml);
     }
 
     /**
@@ -328,17 +313,7 @@ public final class TextSegmentWindow extends JInternalFrame {
      * modified (e.g. between base 16 hex and base 10 dec).
      */
     public void updateCodeAddresses() {
-        if (this.contentPane.getComponentCount() == 0) {
-            return; // ignore if no content to change
-        }
-        final int addressBase = this.executePane.getAddressDisplayBase();
-        for (int i = 0; i < this.intAddresses.length; i++) {
-            final var formattedAddress = NumberDisplayBaseChooser.formatUnsignedInteger(
-                this.intAddresses[i],
-                addressBase
-            );
-            this.table.getModel().setValueAt(formattedAddress, i, ColumnData.INSTRUCTION_ADDRESS_COLUMN.number);
-        }
+        this.fireColumnUpdated(ColumnData.INSTRUCTION_ADDRESS_COLUMN);
     }
 
     /**
@@ -347,47 +322,18 @@ public final class TextSegmentWindow extends JInternalFrame {
      * modified (e.g. between base 16 hex and base 10 dec).
      */
     public void updateBasicStatements() {
-        if (this.contentPane.getComponentCount() == 0) {
+        this.fireColumnUpdated(ColumnData.BASIC_INSTRUCTIONS_COLUMN);
+    }
+
+    /// The cells are formatted when painted, so a column only needs to be redrawn to follow a new display base.
+    private void fireColumnUpdated(final @NotNull ColumnData column) {
+        if (this.contentPane.getComponentCount() == 0 || this.tableModel.getRowCount() == 0) {
             return; // ignore if no content to change
         }
-        final var sourceStatementList = Globals.program.getMachineList();
-        for (int i = 0; i < sourceStatementList.size(); i++) {
-            // Loop has been extended to cover self-modifying code. If code at this memory
-            // location has been
-            // modified at runtime, construct a ProgramStatement from the current address
-            // and binary code
-            // then display its basic code. DPS 11-July-2013
-            if (this.executeMods.get(i) == null) { // not modified, so use original logic.
-                final ProgramStatement statement = sourceStatementList.get(i);
-                this.table.getModel().setValueAt(
-                    statement.getPrintableBasicAssemblyStatement(), i,
-                    ColumnData.BASIC_INSTRUCTIONS_COLUMN.number
-                );
-            } else {
-                try {
-                    final ProgramStatement statement = new ProgramStatement(
-                        BinaryUtils
-                            .stringToInt((String) this.table.getModel().getValueAt(
-                                i,
-                                ColumnData.INSTRUCTION_CODE_COLUMN.number
-                            )),
-                        BinaryUtils
-                            .stringToInt((String) this.table.getModel().getValueAt(
-                                i,
-                                ColumnData.INSTRUCTION_ADDRESS_COLUMN.number
-                            ))
-                    );
-                    this.table.getModel().setValueAt(
-                        statement.getPrintableBasicAssemblyStatement(), i,
-                        ColumnData.BASIC_INSTRUCTIONS_COLUMN.number
-                    );
-                } catch (
-                    final
-                    NumberFormatException e) { // should never happen but just in case...
-                    this.table.getModel().setValueAt("", i, ColumnData.BASIC_INSTRUCTIONS_COLUMN.number);
-                }
-            }
-        }
+        this.tableModel.fireTableChanged(new TableModelEvent(
+            this.tableModel, 0, this.tableModel.getRowCount() - 1,
+            column.number
+        ));
     }
 
     /**
@@ -395,31 +341,12 @@ public final class TextSegmentWindow extends JInternalFrame {
      * overwritten due to self-modifying code feature.
      */
     public void resetModifiedSourceCode() {
-        if (this.executeMods != null && !this.executeMods.isEmpty()) {
-            for (final var modifiedCode : this.executeMods.values()) {
-                this.tableModel.setValueAt(
-                    modifiedCode.code(), modifiedCode.row(),
-                    ColumnData.INSTRUCTION_CODE_COLUMN.number
-                );
-                this.tableModel.setValueAt(
-                    modifiedCode.basic(), modifiedCode.row(),
-                    ColumnData.BASIC_INSTRUCTIONS_COLUMN.number
-                );
-                this.tableModel.setValueAt(modifiedCode.source(), modifiedCode.row(), ColumnData.SOURCE_COLUMN.number);
-            }
-            this.executeMods.clear();
+        for (final var row : this.executeMods.keySet()) {
+            this.executeMods.remove(row);
+            this.tableModel.fireTableRowsUpdated(row, row);
         }
     }
 
-    /**
-     * Return code address as an int, for the specified row of the table. This
-     * should only
-     * be used by the code renderer so I will not verify row.
-     */
-    int getIntCodeAddressAtRow(final int row) {
-        return this.intAddresses[row];
-    }
-
     /**
      * Returns number of breakpoints currently set.
      *
@@ -427,8 +354,8 @@ public final class TextSegmentWindow extends JInternalFrame {
      */
     public int getBreakpointCount() {
         int breakpointCount = 0;
-        for (final Object[] data : this.data) {
-            if ((Boolean) data[ColumnData.BREAKPOINT_COLUMN.number]) {
+        for (final boolean breakpoint : this.breakpoints) {
+            if (breakpoint) {
                 breakpointCount++;
             }
         }
@@ -450,8 +377,8 @@ public final class TextSegmentWindow extends JInternalFrame {
         }
         final int[] breakpoints = new int[breakpointCount];
         breakpointCount = 0;
-        for (int i = 0; i < this.data.length; i++) {
-            if ((Boolean) this.data[i][ColumnData.BREAKPOINT_COLUMN.number]) {
+        for (int i = 0; i < this.breakpoints.length; i++) {
+            if (this.breakpoints[i]) {
                 breakpoints[breakpointCount++] = this.intAddresses[i];
             }
         }
@@ -464,8 +391,8 @@ public final class TextSegmentWindow extends JInternalFrame {
      * updates the display of the breakpoint column.
      */
     public void clearAllBreakpoints() {
-        for (int i = 0; i < this.tableModel.getRowCount(); i++) {
-            if ((Boolean) this.data[i][ColumnData.BREAKPOINT_COLUMN.number]) {
+        for (int i = 0; i < this.breakpoints.length; i++) {
+            if (this.breakpoints[i]) {
                 // must use this method to assure display updated and listener notified
                 this.tableModel.setValueAt(false, i, ColumnData.BREAKPOINT_COLUMN.number);
             }
@@ -512,22 +439,21 @@ public final class TextSegmentWindow extends JInternalFrame {
      *     Text segment address of instruction to be highlighted.
      */
     public void highlightStepAtAddress(final int address) {
-        this.highlightAddress = address;
-        // Scroll if necessary to assure highlighted row is visible.
         final int row;
         try {
             row = this.findRowForAddress(address);
         } catch (final IllegalArgumentException e) {
+            this.unhighlightAllSteps();
             return;
         }
+        // Highlighting is done by the column's cell renderer, so only the
+        // previously highlighted row and the new one need repainting.
+        final int previousRow = this.highlightRow;
+        this.highlightRow = row;
+        this.repaintRow(previousRow);
+        this.repaintRow(row);
+        // Scroll if necessary to assure highlighted row is visible.
         this.table.scrollRectToVisible(this.table.getCellRect(row, 0, true));
-        // Trigger highlighting, which is done by the column's cell renderer.
-        // IMPLEMENTATION NOTE: Pretty crude implementation; mark all rows
-        // as changed so assure that the previously highlighted row is
-        // unhighlighted. Would be better to keep track of previous row
-        // then fire two events: one for it and one for the new row.
-        this.table.tableChanged(new TableModelEvent(this.tableModel));
-        // this.inDelaySlot = false;// Added 25 June 2007
     }
 
     /**
@@ -555,17 +481,17 @@ public final class TextSegmentWindow extends JInternalFrame {
      * If any steps are highlighted, this erases the highlighting.
      */
     public void unhighlightAllSteps() {
-        final boolean saved = this.codeHighlighting;
-        this.codeHighlighting = false;
-        this.table.tableChanged(new TableModelEvent(
-            this.tableModel, 0, this.data.length - 1,
-            ColumnData.BASIC_INSTRUCTIONS_COLUMN.number
-        ));
-        this.table.tableChanged(new TableModelEvent(
-            this.tableModel, 0, this.data.length - 1,
-            ColumnData.SOURCE_COLUMN.number
-        ));
-        this.codeHighlighting = saved;
+        final int previousRow = this.highlightRow;
+        this.highlightRow = -1;
+        this.repaintRow(previousRow);
+    }
+
+    private void repaintRow(final int row) {
+        if (this.table == null || row < 0 || row >= this.table.getRowCount()) {
+            return;
+        }
+        final Rectangle rowBounds = this.table.getCellRect(row, 0, true);
+        this.table.repaint(0, rowBounds.y, this.table.getWidth(), rowBounds.height);
     }
 
     /**
@@ -647,7 +573,6 @@ public final class TextSegmentWindow extends JInternalFrame {
     }
 
     private void updateTable(final int address, final int value) {
-        final String strValue = BinaryUtils.intToHexString(value);
         // Translate the address into table model row and modify the values in that row
         // accordingly.
         final int row;
@@ -656,56 +581,21 @@ public final class TextSegmentWindow extends JInternalFrame {
         } catch (final IllegalArgumentException e) {
             return; // do nothing if address modified is outside the range of original program.
         }
-        ModifiedCode mc = this.executeMods.get(row);
-        String strSource = TextSegmentWindow.modifiedCodeMarker;
-        final String strBasic;
-        if (mc == null) { // if not already modified
-            // Not already modified and new code is same as original --> do nothing.
-            if (this.tableModel.getValueAt(
-                row,
-                ColumnData.INSTRUCTION_CODE_COLUMN.number
-            ).equals(strValue)) {
-                return;
+        // If restored to original value, the row shows the original basic and
+        // source again. This will be the case upon backstepping.
+        if (value == this.statements.get(row).getBinaryStatement()) {
+            if (this.executeMods.remove(row) == null) {
+                return; // not modified and new code is same as original
             }
-            mc = new ModifiedCode(
-                row,
-                this.tableModel.getValueAt(row, ColumnData.INSTRUCTION_CODE_COLUMN.number),
-                this.tableModel.getValueAt(row, ColumnData.BASIC_INSTRUCTIONS_COLUMN.number),
-                this.tableModel.getValueAt(row, ColumnData.SOURCE_COLUMN.number)
-            );
-            this.executeMods.put(row, mc);
-            // make a ProgramStatement and get basic code to display in BASIC_COLUMN
-            strBasic = new ProgramStatement(value, address).getPrintableBasicAssemblyStatement();
         } else {
-            // If restored to original value, restore the basic and source
-            // This will be the case upon backstepping.
-            if (mc.code().equals(strValue)) {
-                strBasic = (String) mc.basic();
-                strSource = (String) mc.source();
-                // remove from executeMods since we are back to original
-                this.executeMods.remove(row);
-            } else {
-                // make a ProgramStatement and get basic code to display in BASIC_COLUMN
-                strBasic = new ProgramStatement(value, address).getPrintableBasicAssemblyStatement();
+            final Integer previous = this.executeMods.put(row, value);
+            if (previous != null && previous == value) {
+                return;
             }
         }
-        // For the code column, we don't want to do the following:
-        // tableModel.setValueAt(strValue, row, CODE_COLUMN)
-        // because that method will write to memory using Memory.setRawWord() which will
-        // trigger notification to observers, which brings us back to here!!! Infinite
-        // indirect recursion results. Neither fun nor productive. So what happens is
-        // this: (1) change to memory cell causes setValueAt() to be automatically be
-        // called. (2) it updates the memory cell which in turn notifies us which
-        // invokes
-        // the update() method - the method we're in right now. All we need to do here
-        // is
-        // update the table model then notify the controller/view to update its display.
-        this.data[row][ColumnData.INSTRUCTION_CODE_COLUMN.number] = strValue;
-        this.tableModel.fireTableCellUpdated(row, ColumnData.INSTRUCTION_CODE_COLUMN.number);
-        // The other columns do not present a problem since they are not editable by
-        // user.
-        this.tableModel.setValueAt(strBasic, row, ColumnData.BASIC_INSTRUCTIONS_COLUMN.number);
-        this.tableModel.setValueAt(strSource, row, ColumnData.SOURCE_COLUMN.number);
+        // The model does not write to memory here, it only reads the new code when
+        // the row is repainted; writing to it via setValueAt() would notify us again.
+        this.tableModel.fireTableRowsUpdated(row, row);
         // Let's update the value displayed in the DataSegmentWindow too. But it only
         // observes memory while
         // the MIPS program is running, and even then only in timed or step mode. There
@@ -739,14 +629,37 @@ public final class TextSegmentWindow extends JInternalFrame {
      * corresponding to this address.
      */
     private int findRowForAddress(final int address) throws IllegalArgumentException {
-        final int addressRow;
-        try {
-            addressRow = this.addressRows.get(address);
-        } catch (final NullPointerException e) {
-            throw new IllegalArgumentException(); // address not found in map
-            // return addressRow;// if address not in map, do nothing.
+        final long[] addressRows = this.addressRows;
+        // the smallest entry for the address has row 0 in its low half, so searching for it gives the first match
+        final int result = Arrays.binarySearch(addressRows, (long) address << 32);
+        final int index = result >= 0 ? result : -result - 1;
+        if (index >= addressRows.length || (int) (addressRows[index] >>> 32) != address) {
+            throw new IllegalArgumentException(); // address not found
         }
-        return addressRow;
+        return (int) addressRows[index];
+    }
+
+    /**
+     * Formats the Source column of a row: the source line prefixed by its number,
+     * which is left blank when the previous row comes from the same line.
+     */
+    private @NotNull String formatSource(final int row) {
+        final var sourceLine = this.statements.get(row).sourceLine;
+        if (sourceLine == null) {
+            return "";
+        }
+        final var previousLine = row == 0 ? null : this.statements.get(row - 1).sourceLine;
+        final String lineNumber;
+        if (previousLine != null && previousLine.lineNumber() == sourceLine.lineNumber()) {
+            lineNumber = " ".repeat(this.sourceLineDigitCount) + "  ";
+        } else {
+            final var number = Integer.toString(sourceLine.lineNumber());
+            lineNumber = " ".repeat(this.sourceLineDigitCount - number.length()) + number + ": ";
+        }
+        return lineNumber + FontUtilities.substituteSpacesForTabs(
+            sourceLine.source(),
+            OTHER_SETTINGS.getEditorTabSize()
+        );
     }
 
     private void updateRowHeight() {
@@ -790,15 +703,11 @@ public final class TextSegmentWindow extends JInternalFrame {
     }
 
     /**
-     * Inner class to implement the Table model for this JTable.
+     * Inner class to implement the Table model for this JTable. The cells are
+     * formatted from the statements each time they are asked for, which the
+     * table only does for the rows it paints.
      */
-    static class TextTableModel extends AbstractTableModel {
-        final Object[][] data;
-
-        public TextTableModel(final Object[][] d) {
-            this.data = d;
-        }
-
+    private final class TextTableModel extends AbstractTableModel {
         @Override
         public int getColumnCount() {
             return ColumnData.values().length;
@@ -806,7 +715,7 @@ public final class TextSegmentWindow extends JInternalFrame {
 
         @Override
         public int getRowCount() {
-            return this.data.length;
+            return TextSegmentWindow.this.intAddresses.length;
         }
 
         @Override
@@ -816,7 +725,29 @@ public final class TextSegmentWindow extends JInternalFrame {
 
         @Override
         public Object getValueAt(final int row, final int col) {
-            return this.data[row][col];
+            final var window = TextSegmentWindow.this;
+            final ProgramStatement statement = window.statements.get(row);
+            final Integer modifiedCode = window.executeMods.get(row);
+            return switch (Objects.requireNonNull(ColumnData.fromInt(col))) {
+                case BREAKPOINT_COLUMN -> window.breakpoints[row];
+                case INSTRUCTION_ADDRESS_COLUMN -> NumberDisplayBaseChooser.formatUnsignedInteger(
+                    statement.getAddress(),
+                    window.executePane.getAddressDisplayBase()
+                );
+                case INSTRUCTION_CODE_COLUMN -> NumberDisplayBaseChooser.formatNumber(
+                    modifiedCode == null ? statement.getBinaryStatement() : modifiedCode,
+                    16
+                );
+                // if code at this memory location has been modified at runtime, construct a
+                // ProgramStatement from the current address and binary code then display its
+                // basic code. DPS 11-July-2013
+                case BASIC_INSTRUCTIONS_COLUMN -> modifiedCode == null
+                    ? statement.getPrintableBasicAssemblyStatement()
+                    : new ProgramStatement(modifiedCode, statement.getAddress()).getPrintableBasicAssemblyStatement();
+                case SOURCE_COLUMN -> modifiedCode == null
+                    ? window.formatSource(row)
+                    : TextSegmentWindow.modifiedCodeMarker;
+            };
         }
 
         /*
@@ -827,7 +758,7 @@ public final class TextSegmentWindow extends JInternalFrame {
          */
         @Override
         public Class<?> getColumnClass(final int c) {
-            return this.getValueAt(0, c).getClass();
+            return c == ColumnData.BREAKPOINT_COLUMN.number ? Boolean.class : String.class;
         }
 
         /*
@@ -845,17 +776,18 @@ public final class TextSegmentWindow extends JInternalFrame {
 
         /**
          * Set cell contents in the table model. Overrides inherited empty method.
-         * Straightforward process except for the Code column.
+         * Only the Breakpoint and Code columns can be set; a new code is written
+         * to memory, and shows up in the table when the memory notifies us.
          */
         @Override
         public void setValueAt(final Object value, final int row, final int col) {
-            if (col != ColumnData.INSTRUCTION_CODE_COLUMN.number) {
-                this.data[row][col] = value;
+            if (col == ColumnData.BREAKPOINT_COLUMN.number) {
+                TextSegmentWindow.this.breakpoints[row] = (Boolean) value;
                 this.fireTableCellUpdated(row, col);
                 return;
             }
             // Handle changes in the Code column.
-            if (value.equals(this.data[row][col])) {
+            if (col != ColumnData.INSTRUCTION_CODE_COLUMN.number || value.equals(this.getValueAt(row, col))) {
                 return;
             }
             final int val;
@@ -863,20 +795,9 @@ public final class TextSegmentWindow extends JInternalFrame {
                 val = BinaryUtils.stringToInt((String) value);
             } catch (final NumberFormatException nfe) {
                 LOGGER.error("NumberFormatException when decoding value from table model.", nfe);
-                this.data[row][col] = "INVALID";
-                this.fireTableCellUpdated(row, col);
                 return;
             }
-            // calculate address from row and column
-            int address = 0;
-            try {
-                address =
-                    BinaryUtils.stringToInt((String) this.data[row][ColumnData.INSTRUCTION_ADDRESS_COLUMN.number]);
-            } catch (final NumberFormatException nfe) {
-                // can't really happen since memory addresses are completely under
-                // the control of my software.
-                LOGGER.error("Unexpected NumberFormatException when decoding address from table model.", nfe);
-            }
+            final int address = TextSegmentWindow.this.intAddresses[row];
             // Assures that if changed during MIPS program execution, the update will
             // occur only between instructions.
             Globals.MEMORY_REGISTERS_LOCK.lock();
@@ -896,10 +817,6 @@ public final class TextSegmentWindow extends JInternalFrame {
         }
     }
 
-    private record ModifiedCode(Integer row, Object code, Object basic,
-                                Object source) {
-    }
-
     /*
      * a custom table cell renderer that we'll use to highlight the current line of
      * source code when executing using Step or breakpoint.
@@ -921,13 +838,13 @@ public final class TextSegmentWindow extends JInternalFrame {
                 TextSegmentWindow.this.executePane.textSegment;
             final boolean highlighting = textSegment.getCodeHighlighting();
 
-            if (highlighting && textSegment.getIntCodeAddressAtRow(row) == TextSegmentWindow.this.highlightAddress) {
+            if (highlighting && row == TextSegmentWindow.this.highlightRow) {
                 final var style = HIGHLIGHTING_SETTINGS.getTextSegmentHighlightingStyle();
                 cell.setBackground(style.background());
                 cell.setForeground(style.foreground());
                 cell.setFont(deriveFontFromStyle(FONT_SETTINGS.getCurrentFont(), style));
             } else {
-                final var theme = Globals.EDITOR_THEME_SETTINGS.getCurrentTheme();
+                final var theme = EDITOR_THEME_SETTINGS.getCurrentTheme();
                 cell.setBackground(theme.backgroundColor);
                 cell.setForeground(theme.foregroundColor);
                 cell.setFont(FONT_SETTINGS.getCurrentFont());
@@ -1106,7 +1023,7 @@ public final class TextSegmentWindow extends JInternalFrame {
                         check.setEnabled(TextSegmentWindow.this.breakpointsEnabled);
                         TextTableHeader.this.table.tableChanged(new TableModelEvent(
                             TextSegmentWindow.this.tableModel
-                            , 0, TextSegmentWindow.this.data.length - 1, ColumnData.BREAKPOINT_COLUMN.number
+                            , 0, TextSegmentWindow.this.tableModel.getRowCount() - 1, ColumnData.BREAKPOINT_COLUMN.number
                         ));
                     }
                 }
@@ -103,7 +103,7 @@ public final class VenusUI extends JFrame {
     private final @NotNull Action runAssembleAction, runGoAction, runStepAction, runBackstepAction, runResetAction,
         runStopAction, runPauseAction, runClearBreakpointsAction, runToggleBreakpointsAction;
     private final @NotNull Action settingsLabelAction, settingsDarkModeAction, settingsPopupInputAction,
-        settingsValueDisplayBaseAction,
+        settingsSpillRunOutputAction, settingsValueDisplayBaseAction,
         settingsAddressDisplayBaseAction,
         settingsExtendedAction, settingsAssembleOnOpenAction, settingsAssembleOpenAction, settingsAssembleAllAction,
         settingsWarningsAreErrorsAction, settingsStartAtMainAction, settingsProgramArgumentsAction,
@@ -424,6 +424,12 @@ public final class VenusUI extends JFrame {
             BoolSetting.POPUP_SYSCALL_INPUT, this, (v) -> {
         }
         );
+        this.settingsSpillRunOutputAction = new SettingsAction(
+            "Save older Run I/O output to a file",
+            "If set, output that no longer fits in the Run I/O window is saved to a temporary file instead of " +
+                "discarded",
+            BoolSetting.SPILL_RUN_OUTPUT, this, this.messagesPane::setRunOutputSpilling
+        );
 
         this.settingsValueDisplayBaseAction = new SettingsAction(
             "Values displayed in hexadecimal",
@@ -741,6 +747,7 @@ public final class VenusUI extends JFrame {
             checkBoxItem(this.settingsLabelAction, BoolSetting.LABEL_WINDOW_VISIBILITY),
             checkBoxItem(this.settingsProgramArgumentsAction, BoolSetting.PROGRAM_ARGUMENTS),
             checkBoxItem(this.settingsPopupInputAction, BoolSetting.POPUP_SYSCALL_INPUT),
+            checkBoxItem(this.settingsSpillRunOutputAction, BoolSetting.SPILL_RUN_OUTPUT),
             settingsAddressDisplayBase,
             settingsValueDisplayBase,
             new JPopupMenu.Separator(),
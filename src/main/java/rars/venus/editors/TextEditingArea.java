@@ -1,12 +1,14 @@
 package rars.venus.editors;
 
 import org.jetbrains.annotations.NotNull;
+import rars.ErrorMessage;
 import rars.riscv.lang.lexing.RVTokenType;
 import rars.util.Pair;
 
 import javax.swing.text.Caret;
 import javax.swing.text.Document;
 import java.awt.*;
+import java.util.List;
 
 /*
 Copyright (c) 2003-2010,  Pete Sanderson and Kenneth Vollmar
@@ -113,6 +115,13 @@ public interface TextEditingArea {
 
     void setTokenStyle(final @NotNull RVTokenType type, final @NotNull TokenStyle style);
 
+    /**
+     * Marks the errors and warnings of an assembly in the text, replacing the
+     * previous ones. The messages are placed by their line and column, so
+     * they should belong to the file shown in this editor.
+     */
+    void setErrorMarkers(final @NotNull List<@NotNull ErrorMessage> messages);
+
     // Used by Find/Replace
     enum FindReplaceResult {
         TEXT_NOT_FOUND,
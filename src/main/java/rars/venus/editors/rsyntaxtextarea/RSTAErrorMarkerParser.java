@@ -0,0 +1,78 @@
+package rars.venus.editors.rsyntaxtextarea;
+
+import org.fife.ui.rsyntaxtextarea.RSyntaxDocument;
+import org.fife.ui.rsyntaxtextarea.parser.AbstractParser;
+import org.fife.ui.rsyntaxtextarea.parser.DefaultParseResult;
+import org.fife.ui.rsyntaxtextarea.parser.DefaultParserNotice;
+import org.fife.ui.rsyntaxtextarea.parser.ParseResult;
+import org.fife.ui.rsyntaxtextarea.parser.ParserNotice;
+import org.jetbrains.annotations.NotNull;
+import rars.ErrorMessage;
+
+import javax.swing.text.BadLocationException;
+import java.util.List;
+
+/**
+ * Shows assembler errors and warnings as squiggles under the text. The
+ * messages are set from outside, by whoever assembled the file; the text area
+ * runs this parser again after edits, which only places the stored messages
+ * on the current text of their lines.
+ */
+final class RSTAErrorMarkerParser extends AbstractParser {
+    private @NotNull List<@NotNull ErrorMessage> messages = List.of();
+
+    void setMessages(final @NotNull List<@NotNull ErrorMessage> messages) {
+        this.messages = List.copyOf(messages);
+    }
+
+    private static boolean endsToken(final char c) {
+        return Character.isWhitespace(c) || c == ',' || c == '(' || c == ')' || c == '#';
+    }
+
+    @Override
+    public @NotNull ParseResult parse(final @NotNull RSyntaxDocument document, final String style) {
+        final var result = new DefaultParseResult(this);
+        final var root = document.getDefaultRootElement();
+        final int lineCount = root.getElementCount();
+        result.setParsedLines(0, lineCount - 1);
+        for (final var message : this.messages) {
+            final int line = message.lineNumber - 1;
+            if (line < 0 || line >= lineCount) {
+                continue;
+            }
+            final var element = root.getElement(line);
+            final int lineStart = element.getStartOffset();
+            final String text;
+            try {
+                text = document.getText(lineStart, element.getEndOffset() - lineStart);
+            } catch (final BadLocationException e) {
+                continue;
+            }
+            // underline the token the message points at, or the whole statement if it points at none
+            int start, end;
+            if (message.position > 0 && message.position <= text.length()) {
+                start = message.position - 1;
+                end = start;
+                while (end < text.length() && !RSTAErrorMarkerParser.endsToken(text.charAt(end))) {
+                    end++;
+                }
+                end = Math.max(end, start + 1);
+            } else {
+                start = 0;
+                while (start < text.length() && Character.isWhitespace(text.charAt(start))) {
+                    start++;
+                }
+                end = text.length();
+                while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+                    end--;
+                }
+            }
+            final var notice = end > start
+                ? new DefaultParserNotice(this, message.message, line, lineStart + start, end - start)
+                : new DefaultParserNotice(this, message.message, line);
+            notice.setLevel(message.isWarning ? ParserNotice.Level.WARNING : ParserNotice.Level.ERROR);
+            result.addNotice(notice);
+        }
+        return result;
+    }
+}
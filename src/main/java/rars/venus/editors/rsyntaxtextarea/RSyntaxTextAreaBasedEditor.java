@@ -11,6 +11,7 @@ import org.fife.ui.rtextarea.RTextScrollPane;
 import org.fife.ui.rtextarea.SearchContext;
 import org.fife.ui.rtextarea.SearchEngine;
 import org.jetbrains.annotations.NotNull;
+import rars.ErrorMessage;
 import rars.riscv.lang.lexing.RVTokenType;
 import rars.util.Pair;
 import rars.venus.editors.EditorTheme;
@@ -23,13 +24,16 @@ import javax.swing.text.Caret;
 import javax.swing.text.Document;
 import java.awt.*;
 import java.awt.font.TextAttribute;
+import java.util.List;
 import java.util.Map;
 
-import static rars.Globals.FONT_SETTINGS;
+import static rars.settings.GuiSettings.FONT_SETTINGS;
 
 public final class RSyntaxTextAreaBasedEditor implements TextEditingArea {
     private static final @NotNull String SYNTAX_STYLE_RISCV = "text/riscv";
     private static final @NotNull Logger LOGGER = LogManager.getLogger(RSyntaxTextAreaBasedEditor.class);
+    /// Marking the occurrences of the token at the caret lexes the whole document, so wait for a pause in typing.
+    private static final int MARK_OCCURRENCES_DELAY_MS = 300;
     private static final Map<TextAttribute, Object> textAttributes = Map.of(
         TextAttribute.KERNING, TextAttribute.KERNING_ON
     );
@@ -43,6 +47,7 @@ public final class RSyntaxTextAreaBasedEditor implements TextEditingArea {
     private final @NotNull RSyntaxTextArea textArea;
     private final @NotNull RTextScrollPane scrollPane;
     private final @NotNull Gutter gutter;
+    private final @NotNull RSTAErrorMarkerParser errorMarkerParser;
     private @NotNull EditorTheme theme;
     private @NotNull Font currentFont;
 
@@ -56,7 +61,9 @@ public final class RSyntaxTextAreaBasedEditor implements TextEditingArea {
         this.textArea.setSyntaxEditingStyle(SYNTAX_STYLE_RISCV);
         this.textArea.setCodeFoldingEnabled(true);
         this.textArea.setMarkOccurrences(true);
-        this.textArea.setMarkOccurrencesDelay(1);
+        this.textArea.setMarkOccurrencesDelay(MARK_OCCURRENCES_DELAY_MS);
+        this.errorMarkerParser = new RSTAErrorMarkerParser();
+        this.textArea.addParser(this.errorMarkerParser);
     }
 
     @Override
@@ -291,6 +298,12 @@ public final class RSyntaxTextAreaBasedEditor implements TextEditingArea {
         this.applyColorScheme(theme.tokenStyles);
     }
 
+    @Override
+    public void setErrorMarkers(final @NotNull List<@NotNull ErrorMessage> messages) {
+        this.errorMarkerParser.setMessages(messages);
+        this.textArea.forceReparsing(this.errorMarkerParser);
+    }
+
     @Override
     public @NotNull Pair<Integer, Integer> getCaretPosition() {
         final var offset = textArea.getCaretPosition();
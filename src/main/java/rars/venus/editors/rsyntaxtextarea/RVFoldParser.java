@@ -11,59 +11,46 @@ import rars.assembler.Directive;
 import rars.riscv.lang.lexing.RVTokenType;
 import rars.util.RefCell;
 
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.text.BadLocationException;
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.List;
+import javax.swing.text.Document;
+import java.util.*;
 import java.util.function.Predicate;
 
 import static rars.venus.editors.rsyntaxtextarea.RSTAUtils.tokenValue;
 
 final class RVFoldParser implements FoldParser {
-    private static boolean canBeAChildInList(
-        final @NotNull List<@NotNull FoldData> folds,
-        final @NotNull FoldData element
-    ) {
-        return folds
-            .stream()
-            .noneMatch(fold -> fold.startLine() >= element.startLine() && fold.endLine() <= element.endLine());
-    }
+    private final @NotNull Map<@NotNull Document, @NotNull LineKinds> lineKindsByDocument = new WeakHashMap<>();
 
-    private static @NotNull List<@NotNull Fold> hierarchize(final @NotNull List<@NotNull Fold> folds) {
-        final var foldsData = folds
-            .stream()
-            .map(FoldData::new)
-            .toList();
-        final var sortedBySize = foldsData
+    private static @NotNull List<@NotNull Fold> hierarchize(final @NotNull List<@NotNull FoldData> folds) {
+        final var sortedBySize = folds
             .stream()
             .sorted(Comparator.comparingInt(FoldData::lineCount))
             .toList();
-        final var hierarchized = new ArrayList<FoldData>();
+        // the folds without a parent so far, by start line
+        final var hierarchized = new TreeMap<Integer, List<FoldData>>();
 
         for (final var fold : sortedBySize) {
-            if (canBeAChildInList(hierarchized, fold)) {
-                hierarchized.add(fold);
-            } else {
-                // instead of going top-down, we go bottom-up
-                // this allows us to sort the children before adding them to the parent
-                // the caveat is that the resulting speed of the parser will be slower
-
-                // first, find all the children that are within the current fold, and sort them
-                final var sortedChildren = hierarchized
-                    .stream()
-                    .filter(child -> child.startLine() >= fold.startLine() && child.endLine() <= fold.endLine())
-                    .sorted(Comparator.comparingInt(FoldData::startOffset))
-                    .toList();
-                // next, remove them from the result list
-                hierarchized.removeAll(sortedChildren);
-                // then, add them to the current fold
-                fold.children.addAll(sortedChildren);
-                // finally, add the current fold to the result list
-                hierarchized.add(fold);
+            // instead of going top-down, we go bottom-up: every fold adopts the parentless
+            // folds within it, which are all smaller and thus already processed
+            final var candidates = hierarchized.subMap(fold.startLine(), true, fold.endLine(), true).values();
+            for (final var iterator = candidates.iterator(); iterator.hasNext(); ) {
+                final var startingOnLine = iterator.next();
+                for (final var childIterator = startingOnLine.iterator(); childIterator.hasNext(); ) {
+                    final var child = childIterator.next();
+                    if (child.endLine() <= fold.endLine()) {
+                        fold.children.add(child);
+                        childIterator.remove();
+                    }
+                }
+                if (startingOnLine.isEmpty()) {
+                    iterator.remove();
+                }
             }
+            hierarchized.computeIfAbsent(fold.startLine(), line -> new ArrayList<>()).add(fold);
         }
-        return generateFoldsFromData(hierarchized);
+        return generateFoldsFromData(hierarchized.values().stream().flatMap(List::stream).toList());
     }
 
     private static @NotNull List<Fold> generateFoldsFromData(final @NotNull List<FoldData> data) {
@@ -89,11 +76,11 @@ final class RVFoldParser implements FoldParser {
         return baseFold;
     }
 
-    private static boolean doFoldsIntersect(final @NotNull Fold first, final @NotNull Fold other) {
+    private static boolean doFoldsIntersect(final @NotNull FoldData first, final @NotNull FoldData other) {
         final var isFirstStartInOtherFold =
-            other.getStartLine() <= first.getStartLine() && first.getStartLine() <= other.getEndLine();
+            other.startLine() <= first.startLine() && first.startLine() <= other.endLine();
         final var isFirstEndInOtherFold =
-            other.getStartLine() <= first.getEndLine() && first.getEndLine() <= other.getEndLine();
+            other.startLine() <= first.endLine() && first.endLine() <= other.endLine();
         return isFirstStartInOtherFold != isFirstEndInOtherFold;
     }
 
@@ -112,19 +99,28 @@ final class RVFoldParser implements FoldParser {
         return foldMap.values().stream().toList();
     }
 
-    private static @NotNull List<@NotNull Fold> mergeWithRegions(
+    private static @NotNull List<@NotNull FoldData> mergeWithRegions(
         final @NotNull List<Fold> folds,
         final @NotNull List<Fold> regions
     ) {
-        final var result = new ArrayList<>(folds);
-        for (final var region : regions) {
-            final var intersectingRegions = result
-                .stream()
-                .filter(fold -> doFoldsIntersect(fold, region)).toList();
-            if (intersectingRegions.stream().noneMatch(fold -> fold.getFoldType() != RVFoldType.COMMENT)) {
+        // the line of a fold is looked up in the document on every call, so only do that once per fold
+        final var result = new ArrayList<>(folds.stream().map(FoldData::new).toList());
+        for (final var regionFold : regions) {
+            final var region = new FoldData(regionFold);
+            final var intersectingRegions = new ArrayList<FoldData>();
+            var onlyComments = true;
+            for (final var fold : result) {
+                if (doFoldsIntersect(fold, region)) {
+                    intersectingRegions.add(fold);
+                    onlyComments &= fold.baseFold().getFoldType() == RVFoldType.COMMENT;
+                }
+            }
+            if (onlyComments) {
                 // the remaining conflicting folds are all comments and, thus, have lower priority
                 // we can safely remove them
-                result.removeAll(intersectingRegions);
+                if (!intersectingRegions.isEmpty()) {
+                    result.removeAll(intersectingRegions);
+                }
                 result.add(region);
             }
         }
@@ -135,15 +131,15 @@ final class RVFoldParser implements FoldParser {
 
     private static @NotNull List<Fold> getFoldsBase(
         final @NotNull RSyntaxTextArea textArea,
+        final int @NotNull [] lineKinds,
         final @NotNull FoldParserCallback callback
     ) {
         final var folds = new ArrayList<Fold>();
         final var foldRef = new RefCell<Fold>(null);
-        final var lineCount = textArea.getLineCount();
-        for (int i = 0; i < lineCount; i++) {
-            final var tokens = textArea.getTokenListForLine(i);
+        final var root = textArea.getDocument().getDefaultRootElement();
+        for (int i = 0; i < lineKinds.length; i++) {
             try {
-                callback.processLine(i, tokens, folds, foldRef);
+                callback.processLine(i, lineKinds[i], root.getElement(i).getStartOffset(), folds, foldRef);
             } catch (final BadLocationException e) {
                 throw new RuntimeException(e);
             }
@@ -151,41 +147,47 @@ final class RVFoldParser implements FoldParser {
         return folds;
     }
 
-    private static @NotNull List<Fold> getFoldsForLabels(final @NotNull RSyntaxTextArea textArea) {
+    private static @NotNull List<Fold> getFoldsForLabels(
+        final @NotNull RSyntaxTextArea textArea,
+        final int @NotNull [] lineKinds
+    ) {
         return getFoldsBase(
-            textArea, (lineNumber, tokens, folds, fold) -> {
-                if (hasALabel(tokens)) {
+            textArea, lineKinds, (lineNumber, kind, lineStart, folds, fold) -> {
+                if ((kind & LineKinds.LABEL) != 0) {
                     if (fold.value != null && fold.value.isOnSingleLine()) {
                         folds.remove(fold.value);
                     }
-                    fold.value = new Fold(RVFoldType.LABEL, textArea, tokens.getOffset());
-                    fold.value.setEndOffset(tokens.getOffset());
+                    fold.value = new Fold(RVFoldType.LABEL, textArea, lineStart);
+                    fold.value.setEndOffset(lineStart);
                     folds.add(fold.value);
-                } else if (isMacroStartLine(tokens) || isMacroEndLine(tokens)) {
+                } else if ((kind & (LineKinds.MACRO_START | LineKinds.MACRO_END)) != 0) {
                     if (fold.value != null) {
-                        fold.value.setEndOffset(tokens.getOffset() - 1);
+                        fold.value.setEndOffset(lineStart - 1);
                         if (fold.value.isOnSingleLine()) {
                             folds.remove(fold.value);
                         }
                         fold.value = null;
                     }
-                } else if (fold.value != null && !TokenUtils.isBlankOrAllWhiteSpace(tokens)) {
-                    fold.value.setEndOffset(tokens.getOffset());
+                } else if (fold.value != null && (kind & LineKinds.BLANK) == 0) {
+                    fold.value.setEndOffset(lineStart);
                 }
             }
         );
     }
 
-    private static @NotNull List<Fold> getCommentFolds(final @NotNull RSyntaxTextArea textArea) {
+    private static @NotNull List<Fold> getCommentFolds(
+        final @NotNull RSyntaxTextArea textArea,
+        final int @NotNull [] lineKinds
+    ) {
         return getFoldsBase(
-            textArea, (lineNumber, tokens, folds, fold) -> {
-                if (isCommentLine(tokens)) {
+            textArea, lineKinds, (lineNumber, kind, lineStart, folds, fold) -> {
+                if ((kind & LineKinds.COMMENT) != 0) {
                     if (fold.value == null) {
-                        fold.value = new Fold(RVFoldType.COMMENT, textArea, tokens.getOffset());
+                        fold.value = new Fold(RVFoldType.COMMENT, textArea, lineStart);
                         folds.add(fold.value);
                     }
                 } else if (fold.value != null) {
-                    fold.value.setEndOffset(textArea.getLineStartOffset(lineNumber) - 1);
+                    fold.value.setEndOffset(lineStart - 1);
                     if (fold.value.isOnSingleLine()) {
                         folds.removeLast();
                     }
@@ -195,16 +197,19 @@ final class RVFoldParser implements FoldParser {
         );
     }
 
-    private static @NotNull List<Fold> getFoldsForInstructionBlocks(final @NotNull RSyntaxTextArea textArea) {
+    private static @NotNull List<Fold> getFoldsForInstructionBlocks(
+        final @NotNull RSyntaxTextArea textArea,
+        final int @NotNull [] lineKinds
+    ) {
         return getFoldsBase(
-            textArea, (lineNumber, tokens, folds, fold) -> {
-                if (isInstructionLine(tokens)) {
+            textArea, lineKinds, (lineNumber, kind, lineStart, folds, fold) -> {
+                if ((kind & LineKinds.INSTRUCTION) != 0) {
                     if (fold.value == null) {
-                        fold.value = new Fold(RVFoldType.INSTRUCTION_BLOCK, textArea, tokens.getOffset());
+                        fold.value = new Fold(RVFoldType.INSTRUCTION_BLOCK, textArea, lineStart);
                         folds.add(fold.value);
                     }
                 } else if (fold.value != null) {
-                    fold.value.setEndOffset(textArea.getLineStartOffset(lineNumber) - 1);
+                    fold.value.setEndOffset(lineStart - 1);
                     if (fold.value.isOnSingleLine()) {
                         folds.removeLast();
                     }
@@ -215,32 +220,23 @@ final class RVFoldParser implements FoldParser {
         );
     }
 
-    private static @NotNull List<Fold> getRegionFolds(final @NotNull RSyntaxTextArea textArea) {
+    private static @NotNull List<Fold> getRegionFolds(
+        final @NotNull RSyntaxTextArea textArea,
+        final int @NotNull [] lineKinds
+    ) {
         final var regionStack = new ArrayList<Fold>();
         return getFoldsBase(
-            textArea, (
-                (lineNumber, tokens, folds, currentFold) -> {
-                    if (isCommentLine(tokens)) {
-                        final var commentText = findToken(
-                            tokens,
-                            token -> token.getType() == tokenValue(RVTokenType.COMMENT)
-                        );
-                        if (commentText != null) {
-                            final var comment = commentText.getLexeme();
-                            // strip the leading '#' and any whitespaces after it
-                            final var commentTextStripped = comment.substring(1).strip().toLowerCase();
-                            // check if the comment begins with the `region` keyword
-                            if (commentTextStripped.startsWith("region")) {
-                                final var regionFold = new Fold(RVFoldType.REGION, textArea, tokens.getOffset());
-                                regionStack.add(regionFold);
-                                folds.add(regionFold);
-                            } else if (commentTextStripped.startsWith("endregion")) {
-                                if (!regionStack.isEmpty()) {
-                                    final var regionFold = regionStack.removeLast();
-                                    regionFold.setEndOffset(tokens.getOffset());
-                                    folds.add(regionFold);
-                                }
-                            }
+            textArea, lineKinds, (
+                (lineNumber, kind, lineStart, folds, currentFold) -> {
+                    if ((kind & LineKinds.REGION_START) != 0) {
+                        final var regionFold = new Fold(RVFoldType.REGION, textArea, lineStart);
+                        regionStack.add(regionFold);
+                        folds.add(regionFold);
+                    } else if ((kind & LineKinds.REGION_END) != 0) {
+                        if (!regionStack.isEmpty()) {
+                            final var regionFold = regionStack.removeLast();
+                            regionFold.setEndOffset(lineStart);
+                            folds.add(regionFold);
                         }
                     }
                 }
@@ -248,16 +244,19 @@ final class RVFoldParser implements FoldParser {
         );
     }
 
-    private static @NotNull List<Fold> getMacroFolds(final @NotNull RSyntaxTextArea textArea) {
+    private static @NotNull List<Fold> getMacroFolds(
+        final @NotNull RSyntaxTextArea textArea,
+        final int @NotNull [] lineKinds
+    ) {
         return getFoldsBase(
-            textArea, (lineNumber, tokens, folds, fold) -> {
-                if (isMacroStartLine(tokens)) {
+            textArea, lineKinds, (lineNumber, kind, lineStart, folds, fold) -> {
+                if ((kind & LineKinds.MACRO_START) != 0) {
                     if (fold.value == null) {
-                        fold.value = new Fold(RVFoldType.MACRO, textArea, tokens.getOffset());
+                        fold.value = new Fold(RVFoldType.MACRO, textArea, lineStart);
                     }
-                } else if (isMacroEndLine(tokens)) {
+                } else if ((kind & LineKinds.MACRO_END) != 0) {
                     if (fold.value != null) {
-                        fold.value.setEndOffset(tokens.getOffset());
+                        fold.value.setEndOffset(lineStart);
                         if (!fold.value.isOnSingleLine()) {
                             folds.add(fold.value);
                         }
@@ -272,6 +271,45 @@ final class RVFoldParser implements FoldParser {
 
     // region Token line predicates
 
+    /// Classifies a line for the fold builders, see {@link LineKinds}.
+    private static int getLineKind(final @NotNull Token tokens) {
+        int kind = 0;
+        if (hasALabel(tokens)) {
+            kind |= LineKinds.LABEL;
+        }
+        if (isMacroStartLine(tokens)) {
+            kind |= LineKinds.MACRO_START;
+        }
+        if (isMacroEndLine(tokens)) {
+            kind |= LineKinds.MACRO_END;
+        }
+        if (isInstructionLine(tokens)) {
+            kind |= LineKinds.INSTRUCTION;
+        }
+        if (TokenUtils.isBlankOrAllWhiteSpace(tokens)) {
+            kind |= LineKinds.BLANK;
+        }
+        if (isCommentLine(tokens)) {
+            kind |= LineKinds.COMMENT;
+            final var commentText = findToken(
+                tokens,
+                token -> token.getType() == tokenValue(RVTokenType.COMMENT)
+            );
+            if (commentText != null) {
+                final var comment = commentText.getLexeme();
+                // strip the leading '#' and any whitespaces after it
+                final var commentTextStripped = comment.substring(1).strip().toLowerCase();
+                // check if the comment begins with the `region` keyword
+                if (commentTextStripped.startsWith("region")) {
+                    kind |= LineKinds.REGION_START;
+                } else if (commentTextStripped.startsWith("endregion")) {
+                    kind |= LineKinds.REGION_END;
+                }
+            }
+        }
+        return kind;
+    }
+
     private static boolean hasALabel(final Token tokens) {
         return lineContainsToken(tokens, (token) -> token.getType() == tokenValue(RVTokenType.LABEL));
     }
@@ -350,12 +388,16 @@ final class RVFoldParser implements FoldParser {
 
     @Override
     public @NotNull List<Fold> getFolds(final @NotNull RSyntaxTextArea rSyntaxTextArea) {
-        final var labelsFolds = getFoldsForLabels(rSyntaxTextArea);
-        final var commentFolds = getCommentFolds(rSyntaxTextArea);
-//        final var instructionBlocksFolds = getFoldsForInstructionBlocks(rSyntaxTextArea);
-        final var macroFolds = getMacroFolds(rSyntaxTextArea);
+        // one parser serves every editor, so the line kinds are kept per document
+        final var lineKinds = this.lineKindsByDocument
+            .computeIfAbsent(rSyntaxTextArea.getDocument(), LineKinds::attach)
+            .update(rSyntaxTextArea);
+        final var labelsFolds = getFoldsForLabels(rSyntaxTextArea, lineKinds);
+        final var commentFolds = getCommentFolds(rSyntaxTextArea, lineKinds);
+//        final var instructionBlocksFolds = getFoldsForInstructionBlocks(rSyntaxTextArea, lineKinds);
+        final var macroFolds = getMacroFolds(rSyntaxTextArea, lineKinds);
         final var joined = join(labelsFolds, /*instructionBlocksFolds, */commentFolds, macroFolds);
-        final var regions = getRegionFolds(rSyntaxTextArea);
+        final var regions = getRegionFolds(rSyntaxTextArea, lineKinds);
         final var merged = mergeWithRegions(joined, regions);
         return hierarchize(merged);
     }
@@ -363,22 +405,120 @@ final class RVFoldParser implements FoldParser {
     @FunctionalInterface
     private interface FoldParserCallback {
         void processLine(
-            final int lineNumber, final @NotNull Token tokens, final @NotNull ArrayList<Fold> folds,
+            final int lineNumber, final int lineKind, final int lineStartOffset,
+            final @NotNull ArrayList<Fold> folds,
             final @NotNull RefCell<@Nullable Fold> currentFold
         ) throws BadLocationException;
     }
 
-    private record FoldData(@NotNull Fold baseFold, @NotNull ArrayList<@NotNull FoldData> children) {
-        private FoldData(@NotNull final Fold baseFold) {
-            this(baseFold, new ArrayList<>());
+    /**
+     * What the fold builders need to know about each line of a document, as
+     * a set of bit flags per line. The lexer starts every line afresh, so a
+     * line's kind only depends on its own text: the instance listens to the
+     * document and only the lines touched by an edit are lexed again on the
+     * next reparse, instead of every line of the file.
+     */
+    private static final class LineKinds implements DocumentListener {
+        static final int LABEL = 1;
+        static final int MACRO_START = 1 << 1;
+        static final int MACRO_END = 1 << 2;
+        static final int INSTRUCTION = 1 << 3;
+        static final int BLANK = 1 << 4;
+        static final int COMMENT = 1 << 5;
+        static final int REGION_START = 1 << 6;
+        static final int REGION_END = 1 << 7;
+        private static final int DIRTY = -1;
+
+        private int @NotNull [] kinds = new int[0];
+        private int lineCount;
+        private int firstDirtyLine = Integer.MAX_VALUE, lastDirtyLine = -1;
+
+        private static @NotNull LineKinds attach(final @NotNull Document document) {
+            final var lineKinds = new LineKinds();
+            lineKinds.replaceLines(0, 0, document.getDefaultRootElement().getElementCount());
+            document.addDocumentListener(lineKinds);
+            return lineKinds;
+        }
+
+        /** Lexes the lines edited since the last call; the result has one entry per line. */
+        int @NotNull [] update(final @NotNull RSyntaxTextArea textArea) {
+            if (this.lineCount != textArea.getLineCount()) {
+                // cannot happen while the listener sees every edit, but stay correct if it does
+                this.replaceLines(0, this.lineCount, textArea.getLineCount());
+            }
+            final int last = Math.min(this.lastDirtyLine, this.lineCount - 1);
+            for (int line = this.firstDirtyLine; line <= last; line++) {
+                if (this.kinds[line] == LineKinds.DIRTY) {
+                    this.kinds[line] = getLineKind(textArea.getTokenListForLine(line));
+                }
+            }
+            this.firstDirtyLine = Integer.MAX_VALUE;
+            this.lastDirtyLine = -1;
+            return Arrays.copyOf(this.kinds, this.lineCount);
+        }
+
+        @Override
+        public void insertUpdate(final @NotNull DocumentEvent e) {
+            this.documentChanged(e);
+        }
+
+        @Override
+        public void removeUpdate(final @NotNull DocumentEvent e) {
+            this.documentChanged(e);
         }
 
-        public int startLine() {
-            return baseFold.getStartLine();
+        @Override
+        public void changedUpdate(final @NotNull DocumentEvent e) {
+            // attribute changes leave the text alone
         }
 
-        public int endLine() {
-            return baseFold.getEndLine();
+        private void documentChanged(final @NotNull DocumentEvent e) {
+            final var root = e.getDocument().getDefaultRootElement();
+            final var change = e.getChange(root);
+            if (change != null) {
+                this.replaceLines(
+                    change.getIndex(),
+                    change.getChildrenRemoved().length,
+                    change.getChildrenAdded().length
+                );
+            } else {
+                this.markDirty(root.getElementIndex(e.getOffset()), 1);
+            }
+        }
+
+        /// Replaces {@code removed} lines starting at {@code first} by {@code added} lines yet to be lexed.
+        private void replaceLines(final int first, final int removed, final int added) {
+            final int newCount = this.lineCount - removed + added;
+            if (newCount > this.kinds.length) {
+                this.kinds = Arrays.copyOf(this.kinds, Math.max(newCount, this.kinds.length * 2));
+            }
+            System.arraycopy(
+                this.kinds, first + removed, this.kinds, first + added,
+                this.lineCount - first - removed
+            );
+            this.lineCount = newCount;
+            if (this.lastDirtyLine >= first + removed) {
+                // the dirty lines after the edit moved along with it
+                this.lastDirtyLine += added - removed;
+            }
+            this.markDirty(first, added);
+        }
+
+        private void markDirty(final int first, final int count) {
+            Arrays.fill(this.kinds, first, first + count, LineKinds.DIRTY);
+            this.firstDirtyLine = Math.min(this.firstDirtyLine, first);
+            this.lastDirtyLine = Math.max(this.lastDirtyLine, first + count - 1);
+        }
+    }
+
+    private record FoldData(
+        @NotNull Fold baseFold,
+        int startLine,
+        int endLine,
+        @NotNull ArrayList<@NotNull FoldData> children
+    ) {
+        private FoldData(@NotNull final Fold baseFold) {
+            this(baseFold, baseFold.getStartLine(), baseFold.getEndLine(), new ArrayList<>());
         }
 
         public int startOffset() {
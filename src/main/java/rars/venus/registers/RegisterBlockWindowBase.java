@@ -1,6 +1,7 @@
 package rars.venus.registers;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import rars.Globals;
 import rars.notices.AccessNotice;
 import rars.notices.RegisterAccessNotice;
@@ -23,6 +24,7 @@ import java.awt.event.MouseEvent;
 import java.util.function.Consumer;
 
 import static rars.Globals.*;
+import static rars.settings.GuiSettings.*;
 
 /*
 Copyright (c) 2003-2009,  Pete Sanderson and Kenneth Vollmar
@@ -69,7 +71,10 @@ public abstract class RegisterBlockWindowBase extends JPanel {
     private final @NotNull RegisterFileBase registerFile;
     @NotNull
     private final VenusUI mainUI;
-    private int highlightRow;
+    private volatile int highlightRow;
+    /// Values shown by the table, in the display base below, or null if they may have changed since.
+    private long @Nullable [] displayedValues;
+    private int displayedBase;
 
     /**
      * Constructor which sets up a fresh window with a table that contains the
@@ -147,7 +152,9 @@ public abstract class RegisterBlockWindowBase extends JPanel {
                 // Uses the same highlighting technique as for Text Segment -- see
                 // AddressCellRenderer class in DataSegmentWindow.java.
                 this.highlightCellForRegister(notice.register);
-                this.mainUI.registersPane.setSelectedComponent(this);
+                if (this.mainUI.registersPane.getSelectedComponent() != this) {
+                    SwingUtilities.invokeLater(() -> this.mainUI.registersPane.setSelectedComponent(this));
+                }
             }
         };
     }
@@ -210,11 +217,33 @@ public abstract class RegisterBlockWindowBase extends JPanel {
      * Update register display using specified display base
      */
     public void updateRegisters() {
+        this.displayedValues = null;
+        this.updateChangedRegisters();
+    }
+
+    /**
+     * Update the display of the registers whose value changed since the last
+     * update. Used while the program runs, when most registers keep their value
+     * from one refresh to the next.
+     */
+    public void updateChangedRegisters() {
         final var registers = this.registerFile.getRegisters();
+        final var model = (RegTableModel) this.table.getModel();
+        final int base = RegisterBlockWindowBase.this.mainUI.mainPane.executePane.getValueDisplayBase();
+        var displayedValues = this.displayedValues;
+        final boolean all = displayedValues == null || base != this.displayedBase;
+        if (displayedValues == null) {
+            displayedValues = new long[registers.length];
+            this.displayedValues = displayedValues;
+        }
+        this.displayedBase = base;
         for (int i = 0; i < registers.length; i++) {
-            final var model = (RegTableModel) this.table.getModel();
-            final int base = RegisterBlockWindowBase.this.mainUI.mainPane.executePane.getValueDisplayBase();
-            final var formattedValue = this.formatRegisterValue(registers[i].getValue(), base);
+            final long value = registers[i].getValue();
+            if (!all && value == displayedValues[i]) {
+                continue;
+            }
+            displayedValues[i] = value;
+            final var formattedValue = this.formatRegisterValue(value, base);
             model.setDisplayAndModelValueAt(formattedValue, i, RegisterBlockWindowBase.VALUE_COLUMN);
         }
     }
@@ -227,14 +256,29 @@ public abstract class RegisterBlockWindowBase extends JPanel {
      */
     private void highlightCellForRegister(final Register register) {
         final var registers = this.registerFile.getRegisters();
+        var row = -1;
         for (int i = 0; i < registers.length; i++) {
             if (registers[i] == register) {
-                this.highlightRow = i;
-                table.tableChanged(new TableModelEvent(table.getModel()));
-                return;
+                row = i;
+                break;
             }
         }
-        this.highlightRow = -1;
+        // called for every register write while the program runs, so only the two rows whose
+        // highlighting changes are repainted
+        final int previousRow = this.highlightRow;
+        this.highlightRow = row;
+        if (row != previousRow) {
+            this.repaintRow(previousRow);
+            this.repaintRow(row);
+        }
+    }
+
+    private void repaintRow(final int row) {
+        if (row < 0) {
+            return;
+        }
+        final Rectangle rowBounds = this.table.getCellRect(row, 0, true);
+        this.table.repaint(0, rowBounds.y, this.table.getWidth(), rowBounds.height);
     }
 
     private void updateRowHeight() {
@@ -277,7 +321,7 @@ public abstract class RegisterBlockWindowBase extends JPanel {
             cell.setFont(this.font);
             cell.setHorizontalAlignment(this.alignment);
             if (BOOL_SETTINGS.getSetting(BoolSetting.REGISTERS_HIGHLIGHTING) && row == highlightRow) {
-                final var highlightingStyle = Globals.HIGHLIGHTING_SETTINGS.getRegisterHighlightingStyle();
+                final var highlightingStyle = HIGHLIGHTING_SETTINGS.getRegisterHighlightingStyle();
                 cell.setForeground(highlightingStyle.foreground());
                 cell.setBackground(highlightingStyle.background());
             } else {
@@ -368,6 +412,7 @@ public abstract class RegisterBlockWindowBase extends JPanel {
             }
             final int valueBase = RegisterBlockWindowBase.this.mainUI.mainPane.executePane.getValueDisplayBase();
             final var formattedValue = RegisterBlockWindowBase.this.formatRegisterValue(newValue, valueBase);
+            RegisterBlockWindowBase.this.displayedValues = null;
             this.data[row][col] = formattedValue;
             this.fireTableCellUpdated(row, col);
         }
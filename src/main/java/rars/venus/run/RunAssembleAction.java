@@ -1,11 +1,15 @@
 package rars.venus.run;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import rars.ErrorList;
 import rars.ErrorMessage;
 import rars.Globals;
 import rars.RISCVProgram;
+import rars.assembler.SymbolTable;
 import rars.exceptions.AssemblyException;
+import rars.riscv.hardware.Memory;
+import rars.riscv.hardware.MemoryConfiguration;
 import rars.settings.BoolSetting;
 import rars.util.FilenameFinder;
 import rars.venus.*;
@@ -14,6 +18,7 @@ import rars.venus.registers.RegistersPane;
 import javax.swing.*;
 import java.awt.event.ActionEvent;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 
 import static rars.Globals.BOOL_SETTINGS;
@@ -57,6 +62,7 @@ public final class RunAssembleAction extends GuiAction {
     private static List<RISCVProgram> programsToAssemble;
     private static boolean extendedAssemblerEnabled;
     private static boolean warningsAreErrors;
+    private static @Nullable Memory assembledMemory;
 
     public RunAssembleAction(
         final String name, final Icon icon, final String descrip,
@@ -65,9 +71,6 @@ public final class RunAssembleAction extends GuiAction {
         super(name, icon, descrip, mnemonic, accel, gui);
     }
 
-    // These are both used by RunResetAction to re-assemble under identical
-    // conditions.
-
     /**
      * <p>Getter for the field {@code programsToAssemble}.</p>
      *
@@ -77,26 +80,25 @@ public final class RunAssembleAction extends GuiAction {
         return RunAssembleAction.programsToAssemble;
     }
 
-    static boolean getExtendedAssemblerEnabled() {
-        return RunAssembleAction.extendedAssemblerEnabled;
-    }
-
-    static boolean getWarningsAreErrors() {
-        return RunAssembleAction.warningsAreErrors;
+    /**
+     * @return the memory as the last successful assembly left it, which
+     * RunResetAction restores; {@code null} before the first one
+     */
+    static @Nullable Memory getAssembledMemory() {
+        return RunAssembleAction.assembledMemory;
     }
 
     // Handy little utility for building comma-separated list of filenames
     // while not letting line length get out of hand.
     private static @NotNull String buildFileNameList(
         final @NotNull String preamble,
-        final @NotNull List<RISCVProgram> programList
+        final @NotNull List<@NotNull File> fileList
     ) {
         final StringBuilder result = new StringBuilder(preamble);
         int lineLength = result.length();
-        for (int i = 0; i < programList.size(); i++) {
-            final var file = programList.get(i).getFile();
-            final var fileName = file.getName();
-            result.append(fileName).append((i < programList.size() - 1) ? ", " : "");
+        for (int i = 0; i < fileList.size(); i++) {
+            final var fileName = fileList.get(i).getName();
+            result.append(fileName).append((i < fileList.size() - 1) ? ", " : "");
             lineLength += fileName.length();
             if (lineLength > RunAssembleAction.LINE_LENGTH_LIMIT) {
                 result.append("\n");
@@ -108,127 +110,209 @@ public final class RunAssembleAction extends GuiAction {
 
     /**
      * {@inheritDoc}
+     * <p>
+     * Files are read, tokenized and assembled by a {@link BackgroundTask}, into
+     * a memory and symbol table of its own; the result replaces the loaded
+     * program only once the assembly succeeded.
      */
     @Override
     public void actionPerformed(final ActionEvent e) {
         final String name = this.getValue(Action.NAME).toString();
-        final MessagesPane messagesPane = this.mainUI.messagesPane;
-        final ExecutePane executePane = this.mainUI.mainPane.executePane;
-        final RegistersPane registersPane = this.mainUI.registersPane;
         RunAssembleAction.extendedAssemblerEnabled =
             BOOL_SETTINGS.getSetting(BoolSetting.EXTENDED_ASSEMBLER_ENABLED);
         RunAssembleAction.warningsAreErrors =
             BOOL_SETTINGS.getSetting(BoolSetting.WARNINGS_ARE_ERRORS);
-        if (FileStatus.systemFile != null) {
-            if (FileStatus.getSystemState() == FileStatus.State.EDITED) {
-                this.mainUI.editor.save();
-            }
-            try {
-                Globals.program = new RISCVProgram();
-                final @NotNull List<@NotNull File> filesToAssemble;
-                if (BOOL_SETTINGS.getSetting(BoolSetting.ASSEMBLE_ALL)) {// setting calls 
-                    // for multiple
-                    // file assembly
-                    filesToAssemble = FilenameFinder.getFilenameListForDirectory(
-                        FileStatus.systemFile.getParentFile(), Globals.fileExtensions);
-                } else {
-                    filesToAssemble = List.of(FileStatus.systemFile);
-                }
-                if (BOOL_SETTINGS.getSetting(BoolSetting.ASSEMBLE_OPEN)) {
-                    this.mainUI.editor.saveAll();
-                    final var paths = this.mainUI.editor.getOpenFilePaths();
-                    for (final var path : paths) {
-                        if (!filesToAssemble.contains(path)) {
-                            filesToAssemble.add(path);
-                        }
-                    }
+        if (FileStatus.systemFile == null) {
+            return;
+        }
+        if (FileStatus.getSystemState() == FileStatus.State.EDITED) {
+            this.mainUI.editor.save();
+        }
+        final var leadFile = FileStatus.systemFile;
+        final @NotNull List<@NotNull File> filesToAssemble;
+        if (BOOL_SETTINGS.getSetting(BoolSetting.ASSEMBLE_ALL)) {// setting calls
+            // for multiple
+            // file assembly
+            filesToAssemble = new ArrayList<>(FilenameFinder.getFilenameListForDirectory(
+                leadFile.getParentFile(), Globals.fileExtensions));
+        } else {
+            filesToAssemble = new ArrayList<>(List.of(leadFile));
+        }
+        if (BOOL_SETTINGS.getSetting(BoolSetting.ASSEMBLE_OPEN)) {
+            this.mainUI.editor.saveAll();
+            final var paths = this.mainUI.editor.getOpenFilePaths();
+            for (final var path : paths) {
+                if (!filesToAssemble.contains(path)) {
+                    filesToAssemble.add(path);
                 }
-                final var useExceptionHandler = BOOL_SETTINGS.getSetting(BoolSetting.EXCEPTION_HANDLER_ENABLED);
-                final var isExceptionHandlerSet = !OTHER_SETTINGS.getExceptionHandler().isEmpty();
-                final var exceptionHandler = useExceptionHandler && isExceptionHandlerSet
-                    ? new File(OTHER_SETTINGS.getExceptionHandler())
-                    : null;
-                RunAssembleAction.programsToAssemble = Globals.program.prepareFilesForAssembly(
-                    filesToAssemble,
-                    FileStatus.systemFile, exceptionHandler
-                );
-                messagesPane.postMessage(RunAssembleAction.buildFileNameList(
-                    name + ": assembling ",
-                    RunAssembleAction.programsToAssemble
-                ));
-                // added logic to receive any warnings and output them.... DPS 11/28/06
-                final ErrorList warnings = Globals.program.assemble(
-                    RunAssembleAction.programsToAssemble,
-                    RunAssembleAction.extendedAssemblerEnabled,
-                    RunAssembleAction.warningsAreErrors
-                );
-                if (warnings.warningsOccurred()) {
-                    messagesPane.postMessage(warnings.generateWarningReport());
+            }
+        }
+        final var useExceptionHandler = BOOL_SETTINGS.getSetting(BoolSetting.EXCEPTION_HANDLER_ENABLED);
+        final var isExceptionHandlerSet = !OTHER_SETTINGS.getExceptionHandler().isEmpty();
+        final var exceptionHandler = useExceptionHandler && isExceptionHandlerSet
+            ? new File(OTHER_SETTINGS.getExceptionHandler())
+            : null;
+        // the lead file goes first, as it does in the assembly
+        final var fileNames = new ArrayList<File>();
+        fileNames.add(leadFile);
+        filesToAssemble.stream().filter(file -> !file.equals(leadFile)).forEach(fileNames::add);
+        this.mainUI.messagesPane.postMessage(RunAssembleAction.buildFileNameList(name + ": assembling ", fileNames));
+        new AssembleTask(
+            name, e == null, filesToAssemble, leadFile, exceptionHandler,
+            Globals.MEMORY_INSTANCE.getMemoryConfiguration()
+        ).start();
+    }
+
+    /// What a successful assembly produced.
+    private record Assembly(
+        @NotNull RISCVProgram program,
+        @NotNull List<@NotNull RISCVProgram> programs,
+        @NotNull ErrorList warnings,
+        @NotNull Memory memory,
+        @NotNull SymbolTable globalSymbolTable
+    ) {
+    }
+
+    private final class AssembleTask extends BackgroundTask<Assembly> {
+        private final @NotNull String name;
+        private final boolean isAutomatic;
+        private final @NotNull List<@NotNull File> files;
+        private final @NotNull File leadFile;
+        private final @Nullable File exceptionHandler;
+        private final @NotNull MemoryConfiguration memoryConfiguration;
+        private final @NotNull RISCVProgram program;
+
+        private AssembleTask(
+            final @NotNull String name,
+            final boolean isAutomatic,
+            final @NotNull List<@NotNull File> files,
+            final @NotNull File leadFile,
+            final @Nullable File exceptionHandler,
+            final @NotNull MemoryConfiguration memoryConfiguration
+        ) {
+            super(RunAssembleAction.this.mainUI, name);
+            this.name = name;
+            this.isAutomatic = isAutomatic;
+            this.files = files;
+            this.leadFile = leadFile;
+            this.exceptionHandler = exceptionHandler;
+            this.memoryConfiguration = memoryConfiguration;
+            this.program = new RISCVProgram();
+        }
+
+        @Override
+        protected @NotNull Assembly doInBackground() throws AssemblyException {
+            this.publish("Reading " + this.files.size() + (this.files.size() == 1 ? " file" : " files"));
+            final var globalSymbolTable = new SymbolTable();
+            final var programs = this.program.prepareFilesForAssembly(
+                this.files, this.leadFile, this.exceptionHandler, globalSymbolTable
+            );
+            this.publish("Assembling");
+            final var memory = new Memory(this.memoryConfiguration);
+            // added logic to receive any warnings and output them.... DPS 11/28/06
+            final var warnings = this.program.assemble(
+                programs,
+                RunAssembleAction.extendedAssemblerEnabled,
+                RunAssembleAction.warningsAreErrors,
+                memory,
+                globalSymbolTable
+            );
+            return new Assembly(this.program, programs, warnings, memory, globalSymbolTable);
+        }
+
+        @Override
+        protected void succeeded(final @NotNull Assembly assembly) {
+            final MessagesPane messagesPane = RunAssembleAction.this.mainUI.messagesPane;
+            final ExecutePane executePane = RunAssembleAction.this.mainUI.mainPane.executePane;
+            final RegistersPane registersPane = RunAssembleAction.this.mainUI.registersPane;
+            Globals.program = assembly.program;
+            RunAssembleAction.programsToAssemble = assembly.programs;
+            RunAssembleAction.assembledMemory = assembly.memory;
+            Globals.GLOBAL_SYMBOL_TABLE.copyFrom(assembly.globalSymbolTable);
+            Globals.MEMORY_INSTANCE.copyFrom(assembly.memory);
+            if (assembly.warnings.warningsOccurred()) {
+                messagesPane.postMessage(assembly.warnings.generateWarningReport());
+            }
+            messagesPane.postMessage(
+                this.name + ": operation completed successfully.\n\n");
+            FileStatus.setAssembled(true);
+            FileStatus.setSystemState(FileStatus.State.RUNNABLE);
+
+            Globals.REGISTER_FILE.resetRegisters();
+            Globals.FP_REGISTER_FILE.resetRegisters();
+            Globals.CS_REGISTER_FILE.resetRegisters();
+            Globals.INTERRUPT_CONTROLLER.reset();
+            Globals.DEVICE_BUS.reset();
+
+            executePane.textSegment.setupTable();
+            executePane.dataSegment.setupTable();
+            executePane.dataSegment.highlightCellForAddress(Globals.MEMORY_INSTANCE.getMemoryConfiguration().dataBaseAddress);
+            executePane.dataSegment.clearHighlighting();
+            executePane.labelValues.setupTable();
+            executePane.textSegment.setCodeHighlighting(true);
+            executePane.textSegment.highlightStepAtPC();
+            registersPane.getRegistersWindow().clearWindow();
+            registersPane.getFloatingPointWindow().clearWindow();
+            registersPane.getControlAndStatusWindow().clearWindow();
+            RunAssembleAction.this.mainUI.isMemoryReset = true;
+            RunAssembleAction.this.mainUI.isExecutionStarted = false;
+            RunAssembleAction.this.mainUI.mainPane.setSelectedComponent(executePane);
+
+            // Aug. 24, 2005 Ken Vollmar
+
+            // Ensure that I/O "file descriptors" are initialized for a new program run
+            RunAssembleAction.this.mainUI.venusIO.resetFiles();
+        }
+
+        @Override
+        protected void failed(final @NotNull Throwable cause) {
+            if (!(cause instanceof final AssemblyException pe)) {
+                super.failed(cause);
+                return;
+            }
+            final MessagesPane messagesPane = RunAssembleAction.this.mainUI.messagesPane;
+            Globals.program = this.program;
+            final String errorReport = pe.errors.generateErrorAndWarningReport();
+            messagesPane.postMessage(errorReport);
+            messagesPane.postMessage(
+                this.name + ": operation completed with errors.\n\n");
+            // Select editor line containing first error, and corresponding error message.
+            final var errorMessages = pe.errors.getErrorMessages();
+            for (final ErrorMessage em : errorMessages) {
+                // No line or position may mean File Not Found (e.g. exception file). Don't try
+                // to open. DPS 3-Oct-2010
+                if (em.lineNumber == 0 && em.position == 0) {
+                    continue;
                 }
-                messagesPane.postMessage(
-                    name + ": operation completed successfully.\n\n");
-                FileStatus.setAssembled(true);
-                FileStatus.setSystemState(FileStatus.State.RUNNABLE);
-
-                Globals.REGISTER_FILE.resetRegisters();
-                Globals.FP_REGISTER_FILE.resetRegisters();
-                Globals.CS_REGISTER_FILE.resetRegisters();
-                Globals.INTERRUPT_CONTROLLER.reset();
-
-                executePane.textSegment.setupTable();
-                executePane.dataSegment.setupTable();
-                executePane.dataSegment.highlightCellForAddress(Globals.MEMORY_INSTANCE.getMemoryConfiguration().dataBaseAddress);
-                executePane.dataSegment.clearHighlighting();
-                executePane.labelValues.setupTable();
-                executePane.textSegment.setCodeHighlighting(true);
-                executePane.textSegment.highlightStepAtPC();
-                registersPane.getRegistersWindow().clearWindow();
-                registersPane.getFloatingPointWindow().clearWindow();
-                registersPane.getControlAndStatusWindow().clearWindow();
-                this.mainUI.isMemoryReset = true;
-                this.mainUI.isExecutionStarted = false;
-                this.mainUI.mainPane.setSelectedComponent(executePane);
-
-                // Aug. 24, 2005 Ken Vollmar
-
-                // Ensure that I/O "file descriptors" are initialized for a new program run
-                this.mainUI.venusIO.resetFiles();
-
-            } catch (final AssemblyException pe) {
-                final String errorReport = pe.errors.generateErrorAndWarningReport();
-                messagesPane.postMessage(errorReport);
-                messagesPane.postMessage(
-                    name + ": operation completed with errors.\n\n");
-                // Select editor line containing first error, and corresponding error message.
-                final var errorMessages = pe.errors.getErrorMessages();
-                for (final ErrorMessage em : errorMessages) {
-                    // No line or position may mean File Not Found (e.g. exception file). Don't try
-                    // to open. DPS 3-Oct-2010
-                    if (em.lineNumber == 0 && em.position == 0) {
-                        continue;
-                    }
-                    if (!em.isWarning || RunAssembleAction.warningsAreErrors) {
-                        this.mainUI.messagesPane.selectErrorMessage(
-                            em.file, em.lineNumber,
-                            em.position
+                if (!em.isWarning || RunAssembleAction.warningsAreErrors) {
+                    messagesPane.selectErrorMessage(
+                        em.file, em.lineNumber,
+                        em.position
+                    );
+                    // Bug workaround: Line selection does not work correctly for the JEditTextArea
+                    // editor
+                    // when the file is opened then automatically assembled (assemble-on-open
+                    // setting).
+                    // Automatic assemble happens in EditTabbedPane's openFile() method, by invoking
+                    // this method (actionPerformed) explicitly with null argument. Thus the
+                    // isAutomatic test.
+                    // DPS 9-Aug-2010
+                    if (!this.isAutomatic) {
+                        RunAssembleAction.this.mainUI.mainPane.editTabbedPane.selectEditorTextLine(
+                            em.file,
+                            em.lineNumber
                         );
-                        // Bug workaround: Line selection does not work correctly for the JEditTextArea
-                        // editor
-                        // when the file is opened then automatically assembled (assemble-on-open
-                        // setting).
-                        // Automatic assemble happens in EditTabbedPane's openFile() method, by invoking
-                        // this method (actionPerformed) explicitly with null argument. Thus e!=null
-                        // test.
-                        // DPS 9-Aug-2010
-                        if (e != null) {
-                            this.mainUI.mainPane.editTabbedPane.selectEditorTextLine(em.file, em.lineNumber);
-                        }
-                        break;
                     }
+                    break;
                 }
-                FileStatus.setAssembled(false);
-                FileStatus.setSystemState(FileStatus.State.NOT_EDITED);
             }
+            FileStatus.setAssembled(false);
+            FileStatus.setSystemState(FileStatus.State.NOT_EDITED);
+        }
+
+        @Override
+        protected void cancelled() {
+            RunAssembleAction.this.mainUI.messagesPane.postMessage(this.name + ": operation cancelled.\n\n");
         }
     }
 }
@@ -2,7 +2,6 @@ package rars.venus.run;
 
 import org.jetbrains.annotations.NotNull;
 import rars.Globals;
-import rars.exceptions.AssemblyException;
 import rars.venus.ExecutePane;
 import rars.venus.FileStatus;
 import rars.venus.GuiAction;
@@ -61,32 +60,25 @@ public final class RunResetAction extends GuiAction {
         RunGoAction.resetMaxSteps();
         final String name = this.getValue(Action.NAME).toString();
         final ExecutePane executePane = mainUI.mainPane.executePane;
-        // The difficult part here is resetting the data segment. Two approaches are:
-        // 1. After each assembly, get a deep copy of the Globals.memory array
-        // containing data segment. Then replace it upon reset.
-        // 2. Simply re-assemble the program upon reset, and the assembler will
-        // build a new data segment. Reset can only be done after a successful
-        // assembly, so there is "no" chance of assembler error.
-        // I am choosing the second approach although it will slow down the reset
-        // operation. The first approach requires additional Memory class methods.
-        try {
-            Globals.program.assemble(
-                RunAssembleAction.getProgramsToAssemble(),
-                RunAssembleAction.getExtendedAssemblerEnabled(),
-                RunAssembleAction.getWarningsAreErrors()
-            );
-        } catch (final AssemblyException pe) {
+        // The difficult part here is resetting the data segment. This used to
+        // re-assemble the program, which could take seconds for large programs.
+        // Now the memory the last assembly produced is kept aside, and copied
+        // back in; that only copies the blocks the program uses.
+        final var assembledMemory = RunAssembleAction.getAssembledMemory();
+        if (assembledMemory == null) {
             // Should not be possible
             mainUI.messagesPane.postMessage(
-                // pe.errors().generateErrorReport());
                 "Unable to reset.  Please close file then re-open and re-assemble.\n");
             return;
         }
+        Globals.MEMORY_INSTANCE.copyFrom(assembledMemory);
+        Globals.program.resetBackStepper();
 
         Globals.REGISTER_FILE.resetRegisters();
         Globals.FP_REGISTER_FILE.resetRegisters();
         Globals.CS_REGISTER_FILE.resetRegisters();
         Globals.INTERRUPT_CONTROLLER.reset();
+        Globals.DEVICE_BUS.reset();
 
         executePane.registerValues.clearHighlighting();
         executePane.registerValues.updateRegisters();
@@ -19,8 +19,8 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.TreeMap;
 
-import static rars.Globals.FONT_SETTINGS;
 import static rars.Globals.OTHER_SETTINGS;
+import static rars.settings.GuiSettings.FONT_SETTINGS;
 
 /*
 Copyright (c) 2003-2009,  Pete Sanderson and Kenneth Vollmar
@@ -11,6 +11,7 @@ import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 
 import static rars.Globals.*;
+import static rars.settings.GuiSettings.*;
 
 public final class EditorSettingsDialog extends JDialog {
     public EditorSettingsDialog(
@@ -7,7 +7,7 @@ import rars.venus.util.GridBagBuilder;
 import javax.swing.*;
 import java.awt.*;
 
-import static rars.Globals.EDITOR_THEME_SETTINGS;
+import static rars.settings.GuiSettings.EDITOR_THEME_SETTINGS;
 
 public final class BaseStyleView extends JPanel {
     private static final @NotNull String FOREGROUND = "Foreground",
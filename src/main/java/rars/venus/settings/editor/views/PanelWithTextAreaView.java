@@ -1,15 +1,15 @@
 package rars.venus.settings.editor.views;
 
 import org.jetbrains.annotations.NotNull;
-import rars.Globals;
 import rars.venus.editors.TextEditingArea;
 import rars.venus.editors.TextEditingAreaFactory;
 
 import javax.swing.*;
 import java.awt.*;
 
-import static rars.Globals.FONT_SETTINGS;
 import static rars.Globals.OTHER_SETTINGS;
+import static rars.settings.GuiSettings.EDITOR_THEME_SETTINGS;
+import static rars.settings.GuiSettings.FONT_SETTINGS;
 
 public final class PanelWithTextAreaView extends JPanel {
     public final @NotNull PickerCardView pickerCardView;
@@ -32,7 +32,7 @@ public final class PanelWithTextAreaView extends JPanel {
     }
 
     private static @NotNull TextEditingArea createTextArea() {
-        final var currentTheme = Globals.EDITOR_THEME_SETTINGS.getCurrentTheme().toEditorTheme();
+        final var currentTheme = EDITOR_THEME_SETTINGS.getCurrentTheme().toEditorTheme();
         final var result = TextEditingAreaFactory.createTextEditingArea(currentTheme);
         final var exampleText = """
             # Some macro definitions to print strings
@@ -0,0 +1,81 @@
+package assembler;
+
+import org.junit.jupiter.api.Test;
+import rars.Globals;
+import rars.RISCVProgram;
+import rars.assembler.Assembler;
+import rars.assembler.SymbolTable;
+import rars.exceptions.AddressErrorException;
+import rars.exceptions.AssemblyException;
+import rars.riscv.hardware.Memory;
+import rars.riscv.hardware.MemoryConfiguration;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Assembling into a memory and symbol table of its own, as the editor's checks and the GUI's Assemble do.
+class ScratchAssemblyTest {
+    private static final MemoryConfiguration CONFIGURATION = MemoryConfiguration.DEFAULT;
+
+    private static final String PROGRAM = """
+        .globl scratch_value
+        .data
+        scratch_value: .word 0x1234
+        .text
+        main:
+            la a0, scratch_value
+            lw a0, 0(a0)
+        """;
+
+    private static RISCVProgram tokenize(final String source, final SymbolTable globalSymbolTable)
+        throws AssemblyException {
+        final var program = new RISCVProgram();
+        program.fromString(source, null);
+        program.tokenize(globalSymbolTable);
+        return program;
+    }
+
+    @Test
+    void leavesTheGlobalMemoryAndSymbolTableAlone() throws AssemblyException, AddressErrorException {
+        final var memory = new Memory(CONFIGURATION);
+        final var symbolTable = new SymbolTable();
+        final var program = ScratchAssemblyTest.tokenize(PROGRAM, symbolTable);
+
+        final var result = Assembler.assemble(List.of(program), true, false, memory, symbolTable);
+
+        assertFalse(result.second().errorsOccurred());
+        assertEquals(CONFIGURATION.dataBaseAddress, symbolTable.getAddress("scratch_value"));
+        assertEquals(0x1234, memory.getWordNoNotify(CONFIGURATION.dataBaseAddress));
+        assertNull(Globals.GLOBAL_SYMBOL_TABLE.getSymbol("scratch_value"));
+    }
+
+    @Test
+    void reportsErrorsWithTheirLines() throws AssemblyException {
+        final var symbolTable = new SymbolTable();
+        final var program = ScratchAssemblyTest.tokenize(".text\nmain:\n    addi a0, a0\n", symbolTable);
+
+        final var exception = assertThrows(
+            AssemblyException.class,
+            () -> Assembler.assemble(List.of(program), true, false, new Memory(CONFIGURATION), symbolTable)
+        );
+        assertTrue(exception.errors.errorsOccurred());
+        assertEquals(3, exception.errors.getErrorMessages().getFirst().lineNumber);
+    }
+
+    @Test
+    void stopsWhenTheThreadIsInterrupted() throws AssemblyException {
+        final var symbolTable = new SymbolTable();
+        final var program = ScratchAssemblyTest.tokenize(PROGRAM, symbolTable);
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(
+                CancellationException.class,
+                () -> Assembler.assemble(List.of(program), true, false, new Memory(CONFIGURATION), symbolTable)
+            );
+        } finally {
+            Thread.interrupted();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package branch;
+
+import org.junit.jupiter.api.Test;
+import rars.branch.BranchPredictorConfiguration;
+import rars.branch.BranchPredictorEngine;
+import rars.branch.BranchTraceReplay;
+import rars.simulator.BranchKind;
+import rars.trace.TraceBatch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BranchPredictorTest {
+    private static BranchPredictorEngine engine(final String... configurations) {
+        return new BranchPredictorEngine(
+            List.of(configurations).stream().map(BranchPredictorConfiguration::parse).toList()
+        );
+    }
+
+    @Test
+    void testLoopBranch() {
+        // a backward loop branch taken 9 times out of 10, executed 10 times
+        final var engine = engine("taken", "not-taken", "btfn", "bimodal:16");
+        for (var i = 0; i < 100; i++) {
+            engine.branchResolved(0x400010, 0x400000, i % 10 != 9, BranchKind.CONDITIONAL);
+        }
+        assertEquals(90, engine.getCorrect(0));
+        assertEquals(10, engine.getCorrect(1));
+        assertEquals(90, engine.getCorrect(2));
+        // weakly not taken at first, then mispredicts only the loop exits
+        assertEquals(100 - 10 - 1, engine.getCorrect(3));
+    }
+
+    @Test
+    void testGshareLearnsPatterns() {
+        // alternating outcomes defeat a bimodal predictor but not gshare
+        final var engine = engine("bimodal:16", "gshare:64:4", "tournament:64:4");
+        for (var i = 0; i < 1000; i++) {
+            engine.branchResolved(0x400020, 0x400040, i % 2 == 0, BranchKind.CONDITIONAL);
+        }
+        assertEquals(1000, engine.getScored(1));
+        assertTrue(engine.getAccuracy(0) < 0.6);
+        assertTrue(engine.getAccuracy(1) > 0.99);
+        assertTrue(engine.getAccuracy(2) > 0.99);
+    }
+
+    @Test
+    void testReturnAddressStack() {
+        final var engine = engine("ras:2");
+        // nested calls three deep overflow a two-entry stack
+        engine.branchResolved(0x400000, 0x400100, true, BranchKind.CALL);
+        engine.branchResolved(0x400100, 0x400200, true, BranchKind.CALL);
+        engine.branchResolved(0x400200, 0x400300, true, BranchKind.CALL);
+        engine.branchResolved(0x400300, 0x400204, true, BranchKind.RETURN);
+        engine.branchResolved(0x400204, 0x400104, true, BranchKind.RETURN);
+        engine.branchResolved(0x400104, 0x400004, true, BranchKind.RETURN);
+        assertEquals(3, engine.getScored(0));
+        assertEquals(2, engine.getCorrect(0));
+    }
+
+    @Test
+    void testBranchTargetBuffer() {
+        final var engine = engine("btb:4");
+        engine.branchResolved(0x400000, 0x400100, true, BranchKind.JUMP);
+        engine.branchResolved(0x400000, 0x400100, true, BranchKind.JUMP);
+        // same index, different tag
+        engine.branchResolved(0x400010, 0x400100, true, BranchKind.JUMP);
+        engine.branchResolved(0x400000, 0x400100, true, BranchKind.JUMP);
+        assertEquals(1, engine.getCorrect(0));
+    }
+
+    @Test
+    void testPerBranchStatistics() {
+        final var engine = engine("taken");
+        engine.branchResolved(0x400020, 0x400000, false, BranchKind.CONDITIONAL);
+        for (var pc = 0x400000; pc < 0x401000; pc += 4) {
+            engine.branchResolved(pc, pc + 8, true, BranchKind.CONDITIONAL);
+        }
+        final var branches = engine.getBranches();
+        assertEquals(0x1000 / 4, branches.size());
+        assertEquals(0x400000, branches.getFirst().pc());
+        final var branch = branches.get(8);
+        assertEquals(0x400020, branch.pc());
+        assertEquals(2, branch.executions());
+        assertEquals(1, branch.taken());
+        assertEquals(1, branch.mispredictions()[0]);
+    }
+
+    @Test
+    void testReplayRecoversBranchesFromFetches() {
+        record Resolved(int pc, int target, boolean taken, BranchKind kind) {
+        }
+        final var resolved = new ArrayList<Resolved>();
+        final var replay = new BranchTraceReplay(
+            (pc, target, taken, kind) -> resolved.add(new Resolved(pc, target, taken, kind))
+        );
+        // loop: addi t0, t0, -1; bne t0, zero, loop; jal ra, f; (nop); f: jalr zero, 0(ra)
+        final var first = new TraceBatch(64);
+        for (var i = 0; i < 3; i++) {
+            first.add(0x400000, 0x400000, TraceBatch.FETCH, 4, 0xfff28293);
+            first.add(0x400004, 0x400004, TraceBatch.FETCH, 4, 0xfe029ee3);
+            first.add(0x400004, 0x10010000, TraceBatch.LOAD, 4, 0);
+        }
+        first.add(0x400008, 0x400008, TraceBatch.FETCH, 4, 0x008000ef);
+        replay.accept(first);
+        // the call is resolved by the first fetch of the next batch
+        final var second = new TraceBatch(64);
+        second.add(0x400010, 0x400010, TraceBatch.FETCH, 4, 0x00008067);
+        second.add(0x40000c, 0x40000c, TraceBatch.FETCH, 4, 0x00000013);
+        replay.accept(second);
+        assertEquals(
+            List.of(
+                new Resolved(0x400004, 0x400000, true, BranchKind.CONDITIONAL),
+                new Resolved(0x400004, 0x400000, true, BranchKind.CONDITIONAL),
+                new Resolved(0x400004, 0x400000, false, BranchKind.CONDITIONAL),
+                new Resolved(0x400008, 0x400010, true, BranchKind.CALL),
+                new Resolved(0x400010, 0x40000c, true, BranchKind.RETURN)
+            ),
+            resolved
+        );
+    }
+
+    @Test
+    void testParse() {
+        assertEquals("gshare:1024:10:2", BranchPredictorConfiguration.parse("GSHARE:1024:10").toString());
+        assertEquals("bimodal:16:3", BranchPredictorConfiguration.parse("bimodal:16:3").toString());
+        assertThrows(IllegalArgumentException.class, () -> BranchPredictorConfiguration.parse("bimodal:15"));
+        assertThrows(IllegalArgumentException.class, () -> BranchPredictorConfiguration.parse("gshare:16"));
+        assertThrows(IllegalArgumentException.class, () -> BranchPredictorConfiguration.parse("perceptron:16"));
+    }
+}
@@ -0,0 +1,70 @@
+package cache;
+
+import org.junit.jupiter.api.Test;
+import rars.cache.Cache;
+import rars.cache.CacheConfiguration;
+import rars.cache.CacheHierarchy;
+import rars.cache.CacheHierarchyConfiguration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CacheTest {
+    @Test
+    void testDirectMappedConflicts() {
+        // 4 blocks of 16 bytes, addresses 0 and 64 map to the same block
+        final var cache = new Cache(CacheConfiguration.parse("64:16:1"), null);
+        cache.access(0, 4, false);
+        cache.access(64, 4, false);
+        cache.access(0, 4, false);
+        cache.access(4, 4, false);
+        assertEquals(1, cache.getStatistics().getHits());
+        assertEquals(3, cache.getStatistics().getMisses());
+        assertEquals(2, cache.getStatistics().getEvictions());
+    }
+
+    @Test
+    void testReplacementPolicies() {
+        // a single set of two blocks: A, B, A, C, A
+        final int[] addresses = {0, 16, 0, 32, 0};
+        final var lru = new Cache(CacheConfiguration.parse("32:16:2:lru"), null);
+        final var fifo = new Cache(CacheConfiguration.parse("32:16:2:fifo"), null);
+        final var plru = new Cache(CacheConfiguration.parse("32:16:2:plru"), null);
+        for (final var address : addresses) {
+            lru.access(address, 4, false);
+            fifo.access(address, 4, false);
+            plru.access(address, 4, false);
+        }
+        // LRU evicts B for C, FIFO evicts A
+        assertEquals(2, lru.getStatistics().getHits());
+        assertEquals(1, fifo.getStatistics().getHits());
+        // with two ways, pseudo-LRU is exact
+        assertEquals(2, plru.getStatistics().getHits());
+    }
+
+    @Test
+    void testWritePolicies() {
+        final var hierarchy = new CacheHierarchy(CacheHierarchyConfiguration.parse("64:16:1:lru:wt+256:16:1"));
+        final var l1 = hierarchy.getLevels().get(0).getStatistics();
+        final var l2 = hierarchy.getLevels().get(1).getStatistics();
+        hierarchy.access(0, 4, true); // write miss, not allocated
+        hierarchy.access(0, 4, false); // read miss, filled from L2
+        hierarchy.access(0, 4, true); // write hit, written through
+        assertEquals(1, l1.getHits());
+        assertEquals(3, l2.getAccesses());
+        assertEquals(2, l2.getWrites());
+
+        final var writeBack = new CacheHierarchy(CacheHierarchyConfiguration.parse("64:16:1+256:16:1"));
+        writeBack.access(0, 4, true);
+        writeBack.access(64, 4, false); // evicts the dirty block
+        assertEquals(1, writeBack.getLevels().getFirst().getStatistics().getWritebacks());
+        assertEquals(1, writeBack.getLevels().get(1).getStatistics().getWrites());
+    }
+
+    @Test
+    void testInvalidConfigurations() {
+        assertThrows(IllegalArgumentException.class, () -> CacheConfiguration.parse("100:16:1"));
+        assertThrows(IllegalArgumentException.class, () -> CacheConfiguration.parse("64:16:8"));
+        assertThrows(IllegalArgumentException.class, () -> CacheConfiguration.parse("64:16:1:mru"));
+    }
+}
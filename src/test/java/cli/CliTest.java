@@ -4,6 +4,7 @@ import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Test;
 import picocli.CommandLine;
 import rars.api.ProgramOptions;
+import rars.cache.CacheHierarchyConfiguration;
 
 import java.io.File;
 import java.util.Arrays;
@@ -34,4 +35,18 @@ class CliTest {
             }
         );
     }
+
+    @Test
+    void testCaches() {
+        doTest(
+            new String[]{"--cache", "1K:16:1", "4K:16:2:plru:wt+64K:64:8"},
+            programArgs -> {
+                final var expected = List.of(
+                    CacheHierarchyConfiguration.parse("1024:16:1:lru:wb-wa"),
+                    CacheHierarchyConfiguration.parse("4096:16:2:plru:wt-nwa+65536:64:8:lru:wb-wa")
+                );
+                assertEquals(expected, programArgs.caches);
+            }
+        );
+    }
 }
@@ -0,0 +1,161 @@
+package device;
+
+import org.junit.jupiter.api.Test;
+import rars.Globals;
+import rars.exceptions.AddressErrorException;
+import rars.riscv.hardware.DeviceBus;
+import rars.riscv.hardware.EventScheduler;
+import rars.riscv.hardware.Memory;
+import rars.riscv.hardware.MemoryConfiguration;
+import rars.riscv.hardware.MemoryMappedDevice;
+import rars.riscv.hardware.SimulationClock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeviceBusTest {
+    private static final MemoryConfiguration CONFIGURATION = MemoryConfiguration.DEFAULT;
+
+    /// Devices only see the accesses of the simulated program, so they are made from a thread named like it.
+    private static void onSimulatorThread(final ThrowingRunnable action) throws Exception {
+        final var failure = new Exception[1];
+        final var thread = new Thread(() -> {
+            try {
+                action.run();
+            } catch (final Exception e) {
+                failure[0] = e;
+            }
+        }, "RISCV test");
+        thread.start();
+        thread.join();
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+    }
+
+    @Test
+    void decodesProgramAccessesToTheDevice() throws Exception {
+        final var memory = new Memory(CONFIGURATION);
+        final var base = CONFIGURATION.memoryMapBaseAddress;
+        final var writes = new ArrayList<Integer>();
+        final var device = new MemoryMappedDevice() {
+            @Override
+            public int read(final int address, final int length, final int storedValue) {
+                return storedValue + 1;
+            }
+
+            @Override
+            public void write(final int address, final int length, final int value) {
+                writes.add(value);
+            }
+        };
+        Globals.DEVICE_BUS.attach(device, base + 0x20, base + 0x24);
+        try {
+            final var loaded = new int[2];
+            onSimulatorThread(() -> {
+                memory.setWord(base + 0x20, 5);
+                memory.set(base + 0x27, 7, 1);
+                memory.setWord(base + 0x28, 9);
+                loaded[0] = memory.getWord(base + 0x20);
+                loaded[1] = memory.getWord(base + 0x28);
+            });
+            assertEquals(List.of(5, 7), writes);
+            assertEquals(6, loaded[0]);
+            assertEquals(9, loaded[1]);
+            // the GUI and the tools are not the program, so the device does not see them
+            memory.setWord(base + 0x20, 1);
+            assertEquals(1, memory.getWord(base + 0x20));
+            assertEquals(2, writes.size());
+        } finally {
+            Globals.DEVICE_BUS.detach(device);
+        }
+    }
+
+    @Test
+    void rejectsOverlappingDevices() throws AddressErrorException {
+        final var bus = new DeviceBus();
+        final var first = new MemoryMappedDevice() {
+        };
+        final var second = new MemoryMappedDevice() {
+        };
+        bus.attach(first, 0xffff0000, 0xffff0004);
+        assertThrows(AddressErrorException.class, () -> bus.attach(second, 0xffff0004, 0xffff0004));
+        bus.attach(second, 0xffff0008, 0xffff0008);
+        bus.detach(first);
+        bus.attach(second, 0xffff0000, 0xffff0000);
+    }
+
+    @Test
+    void runsEventsInOrderOfRetiredInstructions() {
+        final var scheduler = new EventScheduler();
+        final var events = new ArrayList<String>();
+        scheduler.scheduleAfter(3, () -> events.add("c"));
+        scheduler.scheduleAfter(1, () -> events.add("a"));
+        scheduler.scheduleAfter(3, () -> events.add("d"));
+        final Runnable cancelled = () -> events.add("x");
+        scheduler.scheduleAfter(2, cancelled);
+        scheduler.scheduleAfter(2, () -> {
+            events.add("b");
+            scheduler.scheduleAfter(0, () -> events.add("b'"));
+        });
+        scheduler.cancel(cancelled);
+        scheduler.tick();
+        assertEquals(List.of("a"), events);
+        scheduler.tick();
+        scheduler.tick();
+        assertEquals(List.of("a", "b", "c", "d", "b'"), events);
+        assertEquals(3, scheduler.getNow());
+    }
+
+    @Test
+    void skipsToTheNextEventWhileIdle() {
+        final var scheduler = new EventScheduler();
+        final var fired = new boolean[1];
+        assertFalse(scheduler.skipToNextEvent());
+        scheduler.scheduleAfter(1000, () -> fired[0] = true);
+        assertTrue(scheduler.skipToNextEvent());
+        assertTrue(fired[0]);
+        assertEquals(1000, scheduler.getNow());
+        scheduler.reset();
+        assertEquals(0, scheduler.getNow());
+    }
+
+    @Test
+    void virtualTimeFollowsRetiredInstructions() throws InterruptedException {
+        final var bus = new DeviceBus();
+        final var scheduler = bus.getScheduler();
+        final var clock = bus.getClock();
+        clock.configure(SimulationClock.Mode.VIRTUAL, 10);
+        assertEquals(0, clock.getTime());
+        final var times = new ArrayList<Long>();
+        scheduler.scheduleAfter(clock.instructionsUntil(3), () -> times.add(clock.getTime()));
+        for (var i = 0; i < 29; i++) {
+            scheduler.tick();
+            clock.tick();
+        }
+        assertEquals(2, clock.getTime());
+        assertEquals(List.of(), times);
+        scheduler.tick();
+        clock.tick();
+        assertEquals(3, clock.getTime());
+        assertEquals(List.of(3L), times);
+        // a sleeping program skips instructions, so the clock has to catch up
+        clock.requestSleep(5);
+        assertEquals(3, clock.getTime());
+        clock.sleepIfRequested();
+        assertEquals(8, clock.getTime());
+        assertEquals(80, scheduler.getNow());
+        assertEquals(20, clock.instructionsUntil(10));
+        bus.reset();
+        assertEquals(0, clock.getTime());
+    }
+
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
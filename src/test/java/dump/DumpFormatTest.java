@@ -0,0 +1,138 @@
+package dump;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import rars.exceptions.AddressErrorException;
+import rars.riscv.dump.DumpFormat;
+import rars.riscv.dump.MemoryRangeReader;
+import rars.riscv.dump.formats.AsciiTextDumpFormat;
+import rars.riscv.dump.formats.BinaryDumpFormat;
+import rars.riscv.dump.formats.BinaryTextDumpFormat;
+import rars.riscv.dump.formats.HexTextDumpFormat;
+import rars.riscv.dump.formats.IntelHexDumpFormat;
+import rars.riscv.hardware.Memory;
+import rars.riscv.hardware.MemoryConfiguration;
+import rars.util.BinaryUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DumpFormatTest {
+    private static final MemoryConfiguration CONFIGURATION = MemoryConfiguration.DEFAULT;
+    private static final int DATA = CONFIGURATION.dataBaseAddress;
+    private static final int WRITTEN_BLOCKS = 3;
+
+    /// Memory with words written in the first [#WRITTEN_BLOCKS] blocks of the data segment, the last one partly.
+    private static Memory createMemory(final int words) throws AddressErrorException {
+        final var memory = new Memory(CONFIGURATION);
+        for (var i = 0; i < words; i++) {
+            memory.setWord(DATA + 4 * i, i * 0x9E3779B9);
+        }
+        return memory;
+    }
+
+    private static String expectedText(final Memory memory, final IntFunction<String> formatWord)
+        throws AddressErrorException {
+        final var builder = new StringBuilder();
+        for (var address = DATA; ; address += 4) {
+            final var word = memory.getRawWordOrNull(address);
+            if (word == null) {
+                return builder.toString();
+            }
+            builder.append(formatWord.apply(word)).append(System.lineSeparator());
+        }
+    }
+
+    private static Path dump(final DumpFormat format, final Memory memory, final Path directory, final int lastAddress)
+        throws AddressErrorException, IOException {
+        final var file = directory.resolve(format.getCommandDescriptor());
+        format.dumpMemoryRange(file.toFile(), DATA, lastAddress, memory);
+        return file;
+    }
+
+    @Test
+    void textFormatsWriteEveryWordUpToTheFirstUnwrittenBlock(@TempDir final Path directory)
+        throws AddressErrorException, IOException {
+        final var memory = DumpFormatTest.createMemory((WRITTEN_BLOCKS - 1) * MemoryRangeReader.BLOCK_WORDS + 5);
+        final var lastAddress = DATA + 0x100000;
+        assertEquals(
+            DumpFormatTest.expectedText(memory, word -> "%08x".formatted(word)),
+            Files.readString(DumpFormatTest.dump(new HexTextDumpFormat(), memory, directory, lastAddress))
+        );
+        assertEquals(
+            DumpFormatTest.expectedText(
+                memory,
+                word -> "%32s".formatted(Integer.toBinaryString(word)).replace(' ', '0')
+            ),
+            Files.readString(DumpFormatTest.dump(new BinaryTextDumpFormat(), memory, directory, lastAddress))
+        );
+        assertEquals(
+            DumpFormatTest.expectedText(memory, BinaryUtils::intToAscii),
+            Files.readString(DumpFormatTest.dump(new AsciiTextDumpFormat(), memory, directory, lastAddress))
+        );
+        assertEquals(
+            WRITTEN_BLOCKS * MemoryRangeReader.BLOCK_WORDS,
+            Files.readAllLines(directory.resolve(new HexTextDumpFormat().getCommandDescriptor())).size()
+        );
+    }
+
+    @Test
+    void binaryFormatWritesLittleEndianWords(@TempDir final Path directory)
+        throws AddressErrorException, IOException {
+        final var memory = DumpFormatTest.createMemory(MemoryRangeReader.BLOCK_WORDS + 3);
+        final var lastAddress = DATA + 4 * (MemoryRangeReader.BLOCK_WORDS + 1);
+        final var expected = new ByteArrayOutputStream();
+        for (var address = DATA; address <= lastAddress; address += 4) {
+            final var word = memory.getWordNoNotify(address);
+            for (var i = 0; i < 4; i++) {
+                expected.write(word >>> (8 * i));
+            }
+        }
+        final var file = DumpFormatTest.dump(new BinaryDumpFormat(), memory, directory, lastAddress);
+        assertArrayEquals(expected.toByteArray(), Files.readAllBytes(file));
+    }
+
+    @Test
+    void intelHexRecordsAreValidPastTheFirst64Kilobytes(@TempDir final Path directory)
+        throws AddressErrorException, IOException {
+        final var words = 0x10000 / 4 + 3;
+        final var memory = DumpFormatTest.createMemory(words);
+        final var file = DumpFormatTest.dump(new IntelHexDumpFormat(), memory, directory, DATA + 4 * (words - 1));
+        final List<String> lines = Files.readAllLines(file);
+
+        assertEquals(words + 2, lines.size());
+        for (final var line : lines) {
+            var sum = 0;
+            for (final var value : HexFormat.of().parseHex(line.substring(1))) {
+                sum += value;
+            }
+            assertEquals(0, sum & 0xFF, line);
+        }
+        assertEquals(":0400000000000000FC", lines.getFirst());
+        assertEquals(":020000040001F9", lines.get(0x10000 / 4));
+        assertTrue(lines.get(0x10000 / 4 + 1).startsWith(":04000000"));
+        assertEquals(":00000001FF", lines.getLast());
+    }
+
+    @Test
+    void stopsWhenTheThreadIsInterrupted(@TempDir final Path directory) throws AddressErrorException {
+        final var memory = DumpFormatTest.createMemory(16);
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(
+                CancellationException.class,
+                () -> DumpFormatTest.dump(new HexTextDumpFormat(), memory, directory, DATA + 60)
+            );
+        } finally {
+            Thread.interrupted();
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package elf;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import rars.assembler.SymbolTable;
+import rars.elf.ElfFile;
+import rars.elf.ElfLoader;
+import rars.exceptions.AddressErrorException;
+import rars.riscv.BasicInstructionFormat;
+import rars.riscv.InstructionsRegistry;
+import rars.riscv.hardware.Memory;
+import rars.riscv.hardware.MemoryConfiguration;
+import rars.tools.InstructionCounter;
+import rars.tools.InstructionStatistics;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ElfLoaderTest {
+    private static final MemoryConfiguration CONFIGURATION = MemoryConfiguration.DEFAULT;
+    private static final int TEXT = CONFIGURATION.textBaseAddress;
+    private static final int DATA = CONFIGURATION.dataBaseAddress;
+    /// addi a0, zero, 42; ecall; a word that is no instruction
+    private static final int[] CODE = {0x02a00513, 0x00000073, 0xffffffff};
+    private static final byte[] DATA_BYTES = {1, 2, 3, 4, 5, 6};
+    /// Size of the data segment in memory: two bytes more than in the file.
+    private static final int DATA_MEMORY_SIZE = 10;
+    private static final int GLOBAL_POINTER = DATA + 0x800;
+    private static final String[] SECTION_NAMES = {"", ".text", ".data", ".symtab", ".strtab", ".shstrtab"};
+    private boolean wasRV64;
+
+    @BeforeEach
+    void use32BitMode() {
+        this.wasRV64 = InstructionsRegistry.RV64_MODE_FLAG;
+        InstructionsRegistry.RV64_MODE_FLAG = false;
+    }
+
+    @AfterEach
+    void restoreMode() {
+        InstructionsRegistry.RV64_MODE_FLAG = this.wasRV64;
+    }
+
+    /**
+     * Builds an ELF32 executable with a text and a data segment and the
+     * symbols main, msg, __global_pointer$ and a few that are not labels.
+     */
+    private static byte[] createExecutable(final int type, final int flags) {
+        final var strings = new ByteArrayOutputStream();
+        final var sectionNames = new ByteArrayOutputStream();
+        final var symbols = ByteBuffer.allocate(7 * 16).order(ByteOrder.LITTLE_ENDIAN);
+        symbols.put(new byte[16]);
+        ElfLoaderTest.putSymbol(symbols, strings, "program.c", 0, ElfFile.STB_LOCAL, ElfFile.STT_FILE, 0xfff1);
+        ElfLoaderTest.putSymbol(symbols, strings, "$x", TEXT, ElfFile.STB_LOCAL, ElfFile.STT_NOTYPE, 1);
+        ElfLoaderTest.putSymbol(symbols, strings, "msg", DATA, ElfFile.STB_LOCAL, ElfFile.STT_OBJECT, 2);
+        ElfLoaderTest.putSymbol(symbols, strings, "main", TEXT, ElfFile.STB_GLOBAL, ElfFile.STT_FUNC, 1);
+        ElfLoaderTest.putSymbol(symbols, strings, ElfLoader.GLOBAL_POINTER_SYMBOL, GLOBAL_POINTER,
+            ElfFile.STB_GLOBAL, ElfFile.STT_NOTYPE, 2);
+
+        final var textOffset = 52 + 2 * 32;
+        final var dataOffset = textOffset + CODE.length * 4;
+        final var symbolsOffset = dataOffset + 8;
+        final var stringsOffset = symbolsOffset + symbols.capacity();
+        final var sectionNamesOffset = stringsOffset + strings.size();
+        final var names = new int[6];
+        for (var i = 1; i < names.length; i++) {
+            names[i] = sectionNames.size() + 1;
+            sectionNames.writeBytes(SECTION_NAMES[i].getBytes(StandardCharsets.UTF_8));
+            sectionNames.write(0);
+        }
+        final var namesBytes = new byte[sectionNames.size() + 1];
+        System.arraycopy(sectionNames.toByteArray(), 0, namesBytes, 1, sectionNames.size());
+        final var sectionsOffset = (sectionNamesOffset + namesBytes.length + 3) & -4;
+
+        final var file = ByteBuffer.allocate(sectionsOffset + 6 * 40).order(ByteOrder.LITTLE_ENDIAN);
+        file.put(ElfFile.MAGIC).put((byte) ElfFile.CLASS_32).put((byte) ElfFile.DATA_LITTLE_ENDIAN)
+            .put((byte) ElfFile.VERSION_CURRENT).put(new byte[9]);
+        file.putShort((short) type).putShort((short) ElfFile.EM_RISCV).putInt(ElfFile.VERSION_CURRENT)
+            .putInt(TEXT).putInt(52).putInt(sectionsOffset).putInt(flags)
+            .putShort((short) 52).putShort((short) 32).putShort((short) 2)
+            .putShort((short) 40).putShort((short) 6).putShort((short) 5);
+        file.putInt(ElfFile.PT_LOAD).putInt(textOffset).putInt(TEXT).putInt(TEXT)
+            .putInt(CODE.length * 4).putInt(CODE.length * 4).putInt(ElfFile.PF_R | ElfFile.PF_X).putInt(4);
+        file.putInt(ElfFile.PT_LOAD).putInt(dataOffset).putInt(DATA).putInt(DATA)
+            .putInt(DATA_BYTES.length).putInt(DATA_MEMORY_SIZE).putInt(ElfFile.PF_R | ElfFile.PF_W).putInt(4);
+        for (final var word : CODE) {
+            file.putInt(word);
+        }
+        file.put(DATA_BYTES).put(new byte[8 - DATA_BYTES.length]);
+        file.put(symbols.array()).put(strings.toByteArray()).put(namesBytes);
+
+        file.position(sectionsOffset).put(new byte[40]);
+        ElfLoaderTest.putSection(file, names[1], ElfFile.SHT_PROGBITS, ElfFile.SHF_ALLOC | ElfFile.SHF_EXECINSTR,
+            TEXT, textOffset, CODE.length * 4, 0, 0);
+        ElfLoaderTest.putSection(file, names[2], ElfFile.SHT_PROGBITS, ElfFile.SHF_ALLOC | ElfFile.SHF_WRITE,
+            DATA, dataOffset, DATA_BYTES.length, 0, 0);
+        ElfLoaderTest.putSection(file, names[3], ElfFile.SHT_SYMTAB, 0, 0, symbolsOffset, symbols.capacity(), 4, 16);
+        ElfLoaderTest.putSection(file, names[4], ElfFile.SHT_STRTAB, 0, 0, stringsOffset, strings.size(), 0, 0);
+        ElfLoaderTest.putSection(file, names[5], ElfFile.SHT_STRTAB, 0, 0, sectionNamesOffset, namesBytes.length,
+            0, 0);
+        return file.array();
+    }
+
+    private static void putSymbol(
+        final ByteBuffer symbols,
+        final ByteArrayOutputStream strings,
+        final String name,
+        final int value,
+        final int binding,
+        final int type,
+        final int section
+    ) {
+        if (strings.size() == 0) {
+            strings.write(0);
+        }
+        symbols.putInt(strings.size()).putInt(value).putInt(0).put((byte) (binding << 4 | type)).put((byte) 0)
+            .putShort((short) section);
+        strings.writeBytes(name.getBytes(StandardCharsets.UTF_8));
+        strings.write(0);
+    }
+
+    private static void putSection(
+        final ByteBuffer file,
+        final int name,
+        final int type,
+        final int flags,
+        final int address,
+        final int offset,
+        final int size,
+        final int link,
+        final int entrySize
+    ) {
+        file.putInt(name).putInt(type).putInt(flags).putInt(address).putInt(offset).putInt(size).putInt(link)
+            .putInt(0).putInt(4).putInt(entrySize);
+    }
+
+    private static Path write(final Path directory, final byte[] contents) throws IOException {
+        final var file = directory.resolve("program.elf");
+        Files.write(file, contents);
+        return file;
+    }
+
+    @Test
+    void loadsSegmentsSymbolsAndEntry(@TempDir final Path directory) throws IOException, AddressErrorException {
+        final var file = ElfLoaderTest.write(directory, ElfLoaderTest.createExecutable(ElfFile.ET_EXEC, 0));
+        assertTrue(ElfFile.isElf(file));
+        final var memory = new Memory(CONFIGURATION);
+        // the data segment ends in the middle of this word, whose last two bytes must be kept
+        memory.setRawWord(DATA + 8, 0xAABBCCDD);
+        final var symbolTable = new SymbolTable();
+
+        final var loaded = ElfLoader.load(file, memory, symbolTable);
+
+        assertEquals(TEXT, loaded.entry());
+        assertEquals(GLOBAL_POINTER, loaded.globalPointer());
+        assertFalse(loaded.hasDataInText());
+        for (var i = 0; i < CODE.length; i++) {
+            assertEquals(CODE[i], memory.getStatementNoNotify(TEXT + 4 * i).getBinaryStatement());
+        }
+        assertEquals("addi", memory.getStatementNoNotify(TEXT).getInstruction().mnemonic);
+        assertNull(memory.getStatementNoNotify(TEXT + 8).getInstruction());
+        assertEquals(0x04030201, memory.getRawWord(DATA));
+        assertEquals(0x00000605, memory.getRawWord(DATA + 4));
+        assertEquals(0xAABB0000, memory.getRawWord(DATA + 8));
+
+        assertEquals(3, loaded.symbolCount());
+        assertEquals(TEXT, symbolTable.getAddress("main"));
+        assertEquals(DATA, symbolTable.getAddress("msg"));
+        assertTrue(symbolTable.getSymbol("msg").isData());
+        assertFalse(symbolTable.getSymbol("main").isData());
+        assertNull(symbolTable.getSymbol("$x"));
+        assertNull(symbolTable.getSymbol("program.c"));
+    }
+
+    @Test
+    void toolsSkipWordsThatAreNoInstructions(@TempDir final Path directory) throws IOException, AddressErrorException {
+        final var file = ElfLoaderTest.write(directory, ElfLoaderTest.createExecutable(ElfFile.ET_EXEC, 0));
+        final var memory = new Memory(CONFIGURATION);
+        ElfLoader.load(file, memory, new SymbolTable());
+
+        final var instruction = memory.getStatementNoNotify(TEXT);
+        final var data = memory.getStatementNoNotify(TEXT + 8);
+        assertEquals(BasicInstructionFormat.I_FORMAT, InstructionCounter.getInstructionFormat(instruction));
+        assertNull(InstructionCounter.getInstructionFormat(data));
+        assertNotEquals(InstructionStatistics.CATEGORY_NONE, InstructionStatistics.getStatementCategory(instruction));
+        assertEquals(InstructionStatistics.CATEGORY_NONE, InstructionStatistics.getStatementCategory(data));
+    }
+
+    @Test
+    void refusesWhatItCannotRun(@TempDir final Path directory) throws IOException {
+        final var memory = new Memory(CONFIGURATION);
+        final var symbolTable = new SymbolTable();
+        final var object = ElfLoaderTest.write(directory, ElfLoaderTest.createExecutable(ElfFile.ET_REL, 0));
+        assertThrows(IOException.class, () -> ElfLoader.load(object, memory, symbolTable));
+        final var compressed = ElfLoaderTest.write(
+            directory,
+            ElfLoaderTest.createExecutable(ElfFile.ET_EXEC, ElfFile.EF_RISCV_RVC)
+        );
+        assertThrows(IOException.class, () -> ElfLoader.load(compressed, memory, symbolTable));
+        final var contents = ElfLoaderTest.createExecutable(ElfFile.ET_EXEC, 0);
+        final var truncated = ElfLoaderTest.write(directory, Arrays.copyOf(contents, contents.length - 8));
+        assertThrows(IOException.class, () -> ElfLoader.load(truncated, memory, symbolTable));
+    }
+}
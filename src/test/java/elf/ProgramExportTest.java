@@ -0,0 +1,105 @@
+package elf;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import rars.Globals;
+import rars.api.Program;
+import rars.api.ProgramOptions;
+import rars.riscv.InstructionsRegistry;
+import rars.riscv.hardware.MemoryConfiguration;
+import rars.settings.BoolSetting;
+import rars.simulator.Simulator;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static rars.Globals.BOOL_SETTINGS;
+
+class ProgramExportTest {
+    private static final String SOURCE = """
+        .data
+        answer: .word 42
+        .text
+        .globl main
+        main:
+            la t0, answer
+            lw a0, 0(t0)
+            li a7, 93
+            ecall
+        """;
+
+    private final boolean wasRV64 = InstructionsRegistry.RV64_MODE_FLAG;
+
+    private static ProgramOptions createOptions(final boolean is64) {
+        BOOL_SETTINGS.setSetting(BoolSetting.RV64_ENABLED, is64);
+        InstructionsRegistry.RV64_MODE_FLAG = is64;
+        final var options = new ProgramOptions();
+        options.isRV64 = is64;
+        options.maxSteps = 1000;
+        options.memoryConfiguration = MemoryConfiguration.DEFAULT;
+        return options;
+    }
+
+    @AfterEach
+    void restoreMode() {
+        BOOL_SETTINGS.setSetting(BoolSetting.RV64_ENABLED, this.wasRV64);
+        InstructionsRegistry.RV64_MODE_FLAG = this.wasRV64;
+    }
+
+    @Test
+    void exportedElfRunsLikeTheAssembledProgram(@TempDir final Path directory) throws Exception {
+        for (final var is64 : new boolean[]{false, true}) {
+            final var file = directory.resolve(is64 ? "program64.elf" : "program32.elf").toFile();
+            final var assembled = new Program(ProgramExportTest.createOptions(is64));
+            assembled.assembleString(SOURCE);
+            assembled.writeElf(file);
+
+            final var loaded = new Program(ProgramExportTest.createOptions(is64));
+            final var result = loaded.loadElf(file);
+            assertEquals(MemoryConfiguration.DEFAULT.textBaseAddress, result.entry());
+            final var data = MemoryConfiguration.DEFAULT.dataBaseAddress;
+            assertEquals(data, Globals.GLOBAL_SYMBOL_TABLE.getAddress("answer"));
+            assertEquals(MemoryConfiguration.DEFAULT.textBaseAddress, Globals.GLOBAL_SYMBOL_TABLE.getAddress("main"));
+
+            loaded.setup(List.of(), "");
+            assertEquals(Simulator.Reason.NORMAL_TERMINATION, loaded.simulate());
+            assertEquals(42, loaded.getExitCode(), is64 ? "RV64" : "RV32");
+            assertEquals(42, loaded.getMemory().getWord(data));
+        }
+    }
+
+    @Test
+    void flatBinaryHoldsTheSegmentsOneAfterTheOther(@TempDir final Path directory) throws Exception {
+        final var program = new Program(ProgramExportTest.createOptions(false));
+        program.assembleString(SOURCE);
+        final var binary = directory.resolve("program.bin");
+        final var map = directory.resolve("program.bin.map.json");
+        program.writeFlatBinary(binary.toFile(), map.toFile());
+
+        final var text = program.getMachineList();
+        final var contents = ByteBuffer.wrap(Files.readAllBytes(binary)).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(4 * (text.size() + 1), contents.capacity());
+        for (final var statement : text) {
+            assertEquals(statement.getBinaryStatement(), contents.getInt());
+        }
+        assertEquals(42, contents.getInt());
+
+        final var json = Files.readString(map);
+        final var textBase = Integer.toString(MemoryConfiguration.DEFAULT.textBaseAddress);
+        final var dataBase = Integer.toString(MemoryConfiguration.DEFAULT.dataBaseAddress);
+        assertTrue(json.contains("\"entry\": " + textBase + ","), json);
+        assertTrue(json.contains("{\"name\": \".text\", \"address\": " + textBase + ", \"offset\": 0, \"size\": "
+            + 4 * text.size() + ","), json);
+        assertTrue(json.contains("{\"name\": \".data\", \"address\": " + dataBase + ", \"offset\": "
+            + 4 * text.size() + ", \"size\": 4, \"memory_size\": 4096, \"executable\": false}"), json);
+        assertTrue(json.contains("{\"name\": \"main\", \"address\": " + textBase
+            + ", \"segment\": \".text\", \"global\": true}"), json);
+        assertTrue(json.contains("{\"name\": \"answer\", \"address\": " + dataBase
+            + ", \"segment\": \".data\", \"global\": false}"), json);
+    }
+}
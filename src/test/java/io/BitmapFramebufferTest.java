@@ -0,0 +1,106 @@
+package io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import rars.Globals;
+import rars.api.Program;
+import rars.api.ProgramOptions;
+import rars.exceptions.AddressErrorException;
+import rars.io.BitmapFrameRecorder;
+import rars.riscv.hardware.Memory;
+import rars.riscv.hardware.MemoryConfiguration;
+import rars.simulator.Simulator;
+import rars.util.BitmapFramebuffer;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitmapFramebufferTest {
+    private static final MemoryConfiguration CONFIGURATION = MemoryConfiguration.DEFAULT;
+
+    /// Fills a 4x4 bitmap at the start of the heap one row at a time, showing it after each row.
+    private static final String ROWS = """
+        main:
+            li a0, 0x10040000
+            li a1, 4
+            li a2, 4
+            li a7, 61
+            ecall
+            li t0, 0x10040000
+            li t1, 0x10040040
+            li t2, 0x00ff00
+        row:
+            sw t2, 0(t0)
+            sw t2, 4(t0)
+            sw t2, 8(t0)
+            sw t2, 12(t0)
+            li t3, 1000
+        delay:
+            addi t3, t3, -1
+            bnez t3, delay
+            addi t0, t0, 16
+            blt t0, t1, row
+            li a7, 10
+            ecall
+        """;
+
+    @Test
+    void bulkReadMatchesWordReads() throws AddressErrorException {
+        final var memory = new Memory(CONFIGURATION);
+        // the end of an allocated block followed by one that was never written
+        final var blockEnd = CONFIGURATION.heapBaseAddress + 4096;
+        memory.setWord(blockEnd - 8, 1);
+        memory.setWord(blockEnd - 4, 2);
+        final var words = new int[6];
+        memory.getWordsNoNotify(blockEnd - 8, words, 1, 4);
+        assertArrayEquals(new int[]{0, 1, 2, 0, 0, 0}, words);
+    }
+
+    @Test
+    void refreshReportsTheChangedRectangle() throws AddressErrorException {
+        final var memory = new Memory(CONFIGURATION);
+        final var base = CONFIGURATION.heapBaseAddress;
+        final var framebuffer = new BitmapFramebuffer(memory, base, 8, 4);
+        assertNull(framebuffer.refresh());
+
+        // row 1 of memory is row 2 of the image, which is drawn bottom up
+        memory.setWord(base + (8 + 2) * 4, 0xff0000);
+        memory.setWord(base + (8 + 5) * 4, 0x0000ff);
+        memory.setWord(base + (3 * 8 + 3) * 4, 0x00ff00);
+        assertEquals(new Rectangle(2, 0, 4, 3), framebuffer.refresh());
+        assertEquals(0xff0000, framebuffer.getImage().getRGB(2, 2) & 0xffffff);
+        assertEquals(0x00ff00, framebuffer.getImage().getRGB(3, 0) & 0xffffff);
+        assertNull(framebuffer.refresh());
+
+        memory.setWord(base + 7 * 4, 1);
+        assertEquals(new Rectangle(7, 3, 1, 1), framebuffer.refresh());
+    }
+
+    @Test
+    void recorderWritesAFramePerChange(@TempDir final Path directory) throws Exception {
+        final var options = new ProgramOptions();
+        options.maxSteps = 100_000;
+        options.memoryConfiguration = CONFIGURATION;
+        final var program = new Program(options);
+        program.assembleString(ROWS);
+        program.setup(List.of(), "");
+        final var recorder = new BitmapFrameRecorder(Globals.DEVICE_BUS, program.getMemory(), directory, 500);
+        program.setBitmapFrameRecorder(recorder);
+        assertEquals(Simulator.Reason.NORMAL_TERMINATION, program.simulate());
+        recorder.close();
+
+        // the empty bitmap, then one frame per row
+        assertEquals(5, recorder.getFrameCount());
+        for (var frame = 0; frame < 5; frame++) {
+            final var image = ImageIO.read(directory.resolve("frame-%05d.png".formatted(frame)).toFile());
+            for (var row = 0; row < 4; row++) {
+                final var expected = row < frame ? 0x00ff00 : 0;
+                assertEquals(expected, image.getRGB(1, 3 - row) & 0xffffff, "frame " + frame + ", row " + row);
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package io;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import rars.Globals;
+import rars.api.Program;
+import rars.api.ProgramOptions;
+import rars.exceptions.AddressErrorException;
+import rars.exceptions.AssemblyException;
+import rars.exceptions.SimulationException;
+import rars.io.MmioConsole;
+import rars.riscv.hardware.MemoryConfiguration;
+import rars.simulator.Simulator;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MmioConsoleTest {
+    /// Copies the input to the display by polling the ready bits, until it reads a '.'.
+    private static final String POLLING_ECHO = """
+        main:
+            li t0, 0xffff0000
+        receive:
+            lw t1, 0(t0)
+            andi t1, t1, 1
+            beqz t1, receive
+            lw t2, 4(t0)
+        transmit:
+            lw t1, 8(t0)
+            andi t1, t1, 1
+            beqz t1, transmit
+            sw t2, 12(t0)
+            li t1, '.'
+            bne t2, t1, receive
+            li a7, 10
+            ecall
+        """;
+
+    /// Same in upper case, but waiting for keyboard interrupts; enabling them happens after the first key arrives.
+    private static final String INTERRUPT_ECHO = """
+        main:
+            la t0, handler
+            csrrw zero, utvec, t0
+            li t0, 0xffff0000
+            li t1, 2
+            sw t1, 0(t0)
+            csrrsi zero, ustatus, 1
+            li t1, 0x100
+            csrrs zero, uie, t1
+        wait:
+            wfi
+            j wait
+        handler:
+            li t0, 0xffff0000
+            lw t2, 4(t0)
+            li t3, 'a'
+            blt t2, t3, transmit
+            addi t2, t2, -32
+        transmit:
+            lw t3, 8(t0)
+            andi t3, t3, 1
+            beqz t3, transmit
+            sw t2, 12(t0)
+            li t3, '.'
+            bne t2, t3, done
+            li a7, 10
+            ecall
+        done:
+            uret
+        """;
+
+    private static @NotNull String run(final @NotNull String source, final @NotNull String input, final int delay)
+        throws AssemblyException, SimulationException, AddressErrorException, IOException {
+        final var options = new ProgramOptions();
+        options.maxSteps = 100_000;
+        options.memoryConfiguration = MemoryConfiguration.DEFAULT;
+        final var program = new Program(options);
+        program.assembleString(source);
+        program.setup(List.of(), "");
+        final var output = new ByteArrayOutputStream();
+        final var console = new MmioConsole(
+            Globals.DEVICE_BUS,
+            MemoryConfiguration.DEFAULT.memoryMapBaseAddress,
+            new ByteArrayInputStream(input.getBytes(StandardCharsets.US_ASCII)),
+            output,
+            delay
+        );
+        console.attach();
+        try {
+            assertEquals(Simulator.Reason.NORMAL_TERMINATION, program.simulate());
+        } finally {
+            console.close();
+        }
+        return output.toString(StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    void pollingProgramEchoesTheInput() throws Exception {
+        assertEquals("abc.", run(POLLING_ECHO, "abc.def", 1));
+        assertEquals("abc.", run(POLLING_ECHO, "abc.def", 100));
+    }
+
+    @Test
+    void interruptDrivenProgramEchoesTheInput() throws Exception {
+        assertEquals("ABC.", run(INTERRUPT_ECHO, "abc.def", 1));
+        assertEquals("ABC.", run(INTERRUPT_ECHO, "abc.def", 100));
+    }
+}
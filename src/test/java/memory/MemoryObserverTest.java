@@ -0,0 +1,109 @@
+package memory;
+
+import org.junit.jupiter.api.Test;
+import rars.exceptions.AddressErrorException;
+import rars.notices.MemoryAccessNotice;
+import rars.riscv.hardware.Memory;
+import rars.riscv.hardware.MemoryConfiguration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MemoryObserverTest {
+    private static final MemoryConfiguration CONFIGURATION = MemoryConfiguration.DEFAULT;
+
+    @Test
+    void notifiesOnlyObserversOfTheAccessedAddress() throws AddressErrorException {
+        final var memory = new Memory(CONFIGURATION);
+        final var data = CONFIGURATION.dataBaseAddress;
+        final var word = new ArrayList<Integer>();
+        final var page = new ArrayList<Integer>();
+        memory.subscribe(notice -> word.add(notice.address), data + 8);
+        memory.subscribe(notice -> page.add(notice.address), data, data + 0xffc);
+        memory.setWord(data, 1);
+        memory.set(data + 10, 2, 1);
+        memory.setWord(data + 0x1000, 3);
+        assertEquals(List.of(data + 10), word);
+        assertEquals(List.of(data, data + 10), page);
+    }
+
+    @Test
+    void notifiesObserversOfLargeRanges() throws AddressErrorException {
+        final var memory = new Memory(CONFIGURATION);
+        final var all = new ArrayList<Integer>();
+        final var stack = new ArrayList<Integer>();
+        memory.subscribe(notice -> all.add(notice.address));
+        final var stackTop = CONFIGURATION.stackPointerAddress;
+        memory.subscribe(notice -> stack.add(notice.address), stackTop - 0x400000, stackTop);
+        memory.setWord(CONFIGURATION.dataBaseAddress, 1);
+        memory.setWord(stackTop - 4, 2);
+        memory.getWord(CONFIGURATION.memoryMapBaseAddress);
+        assertEquals(
+            List.of(CONFIGURATION.dataBaseAddress, stackTop - 4, CONFIGURATION.memoryMapBaseAddress),
+            all
+        );
+        assertEquals(List.of(stackTop - 4), stack);
+    }
+
+    @Test
+    void stopsNotifyingDeletedSubscribers() throws AddressErrorException {
+        final var memory = new Memory(CONFIGURATION);
+        final var data = CONFIGURATION.dataBaseAddress;
+        final var notices = new ArrayList<MemoryAccessNotice>();
+        final Consumer<MemoryAccessNotice> listener = notices::add;
+        memory.subscribe(listener, data, data + 0x10000);
+        memory.subscribe(listener);
+        memory.setWord(data, 1);
+        assertEquals(2, notices.size());
+        memory.deleteSubscriber(listener);
+        memory.setWord(data, 2);
+        assertEquals(2, notices.size());
+        assertTrue(notices.stream().allMatch(notice -> notice.address == data));
+    }
+
+    @Test
+    void allowsDeletingSubscribersWhileNotifying() throws AddressErrorException {
+        final var memory = new Memory(CONFIGURATION);
+        final var data = CONFIGURATION.dataBaseAddress;
+        final var notices = new ArrayList<Integer>();
+        final Consumer<MemoryAccessNotice> other = notice -> notices.add(-notice.address);
+        final Consumer<MemoryAccessNotice> first = new Consumer<>() {
+            @Override
+            public void accept(final MemoryAccessNotice notice) {
+                notices.add(notice.address);
+                memory.deleteSubscriber(this);
+                memory.deleteSubscriber(other);
+            }
+        };
+        memory.subscribe(first, data, data + 0xc);
+        memory.subscribe(other, data, data + 0xc);
+        memory.setWord(data, 1);
+        memory.setWord(data + 4, 2);
+        assertEquals(List.of(data), notices);
+    }
+
+    @Test
+    void pageGenerationsChangeOnlyWhenThePageIsWritten() throws AddressErrorException {
+        final var memory = new Memory(CONFIGURATION);
+        final var data = CONFIGURATION.dataBaseAddress;
+        final var page = memory.getPageGeneration(data);
+        final var nextPage = memory.getPageGeneration(data + Memory.PAGE_SIZE);
+        memory.getWord(data);
+        assertEquals(page, memory.getPageGeneration(data));
+        memory.setWord(data + 8, 1);
+        final var written = memory.getPageGeneration(data);
+        assertNotEquals(page, written);
+        assertEquals(nextPage, memory.getPageGeneration(data + Memory.PAGE_SIZE));
+        memory.setByte(data + Memory.PAGE_SIZE, 2);
+        assertEquals(written, memory.getPageGeneration(data));
+        assertNotEquals(nextPage, memory.getPageGeneration(data + Memory.PAGE_SIZE));
+        final var beforeReset = memory.getPageGeneration(data + 2 * Memory.PAGE_SIZE);
+        memory.reset();
+        assertNotEquals(beforeReset, memory.getPageGeneration(data + 2 * Memory.PAGE_SIZE));
+    }
+}
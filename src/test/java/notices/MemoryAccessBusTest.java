@@ -0,0 +1,108 @@
+package notices;
+
+import org.junit.jupiter.api.Test;
+import rars.notices.AccessNotice;
+import rars.notices.MemoryAccessBatch;
+import rars.notices.MemoryAccessBus;
+import rars.util.ListenerDispatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MemoryAccessBusTest {
+    /// Only the simulator thread publishes, so the accesses are made from a thread named like it.
+    private static void onSimulatorThread(final Runnable action) throws InterruptedException {
+        final var thread = new Thread(action, "RISCV test");
+        thread.start();
+        thread.join();
+    }
+
+    @Test
+    void deliversAccessesInRangeInOrder() throws InterruptedException {
+        final var bus = new MemoryAccessBus(64);
+        final var subscription = bus.subscribe(0x1000, 0x100c);
+        onSimulatorThread(() -> {
+            bus.publish(AccessNotice.AccessType.WRITE, 0x1000, 4, 1);
+            bus.publish(AccessNotice.AccessType.READ, 0x2000, 4, 2);
+            bus.publish(AccessNotice.AccessType.READ, 0x100f, 1, 3);
+        });
+        final var batch = new MemoryAccessBatch(16);
+        assertEquals(2, subscription.poll(batch));
+        assertEquals(AccessNotice.AccessType.WRITE, batch.accessType(0));
+        assertEquals(0x1000, batch.address(0));
+        assertEquals(1, batch.value(0));
+        assertEquals(AccessNotice.AccessType.READ, batch.accessType(1));
+        assertEquals(0x100f, batch.address(1));
+        assertEquals(1, batch.length(1));
+        assertTrue(batch.toNotice(1).isAccessFromRISCV);
+        assertEquals(0, subscription.poll(batch));
+    }
+
+    @Test
+    void ignoresAccessesFromOtherThreads() {
+        final var bus = new MemoryAccessBus(64);
+        final var subscription = bus.subscribe(0, 0x7ffffffc);
+        bus.publish(AccessNotice.AccessType.WRITE, 0x1000, 4, 1);
+        assertEquals(0, subscription.poll(new MemoryAccessBatch(16)));
+    }
+
+    @Test
+    void skipsAheadWhenOverrun() throws InterruptedException {
+        final var bus = new MemoryAccessBus(64);
+        final var subscription = bus.subscribe(0, 0x7ffffffc);
+        onSimulatorThread(() -> {
+            for (var i = 0; i < 100; i++) {
+                bus.publish(AccessNotice.AccessType.READ, 4 * i, 4, i);
+            }
+        });
+        final var batch = new MemoryAccessBatch(16);
+        final var values = new ArrayList<Integer>();
+        while (subscription.poll(batch) > 0) {
+            for (var i = 0; i < batch.size(); i++) {
+                values.add(batch.value(i));
+            }
+        }
+        // the oldest slot may be in the middle of being overwritten, so one less than the capacity is kept
+        assertEquals(37, subscription.getLostCount());
+        assertEquals(63, values.size());
+        assertEquals(37, values.getFirst());
+        assertEquals(99, values.getLast());
+    }
+
+    @Test
+    void stopsRecordingWithoutSubscriptions() {
+        final var bus = new MemoryAccessBus(64);
+        final var subscription = bus.subscribe(0, 0x7ffffffc);
+        assertTrue(bus.isActive());
+        bus.unsubscribe(subscription);
+        assertFalse(bus.isActive());
+    }
+
+    @Test
+    void dispatcherAllowsUnsubscribingDuringDispatch() {
+        final var dispatcher = new ListenerDispatcher<Integer>();
+        final var hook = dispatcher.getHook();
+        final var received = new ArrayList<Integer>();
+        final Consumer<Integer> second = received::add;
+        final Consumer<Integer> first = new Consumer<>() {
+            @Override
+            public void accept(final Integer value) {
+                received.add(-value);
+                hook.unsubscribe(this);
+                hook.unsubscribe(second);
+            }
+        };
+        hook.subscribe(first);
+        hook.subscribe(second);
+        assertTrue(dispatcher.hasListeners());
+        dispatcher.dispatch(1);
+        dispatcher.dispatch(2);
+        assertEquals(List.of(-1), received);
+        assertFalse(dispatcher.hasListeners());
+    }
+}
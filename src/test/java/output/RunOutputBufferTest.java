@@ -0,0 +1,82 @@
+package output;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import rars.util.RunOutputBuffer;
+import rars.util.RunOutputBuffer.Position;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunOutputBufferTest {
+    private static final int CHUNK = RunOutputBuffer.CHUNK_LINES;
+
+    private static void printLines(final RunOutputBuffer buffer, final int from, final int to) {
+        final var text = new StringBuilder();
+        for (var i = from; i < to; i++) {
+            text.append("line ").append(i).append('\n');
+        }
+        buffer.append(text);
+    }
+
+    @Test
+    void splitsTextIntoLines() {
+        final var buffer = new RunOutputBuffer(100, 1000);
+        buffer.append("one\ntw");
+        buffer.append("o\n\nthree");
+        assertEquals(4, buffer.getLineCount());
+        assertEquals("two", buffer.getLine(1));
+        assertEquals("", buffer.getLine(2));
+        assertEquals("three", buffer.getLine(3));
+        assertEquals("wo\n\nth", buffer.getText(new Position(1, 1), new Position(3, 2)));
+    }
+
+    @Test
+    void dropsWholeChunksPastTheLimit() {
+        final var buffer = new RunOutputBuffer(CHUNK, Long.MAX_VALUE);
+        RunOutputBufferTest.printLines(buffer, 0, 2 * CHUNK - 1);
+        assertEquals(0, buffer.getFirstLine());
+
+        RunOutputBufferTest.printLines(buffer, 2 * CHUNK - 1, 2 * CHUNK);
+        assertEquals(CHUNK, buffer.getFirstLine());
+        assertEquals(2 * CHUNK + 1, buffer.getLineCount());
+        assertEquals("line " + CHUNK, buffer.getLine(CHUNK));
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.getLine(CHUNK - 1));
+    }
+
+    @Test
+    void writesDroppedLinesToTheSpillFile(@TempDir final Path directory) throws IOException {
+        final var buffer = new RunOutputBuffer(1, 10 * CHUNK);
+        final var spillFile = directory.resolve("spill.txt");
+        buffer.setSpillFile(spillFile);
+        RunOutputBufferTest.printLines(buffer, 0, 3 * CHUNK);
+        buffer.close();
+
+        final var spilled = Files.readAllLines(spillFile);
+        assertEquals(buffer.getFirstLine(), spilled.size());
+        assertEquals("line 0", spilled.getFirst());
+        assertEquals("line " + (spilled.size() - 1), spilled.getLast());
+        assertEquals("line " + spilled.size(), buffer.getLine(buffer.getFirstLine()));
+    }
+
+    @Test
+    void breaksUpOverlongLines() {
+        final var buffer = new RunOutputBuffer(100, Long.MAX_VALUE);
+        buffer.append("x".repeat(RunOutputBuffer.MAXIMUM_LINE_LENGTH + 5));
+        assertEquals(2, buffer.getLineCount());
+        assertEquals(RunOutputBuffer.MAXIMUM_LINE_LENGTH, buffer.getLine(0).length());
+        assertEquals(5, buffer.getLine(1).length());
+    }
+
+    @Test
+    void findsTextAndWrapsAround() {
+        final var buffer = new RunOutputBuffer(100, 1000);
+        buffer.append("Result: 1\nnothing\nresult: 2\n");
+        assertEquals(new Position(2, 0), buffer.find("RESULT", new Position(0, 1)));
+        assertEquals(new Position(0, 0), buffer.find("result", new Position(2, 1)));
+        assertNull(buffer.find("missing", new Position(0, 0)));
+    }
+}
@@ -0,0 +1,115 @@
+package timing;
+
+import org.junit.jupiter.api.Test;
+import rars.cache.CacheHierarchyConfiguration;
+import rars.timing.InstructionBatch;
+import rars.timing.InstructionStream;
+import rars.timing.PipelineConfiguration;
+import rars.timing.PipelineModel;
+import rars.timing.StallCause;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PipelineModelTest {
+    private static final int ADDI_T0_ZERO_1 = 0x00100293;
+    private static final int LW_T1_0_T0 = 0x0002a303;
+    private static final int ADD_T2_T1_T1 = 0x006303b3;
+    private static final int DIV_S0_T2_T2 = 0x0273c433;
+    private static final int BEQ_ZERO_ZERO_0 = 0x00000063;
+    private static final int BEQ_ZERO_ZERO_4 = 0x00000263;
+
+    private static void run(final PipelineModel model, final int... instructions) {
+        var pc = 0x00400000;
+        for (final var instruction : instructions) {
+            final var nextPc = instruction == BEQ_ZERO_ZERO_0 ? pc : pc + 4;
+            final var address = (instruction & 0x7f) == 0x03 ? 0x10010000 : 0;
+            model.instructionExecuted(pc, instruction, nextPc, address);
+            pc = nextPc;
+        }
+    }
+
+    private static long totalOfCauses(final PipelineModel model) {
+        return Arrays.stream(StallCause.values()).mapToLong(model::getCycles).sum();
+    }
+
+    @Test
+    void testNoHazards() {
+        final var model = new PipelineModel(PipelineConfiguration.DEFAULT);
+        run(model, ADDI_T0_ZERO_1, ADDI_T0_ZERO_1, ADDI_T0_ZERO_1);
+        assertEquals(3 + 4, model.getCycle());
+        assertEquals(model.getCycle(), totalOfCauses(model));
+    }
+
+    @Test
+    void testLoadUse() {
+        final var model = new PipelineModel(PipelineConfiguration.DEFAULT);
+        run(model, ADDI_T0_ZERO_1, LW_T1_0_T0, ADD_T2_T1_T1);
+        assertEquals(1, model.getCycles(StallCause.LOAD_USE));
+        assertEquals(3 + 4 + 1, model.getCycle());
+    }
+
+    @Test
+    void testDividerIsNotPipelined() {
+        final var configuration = PipelineConfiguration.DEFAULT.withLatencies("div=10");
+        final var model = new PipelineModel(configuration);
+        run(model, DIV_S0_T2_T2, DIV_S0_T2_T2);
+        assertEquals(10 - 1, model.getCycles(StallCause.STRUCTURAL));
+        assertEquals(model.getCycle(), totalOfCauses(model));
+    }
+
+    @Test
+    void testMispredictedBranch() {
+        final var model = new PipelineModel(PipelineConfiguration.DEFAULT);
+        run(model, BEQ_ZERO_ZERO_0, ADDI_T0_ZERO_1);
+        assertEquals(2, model.getCycles(StallCause.BRANCH_MISPREDICTION));
+        assertEquals(2 + 4 + 2, model.getCycle());
+    }
+
+    @Test
+    void testBranchToNextInstructionCostsNothing() {
+        final var model = new PipelineModel(PipelineConfiguration.DEFAULT);
+        run(model, BEQ_ZERO_ZERO_4, ADDI_T0_ZERO_1);
+        assertEquals(0, model.getCycles(StallCause.BRANCH_MISPREDICTION));
+        assertEquals(2 + 4, model.getCycle());
+    }
+
+    @Test
+    void testCacheMisses() {
+        final var configuration = PipelineConfiguration.DEFAULT
+            .withLatencies("l1=1,memory=50")
+            .withCache(CacheHierarchyConfiguration.parse("1K:16:1"));
+        final var model = new PipelineModel(configuration);
+        run(model, LW_T1_0_T0, LW_T1_0_T0);
+        // the first load misses, the second one hits
+        assertEquals(50 - 1, model.getCycles(StallCause.MEMORY));
+        assertEquals(model.getCycle(), totalOfCauses(model));
+    }
+
+    @Test
+    void testStreamMatchesDirectModel() {
+        final var direct = new PipelineModel(PipelineConfiguration.DEFAULT);
+        final var streamed = new PipelineModel(PipelineConfiguration.DEFAULT);
+        final int[] program = {ADDI_T0_ZERO_1, LW_T1_0_T0, ADD_T2_T1_T1, DIV_S0_T2_T2, BEQ_ZERO_ZERO_0};
+        try (final var stream = new InstructionStream(streamed, 2)) {
+            for (var i = 0; i < 3 * InstructionBatch.DEFAULT_CAPACITY; i++) {
+                final var instruction = program[i % program.length];
+                direct.instructionExecuted(0x00400000, instruction, 0x00400004, 0x10010000);
+                stream.instructionExecuted(0x00400000, instruction, 0x00400004, 0x10010000);
+            }
+        }
+        assertEquals(direct.getInstructions(), streamed.getInstructions());
+        assertEquals(direct.getCycle(), streamed.getCycle());
+    }
+
+    @Test
+    void testParseLatencies() {
+        final var configuration = PipelineConfiguration.DEFAULT.withLatencies("mul=5, l2=12");
+        assertEquals(5, configuration.mulLatency());
+        assertEquals(12, configuration.levelLatency(1));
+        assertThrows(IllegalArgumentException.class, () -> PipelineConfiguration.DEFAULT.withLatencies("mul=0"));
+        assertThrows(IllegalArgumentException.class, () -> PipelineConfiguration.DEFAULT.withLatencies("add=1"));
+    }
+}
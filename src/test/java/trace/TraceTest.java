@@ -0,0 +1,102 @@
+package trace;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import rars.trace.MemoryTracer;
+import rars.trace.TraceBatch;
+import rars.trace.TraceReader;
+import rars.trace.TraceWriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TraceTest {
+    private record Access(int pc, int address, byte type, int size, int value) {
+    }
+
+    /// Records a loop over an array with enough accesses to span several blocks.
+    private static List<Access> record(final TraceWriter writer) {
+        final var expected = new ArrayList<Access>();
+        final var tracer = new MemoryTracer(batch -> {
+            for (var i = 0; i < batch.size(); i++) {
+                expected.add(new Access(
+                    batch.pc(i),
+                    batch.address(i),
+                    batch.type(i),
+                    batch.accessSize(i),
+                    batch.value(i)
+                ));
+            }
+            writer.accept(batch);
+        });
+        for (var i = 0; i < 20_000; i++) {
+            final var pc = 0x00400000 + 4 * (i % 4);
+            tracer.recordFetch(pc, 0x00052283 + i % 4);
+            switch (i % 4) {
+                case 1 -> tracer.recordLoad(0x10010000 + 4 * i, 4, -i);
+                case 2 -> tracer.recordStore(0x10010000 + 4 * i, 1, 0);
+                case 3 -> tracer.recordLoad(0x7fffeffc - 2 * i, 2, i);
+                default -> {
+                }
+            }
+        }
+        tracer.flush();
+        return expected;
+    }
+
+    private static List<Access> readAll(final TraceReader reader) throws IOException {
+        final var actual = new ArrayList<Access>();
+        reader.forEach(batch -> {
+            for (var i = 0; i < batch.size(); i++) {
+                actual.add(new Access(
+                    batch.pc(i),
+                    batch.address(i),
+                    batch.type(i),
+                    batch.accessSize(i),
+                    batch.value(i)
+                ));
+            }
+        });
+        return actual;
+    }
+
+    private static void testRoundTrip(final Path file, final boolean compress) throws IOException {
+        final List<Access> expected;
+        try (final var writer = new TraceWriter(file, compress)) {
+            expected = record(writer);
+        }
+        try (final var reader = new TraceReader(file)) {
+            assertTrue(reader.getBlockCount() > 1);
+            assertEquals(expected, readAll(reader));
+            // blocks decode independently of each other
+            final var last = reader.readBlock(reader.getBlockCount() - 1);
+            final var lastExpected = expected.get(expected.size() - 1);
+            assertEquals(lastExpected.address(), last.address(last.size() - 1));
+            assertEquals(TraceBatch.LOAD, last.type(last.size() - 1));
+        }
+    }
+
+    @Test
+    void testRoundTrip(@TempDir final Path directory) throws IOException {
+        testRoundTrip(directory.resolve("trace.rvt"), false);
+    }
+
+    @Test
+    void testCompressedRoundTrip(@TempDir final Path directory) throws IOException {
+        testRoundTrip(directory.resolve("trace.rvt"), true);
+    }
+
+    @Test
+    void testRejectsOtherFiles(@TempDir final Path directory) throws IOException {
+        final var file = directory.resolve("other.bin");
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        assertThrows(IOException.class, () -> new TraceReader(file));
+    }
+}
@@ -0,0 +1,29 @@
+#stdin:7\ny\n
+#stdout:Value: Value: 7\nSure? [y/n] 
+.globl main
+.data
+prompt: .asciz "Value: "
+question: .asciz "Sure?"
+.text
+main:
+	# Dialog syscalls fall back to the console when there is no GUI
+	la a0, prompt
+	li a7, 51 # InputDialogInt
+	ecall
+	bnez a1, failure
+	mv t0, a0
+	la a0, prompt
+	mv a1, t0
+	li a7, 56 # MessageDialogInt
+	ecall
+	la a0, question
+	li a7, 50 # ConfirmDialog
+	ecall
+	bnez a0, failure
+	li a0, 42
+	li a7, 93
+	ecall
+failure:
+	li a0, 0
+	li a7, 93
+	ecall
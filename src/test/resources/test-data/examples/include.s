@@ -0,0 +1,19 @@
+#stdout:ok
+.eqv EXIT_CODE, 42
+.include "include.inc"
+.globl main
+.text
+main:
+	li t0, -TWO # substitution from the included file
+	addi t0, t0, TWO
+	bnez t0, failure
+	la a0, message
+	li a7, 4
+	ecall
+	li a0, EXIT_CODE
+	li a7, 93
+	ecall
+failure:
+	li a0, 0
+	li a7, 93
+	ecall
@@ -0,0 +1,58 @@
+#stdout:ok
+.eqv STEP, 2
+.macro countdown(%reg, %from)
+	li %reg, %from
+loop:	addi %reg, %reg, -STEP # .eqv and macro-local labels in the body
+	bgtz %reg, loop
+.end_macro
+.macro negate(%reg, %value)
+	li %reg, -%value
+.end_macro
+.macro negate(%reg)
+	sub %reg, zero, %reg
+.end_macro
+.macro check(%reg, %expected)
+	li t6, %expected
+	bne %reg, t6, failure
+.end_macro
+.macro newline_plus(%reg, %n)
+	li %reg, '\n' # character literals in the body
+	addi %reg, %reg, %n
+.end_macro
+.macro words(%n)
+	.word -%n, 'A'
+.end_macro
+.macro print(%label)
+	la a0, %label
+	li a7, 4
+	ecall
+.end_macro
+.globl main
+.text
+main:
+	countdown(t0, 6)
+	check(t0, 0)
+	countdown t1, 7
+	check t1, -1
+	negate(t2, 5)
+	check(t2, -5)
+	negate t2
+	check t2, 5
+	newline_plus(t3, 3)
+	check(t3, 13)
+	la t4, table
+	lw t5, 0(t4)
+	check(t5, -3)
+	lw t5, 4(t4)
+	check(t5, 65)
+	print(message)
+	li a0, 42
+	li a7, 93
+	ecall
+failure:
+	li a0, 0
+	li a7, 93
+	ecall
+.data
+table:	words(3)
+message: .asciz "ok"